@@ -109,7 +109,8 @@ public class Globals implements Serializable {
      * <code>java.util.Locale</code> is stored, if any.  If no such attribute
      * is found, the system default locale will be used when retrieving
      * internationalized messages.  If used, this attribute is typically set
-     * during user login processing.
+     * during user login processing.  Stateless requests store it as a request
+     * attribute instead.
      */
     public static final String LOCALE_KEY = "org.apache.struts.action.LOCALE";
 
@@ -196,6 +197,41 @@ public class Globals implements Serializable {
      */
     public static final String XHTML_KEY = "org.apache.struts.globals.XHTML";
 
+    /**
+     * The request attributes key set while a request is processed without a
+     * session, as configured by the <code>stateless</code> property of the
+     * controller or of the action mapping.  Its value is
+     * <code>Boolean.TRUE</code> if creating a session must fail, and
+     * <code>Boolean.FALSE</code> if it must only be logged.
+     *
+     * @since Struts 1.4
+     */
+    public static final String STATELESS_KEY =
+        "org.apache.struts.action.STATELESS";
+
+    /**
+     * The request attributes key under which the form beans to recycle at
+     * the end of the request are recorded, as a <code>List</code> holding
+     * each <code>FormBeanConfig</code> followed by its instance.  It is only
+     * present while <code>ActionServlet</code> processes a request of a
+     * module that has recycled form beans.
+     *
+     * @since Struts 1.4
+     */
+    public static final String RECYCLED_FORMS_KEY =
+        "org.apache.struts.action.RECYCLED_FORMS";
+
+    /**
+     * The request attributes key present while <code>ActionServlet</code>
+     * processes a request whose session attributes are held by a
+     * <code>SessionStateStore</code>, as configured by its
+     * <code>sessionStateStore</code> initialization parameter.
+     *
+     * @since Struts 1.4
+     */
+    public static final String SESSION_STATE_KEY =
+        "org.apache.struts.action.SESSION_STATE";
+
     /**
      * The request attributes key under which XHTML version is stored.  The 
      * version is stored as a {@link java.math.BigDecimal}. The attribute
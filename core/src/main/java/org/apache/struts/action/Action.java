@@ -582,7 +582,7 @@ public class Action {
      *                the server's default Locale
      */
     protected void setLocale(HttpServletRequest request, Locale locale) {
-        HttpSession session = request.getSession();
+        HttpSession session = RequestUtils.getSession(request, "a Locale");
 
         if (locale == null) {
             locale = Locale.getDefault();
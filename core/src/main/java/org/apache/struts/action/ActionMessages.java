@@ -20,14 +20,19 @@
  */
 package org.apache.struts.action;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * <p>A class that encapsulates messages. Messages can be either global or
@@ -43,6 +48,11 @@ import java.util.List;
  * Therefore, no synchronization is required for access to internal
  * collections.</p>
  *
+ * <p>Since Struts 1.4 the properties are also kept in an array in the order
+ * they were first added, so that reading the messages neither sorts nor
+ * copies them, and an instance is serialized as a flat list of properties
+ * and messages.</p>
+ *
  * @version $Rev$ $Date: 2005-08-26 21:58:39 -0400 (Fri, 26 Aug 2005)
  *          $
  * @since Struts 1.1
@@ -68,6 +78,14 @@ public class ActionMessages implements Serializable {
     public static final String GLOBAL_MESSAGE =
         "org.apache.struts.action.GLOBAL_MESSAGE";
 
+    /**
+     * <p>A shared empty instance, which cannot be modified.  Reading its
+     * messages does not mark it as accessed.</p>
+     *
+     * @since Struts 1.4
+     */
+    public static final ActionMessages EMPTY = new EmptyActionMessages();
+
     // ----------------------------------------------------- Instance Variables
 
     /**
@@ -85,13 +103,24 @@ public class ActionMessages implements Serializable {
      * (represented as an ArrayList) for each property, keyed by property
      * name.</p>
      */
-    protected HashMap messages = new HashMap();
+    protected transient HashMap messages = new HashMap();
 
     /**
      * <p>The current number of the property/key being added. This is used to
      * maintain the order messages are added.</p>
      */
-    protected int iCount = 0;
+    protected transient int iCount = 0;
+
+    /**
+     * <p>The items of <code>messages</code>, in the order their properties
+     * were first added, or <code>null</code> if there are none.</p>
+     */
+    private transient ActionMessageItem[] items = null;
+
+    /**
+     * <p>The number of items in <code>items</code>.</p>
+     */
+    private transient int itemCount = 0;
 
     // --------------------------------------------------------- Public Methods
 
@@ -125,18 +154,28 @@ public class ActionMessages implements Serializable {
      */
     public void add(String property, ActionMessage message) {
         ActionMessageItem item = (ActionMessageItem) messages.get(property);
-        List list;
 
         if (item == null) {
-            list = new ArrayList();
-            item = new ActionMessageItem(list, iCount++, property);
+            orderedItems();
 
+            item = new ActionMessageItem(new ArrayList(2), iCount++, property);
             messages.put(property, item);
-        } else {
-            list = item.getList();
+
+            if ((items == null) || (itemCount == items.length)) {
+                ActionMessageItem[] grown =
+                    new ActionMessageItem[(itemCount == 0) ? 4 : (itemCount * 2)];
+
+                if (itemCount > 0) {
+                    System.arraycopy(items, 0, grown, 0, itemCount);
+                }
+
+                items = grown;
+            }
+
+            items[itemCount++] = item;
         }
 
-        list.add(message);
+        item.getList().add(message);
     }
 
     /**
@@ -179,6 +218,8 @@ public class ActionMessages implements Serializable {
      */
     public void clear() {
         messages.clear();
+        items = null;
+        itemCount = 0;
     }
 
     /**
@@ -203,31 +244,15 @@ public class ActionMessages implements Serializable {
     public Iterator get() {
         this.accessed = true;
 
-        if (messages.isEmpty()) {
-            return Collections.EMPTY_LIST.iterator();
-        }
-
-        ArrayList results = new ArrayList();
-        ArrayList actionItems = new ArrayList();
-
-        for (Iterator i = messages.values().iterator(); i.hasNext();) {
-            actionItems.add(i.next());
-        }
-
-        // Sort ActionMessageItems based on the initial order the
-        // property/key was added to ActionMessages.
-        Collections.sort(actionItems, ACTION_ITEM_COMPARATOR);
+        int count = orderedItems();
 
-        for (Iterator i = actionItems.iterator(); i.hasNext();) {
-            ActionMessageItem ami = (ActionMessageItem) i.next();
-
-            for (Iterator msgsIter = ami.getList().iterator();
-                msgsIter.hasNext();) {
-                results.add(msgsIter.next());
-            }
+        if (count == 0) {
+            return Collections.EMPTY_LIST.iterator();
+        } else if (count == 1) {
+            return items[0].getList().iterator();
         }
 
-        return results.iterator();
+        return new ItemIterator(items, count, false);
     }
 
     /**
@@ -271,28 +296,13 @@ public class ActionMessages implements Serializable {
      * @return An iterator over the property names for which messages exist.
      */
     public Iterator properties() {
-        if (messages.isEmpty()) {
-            return Collections.EMPTY_LIST.iterator();
-        }
-
-        ArrayList results = new ArrayList();
-        ArrayList actionItems = new ArrayList();
-
-        for (Iterator i = messages.values().iterator(); i.hasNext();) {
-            actionItems.add(i.next());
-        }
-
-        // Sort ActionMessageItems based on the initial order the
-        // property/key was added to ActionMessages.
-        Collections.sort(actionItems, ACTION_ITEM_COMPARATOR);
-
-        for (Iterator i = actionItems.iterator(); i.hasNext();) {
-            ActionMessageItem ami = (ActionMessageItem) i.next();
+        int count = orderedItems();
 
-            results.add(ami.getProperty());
+        if (count == 0) {
+            return Collections.EMPTY_LIST.iterator();
         }
 
-        return results.iterator();
+        return new ItemIterator(items, count, true);
     }
 
     /**
@@ -305,11 +315,10 @@ public class ActionMessages implements Serializable {
      */
     public int size() {
         int total = 0;
+        int count = orderedItems();
 
-        for (Iterator i = messages.values().iterator(); i.hasNext();) {
-            ActionMessageItem ami = (ActionMessageItem) i.next();
-
-            total += ami.getList().size();
+        for (int i = 0; i < count; i++) {
+            total += items[i].getList().size();
         }
 
         return (total);
@@ -339,6 +348,155 @@ public class ActionMessages implements Serializable {
         return this.messages.toString();
     }
 
+    /**
+     * <p>Return the number of items in <code>items</code>, after rebuilding
+     * it if <code>messages</code> was modified directly by a subclass.</p>
+     */
+    private int orderedItems() {
+        if (itemCount == messages.size()) {
+            return itemCount;
+        }
+
+        ActionMessageItem[] ordered = new ActionMessageItem[messages.size()];
+
+        messages.values().toArray(ordered);
+
+        // Sort ActionMessageItems based on the initial order the
+        // property/key was added to ActionMessages.
+        Arrays.sort(ordered, ACTION_ITEM_COMPARATOR);
+
+        items = ordered;
+        itemCount = ordered.length;
+
+        return itemCount;
+    }
+
+    /**
+     * <p>Write the messages as the number of properties, followed by each
+     * property with its number of messages and its messages.</p>
+     */
+    private void writeObject(ObjectOutputStream out)
+        throws IOException {
+        out.defaultWriteObject();
+
+        int count = orderedItems();
+
+        out.writeInt(count);
+
+        for (int i = 0; i < count; i++) {
+            List list = items[i].getList();
+
+            out.writeObject(items[i].getProperty());
+            out.writeInt(list.size());
+
+            for (int j = 0; j < list.size(); j++) {
+                out.writeObject(list.get(j));
+            }
+        }
+    }
+
+    /**
+     * <p>Read messages written by <code>writeObject</code>.</p>
+     */
+    private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        messages = new HashMap();
+
+        int count = in.readInt();
+
+        for (int i = 0; i < count; i++) {
+            String property = (String) in.readObject();
+            int size = in.readInt();
+
+            for (int j = 0; j < size; j++) {
+                add(property, (ActionMessage) in.readObject());
+            }
+        }
+    }
+
+    /**
+     * <p>Iterates over the messages or the properties of items, in
+     * order.</p>
+     */
+    private static class ItemIterator implements Iterator {
+        private final ActionMessageItem[] items;
+        private final int count;
+        private final boolean properties;
+        private int index = 0;
+        private Iterator messages = null;
+
+        ItemIterator(ActionMessageItem[] items, int count, boolean properties) {
+            this.items = items;
+            this.count = count;
+            this.properties = properties;
+        }
+
+        public boolean hasNext() {
+            if (properties) {
+                return (index < count);
+            }
+
+            while ((messages == null) || !messages.hasNext()) {
+                if (index == count) {
+                    return false;
+                }
+
+                messages = items[index++].getList().iterator();
+            }
+
+            return true;
+        }
+
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (properties) {
+                return items[index++].getProperty();
+            }
+
+            return messages.next();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * <p>The implementation of <code>EMPTY</code>.</p>
+     */
+    private static class EmptyActionMessages extends ActionMessages {
+        public void add(String property, ActionMessage message) {
+            throw new UnsupportedOperationException(
+                "Cannot add messages to ActionMessages.EMPTY");
+        }
+
+        public void add(ActionMessages actionMessages) {
+            if ((actionMessages != null) && !actionMessages.isEmpty()) {
+                throw new UnsupportedOperationException(
+                    "Cannot add messages to ActionMessages.EMPTY");
+            }
+        }
+
+        public void clear() {
+        }
+
+        public Iterator get() {
+            return Collections.EMPTY_LIST.iterator();
+        }
+
+        public Iterator get(String property) {
+            return Collections.EMPTY_LIST.iterator();
+        }
+
+        private Object readResolve() {
+            return EMPTY;
+        }
+    }
+
     /**
      * <p>This class is used to store a set of messages associated with a
      * property/key and the position it was initially added to list.</p>
@@ -23,14 +23,16 @@ package org.apache.struts.action;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.struts.config.ForwardConfig;
+import org.apache.struts.config.RedirectPath;
 import org.apache.struts.util.ResponseUtils;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * <p> A subclass of {@link ActionForward} which is designed for use in
@@ -53,6 +55,10 @@ import java.util.Map;
  * </pre>
  * </p>
  *
+ * <p>Parameters are kept in the order they are added, already encoded in
+ * UTF-8, and the configured path is split for redirects only once per
+ * {@link ForwardConfig} (see {@link ForwardConfig#getRedirectPath}).</p>
+ *
  * @version $Rev$ $Date$
  */
 public class ActionRedirect extends ActionForward {
@@ -74,10 +80,24 @@ public class ActionRedirect extends ActionForward {
 
     /**
      * <p>Holds the redirect parameters. Each entry is either a String or a
-     * String[] depending on whether it has one or more entries.</p>
+     * String[] depending on whether it has one or more entries.  Since
+     * Struts 1.4 this is a view of the parameters, which are stored in
+     * <code>parameters</code>.</p>
      */
     protected Map parameterValues = null;
 
+    /**
+     * <p>The names and encoded values of the parameters, alternating, in
+     * the order they were added.</p>
+     */
+    private String[] parameters = null;
+
+    /**
+     * <p>The number of elements used in <code>parameters</code>, twice the
+     * number of parameters.</p>
+     */
+    private int parameterCount = 0;
+
     /**
      * <p>Holds the anchor value.</p>
      */
@@ -134,6 +154,7 @@ public class ActionRedirect extends ActionForward {
         setRedirect(true);
         inheritProperties(baseConfig);
         initializeParameters();
+        redirectPath = baseConfig.getRedirectPath();
     }
 
     // ----------------------------------------------------- Private methods
@@ -142,7 +163,99 @@ public class ActionRedirect extends ActionForward {
      * <p>Initializes the internal objects used to hold parameter values.</p>
      */
     private void initializeParameters() {
-        parameterValues = new HashMap();
+        parameterValues = new ParameterMap();
+        parameters = null;
+        parameterCount = 0;
+    }
+
+    /**
+     * <p>Add a parameter whose value is already encoded.</p>
+     */
+    private void appendParameter(String name, String value) {
+        if (parameters == null) {
+            parameters = new String[8];
+        } else if (parameterCount == parameters.length) {
+            String[] grown = new String[parameterCount * 2];
+
+            System.arraycopy(parameters, 0, grown, 0, parameterCount);
+            parameters = grown;
+        }
+
+        parameters[parameterCount++] = name;
+        parameters[parameterCount++] = value;
+    }
+
+    /**
+     * <p>Remove all values of a parameter.</p>
+     *
+     * @return The number of values removed
+     */
+    private int removeParameter(String name) {
+        int kept = 0;
+
+        for (int i = 0; i < parameterCount; i += 2) {
+            if (!sameName(name, parameters[i])) {
+                parameters[kept++] = parameters[i];
+                parameters[kept++] = parameters[i + 1];
+            }
+        }
+
+        int removed = (parameterCount - kept) / 2;
+
+        while (parameterCount > kept) {
+            parameters[--parameterCount] = null;
+        }
+
+        return removed;
+    }
+
+    /**
+     * <p>Return the values of a parameter as stored in
+     * <code>parameterValues</code>.</p>
+     *
+     * @return A String, a String[], or <code>null</code>
+     */
+    private Object getParameterValue(String name) {
+        Object result = null;
+        List values = null;
+
+        for (int i = 0; i < parameterCount; i += 2) {
+            if (!sameName(name, parameters[i])) {
+                continue;
+            }
+
+            if (result == null) {
+                result = parameters[i + 1];
+            } else {
+                if (values == null) {
+                    values = new ArrayList();
+                    values.add(result);
+                }
+
+                values.add(parameters[i + 1]);
+            }
+        }
+
+        if (values != null) {
+            result = values.toArray(new String[values.size()]);
+        }
+
+        return result;
+    }
+
+    private static boolean sameName(String name, String other) {
+        return (name == null) ? (other == null) : name.equals(other);
+    }
+
+    /**
+     * <p>Encode a value for a query string in UTF-8, as
+     * <code>java.net.URLEncoder</code> does.</p>
+     *
+     * @param value The value to encode, or <code>null</code>
+     * @return The encoded value
+     */
+    static String encode(String value) {
+        return (value == null) ? null : ResponseUtils.encodeURL(value);
     }
 
     // ----------------------------------------------------- Public methods
@@ -162,36 +275,8 @@ public class ActionRedirect extends ActionForward {
             initializeParameters();
         }
 
-        //try {
-        value = ResponseUtils.encodeURL(value);
-
-        //} catch (UnsupportedEncodingException uce) {
-        // this shouldn't happen since UTF-8 is the W3C Recommendation
-        //     String errorMsg = "UTF-8 Character Encoding not supported";
-        //     LOG.error(errorMsg, uce);
-        //     throw new RuntimeException(errorMsg, uce);
-        // }
-        Object currentValue = parameterValues.get(fieldName);
-
-        if (currentValue == null) {
-            // there's no value for this param yet; add it to the map
-            parameterValues.put(fieldName, value);
-        } else if (currentValue instanceof String) {
-            // there's already a value; let's use an array for these parameters
-            String[] newValue = new String[2];
-
-            newValue[0] = (String) currentValue;
-            newValue[1] = value;
-            parameterValues.put(fieldName, newValue);
-        } else if (currentValue instanceof String[]) {
-            // add the value to the list of existing values
-            List newValues =
-                new ArrayList(Arrays.asList((Object[]) currentValue));
-
-            newValues.add(value);
-            parameterValues.put(fieldName,
-                newValues.toArray(new String[newValues.size()]));
-        }
+        appendParameter(fieldName, encode(value));
+
         return this;
     }
 
@@ -208,7 +293,7 @@ public class ActionRedirect extends ActionForward {
      * @return The ActionRefirect instance this method is called on
      */
     public ActionRedirect setAnchor(String anchorValue) {
-        this.anchorValue = ResponseUtils.encodeURL(anchorValue);
+        this.anchorValue = encode(anchorValue);
         return this;
     }
 
@@ -228,43 +313,30 @@ public class ActionRedirect extends ActionForward {
      * @return The path for this object.
      */
     public String getPath() {
-        // get the original path and the parameter string that was formed
-        String originalPath = getOriginalPath();
-        String parameterString = getParameterString();
-        String anchorString = getAnchorString();
-
-        StringBuffer result = new StringBuffer(originalPath);
-
-        if ((parameterString != null) && (parameterString.length() > 0)) {
-            // the parameter separator we're going to use
-            String paramSeparator = "?";
-
-            // true if we need to use a parameter separator after originalPath
-            boolean needsParamSeparator = true;
+        RedirectPath redirectPath = getRedirectPath();
+        String anchor = anchorValue;
 
-            // does the original path already have a "?"?
-            int paramStartIndex = originalPath.indexOf("?");
+        if (anchor == null) {
+            anchor = redirectPath.getAnchor();
+        }
 
-            if (paramStartIndex > 0) {
-                // did the path end with "?"?
-                needsParamSeparator = (paramStartIndex != (originalPath.length()
-                    - 1));
+        if ((parameterCount == 0) && (anchor == redirectPath.getAnchor())) {
+            return redirectPath.getPath();
+        }
 
-                if (needsParamSeparator) {
-                    paramSeparator = "&";
-                }
-            }
+        StringBuffer result = new StringBuffer(DEFAULT_BUFFER_SIZE);
 
-            if (needsParamSeparator) {
-                result.append(paramSeparator);
-            }
+        result.append(redirectPath.getBase());
 
-            result.append(parameterString);
+        if (parameterCount > 0) {
+            result.append(redirectPath.getSeparator());
+            appendParameters(result);
         }
 
-        // append anchor string (or blank if none was set)
-        result.append(anchorString);
-
+        if (anchor != null) {
+            result.append('#');
+            result.append(anchor);
+        }
 
         return result.toString();
     }
@@ -295,38 +367,22 @@ public class ActionRedirect extends ActionForward {
     public String getParameterString() {
         StringBuffer strParam = new StringBuffer(DEFAULT_BUFFER_SIZE);
 
-        // loop through all parameters
-        Iterator iterator = parameterValues.keySet().iterator();
-
-        while (iterator.hasNext()) {
-            // get the parameter name
-            String paramName = (String) iterator.next();
-
-            // get the value for this parameter
-            Object value = parameterValues.get(paramName);
+        appendParameters(strParam);
 
-            if (value instanceof String) {
-                // just one value for this param
-                strParam.append(paramName).append("=").append(value);
-            } else if (value instanceof String[]) {
-                // loop through all values for this param
-                String[] values = (String[]) value;
-
-                for (int i = 0; i < values.length; i++) {
-                    strParam.append(paramName).append("=").append(values[i]);
+        return strParam.toString();
+    }
 
-                    if (i < (values.length - 1)) {
-                        strParam.append("&");
-                    }
-                }
+    /**
+     * <p>Append the parameters to a buffer, in the order they were added.</p>
+     */
+    private void appendParameters(StringBuffer buffer) {
+        for (int i = 0; i < parameterCount; i += 2) {
+            if (i > 0) {
+                buffer.append('&');
             }
 
-            if (iterator.hasNext()) {
-                strParam.append("&");
-            }
+            buffer.append(parameters[i]).append('=').append(parameters[i + 1]);
         }
-
-        return strParam.toString();
     }
 
     // ----------------------------------------------------- toString()
@@ -347,4 +403,72 @@ public class ActionRedirect extends ActionForward {
 
         return result.toString();
     }
+
+    // ----------------------------------------------------- Inner classes
+
+    /**
+     * <p>The implementation of <code>parameterValues</code>, a view of the
+     * parameters grouped by name.</p>
+     */
+    private class ParameterMap extends AbstractMap {
+        public Object get(Object key) {
+            return getParameterValue((String) key);
+        }
+
+        public boolean containsKey(Object key) {
+            return getParameterValue((String) key) != null;
+        }
+
+        /**
+         * <p>Replace the values of a parameter with an encoded String or
+         * String[].</p>
+         */
+        public Object put(Object key, Object value) {
+            String name = (String) key;
+            Object previous = getParameterValue(name);
+
+            removeParameter(name);
+
+            if (value instanceof String[]) {
+                String[] values = (String[]) value;
+
+                for (int i = 0; i < values.length; i++) {
+                    appendParameter(name, values[i]);
+                }
+            } else if (value != null) {
+                appendParameter(name, value.toString());
+            }
+
+            return previous;
+        }
+
+        public Object remove(Object key) {
+            Object previous = getParameterValue((String) key);
+
+            removeParameter((String) key);
+
+            return previous;
+        }
+
+        public void clear() {
+            parameters = null;
+            parameterCount = 0;
+        }
+
+        /**
+         * <p>Return a snapshot of the parameters, grouped by name in the
+         * order each name was first added.</p>
+         */
+        public Set entrySet() {
+            Map grouped = new LinkedHashMap();
+
+            for (int i = 0; i < parameterCount; i += 2) {
+                if (!grouped.containsKey(parameters[i])) {
+                    grouped.put(parameters[i], getParameterValue(parameters[i]));
+                }
+            }
+
+            return grouped.entrySet();
+        }
+    }
 }
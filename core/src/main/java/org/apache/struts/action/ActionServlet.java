@@ -67,8 +67,10 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.MalformedURLException;
@@ -167,7 +169,9 @@ import java.util.*;
  * Context-relative path(s) to the XML resource(s) containing the
  * configuration information for the module that will use the specified prefix
  * (/${module}). This can be repeated as many times as required for multiple
- * modules. (Since Struts 1.1)</li>
+ * modules. (Since Struts 1.1)  Either parameter may instead name a single
+ * configuration compiled by <code>ModuleConfigCompiler</code>, ending with
+ * <code>.ser</code>. (Since Struts 1.4)</li>
  *
  * <li><strong>configFactory</strong> - The Java class name of the
  * <code>ModuleConfigFactory</code> used to create the implementation of the
@@ -193,6 +197,35 @@ import java.util.*;
  * definitions from.  If none specified, the default Struts catalog that is
  * provided with Struts will be used.</li>
  *
+ * <li><strong>configThreads</strong> - Number of threads parsing the
+ * configuration files of the modules other than the default one
+ * concurrently at startup, each with its own <code>Digester</code>.  They
+ * are parsed once the default module and its plug-ins are initialized, and
+ * before the plug-ins of any of them run.  Set it above 1 only if no
+ * plug-in changes how the configurations of later modules are parsed.
+ * (Since Struts 1.4) [1]</li>
+ *
+ * <li><strong>configCache</strong> - Keep a serialized copy of each parsed
+ * module configuration, reused on restart as long as its configuration
+ * files are unchanged. (Since Struts 1.4) [false]</li>
+ *
+ * <li><strong>configCacheDir</strong> - Directory of the module
+ * configuration cache. (Since Struts 1.4) [the temporary directory of the
+ * web application]</li>
+ *
+ * <li><strong>sessionStateStore</strong> - The Java class name of a
+ * {@link SessionStateStore} implementation holding the session attributes
+ * managed by Struts instead of the container session: session-scoped form
+ * beans, the <code>Locale</code>, the transaction token and the messages
+ * saved in the session.  Other attributes stay in the container session.
+ * Stored attributes are written back whole once a request completes, so
+ * the last of concurrent requests changing the same attribute wins.
+ * Stored attributes are only visible to requests processed by this
+ * servlet, and to the pages they forward to or include: JSPs requested
+ * directly, other servlets and filters do not see the stored
+ * <code>Locale</code>, form beans or messages.
+ * (Since Struts 1.4) [none]</li>
+ *
  * </ul>
  *
  * @version $Rev$ $Date: 2005-10-14 19:54:16 -0400 (Fri, 14 Oct 2005)
@@ -282,6 +315,55 @@ public class ActionServlet extends HttpServlet {
      */
     protected String servletName = null;
 
+    /**
+     * <p>The request processors of the modules, keyed by module prefix.
+     * Never modified once published: changes replace the whole map, so
+     * that requests look processors up without locking.</p>
+     */
+    private volatile Map processors = new HashMap();
+
+    /**
+     * <p>Serializes the creation and replacement of request
+     * processors.</p>
+     */
+    private final Object processorsLock = new Object();
+
+    /**
+     * <p>The cache of parsed module configurations, or <code>null</code> if
+     * disabled.  Only used during initialization.</p>
+     */
+    private ModuleConfigCache configCache = null;
+
+    /**
+     * <p>The DTD registrations resolved to URLs, as public identifier and URL
+     * pairs, or <code>null</code> until first needed.</p>
+     */
+    private String[] resolvedRegistrations = null;
+
+    /**
+     * <p>Whether any module has a form bean whose instances are
+     * recycled.</p>
+     */
+    private boolean recycleForms = false;
+
+    /**
+     * <p>The store holding session attributes, or <code>null</code> if they
+     * are held by the container session.</p>
+     */
+    private SessionStateStore sessionStateStore = null;
+
+    /**
+     * <p>The encoding of the attributes held by
+     * <code>sessionStateStore</code>.</p>
+     */
+    private SessionStateCodec sessionStateCodec = null;
+
+    /**
+     * <p>The names of the session attributes held by
+     * <code>sessionStateStore</code>.</p>
+     */
+    private Set sessionStateNames = null;
+
     // ---------------------------------------------------- HttpServlet Methods
 
     /**
@@ -295,6 +377,12 @@ public class ActionServlet extends HttpServlet {
 
         destroyModules();
         destroyInternal();
+
+        if (sessionStateStore != null) {
+            sessionStateStore.destroy();
+            sessionStateStore = null;
+        }
+
         getServletContext().removeAttribute(Globals.ACTION_SERVLET_KEY);
 
         CatalogFactory.clear();
@@ -349,17 +437,14 @@ public class ActionServlet extends HttpServlet {
             getServletContext().setAttribute(Globals.ACTION_SERVLET_KEY, this);
             initModuleConfigFactory();
 
-            // Initialize modules as needed
-            ModuleConfig moduleConfig = initModuleConfig("", config);
+            initModuleConfigCache();
 
-            initModuleMessageResources(moduleConfig);
-            initModulePlugIns(moduleConfig);
-            initModuleFormBeans(moduleConfig);
-            initModuleForwards(moduleConfig);
-            initModuleExceptionConfigs(moduleConfig);
-            initModuleActions(moduleConfig);
-            postProcessConfig(moduleConfig);
-            moduleConfig.freeze();
+            // Collect the modules to initialize, the default module first
+            List prefixes = new ArrayList();
+            List paths = new ArrayList();
+
+            prefixes.add("");
+            paths.add(config);
 
             Enumeration names = getServletConfig().getInitParameterNames();
 
@@ -370,11 +455,26 @@ public class ActionServlet extends HttpServlet {
                     continue;
                 }
 
-                String prefix = name.substring(configPrefixLength);
+                prefixes.add(name.substring(configPrefixLength));
+                paths.add(getServletConfig().getInitParameter(name));
+            }
+
+            ModuleConfig[] parsed = null;
+
+            // Initialize modules as needed
+            for (int i = 0; i < prefixes.size(); i++) {
+                ModuleConfig moduleConfig;
+
+                if (parsed == null) {
+                    moduleConfig =
+                        initModuleConfig((String) prefixes.get(i),
+                            (String) paths.get(i));
+                } else {
+                    moduleConfig = parsed[i - 1];
+                    getServletContext().setAttribute(Globals.MODULE_KEY
+                        + moduleConfig.getPrefix(), moduleConfig);
+                }
 
-                moduleConfig =
-                    initModuleConfig(prefix,
-                        getServletConfig().getInitParameter(name));
                 initModuleMessageResources(moduleConfig);
                 initModulePlugIns(moduleConfig);
                 initModuleFormBeans(moduleConfig);
@@ -383,11 +483,22 @@ public class ActionServlet extends HttpServlet {
                 initModuleActions(moduleConfig);
                 postProcessConfig(moduleConfig);
                 moduleConfig.freeze();
+                getRequestProcessor(moduleConfig);
+
+                // Once the default module is initialized, parse the
+                // configurations of the others concurrently if enabled
+                if (i == 0) {
+                    parsed =
+                        parseModuleConfigs(prefixes.subList(1,
+                                prefixes.size()), paths.subList(1, paths.size()));
+                }
             }
 
             this.initModulePrefixes(this.getServletContext());
+            initSessionStateStore();
 
             this.destroyConfigDigester();
+            configCache = null;
         } catch (UnavailableException ex) {
             throw ex;
         } catch (Throwable t) {
@@ -527,8 +638,10 @@ public class ActionServlet extends HttpServlet {
 
             ModuleConfig config = (ModuleConfig) value;
 
-            if (this.getProcessorForModule(config) != null) {
-                this.getProcessorForModule(config).destroy();
+            RequestProcessor processor = replaceRequestProcessor(config, null);
+
+            if (processor != null) {
+                processor.destroy();
             }
 
             getServletContext().removeAttribute(name);
@@ -590,7 +703,8 @@ public class ActionServlet extends HttpServlet {
 
     /**
      * <p>Look up and return the {@link RequestProcessor} responsible for the
-     * specified module, creating a new one if necessary.</p>
+     * specified module, creating a new one if necessary.  Processors are
+     * created for every module when this servlet is initialized.</p>
      *
      * @param config The module configuration for which to acquire and return
      *               a RequestProcessor.
@@ -602,42 +716,103 @@ public class ActionServlet extends HttpServlet {
      *                          and will not be available.
      * @since Struts 1.1
      */
-    protected synchronized RequestProcessor getRequestProcessor(
-        ModuleConfig config) throws ServletException {
+    protected RequestProcessor getRequestProcessor(ModuleConfig config)
+        throws ServletException {
         RequestProcessor processor = this.getProcessorForModule(config);
 
-        if (processor == null) {
-            try {
-                processor =
-                    (RequestProcessor) RequestUtils.applicationInstance(config.getControllerConfig()
-                                                                              .getProcessorClass());
-            } catch (Exception e) {
-            	UnavailableException e2 = new UnavailableException(
-                    "Cannot initialize RequestProcessor of class "
-                    + config.getControllerConfig().getProcessorClass());
-                e2.initCause(e);
-                throw e2;
-            }
-            
-            // Emit a warning to the log if the classic RequestProcessor is 
-            // being used without composition. Hopefully developers will 
-            // heed this message and make the upgrade.
-            if (!(processor instanceof ComposableRequestProcessor)) {
-                log.warn("Use of the classic RequestProcessor is not recommended. " +
-                        "Please upgrade to the ComposableRequestProcessor to " +
-                        "receive the advantage of modern enhancements and fixes.");
+        if (processor != null) {
+            return (processor);
+        }
+
+        synchronized (processorsLock) {
+            processor = this.getProcessorForModule(config);
+
+            if (processor == null) {
+                processor = createRequestProcessor(config);
+                replaceRequestProcessor(config, processor);
             }
+        }
+
+        return (processor);
+    }
 
-            processor.init(this, config);
+    /**
+     * <p>Create and initialize a new {@link RequestProcessor} for the
+     * specified module.  The processor is not registered; see {@link
+     * #replaceRequestProcessor}.</p>
+     *
+     * @param config The module configuration.
+     * @return The new, initialized, <code>RequestProcessor</code>.
+     * @throws ServletException If we cannot instantiate a RequestProcessor
+     *                          instance a {@link UnavailableException} is
+     *                          thrown.
+     * @since Struts 1.4
+     */
+    protected RequestProcessor createRequestProcessor(ModuleConfig config)
+        throws ServletException {
+        RequestProcessor processor;
 
-            String key = Globals.REQUEST_PROCESSOR_KEY + config.getPrefix();
+        try {
+            processor =
+                (RequestProcessor) RequestUtils.applicationInstance(config.getControllerConfig()
+                                                                          .getProcessorClass());
+        } catch (Exception e) {
+            UnavailableException e2 = new UnavailableException(
+                "Cannot initialize RequestProcessor of class "
+                + config.getControllerConfig().getProcessorClass());
+            e2.initCause(e);
+            throw e2;
+        }
 
-            getServletContext().setAttribute(key, processor);
+        // Emit a warning to the log if the classic RequestProcessor is 
+        // being used without composition. Hopefully developers will 
+        // heed this message and make the upgrade.
+        if (!(processor instanceof ComposableRequestProcessor)) {
+            log.warn("Use of the classic RequestProcessor is not recommended. " +
+                    "Please upgrade to the ComposableRequestProcessor to " +
+                    "receive the advantage of modern enhancements and fixes.");
         }
 
+        processor.init(this, config);
+
         return (processor);
     }
 
+    /**
+     * <p>Atomically make <code>processor</code> the {@link RequestProcessor}
+     * of the specified module.  Requests already dispatched to the previous
+     * processor complete with it; the caller decides whether and when to
+     * destroy it.</p>
+     *
+     * @param config    The module configuration.
+     * @param processor The new processor, already initialized, or
+     *                  <code>null</code> to unregister the current one.
+     * @return The previous processor of the module, or <code>null</code>.
+     * @since Struts 1.4
+     */
+    protected RequestProcessor replaceRequestProcessor(ModuleConfig config,
+        RequestProcessor processor) {
+        String key = Globals.REQUEST_PROCESSOR_KEY + config.getPrefix();
+        RequestProcessor previous;
+
+        synchronized (processorsLock) {
+            Map copy = new HashMap(processors);
+
+            if (processor == null) {
+                previous = (RequestProcessor) copy.remove(config.getPrefix());
+                getServletContext().removeAttribute(key);
+            } else {
+                previous =
+                    (RequestProcessor) copy.put(config.getPrefix(), processor);
+                getServletContext().setAttribute(key, processor);
+            }
+
+            processors = copy;
+        }
+
+        return (previous);
+    }
+
     /**
      * <p>Returns the RequestProcessor for the given module or null if one
      * does not exist.  This method will not create a RequestProcessor.</p>
@@ -647,9 +822,7 @@ public class ActionServlet extends HttpServlet {
      *         <code>null</code> if one does not exist.
      */
     private RequestProcessor getProcessorForModule(ModuleConfig config) {
-        String key = Globals.REQUEST_PROCESSOR_KEY + config.getPrefix();
-
-        return (RequestProcessor) getServletContext().getAttribute(key);
+        return (RequestProcessor) processors.get(config.getPrefix());
     }
 
     /**
@@ -685,13 +858,68 @@ public class ActionServlet extends HttpServlet {
         }
 
         // Parse the configuration for this module
+        ModuleConfig config = loadModuleConfig(prefix, paths, false);
+
+        getServletContext().setAttribute(Globals.MODULE_KEY
+            + config.getPrefix(), config);
+
+        return config;
+    }
+
+    /**
+     * <p>Parse the configuration of a module, or load it from the
+     * configuration cache if its files did not change.  A configuration
+     * compiled by {@link org.apache.struts.config.ModuleConfigCompiler} is
+     * loaded directly.</p>
+     *
+     * @param prefix      Module prefix for this module
+     * @param paths       Comma-separated list of context-relative resource
+     *                    path(s) for this modules's configuration
+     *                    resource(s)
+     * @param ownDigester Whether to parse with a new Digester rather than
+     *                    the shared one
+     * @return The new module configuration instance.
+     * @throws ServletException if initialization cannot be performed
+     */
+    private ModuleConfig loadModuleConfig(String prefix, String paths,
+        boolean ownDigester)
+        throws ServletException {
+        List urls = splitAndResolvePaths(paths);
         ModuleConfigFactory factoryObject = ModuleConfigFactory.createFactory();
+
+        // Load a compiled configuration as is
+        if ((urls.size() == 1)
+            && ModuleConfigFactory.isCompiled((URL) urls.get(0))) {
+            URL url = (URL) urls.get(0);
+
+            try {
+                return factoryObject.loadModuleConfig(prefix, url);
+            } catch (IOException e) {
+                handleConfigException(url.toString(), e);
+            }
+        }
+
+        ModuleConfigCache cache = configCache;
+        String key = null;
+
+        if (cache != null) {
+            key = cache.computeKey(prefix, urls);
+
+            if (key != null) {
+                ModuleConfig cached = cache.load(prefix, key);
+
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
         ModuleConfig config = factoryObject.createModuleConfig(prefix);
 
         // Configure the Digester instance we will use
-        Digester digester = initConfigDigester();
+        Digester digester =
+            ownDigester ? createConfigDigester() : initConfigDigester();
 
-        List urls = splitAndResolvePaths(paths);
         URL url;
 
         for (Iterator i = urls.iterator(); i.hasNext();) {
@@ -700,12 +928,270 @@ public class ActionServlet extends HttpServlet {
             this.parseModuleConfigFile(digester, url);
         }
 
-        getServletContext().setAttribute(Globals.MODULE_KEY
-            + config.getPrefix(), config);
+        if (key != null) {
+            cache.store(prefix, key, config);
+        }
 
         return config;
     }
 
+    /**
+     * <p>Parse the configurations of several modules concurrently, each
+     * worker thread using its own Digester.  The number of threads is set
+     * by the <code>configThreads</code> initialization parameter, and
+     * defaults to 1.</p>
+     *
+     * <p>Modules are parsed one after another, by {@link #initModuleConfig},
+     * when there is a single module or thread, or when a subclass overrides
+     * <code>initModuleConfig</code>, <code>initConfigDigester</code>,
+     * <code>parseModuleConfigFile</code> or
+     * <code>splitAndResolvePaths</code>.</p>
+     *
+     * @param prefixes The module prefixes
+     * @param paths    The configuration resource paths of each module
+     * @return The module configurations, in the order of the prefixes, or
+     *         <code>null</code> if they must be parsed one after another.
+     * @throws ServletException if a configuration cannot be parsed
+     * @since Struts 1.4
+     */
+    protected ModuleConfig[] parseModuleConfigs(List prefixes, List paths)
+        throws ServletException {
+        final int count = prefixes.size();
+        int threads = 1;
+        String value = getServletConfig().getInitParameter("configThreads");
+
+        if (value != null) {
+            try {
+                threads = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid configThreads value '" + value + "'");
+            }
+        }
+
+        threads = Math.min(threads, count);
+
+        if ((threads < 2) || isConfigParsingOverridden()) {
+            return null;
+        }
+
+        final String[] prefixArray =
+            (String[]) prefixes.toArray(new String[count]);
+        final String[] pathArray = (String[]) paths.toArray(new String[count]);
+        final ModuleConfig[] results = new ModuleConfig[count];
+        final Throwable[] failures = new Throwable[count];
+        final int[] next = new int[1];
+        final ClassLoader loader =
+            Thread.currentThread().getContextClassLoader();
+
+        Runnable worker =
+            new Runnable() {
+                public void run() {
+                    Thread.currentThread().setContextClassLoader(loader);
+
+                    while (true) {
+                        int i;
+
+                        synchronized (next) {
+                            i = next[0]++;
+                        }
+
+                        if (i >= count) {
+                            return;
+                        }
+
+                        try {
+                            results[i] =
+                                loadModuleConfig(prefixArray[i], pathArray[i],
+                                    true);
+                        } catch (Throwable t) {
+                            failures[i] = t;
+                        }
+                    }
+                }
+            };
+
+        if (log.isDebugEnabled()) {
+            log.debug("Parsing " + count + " module configurations with "
+                + threads + " threads");
+        }
+
+        Thread[] workers = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(worker, "Struts config parser " + i);
+            workers[i].start();
+        }
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                workers[i].join();
+            }
+        } catch (InterruptedException e) {
+            throw new UnavailableException("Interrupted while parsing "
+                + "module configurations");
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (failures[i] instanceof ServletException) {
+                throw (ServletException) failures[i];
+            } else if (failures[i] instanceof Error) {
+                throw (Error) failures[i];
+            } else if (failures[i] != null) {
+                throw (RuntimeException) failures[i];
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * <p>Return <code>true</code> if a subclass changes how module
+     * configurations are parsed, in which case they are parsed one after
+     * another with the shared Digester.</p>
+     */
+    private boolean isConfigParsingOverridden() {
+        for (Class c = getClass(); c != ActionServlet.class;
+            c = c.getSuperclass()) {
+            Method[] methods = c.getDeclaredMethods();
+
+            for (int i = 0; i < methods.length; i++) {
+                String name = methods[i].getName();
+
+                if (name.equals("initModuleConfig")
+                    || name.equals("initConfigDigester")
+                    || name.equals("parseModuleConfigFile")
+                    || name.equals("splitAndResolvePaths")) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * <p>Enable the cache of parsed module configurations if the
+     * <code>configCache</code> initialization parameter is true.  Cached
+     * configurations are stored in the directory named by the
+     * <code>configCacheDir</code> initialization parameter, or else in the
+     * temporary directory of the web application.</p>
+     *
+     * @since Struts 1.4
+     */
+    protected void initModuleConfigCache() {
+        String value = getServletConfig().getInitParameter("configCache");
+
+        if (!"true".equalsIgnoreCase(value)) {
+            return;
+        }
+
+        File directory = null;
+        String dir = getServletConfig().getInitParameter("configCacheDir");
+
+        if (dir != null) {
+            directory = new File(dir);
+        } else {
+            Object tempdir =
+                getServletContext().getAttribute("javax.servlet.context.tempdir");
+
+            if (tempdir instanceof File) {
+                directory = (File) tempdir;
+            }
+        }
+
+        if ((directory == null) || !(directory.isDirectory()
+            || directory.mkdirs())) {
+            log.warn("No directory for the module configuration cache, "
+                + "cache disabled");
+
+            return;
+        }
+
+        StringBuffer settings = new StringBuffer();
+
+        settings.append(getClass().getName()).append(';');
+        settings.append(ModuleConfigFactory.createFactory().getClass().getName());
+        settings.append(';').append(isValidating());
+        settings.append(';').append(getServletConfig().getInitParameter("rulesets"));
+
+        configCache = new ModuleConfigCache(directory, settings.toString());
+    }
+
+    /**
+     * <p>Create and initialize the store of session attributes named by
+     * the <code>sessionStateStore</code> initialization parameter, if
+     * any.</p>
+     *
+     * @throws ServletException if the store cannot be created or
+     *                          initialized
+     * @since Struts 1.4
+     */
+    protected void initSessionStateStore()
+        throws ServletException {
+        String className =
+            getServletConfig().getInitParameter("sessionStateStore");
+
+        if (className == null) {
+            return;
+        }
+
+        SessionStateStore store;
+
+        try {
+            store =
+                (SessionStateStore) RequestUtils.applicationInstance(className);
+        } catch (Exception e) {
+            String msg = "Cannot create session state store " + className;
+
+            log.error(msg, e);
+            throw new UnavailableException(msg + ": " + e);
+        }
+
+        store.init(this);
+
+        // The attributes managed by Struts: session-scoped form beans of
+        // every module, the Locale, the token and saved messages
+        Set names = new HashSet();
+
+        names.add(Globals.LOCALE_KEY);
+        names.add(Globals.TRANSACTION_TOKEN_KEY);
+        names.add(Globals.MESSAGE_KEY);
+        names.add(Globals.ERROR_KEY);
+
+        String[] prefixes =
+            (String[]) getServletContext().getAttribute(Globals.MODULE_PREFIXES_KEY);
+        List modules = new ArrayList();
+
+        modules.add("");
+
+        if (prefixes != null) {
+            modules.addAll(Arrays.asList(prefixes));
+        }
+
+        for (Iterator i = modules.iterator(); i.hasNext();) {
+            ModuleConfig moduleConfig =
+                (ModuleConfig) getServletContext().getAttribute(Globals.MODULE_KEY
+                    + i.next());
+
+            if (moduleConfig == null) {
+                continue;
+            }
+
+            ActionConfig[] actionConfigs = moduleConfig.findActionConfigs();
+
+            for (int j = 0; j < actionConfigs.length; j++) {
+                if ((actionConfigs[j].getName() != null)
+                    && "session".equals(actionConfigs[j].getScope())) {
+                    names.add(actionConfigs[j].getAttribute());
+                }
+            }
+        }
+
+        sessionStateNames = Collections.unmodifiableSet(names);
+        sessionStateCodec = new SessionStateCodec(this);
+        sessionStateStore = store;
+    }
+
     /**
      * <p>Parses one module config file.</p>
      *
@@ -953,6 +1439,14 @@ public class ActionServlet extends HttpServlet {
                 formBean.getDynaActionFormClass();
             }
         }
+
+        formBeans = config.findFormBeanConfigs();
+
+        for (int i = 0; i < formBeans.length; i++) {
+            if (formBeans[i].isRecycle()) {
+                recycleForms = true;
+            }
+        }
     }
 
     /**
@@ -1601,34 +2095,74 @@ public class ActionServlet extends HttpServlet {
             return (configDigester);
         }
 
+        configDigester = createConfigDigester();
+
+        // Return the completely configured Digester instance
+        return (configDigester);
+    }
+
+    /**
+     * <p>Create a new <code>Digester</code> configured to process Struts
+     * module configuration files.</p>
+     *
+     * @return A new configured <code>Digester</code> instance.
+     * @throws ServletException if a Digester cannot be configured
+     */
+    private Digester createConfigDigester()
+        throws ServletException {
         // Create a new Digester instance with standard capabilities
-        configDigester = new Digester();
-        configDigester.setNamespaceAware(true);
-        configDigester.setValidating(this.isValidating());
-        configDigester.setUseContextClassLoader(true);
-        configDigester.addRuleSet(new ConfigRuleSet());
+        Digester digester = new Digester();
 
-        for (int i = 0; i < registrations.length; i += 2) {
-            URL url = this.getClass().getResource(registrations[i + 1]);
+        digester.setNamespaceAware(true);
+        digester.setValidating(this.isValidating());
+        digester.setUseContextClassLoader(true);
+        digester.addRuleSet(new ConfigRuleSet());
 
-            if (url != null) {
-                configDigester.register(registrations[i], url.toString());
-            }
+        String[] dtds = resolveRegistrations();
+
+        for (int i = 0; i < dtds.length; i += 2) {
+            digester.register(dtds[i], dtds[i + 1]);
         }
 
-        this.addRuleSets();
+        this.addRuleSets(digester);
 
-        // Return the completely configured Digester instance
-        return (configDigester);
+        return (digester);
     }
 
     /**
-     * <p>Add any custom RuleSet instances to configDigester that have been
+     * <p>Return the DTD registrations whose resource is found, resolved to
+     * URLs once.</p>
+     *
+     * @return Public identifier and URL pairs
+     */
+    private synchronized String[] resolveRegistrations() {
+        if (resolvedRegistrations == null) {
+            ArrayList resolved = new ArrayList();
+
+            for (int i = 0; i < registrations.length; i += 2) {
+                URL url = this.getClass().getResource(registrations[i + 1]);
+
+                if (url != null) {
+                    resolved.add(registrations[i]);
+                    resolved.add(url.toString());
+                }
+            }
+
+            resolvedRegistrations =
+                (String[]) resolved.toArray(new String[resolved.size()]);
+        }
+
+        return resolvedRegistrations;
+    }
+
+    /**
+     * <p>Add any custom RuleSet instances to a Digester that have been
      * specified in the <code>rulesets</code> init parameter.</p>
      *
+     * @param digester The Digester to add the rule sets to
      * @throws ServletException if an error occurs
      */
-    private void addRuleSets()
+    private void addRuleSets(Digester digester)
         throws ServletException {
         String rulesets = getServletConfig().getInitParameter("rulesets");
 
@@ -1660,7 +2194,7 @@ public class ActionServlet extends HttpServlet {
                 RuleSet instance =
                     (RuleSet) RequestUtils.applicationInstance(ruleset);
 
-                this.configDigester.addRuleSet(instance);
+                digester.addRuleSet(instance);
             } catch (Exception e) {
                 log.error("Exception configuring custom Digester RuleSet", e);
                 throw new ServletException(e);
@@ -1954,17 +2488,54 @@ public class ActionServlet extends HttpServlet {
     protected void process(HttpServletRequest request,
         HttpServletResponse response)
         throws IOException, ServletException {
+        if ((sessionStateStore != null)
+            && (request.getAttribute(Globals.SESSION_STATE_KEY) == null)) {
+            // Hold the session attributes of this request, and of any
+            // request it forwards to or includes, in the store
+            SessionStateRequest stateRequest =
+                new SessionStateRequest(request, sessionStateStore,
+                    sessionStateCodec, sessionStateNames);
+
+            request.setAttribute(Globals.SESSION_STATE_KEY, Boolean.TRUE);
+
+            try {
+                process(stateRequest, response);
+            } finally {
+                request.removeAttribute(Globals.SESSION_STATE_KEY);
+                stateRequest.flush();
+            }
+
+            return;
+        }
+
         ModuleUtils.getInstance().selectModule(request, getServletContext());
 
         ModuleConfig config = getModuleConfig(request);
 
-        RequestProcessor processor = getProcessorForModule(config);
+        RequestProcessor processor = getRequestProcessor(config);
+
+        // Forms are not recycled when the outermost Struts request is
+        // included by another page, which may still render them afterwards
+        if (!recycleForms
+            || (request.getAttribute(Globals.RECYCLED_FORMS_KEY) != null)
+            || RequestUtils.isRequestIncluded(request)) {
+            processor.process(request, response);
 
-        if (processor == null) {
-            processor = getRequestProcessor(config);
+            return;
         }
 
-        processor.process(request, response);
+        // Recycle the form beans of this request, and of any request it
+        // forwards to or includes, once it has been processed
+        List forms = new ArrayList();
+
+        request.setAttribute(Globals.RECYCLED_FORMS_KEY, forms);
+
+        try {
+            processor.process(request, response);
+        } finally {
+            request.removeAttribute(Globals.RECYCLED_FORMS_KEY);
+            RequestUtils.releaseActionForms(request, forms);
+        }
     }
     
     /**
@@ -0,0 +1,57 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+/**
+ * <p>Implemented by form beans that keep track of changes to their state,
+ * so that a form bean kept in session scope is set in the session again
+ * only when it has changed.  Containers replicating sessions, and session
+ * attribute listeners, then only see the requests that actually change
+ * it.</p>
+ *
+ * <p>The <code>RequestProcessor</code> and the chain commands set a form
+ * bean in session scope when they store a new instance, and otherwise only
+ * if it reports changes, when it is looked up at the beginning of a request
+ * and once it has been reset and populated.  Changes are forgotten
+ * whenever they have been checked.  Changes made later in a request, by an
+ * <code>Action</code> for instance, are thus only reported at the beginning
+ * of the next request; an <code>Action</code> that must have them stored
+ * right away should set the form bean in the session itself.  Form beans
+ * that do not implement this interface are set in the session on every
+ * request, as they always were.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+public interface ChangeTrackingForm {
+    /**
+     * <p>Return whether the state of this form bean has changed since
+     * {@link #clearChanged} was last called, or since it was created.</p>
+     *
+     * @return <code>true</code> if the state of this form bean has changed
+     */
+    public boolean isChanged();
+
+    /**
+     * <p>Forget the changes made to this form bean so far.</p>
+     */
+    public void clearChanged();
+}
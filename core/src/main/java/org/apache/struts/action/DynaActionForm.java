@@ -32,10 +32,15 @@ import javax.servlet.http.HttpServletRequest;
 
 import java.lang.reflect.Array;
 
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 /**
@@ -50,6 +55,11 @@ import java.util.StringTokenizer;
  * solution is to subclass <code>DynaActionForm</code> and call the
  * <code>initialize</code> method inside it.</p>
  *
+ * <p>Since Struts 1.4, property values are held in an array, in the slots
+ * assigned to the properties by {@link DynaActionFormClass}, so that
+ * accessing a property costs a single table lookup and creating an instance
+ * copies precomputed initial values.</p>
+ *
  * @version $Rev$ $Date: 2005-11-12 11:52:08 -0500 (Sat, 12 Nov 2005)
  *          $
  * @since Struts 1.1
@@ -65,9 +75,17 @@ public class DynaActionForm extends ActionForm implements DynaBean {
 
     /**
      * <p>The set of property values for this <code>DynaActionForm</code>,
-     * keyed by property name.</p>
+     * keyed by property name.  Since Struts 1.4 this is a live view of the
+     * property values: it holds exactly the properties of the
+     * <code>DynaClass</code>, and rejects any other key.</p>
+     */
+    protected HashMap dynaValues = new ValueMap();
+
+    /**
+     * <p>The property values, in the slots assigned to the properties by
+     * our <code>DynaActionFormClass</code>.</p>
      */
-    protected HashMap dynaValues = new HashMap();
+    private Object[] values = new Object[0];
 
     // ----------------------------------------------------- ActionForm Methods
 
@@ -101,6 +119,12 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      * @param config The configuration for the form bean to initialize.
      */
     public void initialize(FormBeanConfig config) {
+        if ((dynaClass != null) && (dynaClass.getConfig() == config)) {
+            initializeValues();
+
+            return;
+        }
+
         FormPropertyConfig[] props = config.findFormPropertyConfigs();
 
         for (int i = 0; i < props.length; i++) {
@@ -179,7 +203,13 @@ public class DynaActionForm extends ActionForm implements DynaBean {
             }
 
             if (reset) {
-                set(props[i].getName(), props[i].initial());
+                int index = dynaClass.indexOf(props[i].getName());
+
+                if ((index >= 0) && (dynaClass.getConfig() == config)) {
+                    values[index] = dynaClass.initialValue(index);
+                } else {
+                    set(props[i].getName(), props[i].initial());
+                }
             }
         }
     }
@@ -201,7 +231,7 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      *                                  specified name
      */
     public boolean contains(String name, String key) {
-        Object value = dynaValues.get(name);
+        Object value = valueOf(name);
 
         if (value == null) {
             throw new NullPointerException("No mapped value for '" + name + "("
@@ -226,14 +256,15 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      */
     public Object get(String name) {
         // Return any non-null value for the specified property
-        Object value = dynaValues.get(name);
+        int index = indexOf(name);
+        Object value = values[index];
 
         if (value != null) {
             return (value);
         }
 
         // Return a null value for a non-primitive property
-        Class type = getDynaProperty(name).getType();
+        Class type = dynaClass.properties[index].getType();
 
         if (type == null) {
             throw new NullPointerException("The type for property " + name
@@ -281,7 +312,7 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      *                                  initialized for this property
      */
     public Object get(String name, int index) {
-        Object value = dynaValues.get(name);
+        Object value = valueOf(name);
 
         if (value == null) {
             throw new NullPointerException("No indexed value for '" + name
@@ -310,7 +341,7 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      *                                  is not mapped
      */
     public Object get(String name, String key) {
-        Object value = dynaValues.get(name);
+        Object value = valueOf(name);
 
         if (value == null) {
             throw new NullPointerException("No mapped value for '" + name + "("
@@ -407,7 +438,7 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      *                                  specified name
      */
     public void remove(String name, String key) {
-        Object value = dynaValues.get(name);
+        Object value = valueOf(name);
 
         if (value == null) {
             throw new NullPointerException("No mapped value for '" + name + "("
@@ -436,7 +467,8 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      *                                  primitive property to null
      */
     public void set(String name, Object value) {
-        DynaProperty descriptor = getDynaProperty(name);
+        int index = indexOf(name);
+        DynaProperty descriptor = dynaClass.properties[index];
 
         if (descriptor.getType() == null) {
             throw new NullPointerException("The type for property " + name
@@ -454,7 +486,7 @@ public class DynaActionForm extends ActionForm implements DynaBean {
                 + "' of type '" + descriptor.getType().getName() + "'");
         }
 
-        dynaValues.put(name, value);
+        values[index] = value;
     }
 
     /**
@@ -474,7 +506,7 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      *                                   range of the underlying property
      */
     public void set(String name, int index, Object value) {
-        Object prop = dynaValues.get(name);
+        Object prop = valueOf(name);
 
         if (prop == null) {
             throw new NullPointerException("No indexed value for '" + name
@@ -505,7 +537,7 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      *                                  is not mapped
      */
     public void set(String name, String key, Object value) {
-        Object prop = dynaValues.get(name);
+        Object prop = valueOf(name);
 
         if (prop == null) {
             throw new NullPointerException("No mapped value for '" + name + "("
@@ -619,6 +651,15 @@ public class DynaActionForm extends ActionForm implements DynaBean {
      */
     void setDynaActionFormClass(DynaActionFormClass dynaClass) {
         this.dynaClass = dynaClass;
+        this.values = new Object[dynaClass.getDynaProperties().length];
+    }
+
+    /**
+     * <p>Set all properties to the initial values specified in the form bean
+     * configuration of our <code>DynaActionFormClass</code>.</p>
+     */
+    void initializeValues() {
+        dynaClass.initialize(values);
     }
 
     // ------------------------------------------------------ Protected Methods
@@ -642,6 +683,38 @@ public class DynaActionForm extends ActionForm implements DynaBean {
         return (descriptor);
     }
 
+    /**
+     * <p>Return the slot index of the specified property.</p>
+     *
+     * @param name Name of the property
+     * @return The slot index of the property
+     * @throws IllegalArgumentException if this is not a valid property name
+     *                                  for our DynaClass
+     */
+    private int indexOf(String name) {
+        int index = dynaClass.indexOf(name);
+
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid property name '" + name
+                + "'");
+        }
+
+        return (index);
+    }
+
+    /**
+     * <p>Return the value of the specified property, or <code>null</code>
+     * if there is no such property.</p>
+     *
+     * @param name Name of the property
+     * @return The value of the property, or <code>null</code>
+     */
+    private Object valueOf(String name) {
+        int index = (dynaClass == null) ? (-1) : dynaClass.indexOf(name);
+
+        return ((index < 0) ? null : values[index]);
+    }
+
     /**
      * <p>Indicates if an object of the source class is assignable to the
      * destination class.</p>
@@ -666,4 +739,221 @@ public class DynaActionForm extends ActionForm implements DynaBean {
             return (false);
         }
     }
+
+    // ---------------------------------------------------------- Inner Classes
+
+    /**
+     * <p>A <code>HashMap</code> whose entries are the property values of
+     * this form, as returned by <code>getMap()</code> and exposed to
+     * subclasses as <code>dynaValues</code>.  The storage inherited from
+     * <code>HashMap</code> is never used, so it is serialized empty, and the
+     * values are serialized with the form.</p>
+     */
+    private class ValueMap extends HashMap {
+        public int size() {
+            return (values.length);
+        }
+
+        public boolean isEmpty() {
+            return (values.length == 0);
+        }
+
+        public boolean containsKey(Object key) {
+            return (slotOf(key) >= 0);
+        }
+
+        public boolean containsValue(Object value) {
+            for (int i = 0; i < values.length; i++) {
+                if ((value == null) ? (values[i] == null)
+                                    : value.equals(values[i])) {
+                    return (true);
+                }
+            }
+
+            return (false);
+        }
+
+        public Object get(Object key) {
+            int index = slotOf(key);
+
+            return ((index < 0) ? null : values[index]);
+        }
+
+        public Object put(Object key, Object value) {
+            int index = slotOf(key);
+
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid property name '"
+                    + key + "'");
+            }
+
+            Object previous = values[index];
+
+            values[index] = value;
+
+            return (previous);
+        }
+
+        public void putAll(Map map) {
+            for (Iterator i = map.entrySet().iterator(); i.hasNext();) {
+                Map.Entry entry = (Map.Entry) i.next();
+
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        public Object remove(Object key) {
+            int index = slotOf(key);
+
+            if (index < 0) {
+                return (null);
+            }
+
+            Object previous = values[index];
+
+            values[index] = null;
+
+            return (previous);
+        }
+
+        public void clear() {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = null;
+            }
+        }
+
+        public Set keySet() {
+            return (new AbstractSet() {
+                    public Iterator iterator() {
+                        return (new SlotIterator(SlotIterator.KEYS));
+                    }
+
+                    public int size() {
+                        return (values.length);
+                    }
+                });
+        }
+
+        public Collection values() {
+            return (new AbstractCollection() {
+                    public Iterator iterator() {
+                        return (new SlotIterator(SlotIterator.VALUES));
+                    }
+
+                    public int size() {
+                        return (values.length);
+                    }
+                });
+        }
+
+        public Set entrySet() {
+            return (new AbstractSet() {
+                    public Iterator iterator() {
+                        return (new SlotIterator(SlotIterator.ENTRIES));
+                    }
+
+                    public int size() {
+                        return (values.length);
+                    }
+                });
+        }
+
+        /**
+         * <p>Return a detached copy of the property values.</p>
+         */
+        public Object clone() {
+            return (new HashMap(this));
+        }
+
+        private int slotOf(Object key) {
+            if ((dynaClass == null) || !(key instanceof String)) {
+                return (-1);
+            }
+
+            return (dynaClass.indexOf((String) key));
+        }
+    }
+
+    /**
+     * <p>Iterates over the keys, values or entries of the property
+     * slots.</p>
+     */
+    private class SlotIterator implements Iterator {
+        static final int KEYS = 0;
+        static final int VALUES = 1;
+        static final int ENTRIES = 2;
+        private final int mode;
+        private int next = 0;
+
+        SlotIterator(int mode) {
+            this.mode = mode;
+        }
+
+        public boolean hasNext() {
+            return (next < values.length);
+        }
+
+        public Object next() {
+            if (next >= values.length) {
+                throw new NoSuchElementException();
+            }
+
+            final int index = next++;
+
+            switch (mode) {
+            case KEYS:
+                return (dynaClass.properties[index].getName());
+
+            case VALUES:
+                return (values[index]);
+
+            default:
+                return (new Map.Entry() {
+                        public Object getKey() {
+                            return (dynaClass.properties[index].getName());
+                        }
+
+                        public Object getValue() {
+                            return (values[index]);
+                        }
+
+                        public Object setValue(Object value) {
+                            Object previous = values[index];
+
+                            values[index] = value;
+
+                            return (previous);
+                        }
+
+                        public boolean equals(Object o) {
+                            if (!(o instanceof Map.Entry)) {
+                                return (false);
+                            }
+
+                            Map.Entry e = (Map.Entry) o;
+                            Object value = getValue();
+
+                            return (getKey().equals(e.getKey())
+                            && ((value == null) ? (e.getValue() == null)
+                                                : value.equals(e.getValue())));
+                        }
+
+                        public int hashCode() {
+                            Object value = getValue();
+
+                            return (getKey().hashCode()
+                            ^ ((value == null) ? 0 : value.hashCode()));
+                        }
+
+                        public String toString() {
+                            return (getKey() + "=" + getValue());
+                        }
+                    });
+            }
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
@@ -23,12 +23,18 @@ package org.apache.struts.action;
 import org.apache.commons.beanutils.DynaBean;
 import org.apache.commons.beanutils.DynaClass;
 import org.apache.commons.beanutils.DynaProperty;
+import org.apache.struts.config.ConfigLookupTable;
 import org.apache.struts.config.FormBeanConfig;
 import org.apache.struts.config.FormPropertyConfig;
 import org.apache.struts.util.RequestUtils;
 
 import java.io.Serializable;
 
+import java.lang.reflect.Array;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
 import java.util.HashMap;
 
 /**
@@ -74,6 +80,45 @@ public class DynaActionFormClass implements DynaClass, Serializable {
      */
     protected HashMap propertiesMap = new HashMap();
 
+    /**
+     * <p>The slot index of each property in the values of
+     * <code>DynaActionForm</code> instances, keyed by property name.  A
+     * property's index is its position in <code>properties</code>.</p>
+     */
+    private ConfigLookupTable indexes = null;
+
+    /**
+     * <p>How the initial value of each property is produced, by index: one
+     * of <code>SHARED</code>, <code>CLONED</code> or <code>CREATED</code>.
+     * Built on first use, and again after deserialization.</p>
+     */
+    private transient volatile byte[] kinds = null;
+
+    /**
+     * <p>The initial value of each property, by index, or the descriptor
+     * creating it for properties whose initial value is
+     * <code>CREATED</code>.  Assigned after <code>kinds</code>, so that
+     * both are visible once it is.</p>
+     */
+    private transient volatile Object[] template = null;
+
+    /**
+     * <p>The initial value is immutable and shared by all instances.</p>
+     */
+    private static final byte SHARED = 0;
+
+    /**
+     * <p>The initial value is an array of immutable elements, copied for
+     * each instance.</p>
+     */
+    private static final byte CLONED = 1;
+
+    /**
+     * <p>The initial value is created for each instance by its
+     * descriptor.</p>
+     */
+    private static final byte CREATED = 2;
+
     // ----------------------------------------------------------- Constructors
 
     /**
@@ -122,7 +167,9 @@ public class DynaActionFormClass implements DynaClass, Serializable {
             throw new IllegalArgumentException("No property name specified");
         }
 
-        return ((DynaProperty) propertiesMap.get(name));
+        int index = indexOf(name);
+
+        return ((index < 0) ? null : properties[index]);
     }
 
     /**
@@ -160,12 +207,7 @@ public class DynaActionFormClass implements DynaClass, Serializable {
         DynaActionForm dynaBean = (DynaActionForm) getBeanClass().newInstance();
 
         dynaBean.setDynaActionFormClass(this);
-
-        FormPropertyConfig[] props = config.findFormPropertyConfigs();
-
-        for (int i = 0; i < props.length; i++) {
-            dynaBean.set(props[i].getName(), props[i].initial());
-        }
+        dynaBean.initializeValues();
 
         return (dynaBean);
     }
@@ -282,7 +324,151 @@ public class DynaActionFormClass implements DynaClass, Serializable {
                     descriptors[i].getTypeClass());
             propertiesMap.put(properties[i].getName(), properties[i]);
         }
+
+        HashMap map = new HashMap();
+
+        for (int i = 0; i < properties.length; i++) {
+            map.put(properties[i].getName(), new Integer(i));
+        }
+
+        indexes = new ConfigLookupTable(map);
+        kinds = null;
+        template = null;
+    }
+
+    // -------------------------------------------------------- Package Methods
+
+    /**
+     * <p>Return the slot index of the specified property in the values of
+     * <code>DynaActionForm</code> instances.</p>
+     *
+     * @param name Name of the property
+     * @return The index, or <code>-1</code> if there is no such property
+     */
+    int indexOf(String name) {
+        Integer index = (Integer) indexes.get(name);
+
+        return ((index == null) ? (-1) : index.intValue());
+    }
+
+    /**
+     * <p>Return the form bean configuration of this class.</p>
+     *
+     * @return The form bean configuration
+     */
+    FormBeanConfig getConfig() {
+        return (config);
+    }
+
+    /**
+     * <p>Store the initial values of all properties, as specified in the
+     * {@link FormPropertyConfig} elements, into the slots of an
+     * instance.</p>
+     *
+     * @param values The slots of the instance
+     */
+    void initialize(Object[] values) {
+        if (template == null) {
+            buildTemplate();
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = initialValue(i);
+        }
+    }
+
+    /**
+     * <p>Return the initial value of the property in the specified slot, as
+     * specified by its {@link FormPropertyConfig}.</p>
+     *
+     * @param index The slot index of the property
+     * @return The initial value, which an instance may modify
+     */
+    Object initialValue(int index) {
+        if (template == null) {
+            buildTemplate();
+        }
+
+        Object value = template[index];
+
+        switch (kinds[index]) {
+        case CLONED:
+
+            int length = Array.getLength(value);
+            Object copy =
+                Array.newInstance(value.getClass().getComponentType(), length);
+
+            System.arraycopy(value, 0, copy, 0, length);
+
+            return (copy);
+
+        case CREATED:
+            return (((FormPropertyConfig) value).initial());
+
+        default:
+            return (value);
+        }
     }
 
     // -------------------------------------------------------- Private Methods
+
+    /**
+     * <p>Compute the initial value of every property once, so that new
+     * instances copy them instead of converting the configured initial
+     * values again.  Values are only shared when they cannot be modified,
+     * and only for descriptors of the standard {@link FormPropertyConfig}
+     * class, whose <code>initial</code> method always returns the same
+     * value.</p>
+     */
+    private void buildTemplate() {
+        FormPropertyConfig[] descriptors = config.findFormPropertyConfigs();
+        byte[] kinds = new byte[properties.length];
+        Object[] template = new Object[properties.length];
+
+        for (int i = 0; i < descriptors.length; i++) {
+            int index = indexOf(descriptors[i].getName());
+
+            if (index < 0) {
+                continue;
+            }
+
+            if (descriptors[i].getClass() != FormPropertyConfig.class) {
+                kinds[index] = CREATED;
+                template[index] = descriptors[i];
+
+                continue;
+            }
+
+            Object value = descriptors[i].initial();
+
+            if ((value == null) || isImmutable(value.getClass())) {
+                kinds[index] = SHARED;
+                template[index] = value;
+            } else if (value.getClass().isArray()
+                && (value.getClass().getComponentType().isPrimitive()
+                || isImmutable(value.getClass().getComponentType()))) {
+                kinds[index] = CLONED;
+                template[index] = value;
+            } else {
+                kinds[index] = CREATED;
+                template[index] = descriptors[i];
+            }
+        }
+
+        this.kinds = kinds;
+        this.template = template;
+    }
+
+    /**
+     * <p>Return whether instances of the specified class cannot be
+     * modified.</p>
+     */
+    private static boolean isImmutable(Class type) {
+        return ((type == String.class) || (type == Boolean.class)
+        || (type == Character.class) || (type == Byte.class)
+        || (type == Short.class) || (type == Integer.class)
+        || (type == Long.class) || (type == Float.class)
+        || (type == Double.class) || (type == BigDecimal.class)
+        || (type == BigInteger.class));
+    }
 }
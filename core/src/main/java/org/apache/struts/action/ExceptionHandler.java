@@ -25,6 +25,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.struts.Globals;
 import org.apache.struts.config.ExceptionConfig;
 import org.apache.struts.util.MessageResources;
+import org.apache.struts.util.RequestUtils;
 import org.apache.struts.util.ModuleException;
 
 import javax.servlet.RequestDispatcher;
@@ -303,7 +304,8 @@ public class ExceptionHandler {
             if ("request".equals(scope)) {
                 request.setAttribute(Globals.ERROR_KEY, errors);
             } else {
-                request.getSession().setAttribute(Globals.ERROR_KEY, errors);
+                RequestUtils.getSession(request, "error messages")
+                            .setAttribute(Globals.ERROR_KEY, errors);
             }
         }
     }
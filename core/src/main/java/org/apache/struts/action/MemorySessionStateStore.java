@@ -0,0 +1,131 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import javax.servlet.ServletException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * <p>Reference implementation of {@link SessionStateStore}, holding the
+ * encoded session attributes in memory.  It keeps the attributes of a
+ * single server, and is meant for testing applications and store
+ * integrations without an external store.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+public class MemorySessionStateStore implements SessionStateStore {
+    /**
+     * <p>The attributes of each session, as maps of encoded values keyed by
+     * attribute name, keyed by session identifier.</p>
+     */
+    private final HashMap sessions = new HashMap();
+
+    /**
+     * <p>The number of updates made, for testing.</p>
+     */
+    private int updateCount = 0;
+
+    // --------------------------------------------------------- Public Methods
+
+    public void init(ActionServlet servlet)
+        throws ServletException {
+        ;
+    }
+
+    public void destroy() {
+        synchronized (sessions) {
+            sessions.clear();
+        }
+    }
+
+    public Map load(String sessionId) {
+        synchronized (sessions) {
+            Map attributes = (Map) sessions.get(sessionId);
+
+            if (attributes == null) {
+                return Collections.EMPTY_MAP;
+            }
+
+            return new HashMap(attributes);
+        }
+    }
+
+    public void update(String sessionId, Map updates) {
+        synchronized (sessions) {
+            HashMap attributes = (HashMap) sessions.get(sessionId);
+
+            if (attributes == null) {
+                attributes = new HashMap();
+                sessions.put(sessionId, attributes);
+            }
+
+            for (Iterator i = updates.entrySet().iterator(); i.hasNext();) {
+                Map.Entry entry = (Map.Entry) i.next();
+
+                if (entry.getValue() == null) {
+                    attributes.remove(entry.getKey());
+                } else {
+                    attributes.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            if (attributes.isEmpty()) {
+                sessions.remove(sessionId);
+            }
+
+            updateCount++;
+        }
+    }
+
+    public void invalidate(String sessionId) {
+        synchronized (sessions) {
+            sessions.remove(sessionId);
+        }
+    }
+
+    /**
+     * <p>Return the number of sessions holding attributes.</p>
+     *
+     * @return The number of sessions
+     */
+    public int getSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * <p>Return the number of updates made since this store was
+     * created.</p>
+     *
+     * @return The number of updates
+     */
+    public int getUpdateCount() {
+        synchronized (sessions) {
+            return updateCount;
+        }
+    }
+}
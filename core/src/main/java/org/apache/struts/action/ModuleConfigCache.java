@@ -0,0 +1,159 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.util.SerializedCacheFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URL;
+import java.util.List;
+
+/**
+ * <p>Disk cache of parsed module configurations, so that a restart with
+ * unchanged configuration files skips XML parsing.  A module configuration
+ * is stored serialized, right after parsing and before any inheritance is
+ * resolved, together with a key made of a digest of the contents of its
+ * configuration files and of the settings that affect parsing.  An entry
+ * whose key does not match, or that cannot be read back, is ignored and
+ * replaced.</p>
+ *
+ * <p>Module configurations that are not serializable, because of a custom
+ * <code>ModuleConfig</code> implementation or of objects created by custom
+ * rule sets, are simply not cached.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+final class ModuleConfigCache {
+    /**
+     * <p>Commons Logging instance.</p>
+     */
+    private static final Log log = LogFactory.getLog(ModuleConfigCache.class);
+
+    /**
+     * <p>The directory holding the cache files.</p>
+     */
+    private final File directory;
+
+    /**
+     * <p>Settings other than file contents that affect parsing.</p>
+     */
+    private final String settings;
+
+    /**
+     * <p>Create a cache storing its files in the specified directory.</p>
+     *
+     * @param directory The cache directory
+     * @param settings  Settings that affect parsing, part of every key
+     */
+    ModuleConfigCache(File directory, String settings) {
+        this.directory = directory;
+        this.settings = settings;
+    }
+
+    /**
+     * <p>Compute the key of a module configuration.</p>
+     *
+     * @param prefix The module prefix
+     * @param urls   The configuration files of the module
+     * @return The key, or <code>null</code> if a file cannot be read
+     */
+    String computeKey(String prefix, List urls) {
+        return SerializedCacheFile.digest(new String[] { settings, prefix },
+            (URL[]) urls.toArray(new URL[urls.size()]));
+    }
+
+    /**
+     * <p>Return the cached configuration of a module, if its key
+     * matches.</p>
+     *
+     * @param prefix The module prefix
+     * @param key    The current key of the module
+     * @return The configuration, or <code>null</code>
+     */
+    ModuleConfig load(String prefix, String key) {
+        SerializedCacheFile file = fileFor(prefix);
+
+        try {
+            ModuleConfig config = (ModuleConfig) file.read(key);
+
+            if ((config == null) || !prefix.equals(config.getPrefix())) {
+                return null;
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Loaded module '" + prefix + "' configuration from "
+                    + file.getFile());
+            }
+
+            return config;
+        } catch (Exception e) {
+            log.info("Ignoring cached configuration " + file.getFile() + ": "
+                + e);
+
+            return null;
+        }
+    }
+
+    /**
+     * <p>Store the configuration of a module, just parsed.</p>
+     *
+     * @param prefix The module prefix
+     * @param key    The key of the module
+     * @param config The configuration
+     */
+    void store(String prefix, String key, ModuleConfig config) {
+        if (!(config instanceof Serializable)) {
+            return;
+        }
+
+        try {
+            fileFor(prefix).write(key, config);
+        } catch (IOException e) {
+            log.info("Cannot cache module '" + prefix + "' configuration: "
+                + e);
+        }
+    }
+
+    /**
+     * <p>Return the cache file of a module.</p>
+     */
+    private SerializedCacheFile fileFor(String prefix) {
+        StringBuffer name = new StringBuffer("struts-config");
+
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+
+            name.append(Character.isLetterOrDigit(c) ? c : '_');
+        }
+
+        name.append('-');
+        name.append(Integer.toHexString(prefix.hashCode()));
+        name.append(".ser");
+
+        return new SerializedCacheFile(new File(directory, name.toString()));
+    }
+}
@@ -162,6 +162,10 @@ public class RequestProcessor {
                 + path + "'");
         }
 
+        // Process the request without a session if requested
+        RequestUtils.selectStateless(request,
+            moduleConfig.getControllerConfig(), null);
+
         // Select a Locale for the current user if requested
         processLocale(request, response);
 
@@ -183,6 +187,9 @@ public class RequestProcessor {
             return;
         }
 
+        RequestUtils.selectStateless(request,
+            moduleConfig.getControllerConfig(), mapping);
+
         // Check for any role required to perform this action
         if (!processRoles(request, response, mapping)) {
             return;
@@ -334,9 +341,15 @@ public class RequestProcessor {
         if ("request".equals(mapping.getScope())) {
             request.setAttribute(mapping.getAttribute(), instance);
         } else {
-            HttpSession session = request.getSession();
-
-            session.setAttribute(mapping.getAttribute(), instance);
+            HttpSession session =
+                RequestUtils.getSession(request,
+                    "form bean '" + mapping.getAttribute() + "'");
+
+            // Only set a form bean already in the session when it changed
+            if (RequestUtils.isActionFormStoreNeeded(session.getAttribute(
+                        mapping.getAttribute()), instance)) {
+                session.setAttribute(mapping.getAttribute(), instance);
+            }
         }
 
         return (instance);
@@ -618,6 +631,17 @@ public class RequestProcessor {
             return;
         }
 
+        // Select the Locale of a stateless request without a session
+        if (request.getAttribute(Globals.STATELESS_KEY) != null) {
+            Locale locale =
+                RequestUtils.getStatelessLocale(request,
+                    moduleConfig.getControllerConfig());
+
+            request.setAttribute(Globals.LOCALE_KEY, locale);
+
+            return;
+        }
+
         // Has a Locale already been selected?
         HttpSession session = request.getSession();
 
@@ -823,6 +847,16 @@ public class RequestProcessor {
         RequestUtils.populate(form, mapping.getPrefix(), mapping.getSuffix(),
             request);
 
+        // Set a form bean kept in session scope again if population changed it
+        if (!"request".equals(mapping.getScope())
+            && RequestUtils.isActionFormChanged(form)) {
+            HttpSession session =
+                RequestUtils.getSession(request,
+                    "form bean '" + mapping.getAttribute() + "'");
+
+            session.setAttribute(mapping.getAttribute(), form);
+        }
+
         // Set the cancellation request attribute if appropriate
         if ((request.getParameter(Globals.CANCEL_PROPERTY) != null)
             || (request.getParameter(Globals.CANCEL_PROPERTY_X) != null)) {
@@ -0,0 +1,607 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import org.apache.struts.Globals;
+import org.apache.struts.config.FormBeanConfig;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.util.ContextObjectInputStream;
+import org.apache.struts.validator.DynaValidatorForm;
+
+import javax.servlet.ServletContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>Binary encoding of the session attributes held by a
+ * {@link SessionStateStore}.  Strings, primitive wrappers, string arrays,
+ * <code>Locale</code>, <code>ActionMessage</code>,
+ * <code>ActionMessages</code>, <code>ActionErrors</code> and dynamic form
+ * beans are written field by field, a dynamic form bean as the name of its
+ * form bean configuration followed by its property values.  Any other
+ * serializable value is written with Java serialization.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+final class SessionStateCodec {
+    /**
+     * <p>The version of the encoding, the first byte of every encoded
+     * value.</p>
+     */
+    private static final byte FORMAT_VERSION = 1;
+
+    // Value tags
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte TRUE = 2;
+    private static final byte FALSE = 3;
+    private static final byte INTEGER = 4;
+    private static final byte LONG = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte FLOAT = 7;
+    private static final byte SHORT = 8;
+    private static final byte BYTE = 9;
+    private static final byte CHARACTER = 10;
+    private static final byte STRING_ARRAY = 11;
+    private static final byte LOCALE = 12;
+    private static final byte MESSAGE = 13;
+    private static final byte MESSAGES = 14;
+    private static final byte ERRORS = 15;
+    private static final byte DYNA_FORM = 16;
+    private static final byte SERIALIZED = 17;
+
+    /**
+     * <p>The servlet whose form bean configurations create decoded form
+     * beans.</p>
+     */
+    private final ActionServlet servlet;
+
+    /**
+     * <p>Create a codec for the modules of a servlet.</p>
+     *
+     * @param servlet The servlet
+     */
+    SessionStateCodec(ActionServlet servlet) {
+        this.servlet = servlet;
+    }
+
+    /**
+     * <p>Encode a session attribute value.</p>
+     *
+     * @param value The value
+     * @return The encoded value
+     * @throws IOException if the value cannot be encoded
+     */
+    byte[] encode(Object value)
+        throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(FORMAT_VERSION);
+        writeValue(out, value);
+        out.flush();
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * <p>Decode a session attribute value.</p>
+     *
+     * @param bytes The encoded value
+     * @return The value
+     * @throws IOException if the value cannot be decoded, in particular
+     *                     because it was encoded by another version
+     */
+    Object decode(byte[] bytes)
+        throws IOException {
+        DataInputStream in =
+            new DataInputStream(new ByteArrayInputStream(bytes));
+
+        if (in.readByte() != FORMAT_VERSION) {
+            throw new IOException("Unsupported session attribute encoding");
+        }
+
+        return readValue(in);
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    private void writeValue(DataOutputStream out, Object value)
+        throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+
+            return;
+        }
+
+        Class type = value.getClass();
+
+        if (type == String.class) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (type == Boolean.class) {
+            out.writeByte(((Boolean) value).booleanValue() ? TRUE : FALSE);
+        } else if (type == Integer.class) {
+            out.writeByte(INTEGER);
+            out.writeInt(((Integer) value).intValue());
+        } else if (type == Long.class) {
+            out.writeByte(LONG);
+            out.writeLong(((Long) value).longValue());
+        } else if (type == Double.class) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Double) value).doubleValue());
+        } else if (type == Float.class) {
+            out.writeByte(FLOAT);
+            out.writeFloat(((Float) value).floatValue());
+        } else if (type == Short.class) {
+            out.writeByte(SHORT);
+            out.writeShort(((Short) value).shortValue());
+        } else if (type == Byte.class) {
+            out.writeByte(BYTE);
+            out.writeByte(((Byte) value).byteValue());
+        } else if (type == Character.class) {
+            out.writeByte(CHARACTER);
+            out.writeChar(((Character) value).charValue());
+        } else if (type == String[].class) {
+            String[] strings = (String[]) value;
+
+            out.writeByte(STRING_ARRAY);
+            writeLength(out, strings.length);
+
+            for (int i = 0; i < strings.length; i++) {
+                writeValue(out, strings[i]);
+            }
+        } else if (type == Locale.class) {
+            Locale locale = (Locale) value;
+
+            out.writeByte(LOCALE);
+            writeString(out, locale.getLanguage());
+            writeString(out, locale.getCountry());
+            writeString(out, locale.getVariant());
+        } else if (type == ActionMessage.class) {
+            out.writeByte(MESSAGE);
+            writeMessage(out, (ActionMessage) value);
+        } else if ((type == ActionMessages.class)
+            || (type == ActionErrors.class)) {
+            out.writeByte((type == ActionErrors.class) ? ERRORS : MESSAGES);
+            writeMessages(out, (ActionMessages) value);
+        } else if (!isEncodedForm(type)
+            || !writeForm(out, (DynaActionForm) value)) {
+            out.writeByte(SERIALIZED);
+            writeSerialized(out, value);
+        }
+    }
+
+    private Object readValue(DataInputStream in)
+        throws IOException {
+        byte tag = in.readByte();
+
+        switch (tag) {
+        case NULL:
+            return null;
+
+        case STRING:
+            return readString(in);
+
+        case TRUE:
+            return Boolean.TRUE;
+
+        case FALSE:
+            return Boolean.FALSE;
+
+        case INTEGER:
+            return new Integer(in.readInt());
+
+        case LONG:
+            return new Long(in.readLong());
+
+        case DOUBLE:
+            return new Double(in.readDouble());
+
+        case FLOAT:
+            return new Float(in.readFloat());
+
+        case SHORT:
+            return new Short(in.readShort());
+
+        case BYTE:
+            return new Byte(in.readByte());
+
+        case CHARACTER:
+            return new Character(in.readChar());
+
+        case STRING_ARRAY:
+            String[] strings = new String[readLength(in)];
+
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = (String) readValue(in);
+            }
+
+            return strings;
+
+        case LOCALE:
+            return new Locale(readString(in), readString(in), readString(in));
+
+        case MESSAGE:
+            return readMessage(in);
+
+        case MESSAGES:
+            return readMessages(in, new ActionMessages());
+
+        case ERRORS:
+            return readMessages(in, new ActionErrors());
+
+        case DYNA_FORM:
+            return readForm(in);
+
+        case SERIALIZED:
+            return readSerialized(in);
+
+        default:
+            throw new IOException("Unknown session attribute tag " + tag);
+        }
+    }
+
+    private void writeMessage(DataOutputStream out, ActionMessage message)
+        throws IOException {
+        Object[] values = message.getValues();
+
+        writeString(out, message.getKey());
+        out.writeBoolean(message.isResource());
+
+        if (values == null) {
+            out.writeBoolean(false);
+
+            return;
+        }
+
+        out.writeBoolean(true);
+        writeLength(out, values.length);
+
+        for (int i = 0; i < values.length; i++) {
+            writeValue(out, values[i]);
+        }
+    }
+
+    private ActionMessage readMessage(DataInputStream in)
+        throws IOException {
+        String key = readString(in);
+        boolean resource = in.readBoolean();
+        Object[] values = null;
+
+        if (in.readBoolean()) {
+            values = new Object[readLength(in)];
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readValue(in);
+            }
+        }
+
+        ActionMessage message = new ActionMessage(key, values);
+
+        message.resource = resource;
+
+        return message;
+    }
+
+    /**
+     * <p>Write messages grouped by property, in the order their properties
+     * were first added, without marking them as accessed.</p>
+     */
+    private void writeMessages(DataOutputStream out, ActionMessages messages)
+        throws IOException {
+        boolean accessed = messages.isAccessed();
+
+        out.writeBoolean(accessed);
+        writeLength(out, messages.size());
+
+        for (Iterator i = messages.properties(); i.hasNext();) {
+            String property = (String) i.next();
+
+            for (Iterator j = messages.get(property); j.hasNext();) {
+                ActionMessage message = (ActionMessage) j.next();
+
+                writeString(out, property);
+
+                if (message.getClass() == ActionMessage.class) {
+                    out.writeByte(MESSAGE);
+                    writeMessage(out, message);
+                } else {
+                    writeValue(out, message);
+                }
+            }
+        }
+
+        messages.accessed = accessed;
+    }
+
+    private ActionMessages readMessages(DataInputStream in,
+        ActionMessages messages)
+        throws IOException {
+        boolean accessed = in.readBoolean();
+        int count = readLength(in);
+
+        for (int i = 0; i < count; i++) {
+            String property = readString(in);
+
+            messages.add(property, (ActionMessage) readValue(in));
+        }
+
+        messages.accessed = accessed;
+
+        return messages;
+    }
+
+    /**
+     * <p>Return whether the form beans of a class are written as their
+     * property values.  Subclasses of the dynamic form bean classes may
+     * hold other state, and are serialized.</p>
+     */
+    private static boolean isEncodedForm(Class type) {
+        return (type == DynaActionForm.class)
+        || (type == DynaValidatorForm.class);
+    }
+
+    /**
+     * <p>Write a dynamic form bean as the module and name of its form bean
+     * configuration, its page for validator forms, and its property
+     * values.</p>
+     *
+     * @return <code>false</code> if the form bean configuration of the form
+     *         bean is not part of a module of this servlet
+     */
+    private boolean writeForm(DataOutputStream out, DynaActionForm form)
+        throws IOException {
+        if (form.dynaClass == null) {
+            return false;
+        }
+
+        FormBeanConfig config = form.dynaClass.getConfig();
+        String prefix = findPrefix(config);
+
+        if (prefix == null) {
+            return false;
+        }
+
+        out.writeByte(DYNA_FORM);
+        writeString(out, prefix);
+        writeString(out, config.getName());
+        out.writeInt((form instanceof DynaValidatorForm)
+            ? ((DynaValidatorForm) form).getPage() : 0);
+
+        Map values = form.getMap();
+
+        writeLength(out, values.size());
+
+        for (Iterator i = values.entrySet().iterator(); i.hasNext();) {
+            Map.Entry entry = (Map.Entry) i.next();
+
+            writeString(out, (String) entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+
+        return true;
+    }
+
+    /**
+     * <p>Read a dynamic form bean, created by its current form bean
+     * configuration.  Values of properties it no longer has are
+     * ignored.</p>
+     */
+    private ActionForm readForm(DataInputStream in)
+        throws IOException {
+        String prefix = readString(in);
+        String name = readString(in);
+        int page = in.readInt();
+        ModuleConfig moduleConfig =
+            (ModuleConfig) getServletContext().getAttribute(Globals.MODULE_KEY
+                + prefix);
+        FormBeanConfig config =
+            (moduleConfig == null) ? null
+                                   : moduleConfig.findFormBeanConfig(name);
+
+        if (config == null) {
+            throw new IOException("Missing form bean '" + name
+                + "' in module '" + prefix + "'");
+        }
+
+        ActionForm form;
+
+        try {
+            form = config.createActionForm(servlet);
+        } catch (Exception e) {
+            IOException e2 =
+                new IOException("Cannot create form bean '" + name + "': "
+                    + e);
+
+            e2.initCause(e);
+            throw e2;
+        }
+
+        if (!(form instanceof DynaActionForm)) {
+            throw new IOException("Form bean '" + name
+                + "' is no longer a DynaActionForm");
+        }
+
+        DynaActionForm dynaForm = (DynaActionForm) form;
+
+        if (dynaForm instanceof DynaValidatorForm) {
+            ((DynaValidatorForm) dynaForm).setPage(page);
+        }
+
+        int count = readLength(in);
+
+        for (int i = 0; i < count; i++) {
+            String property = readString(in);
+            Object value = readValue(in);
+
+            if (dynaForm.getDynaClass().getDynaProperty(property) != null) {
+                dynaForm.getMap().put(property, value);
+            }
+        }
+
+        return form;
+    }
+
+    /**
+     * <p>Return the prefix of the module holding a form bean configuration,
+     * or <code>null</code> if none does.</p>
+     */
+    private String findPrefix(FormBeanConfig config) {
+        ServletContext context = getServletContext();
+
+        if (isModuleOf(context, "", config)) {
+            return "";
+        }
+
+        String[] prefixes =
+            (String[]) context.getAttribute(Globals.MODULE_PREFIXES_KEY);
+
+        if (prefixes == null) {
+            return null;
+        }
+
+        for (int i = 0; i < prefixes.length; i++) {
+            if (isModuleOf(context, prefixes[i], config)) {
+                return prefixes[i];
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isModuleOf(ServletContext context, String prefix,
+        FormBeanConfig config) {
+        ModuleConfig moduleConfig =
+            (ModuleConfig) context.getAttribute(Globals.MODULE_KEY + prefix);
+
+        return (moduleConfig != null)
+        && (moduleConfig.findFormBeanConfig(config.getName()) == config);
+    }
+
+    private void writeSerialized(DataOutputStream out, Object value)
+        throws IOException {
+        if (!(value instanceof Serializable)) {
+            throw new NotSerializableException(value.getClass().getName());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        ObjectOutputStream oos = new ObjectOutputStream(bytes);
+
+        oos.writeObject(value);
+        oos.close();
+
+        writeLength(out, bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private Object readSerialized(DataInputStream in)
+        throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+
+        in.readFully(bytes);
+
+        ObjectInputStream ois =
+            new ContextObjectInputStream(new ByteArrayInputStream(bytes));
+
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            IOException e2 =
+                new IOException("Missing class: " + e.getMessage());
+
+            e2.initCause(e);
+            throw e2;
+        }
+    }
+
+    /**
+     * <p>Write a string as its length in UTF-8 bytes followed by the
+     * bytes, so that strings are not limited in length.</p>
+     */
+    private static void writeString(DataOutputStream out, String value)
+        throws IOException {
+        byte[] bytes = value.getBytes("UTF-8");
+
+        writeLength(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in)
+        throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+
+        in.readFully(bytes);
+
+        return new String(bytes, "UTF-8");
+    }
+
+    /**
+     * <p>Write a length in as few bytes as possible, seven bits at a
+     * time.</p>
+     */
+    private static void writeLength(DataOutputStream out, int length)
+        throws IOException {
+        while ((length & ~0x7F) != 0) {
+            out.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+
+        out.writeByte(length);
+    }
+
+    private static int readLength(DataInputStream in)
+        throws IOException {
+        int length = 0;
+
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+
+            length |= ((b & 0x7F) << shift);
+
+            if ((b & 0x80) == 0) {
+                if (length < 0) {
+                    break;
+                }
+
+                return length;
+            }
+        }
+
+        throw new IOException("Invalid length in session attribute");
+    }
+
+    private ServletContext getServletContext() {
+        return servlet.getServletContext();
+    }
+}
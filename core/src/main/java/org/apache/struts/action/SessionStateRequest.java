@@ -0,0 +1,496 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+import javax.servlet.http.HttpSessionContext;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Wraps a request whose session attributes managed by Struts are held by
+ * a {@link SessionStateStore}.  These are the session-scoped form beans,
+ * the <code>Locale</code>, the transaction token and the messages saved in
+ * the session; any other attribute, and any value that is not
+ * <code>Serializable</code>, is kept in the container session as usual.
+ * </p>
+ *
+ * <p>The sessions of this request load the stored attributes of the
+ * container session they stand for from the store when first used, decode
+ * each attribute when first read, and keep track of the attributes read,
+ * set and removed.  {@link #flush} then writes back the attributes that
+ * were set or removed, and those read whose encoding has changed.</p>
+ *
+ * <p>Each attribute is written back whole.  When concurrent requests of
+ * the same session change the same stored attribute, the last request to
+ * complete wins, and the changes of the others to that attribute are
+ * lost, even if they changed different properties of a form bean.</p>
+ *
+ * <p>Stored values implementing <code>HttpSessionBindingListener</code>
+ * are notified when they are set or removed through these sessions, but
+ * attribute listeners registered with the container are not.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+final class SessionStateRequest extends HttpServletRequestWrapper {
+    /**
+     * <p>Commons Logging instance.</p>
+     */
+    private static final Log log = LogFactory.getLog(SessionStateRequest.class);
+
+    /**
+     * <p>The container session attribute whose unbinding removes the
+     * attributes of an expired session from the store.</p>
+     */
+    private static final String BINDING_KEY =
+        SessionStateStore.class.getName();
+
+    /**
+     * <p>The store holding session attributes.</p>
+     */
+    private final SessionStateStore store;
+
+    /**
+     * <p>The encoding of session attributes.</p>
+     */
+    private final SessionStateCodec codec;
+
+    /**
+     * <p>The names of the session attributes held by the store.</p>
+     */
+    private final Set storedNames;
+
+    /**
+     * <p>The session of this request, or <code>null</code> if it was not
+     * used yet.</p>
+     */
+    private StoredSession session = null;
+
+    /**
+     * <p>Wrap a request.</p>
+     *
+     * @param request The request
+     * @param store   The store holding session attributes
+     * @param codec   The encoding of session attributes
+     * @param storedNames The names of the session attributes held by the
+     *                    store
+     */
+    SessionStateRequest(HttpServletRequest request, SessionStateStore store,
+        SessionStateCodec codec, Set storedNames) {
+        super(request);
+        this.store = store;
+        this.codec = codec;
+        this.storedNames = storedNames;
+    }
+
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    public synchronized HttpSession getSession(boolean create) {
+        HttpSession current = super.getSession(create);
+
+        if (current == null) {
+            return null;
+        }
+
+        if ((session != null) && !session.invalidated
+            && session.id.equals(current.getId())) {
+            return session;
+        }
+
+        // The session was invalidated and replaced
+        flush();
+
+        if (current.getAttribute(BINDING_KEY) == null) {
+            current.setAttribute(BINDING_KEY, new StoreBinding(store));
+        }
+
+        session = new StoredSession(current);
+
+        return session;
+    }
+
+    /**
+     * <p>Write back the session attributes changed while processing this
+     * request.</p>
+     */
+    synchronized void flush() {
+        if (session != null) {
+            session.flush();
+        }
+    }
+
+    // ---------------------------------------------------------- Inner Classes
+
+    /**
+     * <p>Stands for a container session, and holds its attributes managed
+     * by Struts in the store.  As a container session, it may be used by
+     * several threads, such as those running concurrent Tiles controllers:
+     * its methods synchronize on the session.</p>
+     */
+    private class StoredSession implements HttpSession {
+        /**
+         * <p>The container session.</p>
+         */
+        final HttpSession session;
+
+        /**
+         * <p>The identifier of the session.</p>
+         */
+        final String id;
+
+        /**
+         * <p>The encoded attributes loaded from the store, or
+         * <code>null</code> until they are loaded.</p>
+         */
+        private Map stored = null;
+
+        /**
+         * <p>The attributes read, set or removed, <code>null</code> values
+         * standing for removed attributes.</p>
+         */
+        private final HashMap attributes = new HashMap();
+
+        /**
+         * <p>Whether the session was invalidated.</p>
+         */
+        volatile boolean invalidated = false;
+
+        StoredSession(HttpSession session) {
+            this.session = session;
+            this.id = session.getId();
+        }
+
+        public synchronized Object getAttribute(String name) {
+            checkValid();
+
+            if (!storedNames.contains(name)) {
+                return session.getAttribute(name);
+            }
+
+            if (attributes.containsKey(name)) {
+                Object value = attributes.get(name);
+
+                return (value == null) ? session.getAttribute(name) : value;
+            }
+
+            byte[] bytes = (byte[]) loaded().get(name);
+
+            if (bytes == null) {
+                // Not serializable, or set before the store was used
+                return session.getAttribute(name);
+            }
+
+            Object value;
+
+            try {
+                value = codec.decode(bytes);
+            } catch (IOException e) {
+                log.warn("Ignoring session attribute '" + name + "': " + e);
+
+                return null;
+            }
+
+            attributes.put(name, value);
+
+            return value;
+        }
+
+        public synchronized Enumeration getAttributeNames() {
+            checkValid();
+
+            Set names = new LinkedHashSet();
+
+            for (Enumeration e = session.getAttributeNames();
+                e.hasMoreElements();) {
+                Object name = e.nextElement();
+
+                if (!BINDING_KEY.equals(name)) {
+                    names.add(name);
+                }
+            }
+
+            for (Iterator i = loaded().keySet().iterator(); i.hasNext();) {
+                Object name = i.next();
+
+                if (!attributes.containsKey(name)) {
+                    names.add(name);
+                }
+            }
+
+            for (Iterator i = attributes.entrySet().iterator(); i.hasNext();) {
+                Map.Entry entry = (Map.Entry) i.next();
+
+                if (entry.getValue() != null) {
+                    names.add(entry.getKey());
+                }
+            }
+
+            return Collections.enumeration(names);
+        }
+
+        public synchronized void setAttribute(String name, Object value) {
+            if (value == null) {
+                removeAttribute(name);
+
+                return;
+            }
+
+            checkValid();
+
+            if (!storedNames.contains(name)
+                || !(value instanceof Serializable)) {
+                removeStored(name);
+                session.setAttribute(name, value);
+
+                return;
+            }
+
+            if (session.getAttribute(name) != null) {
+                session.removeAttribute(name);
+            }
+
+            loaded();
+
+            Object previous = attributes.put(name, value);
+
+            if (previous == value) {
+                return;
+            }
+
+            if (value instanceof HttpSessionBindingListener) {
+                ((HttpSessionBindingListener) value).valueBound(new HttpSessionBindingEvent(
+                        this, name));
+            }
+
+            unbound(name, previous);
+        }
+
+        public synchronized void removeAttribute(String name) {
+            checkValid();
+            removeStored(name);
+            session.removeAttribute(name);
+        }
+
+        public synchronized Object getValue(String name) {
+            return getAttribute(name);
+        }
+
+        public synchronized String[] getValueNames() {
+            List names = Collections.list(getAttributeNames());
+
+            return (String[]) names.toArray(new String[names.size()]);
+        }
+
+        public synchronized void putValue(String name, Object value) {
+            setAttribute(name, value);
+        }
+
+        public synchronized void removeValue(String name) {
+            removeAttribute(name);
+        }
+
+        public synchronized void invalidate() {
+            checkValid();
+            invalidated = true;
+
+            for (Iterator i = attributes.entrySet().iterator(); i.hasNext();) {
+                Map.Entry entry = (Map.Entry) i.next();
+
+                unbound((String) entry.getKey(), entry.getValue());
+            }
+
+            attributes.clear();
+            store.invalidate(id);
+            session.invalidate();
+        }
+
+        public synchronized String getId() {
+            return id;
+        }
+
+        public synchronized long getCreationTime() {
+            return session.getCreationTime();
+        }
+
+        public synchronized long getLastAccessedTime() {
+            return session.getLastAccessedTime();
+        }
+
+        public synchronized int getMaxInactiveInterval() {
+            return session.getMaxInactiveInterval();
+        }
+
+        public synchronized void setMaxInactiveInterval(int interval) {
+            session.setMaxInactiveInterval(interval);
+        }
+
+        public synchronized ServletContext getServletContext() {
+            return session.getServletContext();
+        }
+
+        /**
+         * @deprecated As of Version 2.1 of the Servlet API, this method is
+         *             deprecated and has no replacement.
+         */
+        public synchronized HttpSessionContext getSessionContext() {
+            return session.getSessionContext();
+        }
+
+        public synchronized boolean isNew() {
+            return session.isNew();
+        }
+
+        /**
+         * <p>Write back the attributes set or removed, and those read
+         * whose encoding has changed.</p>
+         */
+        synchronized void flush() {
+            if (invalidated || attributes.isEmpty()) {
+                return;
+            }
+
+            Map updates = new HashMap();
+
+            for (Iterator i = attributes.entrySet().iterator(); i.hasNext();) {
+                Map.Entry entry = (Map.Entry) i.next();
+                String name = (String) entry.getKey();
+                byte[] previous = (byte[]) stored.get(name);
+
+                if (entry.getValue() == null) {
+                    if (previous != null) {
+                        updates.put(name, null);
+                    }
+
+                    continue;
+                }
+
+                byte[] bytes;
+
+                try {
+                    bytes = codec.encode(entry.getValue());
+                } catch (IOException e) {
+                    log.error("Cannot store session attribute '" + name
+                        + "': " + e);
+
+                    continue;
+                }
+
+                if (!Arrays.equals(bytes, previous)) {
+                    updates.put(name, bytes);
+                }
+            }
+
+            attributes.clear();
+            stored = null;
+
+            if (!updates.isEmpty()) {
+                store.update(id, updates);
+            }
+        }
+
+        /**
+         * <p>Remove an attribute from the store, if it is held there.</p>
+         */
+        private void removeStored(String name) {
+            if (!storedNames.contains(name)) {
+                return;
+            }
+
+            if (!loaded().containsKey(name) && !attributes.containsKey(name)) {
+                return;
+            }
+
+            unbound(name, attributes.put(name, null));
+        }
+
+        /**
+         * <p>Return the encoded attributes, loading them from the store
+         * when first called.</p>
+         */
+        private Map loaded() {
+            if (stored == null) {
+                stored = store.load(id);
+            }
+
+            return stored;
+        }
+
+        private void unbound(String name, Object value) {
+            if (value instanceof HttpSessionBindingListener) {
+                ((HttpSessionBindingListener) value).valueUnbound(new HttpSessionBindingEvent(
+                        this, name));
+            }
+        }
+
+        private void checkValid() {
+            if (invalidated) {
+                throw new IllegalStateException("Session " + id
+                    + " was invalidated");
+            }
+        }
+    }
+
+    /**
+     * <p>Bound to the container session, removes its attributes from the
+     * store when it is invalidated or expires.  It does not survive
+     * serialization of the container session, in which case the store is
+     * expected to expire attributes on its own.</p>
+     */
+    private static class StoreBinding implements HttpSessionBindingListener,
+        Serializable {
+        private transient SessionStateStore store;
+
+        StoreBinding(SessionStateStore store) {
+            this.store = store;
+        }
+
+        public void valueBound(HttpSessionBindingEvent event) {
+            ;
+        }
+
+        public void valueUnbound(HttpSessionBindingEvent event) {
+            if (store != null) {
+                store.invalidate(event.getSession().getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import javax.servlet.ServletException;
+
+import java.util.Map;
+
+/**
+ * <p>External store of the attributes of HTTP sessions.  When the
+ * <code>sessionStateStore</code> initialization parameter of
+ * {@link ActionServlet} names an implementation of this interface, the
+ * session attributes used while processing a request, such as session-scoped
+ * form beans, the user <code>Locale</code>, the transaction token and cached
+ * messages, are kept in the store instead of the container session.  The
+ * <code>RequestProcessor</code>, the chain commands and the pages they
+ * forward to all see them through the session of the request as usual.</p>
+ *
+ * <p>Attributes are handed to the store already encoded, in a compact binary
+ * form for form beans, messages and simple values.  All the attributes of a
+ * session are loaded the first time a request uses its session, and only the
+ * attributes that were set, removed or modified during the request are
+ * written back once it has been processed, in a single update.</p>
+ *
+ * <p>Implementations must be thread-safe, as requests of any number of
+ * sessions, including concurrent requests of the same session, use the
+ * store at the same time.  A store must not modify the maps and arrays it is
+ * given, nor those it has returned.</p>
+ *
+ * @version $Rev$ $Date$
+ * @see MemorySessionStateStore
+ * @since Struts 1.4
+ */
+public interface SessionStateStore {
+    /**
+     * <p>Initialize the store, when its <code>ActionServlet</code> is
+     * initialized.</p>
+     *
+     * @param servlet The servlet using this store
+     * @throws ServletException if the store cannot be initialized
+     */
+    public void init(ActionServlet servlet)
+        throws ServletException;
+
+    /**
+     * <p>Release the resources of the store, when its
+     * <code>ActionServlet</code> is destroyed.</p>
+     */
+    public void destroy();
+
+    /**
+     * <p>Return the attributes of a session.</p>
+     *
+     * @param sessionId The identifier of the session
+     * @return The encoded attribute values, as <code>byte[]</code> keyed by
+     *         attribute name, empty if the store holds no attribute of this
+     *         session
+     */
+    public Map load(String sessionId);
+
+    /**
+     * <p>Change attributes of a session.</p>
+     *
+     * @param sessionId The identifier of the session
+     * @param updates   The new encoded attribute values, as
+     *                  <code>byte[]</code> keyed by attribute name, or
+     *                  <code>null</code> for attributes to remove
+     */
+    public void update(String sessionId, Map updates);
+
+    /**
+     * <p>Remove all the attributes of a session, when the session is
+     * invalidated or expires.</p>
+     *
+     * @param sessionId The identifier of the session
+     */
+    public void invalidate(String sessionId);
+}
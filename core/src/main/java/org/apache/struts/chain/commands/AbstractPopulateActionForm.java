@@ -26,6 +26,7 @@ import org.apache.struts.Globals;
 import org.apache.struts.action.ActionForm;
 import org.apache.struts.chain.contexts.ActionContext;
 import org.apache.struts.config.ActionConfig;
+import org.apache.struts.util.RequestUtils;
 
 import java.util.Map;
 
@@ -78,6 +79,13 @@ public abstract class AbstractPopulateActionForm extends ActionCommandBase {
             populate(actionCtx, actionConfig, actionForm);
         }
 
+        // Set a form bean kept in session scope again if it was changed
+        if (!"request".equals(actionConfig.getScope())
+            && RequestUtils.isActionFormChanged(actionForm)) {
+            actionCtx.getScope(actionConfig.getScope()).put(actionConfig
+                .getAttribute(), actionForm);
+        }
+
         return CONTINUE_PROCESSING;
     }
 
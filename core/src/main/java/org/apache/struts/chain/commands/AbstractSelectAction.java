@@ -20,6 +20,7 @@
  */
 package org.apache.struts.chain.commands;
 
+import org.apache.struts.Globals;
 import org.apache.struts.chain.contexts.ActionContext;
 import org.apache.struts.config.ActionConfig;
 import org.apache.struts.config.ModuleConfig;
@@ -74,6 +75,13 @@ public abstract class AbstractSelectAction extends ActionCommandBase {
 
         actionCtx.setActionConfig(actionConfig);
 
+        // Process the request without a session if the mapping requests it
+        if (actionConfig.getStateless()) {
+            actionCtx.getRequestScope().put(Globals.STATELESS_KEY,
+                Boolean.valueOf(moduleConfig.getControllerConfig()
+                                            .getRejectSessions()));
+        }
+
         return CONTINUE_PROCESSING;
     }
 
@@ -22,7 +22,9 @@ package org.apache.struts.chain.commands;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.struts.Globals;
 import org.apache.struts.chain.contexts.ActionContext;
+import org.apache.struts.config.ControllerConfig;
 import org.apache.struts.config.ModuleConfig;
 
 import java.util.Locale;
@@ -57,8 +59,15 @@ public abstract class AbstractSelectLocale extends ActionCommandBase {
         LOG.trace("retrieve config...");
 
         ModuleConfig moduleConfig = actionCtx.getModuleConfig();
+        ControllerConfig controllerConfig = moduleConfig.getControllerConfig();
 
-        if (!moduleConfig.getControllerConfig().getLocale()) {
+        // Process the request without a session if the module requests it
+        if (controllerConfig.getStateless()) {
+            actionCtx.getRequestScope().put(Globals.STATELESS_KEY,
+                Boolean.valueOf(controllerConfig.getRejectSessions()));
+        }
+
+        if (!controllerConfig.getLocale()) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("module is not configured for a specific locale; "
                     + "nothing to do");
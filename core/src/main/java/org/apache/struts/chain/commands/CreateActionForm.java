@@ -22,12 +22,16 @@ package org.apache.struts.chain.commands;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.struts.Globals;
 import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionServlet;
 import org.apache.struts.chain.contexts.ActionContext;
 import org.apache.struts.chain.contexts.ServletActionContext;
 import org.apache.struts.config.ActionConfig;
 import org.apache.struts.config.FormBeanConfig;
+import org.apache.struts.util.RequestUtils;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -81,13 +85,12 @@ public class CreateActionForm extends ActionCommandBase {
 
         Map scope = actionCtx.getScope(actionConfig.getScope());
 
-        ActionForm instance;
-
-        instance = (ActionForm) scope.get(actionConfig.getAttribute());
+        Object bound = scope.get(actionConfig.getAttribute());
+        ActionForm instance = (ActionForm) bound;
 
         // Can we recycle the existing instance (if any)?
         if (!formBeanConfig.canReuse(instance)) {
-            instance = formBeanConfig.createActionForm(actionCtx);
+            instance = createActionForm(actionCtx, actionConfig, formBeanConfig);
         }
 
         // TODO: Remove ServletActionContext when ActionForm no longer
@@ -99,12 +102,61 @@ public class CreateActionForm extends ActionCommandBase {
             ServletActionContext sac = (ServletActionContext) actionCtx;
 
             instance.setServlet(sac.getActionServlet());
+
+            // Report stateless requests creating a session for the form
+            if (!"request".equals(actionConfig.getScope())) {
+                RequestUtils.getSession(sac.getRequest(),
+                    "form bean '" + actionConfig.getAttribute() + "'");
+            }
         }
 
         actionCtx.setActionForm(instance);
 
-        scope.put(actionConfig.getAttribute(), instance);
+        // Only set a form bean already in the session when it changed
+        if ("request".equals(actionConfig.getScope())
+            || RequestUtils.isActionFormStoreNeeded(bound, instance)) {
+            scope.put(actionConfig.getAttribute(), instance);
+        }
 
         return CONTINUE_PROCESSING;
     }
+
+    /**
+     * <p>Create a form bean, or take a recycled one if the form bean allows
+     * it and the request is processed by <code>ActionServlet</code>.</p>
+     *
+     * @param actionCtx      The <code>Context</code> for the current request
+     * @param actionConfig   The mapping of the request
+     * @param formBeanConfig The form bean
+     * @return The form bean instance
+     * @throws Exception on any error
+     */
+    protected ActionForm createActionForm(ActionContext actionCtx,
+        ActionConfig actionConfig, FormBeanConfig formBeanConfig)
+        throws Exception {
+        List forms = null;
+
+        if (formBeanConfig.isRecycle()
+            && "request".equals(actionConfig.getScope())) {
+            forms =
+                (List) actionCtx.getRequestScope().get(Globals.RECYCLED_FORMS_KEY);
+        }
+
+        if (forms == null) {
+            return formBeanConfig.createActionForm(actionCtx);
+        }
+
+        ActionServlet servlet = null;
+
+        if (actionCtx instanceof ServletActionContext) {
+            servlet = ((ServletActionContext) actionCtx).getActionServlet();
+        }
+
+        ActionForm instance = formBeanConfig.acquireActionForm(servlet);
+
+        forms.add(formBeanConfig);
+        forms.add(instance);
+
+        return instance;
+    }
 }
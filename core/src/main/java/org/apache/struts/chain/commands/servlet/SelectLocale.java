@@ -26,6 +26,7 @@ import org.apache.struts.Globals;
 import org.apache.struts.chain.commands.AbstractSelectLocale;
 import org.apache.struts.chain.contexts.ActionContext;
 import org.apache.struts.chain.contexts.ServletActionContext;
+import org.apache.struts.util.RequestUtils;
 
 import javax.servlet.http.HttpSession;
 
@@ -50,6 +51,17 @@ public class SelectLocale extends AbstractSelectLocale {
     protected Locale getLocale(ActionContext context) {
         ServletActionContext saContext = (ServletActionContext) context;
 
+        // Select the Locale of a stateless request without a session
+        if (saContext.getRequest().getAttribute(Globals.STATELESS_KEY) != null) {
+            Locale locale =
+                RequestUtils.getStatelessLocale(saContext.getRequest(),
+                    saContext.getModuleConfig().getControllerConfig());
+
+            saContext.getRequest().setAttribute(Globals.LOCALE_KEY, locale);
+
+            return (locale);
+        }
+
         // Has a Locale already been selected?
         HttpSession session = saContext.getRequest().getSession();
         Locale locale = (Locale) session.getAttribute(Globals.LOCALE_KEY);
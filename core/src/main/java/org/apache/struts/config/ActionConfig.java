@@ -56,6 +56,14 @@ public class ActionConfig extends BaseConfig {
      */
     protected HashMap forwards = new HashMap();
 
+    /**
+     * <p> Read-optimized copies of the exception and forward configurations,
+     * built when this action is frozen, or <code>null</code> until then.
+     * </p>
+     */
+    private ConfigLookupTable frozenExceptions = null;
+    private ConfigLookupTable frozenForwards = null;
+
     // ------------------------------------------------------------- Properties
 
     /**
@@ -98,6 +106,19 @@ public class ActionConfig extends BaseConfig {
      */
     protected boolean cancellable = false;
 
+    /**
+     * Indicates whether the "stateless" property has been set or not.
+     */
+    private boolean statelessSet = false;
+
+    /**
+     * <p>Should requests for this action be processed without creating a
+     * session, as in a stateless module? [false]</p>
+     *
+     * @since Struts 1.4
+     */
+    protected boolean stateless = false;
+
     /**
      * <p> Have the inheritance values for this class been applied?</p>
      */
@@ -365,6 +386,31 @@ public class ActionConfig extends BaseConfig {
         this.cancellableSet = true;
     }
 
+    /**
+     * <p>Accessor for stateless property</p>
+     *
+     * @return True if requests for this action must not create a session
+     * @since Struts 1.4
+     */
+    public boolean getStateless() {
+        return (this.stateless);
+    }
+
+    /**
+     * <p>Mutator for stateless property</p>
+     *
+     * @param stateless
+     * @since Struts 1.4
+     */
+    public void setStateless(boolean stateless) {
+        if (configured) {
+            throw new IllegalStateException("Configuration is frozen");
+        }
+
+        this.stateless = stateless;
+        this.statelessSet = true;
+    }
+
     /**
      * <p>Returns the <code>path</code> or <code>actionId</code> of the 
      * <code>ActionConfig</code> that this object should inherit properties 
@@ -1071,6 +1117,12 @@ public class ActionConfig extends BaseConfig {
      * @param type Exception class name to find a configuration for
      */
     public ExceptionConfig findExceptionConfig(String type) {
+        ConfigLookupTable table = frozenExceptions;
+
+        if (table != null) {
+            return ((ExceptionConfig) table.get(type));
+        }
+
         return ((ExceptionConfig) exceptions.get(type));
     }
 
@@ -1079,6 +1131,12 @@ public class ActionConfig extends BaseConfig {
      * none, a zero-length array is returned. </p>
      */
     public ExceptionConfig[] findExceptionConfigs() {
+        ConfigLookupTable table = frozenExceptions;
+
+        if (table != null) {
+            return ((ExceptionConfig[]) table.toArray(new ExceptionConfig[table.size()]));
+        }
+
         ExceptionConfig[] results = new ExceptionConfig[exceptions.size()];
 
         return ((ExceptionConfig[]) exceptions.values().toArray(results));
@@ -1106,7 +1164,10 @@ public class ActionConfig extends BaseConfig {
             // Check for a locally defined handler
             String name = type.getName();
 
-            log.debug("findException: look locally for " + name);
+            if (log.isDebugEnabled()) {
+                log.debug("findException: look locally for " + name);
+            }
+
             config = findExceptionConfig(name);
 
             if (config != null) {
@@ -1114,7 +1175,10 @@ public class ActionConfig extends BaseConfig {
             }
 
             // Check for a globally defined handler
-            log.debug("findException: look globally for " + name);
+            if (log.isDebugEnabled()) {
+                log.debug("findException: look globally for " + name);
+            }
+
             config = getModuleConfig().findExceptionConfig(name);
 
             if (config != null) {
@@ -1139,6 +1203,12 @@ public class ActionConfig extends BaseConfig {
      * @param name Name of the forward configuration to return
      */
     public ForwardConfig findForwardConfig(String name) {
+        ConfigLookupTable table = frozenForwards;
+
+        if (table != null) {
+            return ((ForwardConfig) table.get(name));
+        }
+
         return ((ForwardConfig) forwards.get(name));
     }
 
@@ -1147,13 +1217,20 @@ public class ActionConfig extends BaseConfig {
      * none, a zero-length array is returned. </p>
      */
     public ForwardConfig[] findForwardConfigs() {
+        ConfigLookupTable table = frozenForwards;
+
+        if (table != null) {
+            return ((ForwardConfig[]) table.toArray(new ForwardConfig[table.size()]));
+        }
+
         ForwardConfig[] results = new ForwardConfig[forwards.size()];
 
         return ((ForwardConfig[]) forwards.values().toArray(results));
     }
 
     /**
-     * <p> Freeze the configuration of this action. </p>
+     * <p> Freeze the configuration of this action, after which its forward
+     * and exception configurations are read from immutable tables. </p>
      */
     public void freeze() {
         super.freeze();
@@ -1169,6 +1246,9 @@ public class ActionConfig extends BaseConfig {
         for (int i = 0; i < fconfigs.length; i++) {
             fconfigs[i].freeze();
         }
+
+        frozenExceptions = new ConfigLookupTable(exceptions);
+        frozenForwards = new ConfigLookupTable(forwards);
     }
 
     /**
@@ -1212,6 +1292,10 @@ public class ActionConfig extends BaseConfig {
             setCancellable(config.getCancellable());
         }
 
+        if (!statelessSet) {
+            setStateless(config.getStateless());
+        }
+
         if (getCatalog() == null) {
             setCatalog(config.getCatalog());
         }
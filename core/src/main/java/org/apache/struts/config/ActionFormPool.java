@@ -0,0 +1,124 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.config;
+
+import org.apache.struts.action.ActionForm;
+
+/**
+ * <p>Bounded pool of idle <code>ActionForm</code> instances of a form bean
+ * whose <code>recycle</code> property is set.  The pool is split into
+ * stripes, each guarded by its own monitor and selected by the calling
+ * thread, so that concurrent requests rarely contend for the same lock.
+ * When a stripe is empty a new instance is created; when it is full a
+ * returned instance is left to the garbage collector.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+final class ActionFormPool {
+    /**
+     * <p>Number of stripes, a power of two.</p>
+     */
+    private static final int STRIPES = 8;
+
+    /**
+     * <p>Maximum number of idle instances held by each stripe.</p>
+     */
+    private static final int STRIPE_SIZE = 8;
+
+    /**
+     * <p>The idle instances of each stripe, guarded by the array itself.</p>
+     */
+    private final ActionForm[][] stripes = new ActionForm[STRIPES][];
+
+    /**
+     * <p>The number of idle instances in each stripe.</p>
+     */
+    private final int[] counts = new int[STRIPES];
+
+    ActionFormPool() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ActionForm[STRIPE_SIZE];
+        }
+    }
+
+    /**
+     * <p>Take an idle instance.</p>
+     *
+     * @return The instance, or <code>null</code> if the stripe of the
+     *         calling thread is empty
+     */
+    ActionForm take() {
+        int stripe = stripeFor(Thread.currentThread());
+        ActionForm[] forms = stripes[stripe];
+
+        synchronized (forms) {
+            int count = counts[stripe];
+
+            if (count == 0) {
+                return null;
+            }
+
+            ActionForm form = forms[--count];
+
+            forms[count] = null;
+            counts[stripe] = count;
+
+            return form;
+        }
+    }
+
+    /**
+     * <p>Return an instance that is no longer used.</p>
+     *
+     * @param form The instance
+     * @return <code>true</code> if it was pooled, <code>false</code> if the
+     *         stripe of the calling thread is full
+     */
+    boolean give(ActionForm form) {
+        int stripe = stripeFor(Thread.currentThread());
+        ActionForm[] forms = stripes[stripe];
+
+        synchronized (forms) {
+            int count = counts[stripe];
+
+            if (count == forms.length) {
+                return false;
+            }
+
+            forms[count] = form;
+            counts[stripe] = count + 1;
+
+            return true;
+        }
+    }
+
+    /**
+     * <p>Return the stripe used by a thread.</p>
+     */
+    private static int stripeFor(Thread thread) {
+        int h = System.identityHashCode(thread);
+
+        h ^= (h >>> 16);
+
+        return h & (STRIPES - 1);
+    }
+}
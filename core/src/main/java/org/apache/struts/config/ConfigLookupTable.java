@@ -0,0 +1,176 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.config;
+
+import java.io.Serializable;
+
+import java.lang.reflect.Array;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * <p>An immutable, read-optimized copy of a map of configuration objects
+ * keyed by strings, built when a configuration is frozen.  Entries are held
+ * in a single open-addressing table of interned keys, so that a lookup is a
+ * few array reads with no locking, no entry objects and, for keys that come
+ * from the configuration itself, no character comparison.  Lookups are safe
+ * from any number of threads.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+public final class ConfigLookupTable implements Serializable {
+    /**
+     * <p>The keys, or <code>null</code> for empty slots.</p>
+     */
+    private final String[] keys;
+
+    /**
+     * <p>The values, in the slots of their keys.</p>
+     */
+    private final Object[] slots;
+
+    /**
+     * <p>The value mapped to the <code>null</code> key, if any.</p>
+     */
+    private final Object nullValue;
+
+    /**
+     * <p>The values, in the iteration order of the source map.</p>
+     */
+    private final Object[] values;
+
+    /**
+     * <p>Create a table holding the entries of a map, whose keys must be
+     * strings compared with <code>equals</code>.</p>
+     *
+     * @param map The entries to hold
+     */
+    public ConfigLookupTable(Map map) {
+        int capacity = 2;
+
+        while (capacity < (map.size() * 2)) {
+            capacity <<= 1;
+        }
+
+        keys = new String[capacity];
+        slots = new Object[capacity];
+        values = new Object[map.size()];
+
+        Object nullValue = null;
+        int n = 0;
+
+        for (Iterator i = map.entrySet().iterator(); i.hasNext();) {
+            Map.Entry entry = (Map.Entry) i.next();
+            String key = (String) entry.getKey();
+
+            values[n++] = entry.getValue();
+
+            if (key == null) {
+                nullValue = entry.getValue();
+
+                continue;
+            }
+
+            int slot = indexFor(key.hashCode());
+
+            while (keys[slot] != null) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+
+            keys[slot] = key.intern();
+            slots[slot] = entry.getValue();
+        }
+
+        this.nullValue = nullValue;
+    }
+
+    /**
+     * <p>Return the value mapped to a key, or <code>null</code>.</p>
+     *
+     * @param key The key
+     * @return The value, or <code>null</code> if there is none
+     */
+    public Object get(String key) {
+        if (key == null) {
+            return nullValue;
+        }
+
+        int slot = indexFor(key.hashCode());
+
+        while (true) {
+            String candidate = keys[slot];
+
+            if (candidate == null) {
+                return null;
+            }
+
+            if ((candidate == key) || candidate.equals(key)) {
+                return slots[slot];
+            }
+
+            slot = (slot + 1) & (keys.length - 1);
+        }
+    }
+
+    /**
+     * <p>Return the number of entries.</p>
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * <p>Copy the values into an array, as
+     * <code>Collection.toArray(Object[])</code> does.</p>
+     *
+     * @param array The array to fill, if large enough
+     * @return The array holding the values
+     */
+    public Object[] toArray(Object[] array) {
+        if (array.length < values.length) {
+            array =
+                (Object[]) Array.newInstance(array.getClass()
+                                                  .getComponentType(),
+                    values.length);
+        }
+
+        System.arraycopy(values, 0, array, 0, values.length);
+
+        if (array.length > values.length) {
+            array[values.length] = null;
+        }
+
+        return array;
+    }
+
+    /**
+     * <p>Return the slot where the search for a key starts.</p>
+     */
+    private int indexFor(int hash) {
+        hash ^= (hash >>> 16);
+
+        return hash & (keys.length - 1);
+    }
+}
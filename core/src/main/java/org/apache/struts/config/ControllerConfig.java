@@ -101,6 +101,22 @@ public class ControllerConfig extends BaseConfig {
      */
     protected boolean locale = true;
 
+    /**
+     * <p> The name of a cookie holding the locale of stateless requests, if
+     * any. </p>
+     *
+     * @since Struts 1.4
+     */
+    protected String localeCookie = null;
+
+    /**
+     * <p> The name of a request parameter holding the locale of stateless
+     * requests, if any. </p>
+     *
+     * @since Struts 1.4
+     */
+    protected String localeParam = null;
+
     /**
      * <p> The maximum file size to process for file uploads. </p>
      */
@@ -166,6 +182,21 @@ public class ControllerConfig extends BaseConfig {
      */
     protected String tempDir = null;
 
+    /**
+     * <p> Should stateless requests that would create a session fail, rather
+     * than log a warning? </p>
+     *
+     * @since Struts 1.4
+     */
+    protected boolean rejectSessions = false;
+
+    /**
+     * <p> Should requests be processed without creating a session? </p>
+     *
+     * @since Struts 1.4
+     */
+    protected boolean stateless = false;
+
     public int getBufferSize() {
         return (this.bufferSize);
     }
@@ -242,6 +273,30 @@ public class ControllerConfig extends BaseConfig {
         this.locale = locale;
     }
 
+    public String getLocaleCookie() {
+        return (this.localeCookie);
+    }
+
+    public void setLocaleCookie(String localeCookie) {
+        if (configured) {
+            throw new IllegalStateException("Configuration is frozen");
+        }
+
+        this.localeCookie = localeCookie;
+    }
+
+    public String getLocaleParam() {
+        return (this.localeParam);
+    }
+
+    public void setLocaleParam(String localeParam) {
+        if (configured) {
+            throw new IllegalStateException("Configuration is frozen");
+        }
+
+        this.localeParam = localeParam;
+    }
+
     public String getMaxFileSize() {
         return (this.maxFileSize);
     }
@@ -310,6 +365,30 @@ public class ControllerConfig extends BaseConfig {
         this.processorClass = processorClass;
     }
 
+    public boolean getRejectSessions() {
+        return (this.rejectSessions);
+    }
+
+    public void setRejectSessions(boolean rejectSessions) {
+        if (configured) {
+            throw new IllegalStateException("Configuration is frozen");
+        }
+
+        this.rejectSessions = rejectSessions;
+    }
+
+    public boolean getStateless() {
+        return (this.stateless);
+    }
+
+    public void setStateless(boolean stateless) {
+        if (configured) {
+            throw new IllegalStateException("Configuration is frozen");
+        }
+
+        this.stateless = stateless;
+    }
+
     public String getTempDir() {
         return (this.tempDir);
     }
@@ -348,6 +427,16 @@ public class ControllerConfig extends BaseConfig {
         sb.append(",locale=");
         sb.append(this.locale);
 
+        if (this.localeCookie != null) {
+            sb.append(",localeCookie=");
+            sb.append(this.localeCookie);
+        }
+
+        if (this.localeParam != null) {
+            sb.append(",localeParam=");
+            sb.append(this.localeParam);
+        }
+
         if (this.maxFileSize != null) {
             sb.append(",maxFileSize=");
             sb.append(this.maxFileSize);
@@ -370,6 +459,10 @@ public class ControllerConfig extends BaseConfig {
 
         sb.append(",processorClass=");
         sb.append(this.processorClass);
+        sb.append(",rejectSessions=");
+        sb.append(this.rejectSessions);
+        sb.append(",stateless=");
+        sb.append(this.stateless);
 
         if (this.tempDir != null) {
             sb.append(",tempDir=");
@@ -108,6 +108,20 @@ public class FormBeanConfig extends BaseConfig {
      */
     protected boolean restricted = false;
 
+    /**
+     * Are instances of this request-scoped form bean recycled across
+     * requests?
+     *
+     * @since Struts 1.4
+     */
+    protected boolean recycle = false;
+
+    /**
+     * <p>The idle instances of this form bean, created when the first one
+     * is recycled.</p>
+     */
+    private transient volatile ActionFormPool pool = null;
+
     /**
      * <p>Return the DynaActionFormClass associated with a
      * DynaActionForm.</p>
@@ -194,6 +208,34 @@ public class FormBeanConfig extends BaseConfig {
         this.restricted = restricted;
     }
 
+    /**
+     * <p>Indicates whether request-scoped instances of this form bean are
+     * recycled across requests.</p>
+     *
+     * @since Struts 1.4
+     */
+    public boolean isRecycle() {
+        return recycle;
+    }
+
+    /**
+     * <p>Set whether request-scoped instances of this form bean are
+     * recycled.  When set, an instance stored in request scope is returned
+     * to a bounded pool once the request has been processed, and handed to
+     * a later request instead of creating a new one.  Only set it for forms
+     * whose <code>reset</code> method restores every property (dynamic
+     * forms are reinitialized to their initial values), and that are not
+     * kept by the application past the end of the request, such as in the
+     * session: this is not checked.  Instances are not recycled when the
+     * outermost Struts request is included by another page.</p>
+     *
+     * @since Struts 1.4
+     */
+    public void setRecycle(boolean recycle) {
+        throwIfConfigured();
+        this.recycle = recycle;
+    }
+
     // ------------------------------------------------------ Protected Methods
 
     /**
@@ -357,6 +399,75 @@ public class FormBeanConfig extends BaseConfig {
         return createActionForm(actionServlet);
     }
 
+    /**
+     * <p>Return an idle recycled instance of this form bean, or create a
+     * new one if there is none or if this form bean is not recycled.  A
+     * recycled <code>DynaActionForm</code> is reinitialized to its initial
+     * property values; any other form is left for its <code>reset</code>
+     * method to clear.</p>
+     *
+     * @param servlet The action servlet
+     * @return ActionForm instance
+     * @throws IllegalAccessException if the Class or the appropriate
+     *                                constructor is not accessible
+     * @throws InstantiationException if the Class represents an abstract
+     *                                class, an array class, a primitive type,
+     *                                or void; or if instantiation fails for
+     *                                some other reason
+     * @see #releaseActionForm(ActionForm)
+     * @since Struts 1.4
+     */
+    public ActionForm acquireActionForm(ActionServlet servlet)
+        throws IllegalAccessException, InstantiationException {
+        ActionFormPool pool = this.pool;
+        ActionForm form = (pool == null) ? null : pool.take();
+
+        if (form == null) {
+            return createActionForm(servlet);
+        }
+
+        if (form instanceof DynaActionForm) {
+            ((DynaActionForm) form).initialize(this);
+        }
+
+        form.setServlet(servlet);
+
+        return form;
+    }
+
+    /**
+     * <p>Return an instance of this form bean that is no longer referenced
+     * by the application, so that it can be recycled.  Instances are only
+     * kept when this form bean is recycled, up to a fixed number.</p>
+     *
+     * @param form The instance, obtained from {@link
+     *             #acquireActionForm(ActionServlet)}
+     * @since Struts 1.4
+     */
+    public void releaseActionForm(ActionForm form) {
+        if (!recycle || (form instanceof BeanValidatorForm)) {
+            return;
+        }
+
+        form.setMultipartRequestHandler(null);
+        form.setServlet(null);
+
+        ActionFormPool pool = this.pool;
+
+        if (pool == null) {
+            synchronized (lock) {
+                pool = this.pool;
+
+                if (pool == null) {
+                    pool = new ActionFormPool();
+                    this.pool = pool;
+                }
+            }
+        }
+
+        pool.give(form);
+    }
+
     /**
      * <p>Checks if the given <code>ActionForm</code> instance is suitable for
      * use as an alternative to calling this <code>FormBeanConfig</code>
@@ -508,6 +619,10 @@ public class FormBeanConfig extends BaseConfig {
             setRestricted(config.isRestricted());
         }
 
+        if (!isRecycle()) {
+            setRecycle(config.isRecycle());
+        }
+
         if (getType() == null) {
             setType(config.getType());
         }
@@ -587,6 +702,11 @@ public class FormBeanConfig extends BaseConfig {
         sb.append(this.type);
         sb.append(",extends=");
         sb.append(this.inherit);
+
+        if (this.recycle) {
+            sb.append(",recycle=true");
+        }
+
         sb.append("]");
 
         return (sb.toString());
@@ -109,6 +109,15 @@ public class ForwardConfig extends BaseConfig {
      */
     protected String catalog = null;
 
+    /**
+     * <p>The path split for building redirect URLs, or <code>null</code>
+     * until first needed.  Stale when its original path is not the current
+     * <code>path</code>.</p>
+     *
+     * @since Struts 1.4
+     */
+    protected transient RedirectPath redirectPath = null;
+
     // ----------------------------------------------------------- Constructors
 
     /**
@@ -203,6 +212,24 @@ public class ForwardConfig extends BaseConfig {
         this.path = path;
     }
 
+    /**
+     * <p>Return the path, split for building redirect URLs.  The result is
+     * computed once for each path and shared.</p>
+     *
+     * @return The split path
+     * @since Struts 1.4
+     */
+    public RedirectPath getRedirectPath() {
+        RedirectPath redirectPath = this.redirectPath;
+
+        if ((redirectPath == null) || (redirectPath.getPath() != path)) {
+            redirectPath = new RedirectPath(path);
+            this.redirectPath = redirectPath;
+        }
+
+        return (redirectPath);
+    }
+
     public String getModule() {
         return (this.module);
     }
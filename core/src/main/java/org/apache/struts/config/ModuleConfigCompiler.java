@@ -0,0 +1,306 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.config;
+
+import org.apache.commons.digester.Digester;
+import org.apache.struts.action.ActionServlet;
+import org.apache.struts.mock.MockServletConfig;
+import org.apache.struts.mock.MockServletContext;
+import org.apache.struts.util.ContextObjectInputStream;
+
+import javax.servlet.ServletException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Build-time compiler of module configurations.  It parses the
+ * <code>struts-config.xml</code> files of a module, resolves
+ * <code>extends</code> inheritance the same way {@link ActionServlet} does
+ * at startup, and writes the result in a compact binary form.  Point the
+ * <code>config</code> initialization parameter of a module at the compiled
+ * file, named with the {@link ModuleConfigFactory#COMPILED_SUFFIX} suffix,
+ * and the module is loaded by {@link ModuleConfigFactory#loadModuleConfig}
+ * without parsing XML or running any Digester rule.</p>
+ *
+ * <p>Usage:</p>
+ *
+ * <pre>
+ * java org.apache.struts.config.ModuleConfigCompiler [-validating]
+ *     [-rulesets ruleSet,...] output.ser struts-config.xml ...
+ * </pre>
+ *
+ * <p>The application classes must be on the class path, as they are at
+ * startup: custom configuration classes and the types of dynamic form
+ * beans are loaded while inheritance is resolved.  A compiled file must be
+ * rebuilt whenever its configuration files or the Struts version change;
+ * a file written by another version of this format is rejected.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+public class ModuleConfigCompiler {
+    /**
+     * <p>Marks the beginning of a compiled module configuration.</p>
+     */
+    private static final int MAGIC = 0x53434647;
+
+    /**
+     * <p>The version of the compiled format, changed whenever configuration
+     * classes change incompatibly.</p>
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * <p>Whether configuration files are validated against their DTD.</p>
+     */
+    private boolean validating = false;
+
+    /**
+     * <p>Comma-delimited list of additional <code>RuleSet</code> classes,
+     * as in the <code>rulesets</code> initialization parameter.</p>
+     */
+    private String ruleSets = null;
+
+    // ------------------------------------------------------------- Properties
+
+    /**
+     * <p>Return whether configuration files are validated.</p>
+     *
+     * @return <code>true</code> if configuration files are validated
+     */
+    public boolean isValidating() {
+        return validating;
+    }
+
+    /**
+     * <p>Set whether configuration files are validated against their
+     * DTD.</p>
+     *
+     * @param validating <code>true</code> to validate
+     */
+    public void setValidating(boolean validating) {
+        this.validating = validating;
+    }
+
+    /**
+     * <p>Return the additional <code>RuleSet</code> classes.</p>
+     *
+     * @return Comma-delimited class names, or <code>null</code>
+     */
+    public String getRuleSets() {
+        return ruleSets;
+    }
+
+    /**
+     * <p>Set the additional <code>RuleSet</code> classes used to parse
+     * configuration files.</p>
+     *
+     * @param ruleSets Comma-delimited class names
+     */
+    public void setRuleSets(String ruleSets) {
+        this.ruleSets = ruleSets;
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * <p>Parse the configuration files of a module and resolve its
+     * inheritance.</p>
+     *
+     * @param prefix The module prefix
+     * @param urls   The configuration files of the module
+     * @return The resolved module configuration
+     * @throws ServletException if a file cannot be parsed or an
+     *                          <code>extends</code> cannot be resolved
+     */
+    public ModuleConfig compile(String prefix, URL[] urls)
+        throws ServletException {
+        return new Resolver(validating, ruleSets).resolve(prefix, urls);
+    }
+
+    /**
+     * <p>Write a module configuration in compiled form.</p>
+     *
+     * @param config The module configuration
+     * @param out    The stream to write to, left open
+     * @throws IOException if the configuration is not serializable or
+     *                     cannot be written
+     */
+    public static void write(ModuleConfig config, OutputStream out)
+        throws IOException {
+        if (!(config instanceof Serializable)) {
+            throw new NotSerializableException(config.getClass().getName());
+        }
+
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+
+        oos.writeInt(MAGIC);
+        oos.writeInt(FORMAT_VERSION);
+        oos.writeObject(config);
+        oos.flush();
+    }
+
+    /**
+     * <p>Read a module configuration in compiled form.  Classes are
+     * resolved through the context class loader.</p>
+     *
+     * @param in The stream to read from, left open
+     * @return The module configuration
+     * @throws IOException if the stream does not hold a compiled
+     *                     configuration of this format version
+     */
+    public static ModuleConfig read(InputStream in)
+        throws IOException {
+        ObjectInputStream ois = new ContextObjectInputStream(in);
+
+        if (ois.readInt() != MAGIC) {
+            throw new IOException("Not a compiled module configuration");
+        }
+
+        int version = ois.readInt();
+
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Compiled module configuration format "
+                + version + " is not supported, recompile it");
+        }
+
+        try {
+            return (ModuleConfig) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            IOException e2 =
+                new IOException("Missing configuration class: "
+                    + e.getMessage());
+
+            e2.initCause(e);
+            throw e2;
+        }
+    }
+
+    /**
+     * <p>Compile the configuration files given on the command line.</p>
+     *
+     * @param args The command line arguments
+     * @throws Exception if compilation fails
+     */
+    public static void main(String[] args)
+        throws Exception {
+        ModuleConfigCompiler compiler = new ModuleConfigCompiler();
+        List files = new ArrayList();
+
+        for (int i = 0; i < args.length; i++) {
+            if ("-validating".equals(args[i])) {
+                compiler.setValidating(true);
+            } else if ("-rulesets".equals(args[i]) && (i + 1 < args.length)) {
+                compiler.setRuleSets(args[++i]);
+            } else {
+                files.add(args[i]);
+            }
+        }
+
+        if (files.size() < 2) {
+            System.err.println("Usage: java " + ModuleConfigCompiler.class.getName()
+                + " [-validating] [-rulesets ruleSet,...] output"
+                + ModuleConfigFactory.COMPILED_SUFFIX
+                + " struts-config.xml ...");
+            System.exit(1);
+        }
+
+        URL[] urls = new URL[files.size() - 1];
+
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = new File((String) files.get(i + 1)).toURI().toURL();
+        }
+
+        ModuleConfig config = compiler.compile("", urls);
+        File output = new File((String) files.get(0));
+        OutputStream out =
+            new BufferedOutputStream(new FileOutputStream(output));
+
+        try {
+            write(config, out);
+        } finally {
+            out.close();
+        }
+    }
+
+    // ---------------------------------------------------------- Inner Classes
+
+    /**
+     * <p>Parses and resolves configurations with the code
+     * <code>ActionServlet</code> uses at startup, outside of a servlet
+     * container.</p>
+     */
+    private static class Resolver extends ActionServlet {
+        Resolver(boolean validating, String ruleSets)
+            throws ServletException {
+            MockServletConfig config =
+                new MockServletConfig(new MockServletContext());
+
+            config.addInitParameter("validating", String.valueOf(validating));
+
+            if (ruleSets != null) {
+                config.addInitParameter("rulesets", ruleSets);
+            }
+
+            init(config);
+        }
+
+        /**
+         * <p>Only load the messages needed to report errors.</p>
+         */
+        public void init()
+            throws ServletException {
+            initInternal();
+        }
+
+        ModuleConfig resolve(String prefix, URL[] urls)
+            throws ServletException {
+            ModuleConfig config =
+                ModuleConfigFactory.createFactory().createModuleConfig(prefix);
+            Digester digester = initConfigDigester();
+
+            for (int i = 0; i < urls.length; i++) {
+                digester.push(config);
+                parseModuleConfigFile(digester, urls[i]);
+            }
+
+            initModuleFormBeans(config);
+            initModuleForwards(config);
+            initModuleExceptionConfigs(config);
+            initModuleActions(config);
+
+            return config;
+        }
+    }
+}
@@ -24,6 +24,10 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.struts.util.RequestUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
 /**
  * A factory interface for creating {@link ModuleConfig}s.
  *
@@ -32,6 +36,14 @@ import org.apache.struts.util.RequestUtils;
  * @see ModuleConfig
  */
 public abstract class ModuleConfigFactory {
+    /**
+     * The file name suffix of module configurations compiled by {@link
+     * ModuleConfigCompiler}.
+     *
+     * @since Struts 1.4
+     */
+    public static final String COMPILED_SUFFIX = ".ser";
+
     /**
      * The Java class to be used for <code>ModuleConfigFactory</code>
      * instances.
@@ -58,6 +70,44 @@ public abstract class ModuleConfigFactory {
      */
     public abstract ModuleConfig createModuleConfig(String prefix);
 
+    /**
+     * Load a module configuration compiled by {@link ModuleConfigCompiler},
+     * with its inheritance already resolved.
+     *
+     * @param prefix Module prefix for Configuration
+     * @param url    The compiled configuration
+     * @return The module configuration
+     * @throws IOException if the compiled configuration cannot be read
+     * @since Struts 1.4
+     */
+    public ModuleConfig loadModuleConfig(String prefix, URL url)
+        throws IOException {
+        InputStream in = url.openStream();
+
+        try {
+            ModuleConfig config = ModuleConfigCompiler.read(in);
+
+            config.setPrefix(prefix);
+
+            return config;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Return <code>true</code> if the specified configuration resource was
+     * compiled by {@link ModuleConfigCompiler}.
+     *
+     * @param url The configuration resource
+     * @return <code>true</code> if its name ends with {@link
+     *         #COMPILED_SUFFIX}
+     * @since Struts 1.4
+     */
+    public static boolean isCompiled(URL url) {
+        return url.getPath().endsWith(COMPILED_SUFFIX);
+    }
+
     // ------------------------------------------------------ Static Properties
 
     /**
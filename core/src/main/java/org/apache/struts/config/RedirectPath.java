@@ -0,0 +1,124 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.config;
+
+import java.io.Serializable;
+
+/**
+ * <p>The path of a forward, split once for building redirect URLs: the part
+ * before any anchor, the separator that appends query parameters to it, and
+ * the anchor.  Instances are immutable, so that one can be shared by every
+ * redirect built from the same {@link ForwardConfig}.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+public final class RedirectPath implements Serializable {
+    /**
+     * <p>The path this instance was split from.</p>
+     */
+    private final String path;
+
+    /**
+     * <p>The path, without its anchor.</p>
+     */
+    private final String base;
+
+    /**
+     * <p>The separator placed between <code>base</code> and added query
+     * parameters: <code>"?"</code>, <code>"&amp;"</code>, or an empty string
+     * if the path already ends with <code>"?"</code>.</p>
+     */
+    private final String separator;
+
+    /**
+     * <p>The anchor of the path, without <code>"#"</code>, or
+     * <code>null</code>.</p>
+     */
+    private final String anchor;
+
+    /**
+     * <p>Split the specified path.</p>
+     *
+     * @param path A context-relative or absolute path, which may contain a
+     *             query string and an anchor
+     */
+    public RedirectPath(String path) {
+        this.path = path;
+
+        int hash = (path == null) ? (-1) : path.indexOf('#');
+
+        if (hash < 0) {
+            base = path;
+            anchor = null;
+        } else {
+            base = path.substring(0, hash);
+            anchor = path.substring(hash + 1);
+        }
+
+        int query = (base == null) ? (-1) : base.indexOf('?');
+
+        if (query <= 0) {
+            separator = "?";
+        } else if (query == (base.length() - 1)) {
+            separator = "";
+        } else {
+            separator = "&";
+        }
+    }
+
+    /**
+     * <p>Return the path this instance was split from.</p>
+     *
+     * @return The original path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * <p>Return the path without its anchor.</p>
+     *
+     * @return The path without its anchor
+     */
+    public String getBase() {
+        return base;
+    }
+
+    /**
+     * <p>Return the separator to place between the path and added query
+     * parameters.</p>
+     *
+     * @return <code>"?"</code>, <code>"&amp;"</code> or an empty string
+     */
+    public String getSeparator() {
+        return separator;
+    }
+
+    /**
+     * <p>Return the anchor of the path.</p>
+     *
+     * @return The anchor, without <code>"#"</code>, or <code>null</code>
+     */
+    public String getAnchor() {
+        return anchor;
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.struts.Constants;
 import org.apache.struts.config.ActionConfig;
 import org.apache.struts.config.ActionConfigMatcher;
 import org.apache.struts.config.BaseConfig;
+import org.apache.struts.config.ConfigLookupTable;
 import org.apache.struts.config.ControllerConfig;
 import org.apache.struts.config.ExceptionConfig;
 import org.apache.struts.config.FormBeanConfig;
@@ -152,6 +153,18 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      */
     protected ActionConfigMatcher matcher = null;
 
+    /**
+     * <p>Read-optimized copies of the maps of this module, built when it is
+     * frozen, or <code>null</code> until then.  Action configurations are
+     * only copied when paths are case sensitive.</p>
+     */
+    private ConfigLookupTable frozenActionConfigs = null;
+    private ConfigLookupTable frozenActionConfigIds = null;
+    private ConfigLookupTable frozenExceptions = null;
+    private ConfigLookupTable frozenFormBeans = null;
+    private ConfigLookupTable frozenForwards = null;
+    private ConfigLookupTable frozenMessageResources = null;
+
     /**
      * <p>Constructor for ModuleConfigImpl.  Assumes default
      * configuration.</p>
@@ -434,7 +447,14 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * @param path Path of the action configuration to return
      */
     public ActionConfig findActionConfig(String path) {
-        ActionConfig config = (ActionConfig) actionConfigs.get(path);
+        ConfigLookupTable table = frozenActionConfigs;
+        ActionConfig config;
+
+        if (table != null) {
+            config = (ActionConfig) table.get(path);
+        } else {
+            config = (ActionConfig) actionConfigs.get(path);
+        }
 
         // If a direct match cannot be found, try to match action configs
         // containing wildcard patterns only if a matcher exists.
@@ -456,6 +476,12 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      */
     public ActionConfig findActionConfigId(String actionId) {
         if (actionId != null) {
+            ConfigLookupTable table = frozenActionConfigIds;
+
+            if (table != null) {
+                return (ActionConfig) table.get(actionId);
+            }
+
             return (ActionConfig) this.actionConfigIds.get(actionId);
         }
         return null;
@@ -478,6 +504,12 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * @param type Exception class name to find a configuration for
      */
     public ExceptionConfig findExceptionConfig(String type) {
+        ConfigLookupTable table = frozenExceptions;
+
+        if (table != null) {
+            return ((ExceptionConfig) table.get(type));
+        }
+
         return ((ExceptionConfig) exceptions.get(type));
     }
 
@@ -505,7 +537,10 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
             // Check for a locally defined handler
             String name = type.getName();
 
-            log.debug("findException: look locally for " + name);
+            if (log.isDebugEnabled()) {
+                log.debug("findException: look locally for " + name);
+            }
+
             config = findExceptionConfig(name);
 
             if (config != null) {
@@ -528,6 +563,12 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * none, a zero-length array is returned. </p>
      */
     public ExceptionConfig[] findExceptionConfigs() {
+        ConfigLookupTable table = frozenExceptions;
+
+        if (table != null) {
+            return ((ExceptionConfig[]) table.toArray(new ExceptionConfig[table.size()]));
+        }
+
         ExceptionConfig[] results = new ExceptionConfig[exceptions.size()];
 
         return ((ExceptionConfig[]) exceptions.values().toArray(results));
@@ -540,6 +581,12 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * @param name Name of the form bean configuration to return
      */
     public FormBeanConfig findFormBeanConfig(String name) {
+        ConfigLookupTable table = frozenFormBeans;
+
+        if (table != null) {
+            return ((FormBeanConfig) table.get(name));
+        }
+
         return ((FormBeanConfig) formBeans.get(name));
     }
 
@@ -548,6 +595,12 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * none, a zero-length array is returned. </p>
      */
     public FormBeanConfig[] findFormBeanConfigs() {
+        ConfigLookupTable table = frozenFormBeans;
+
+        if (table != null) {
+            return ((FormBeanConfig[]) table.toArray(new FormBeanConfig[table.size()]));
+        }
+
         FormBeanConfig[] results = new FormBeanConfig[formBeans.size()];
 
         return ((FormBeanConfig[]) formBeans.values().toArray(results));
@@ -560,6 +613,12 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * @param name Name of the forward configuration to return
      */
     public ForwardConfig findForwardConfig(String name) {
+        ConfigLookupTable table = frozenForwards;
+
+        if (table != null) {
+            return ((ForwardConfig) table.get(name));
+        }
+
         return ((ForwardConfig) forwards.get(name));
     }
 
@@ -568,6 +627,12 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * none, a zero-length array is returned. </p>
      */
     public ForwardConfig[] findForwardConfigs() {
+        ConfigLookupTable table = frozenForwards;
+
+        if (table != null) {
+            return ((ForwardConfig[]) table.toArray(new ForwardConfig[table.size()]));
+        }
+
         ForwardConfig[] results = new ForwardConfig[forwards.size()];
 
         return ((ForwardConfig[]) forwards.values().toArray(results));
@@ -580,6 +645,12 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * @param key Key of the data source configuration to return
      */
     public MessageResourcesConfig findMessageResourcesConfig(String key) {
+        ConfigLookupTable table = frozenMessageResources;
+
+        if (table != null) {
+            return ((MessageResourcesConfig) table.get(key));
+        }
+
         return ((MessageResourcesConfig) messageResources.get(key));
     }
 
@@ -588,6 +659,12 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * there are none, a zero-length array is returned. </p>
      */
     public MessageResourcesConfig[] findMessageResourcesConfigs() {
+        ConfigLookupTable table = frozenMessageResources;
+
+        if (table != null) {
+            return ((MessageResourcesConfig[]) table.toArray(new MessageResourcesConfig[table.size()]));
+        }
+
         MessageResourcesConfig[] results =
             new MessageResourcesConfig[messageResources.size()];
 
@@ -607,7 +684,8 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
     /**
      * <p> Freeze the configuration of this module.  After this method
      * returns, any attempt to modify the configuration will return an
-     * IllegalStateException. </p>
+     * IllegalStateException, and lookups read from immutable tables built
+     * from its maps. </p>
      */
     public void freeze() {
         super.freeze();
@@ -651,6 +729,17 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
         for (int i = 0; i < piconfigs.length; i++) {
             piconfigs[i].freeze();
         }
+
+        // A case insensitive map has no equivalent table
+        if (actionConfigs instanceof HashMap) {
+            frozenActionConfigs = new ConfigLookupTable(actionConfigs);
+        }
+
+        frozenActionConfigIds = new ConfigLookupTable(actionConfigIds);
+        frozenExceptions = new ConfigLookupTable(exceptions);
+        frozenFormBeans = new ConfigLookupTable(formBeans);
+        frozenForwards = new ConfigLookupTable(forwards);
+        frozenMessageResources = new ConfigLookupTable(messageResources);
     }
 
     /**
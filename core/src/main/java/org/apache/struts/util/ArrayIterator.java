@@ -0,0 +1,111 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import java.lang.reflect.Array;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Iterator over the elements of an array of objects or primitives that
+ * reads the array by index instead of copying it into a collection.
+ * Primitive elements are wrapped one at a time as they are returned.  If
+ * you attempt to remove() an element, it will throw an
+ * UnsupportedOperationException.</p>
+ *
+ * @version $Rev$
+ * @since Struts 1.4
+ */
+public class ArrayIterator implements Iterator {
+    /**
+     * The array, when it is an array of objects.
+     */
+    private final Object[] objects;
+
+    /**
+     * The array, when it is an array of primitives.
+     */
+    private final Object primitives;
+
+    /**
+     * The number of elements in the array.
+     */
+    private final int length;
+
+    /**
+     * The index of the next element to return.
+     */
+    private int index;
+
+    /**
+     * <p>Create an iterator over every element of <code>array</code>.</p>
+     *
+     * @param array The array to iterate over
+     * @throws IllegalArgumentException if <code>array</code> is not an array
+     */
+    public ArrayIterator(Object array) {
+        this(array, 0);
+    }
+
+    /**
+     * <p>Create an iterator over the elements of <code>array</code>, starting
+     * at <code>offset</code>.  An offset past the end of the array yields an
+     * empty iterator.</p>
+     *
+     * @param array  The array to iterate over
+     * @param offset The zero-relative index of the first element to return
+     * @throws IllegalArgumentException if <code>array</code> is not an array
+     */
+    public ArrayIterator(Object array, int offset) {
+        if (array instanceof Object[]) {
+            this.objects = (Object[]) array;
+            this.primitives = null;
+            this.length = this.objects.length;
+        } else {
+            this.objects = null;
+            this.primitives = array;
+            this.length = Array.getLength(array);
+        }
+
+        this.index = Math.max(0, offset);
+    }
+
+    public boolean hasNext() {
+        return index < length;
+    }
+
+    public Object next() {
+        if (index >= length) {
+            throw new NoSuchElementException(
+                "ArrayIterator.next() has no more elements");
+        }
+
+        int i = index++;
+
+        return (objects != null) ? objects[i] : Array.get(primitives, i);
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException(
+            "Method ArrayIterator.remove() not implemented");
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import java.util.Iterator;
+
+/**
+ * <p>A source of elements that can be iterated over a window without being
+ * materialized first, such as a cursor over a large query result.  Tags
+ * that render collections (for example <code>logic:iterate</code>) pass the
+ * requested offset and length through, so an implementation can position
+ * itself directly instead of having skipped elements read one by one.</p>
+ *
+ * <p>Implementations should release any underlying resources once the
+ * returned iterator is exhausted.</p>
+ *
+ * @version $Rev$
+ * @since Struts 1.4
+ */
+public interface IterationSource {
+    /**
+     * <p>Return an iterator positioned at <code>offset</code> that returns
+     * at most <code>length</code> elements.</p>
+     *
+     * @param offset The zero-relative index of the first element to return
+     * @param length The maximum number of elements to return, or zero or
+     *               less for no limit
+     * @return An iterator over the requested window
+     */
+    Iterator iterator(int offset, int length);
+}
@@ -28,11 +28,13 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 import org.apache.commons.beanutils.BeanUtils;
@@ -45,7 +47,9 @@ import org.apache.struts.action.ActionMapping;
 import org.apache.struts.action.ActionRedirect;
 import org.apache.struts.action.ActionServlet;
 import org.apache.struts.action.ActionServletWrapper;
+import org.apache.struts.action.ChangeTrackingForm;
 import org.apache.struts.config.ActionConfig;
+import org.apache.struts.config.ControllerConfig;
 import org.apache.struts.config.FormBeanConfig;
 import org.apache.struts.config.ForwardConfig;
 import org.apache.struts.config.ModuleConfig;
@@ -210,7 +214,74 @@ public class RequestUtils {
             return (instance);
         }
 
-        return createActionForm(config, servlet);
+        // Take a recycled instance if the form bean allows it
+        List forms = null;
+
+        if (config.isRecycle() && "request".equals(mapping.getScope())) {
+            forms = (List) request.getAttribute(Globals.RECYCLED_FORMS_KEY);
+        }
+
+        if (forms == null) {
+            return createActionForm(config, servlet);
+        }
+
+        try {
+            instance = config.acquireActionForm(servlet);
+
+            if (log.isDebugEnabled()) {
+                log.debug(" Acquired recyclable ActionForm instance of type '"
+                    + config.getType() + "'");
+            }
+        } catch (Throwable t) {
+            log.error(servlet.getInternal().getMessage("formBean",
+                    config.getType()), t);
+
+            return (null);
+        }
+
+        forms.add(config);
+        forms.add(instance);
+
+        return (instance);
+    }
+
+    /**
+     * <p>Return the form beans acquired while processing a request to their
+     * {@link FormBeanConfig}, so that they can be recycled.  Request
+     * attributes still holding a form bean are removed first, so that
+     * nothing rendered after this call uses an instance handed to another
+     * request.  Form beans the application stored elsewhere, such as in the
+     * session, are not detected: recycled form beans must not be kept past
+     * the end of the request.</p>
+     *
+     * @param request The request that has been processed
+     * @param forms   Each <code>FormBeanConfig</code> followed by its
+     *                instance, as recorded under {@link
+     *                Globals#RECYCLED_FORMS_KEY}
+     * @since Struts 1.4
+     */
+    public static void releaseActionForms(HttpServletRequest request,
+        List forms) {
+        if (forms.isEmpty()) {
+            return;
+        }
+
+        List names = Collections.list(request.getAttributeNames());
+
+        for (int i = 0; i < forms.size(); i += 2) {
+            FormBeanConfig config = (FormBeanConfig) forms.get(i);
+            ActionForm form = (ActionForm) forms.get(i + 1);
+
+            for (Iterator j = names.iterator(); j.hasNext();) {
+                String name = (String) j.next();
+
+                if (request.getAttribute(name) == form) {
+                    request.removeAttribute(name);
+                }
+            }
+
+            config.releaseActionForm(form);
+        }
     }
 
     private static ActionForm lookupActionForm(HttpServletRequest request,
@@ -227,8 +298,12 @@ public class RequestUtils {
         if ("request".equals(scope)) {
             instance = (ActionForm) request.getAttribute(attribute);
         } else {
-            session = request.getSession();
-            instance = (ActionForm) session.getAttribute(attribute);
+            // Storing a new instance creates the session, if needed
+            session = request.getSession(false);
+
+            if (session != null) {
+                instance = (ActionForm) session.getAttribute(attribute);
+            }
         }
 
         return (instance);
@@ -284,6 +359,56 @@ public class RequestUtils {
         return (String)servletContext.getAttribute(Globals.SERVLET_KEY);
     }
 
+    /**
+     * <p>Return whether a form bean looked up or created for a request must
+     * be set in session scope, where <code>bound</code> is currently bound
+     * under its attribute.  A new instance must be, and so must a form bean
+     * that does not implement {@link ChangeTrackingForm} or reports changes.
+     * The changes of a <code>ChangeTrackingForm</code> are forgotten.</p>
+     *
+     * @param bound    The value bound under the attribute of the form bean
+     * @param instance The form bean
+     * @return <code>true</code> if the form bean must be set in the session
+     * @since Struts 1.4
+     */
+    public static boolean isActionFormStoreNeeded(Object bound,
+        ActionForm instance) {
+        if (!(instance instanceof ChangeTrackingForm)) {
+            return true;
+        }
+
+        ChangeTrackingForm tracked = (ChangeTrackingForm) instance;
+        boolean changed = tracked.isChanged();
+
+        tracked.clearChanged();
+
+        return changed || (bound != instance);
+    }
+
+    /**
+     * <p>Return whether a form bean kept in session scope must be set in the
+     * session again once it has been reset and populated, because it is a
+     * {@link ChangeTrackingForm} reporting changes.  Its changes are
+     * forgotten.  Other form beans were already set in the session when they
+     * were looked up.</p>
+     *
+     * @param instance The form bean
+     * @return <code>true</code> if the form bean must be set in the session
+     * @since Struts 1.4
+     */
+    public static boolean isActionFormChanged(ActionForm instance) {
+        if (!(instance instanceof ChangeTrackingForm)) {
+            return false;
+        }
+
+        ChangeTrackingForm tracked = (ChangeTrackingForm) instance;
+        boolean changed = tracked.isChanged();
+
+        tracked.clearChanged();
+
+        return changed;
+    }
+
     /**
      * <p>Look up and return current user locale, based on the specified
      * parameters.</p>
@@ -303,8 +428,13 @@ public class RequestUtils {
             locale = Globals.LOCALE_KEY;
         }
 
+        // Stateless requests select their Locale in request scope
+        if (request.getAttribute(Globals.STATELESS_KEY) != null) {
+            userLocale = (Locale) request.getAttribute(locale);
+        }
+
         // Only check session if sessions are enabled
-        if (session != null) {
+        if ((userLocale == null) && (session != null)) {
             userLocale = (Locale) session.getAttribute(locale);
         }
 
@@ -316,6 +446,145 @@ public class RequestUtils {
         return userLocale;
     }
 
+    /**
+     * <p>Select the <code>Locale</code> of a request processed without a
+     * session.  It is read from the request parameter named by the
+     * <code>localeParam</code> property of the controller, then from the
+     * cookie named by its <code>localeCookie</code> property, then from an
+     * existing session, and finally from the <code>Accept-Language</code>
+     * header.  No session is created.</p>
+     *
+     * @param request    The request being processed
+     * @param controller The controller configuration of its module
+     * @return The Locale of the request
+     * @since Struts 1.4
+     */
+    public static Locale getStatelessLocale(HttpServletRequest request,
+        ControllerConfig controller) {
+        Locale locale = null;
+        String name = controller.getLocaleParam();
+
+        if (name != null) {
+            locale = parseLocale(request.getParameter(name));
+        }
+
+        name = controller.getLocaleCookie();
+
+        if ((locale == null) && (name != null)) {
+            Cookie[] cookies = request.getCookies();
+
+            for (int i = 0; (cookies != null) && (i < cookies.length); i++) {
+                if (name.equals(cookies[i].getName())) {
+                    locale = parseLocale(cookies[i].getValue());
+
+                    break;
+                }
+            }
+        }
+
+        if (locale == null) {
+            HttpSession session = request.getSession(false);
+
+            if (session != null) {
+                locale = (Locale) session.getAttribute(Globals.LOCALE_KEY);
+            }
+        }
+
+        if (locale == null) {
+            locale = request.getLocale();
+        }
+
+        if (locale == null) {
+            locale = Locale.getDefault();
+        }
+
+        return locale;
+    }
+
+    /**
+     * <p>Parse a locale such as "fr", "fr_CA" or "fr-CA".</p>
+     *
+     * @param value The value to parse, may be <code>null</code>
+     * @return The Locale, or <code>null</code> if the value is empty
+     */
+    private static Locale parseLocale(String value) {
+        if ((value == null) || (value.trim().length() == 0)) {
+            return null;
+        }
+
+        String[] parts = value.trim().replace('-', '_').split("_", 3);
+
+        if (parts.length == 1) {
+            return new Locale(parts[0]);
+        } else if (parts.length == 2) {
+            return new Locale(parts[0], parts[1]);
+        } else {
+            return new Locale(parts[0], parts[1], parts[2]);
+        }
+    }
+
+    /**
+     * <p>Mark a request as processed without a session if its module or
+     * mapping is configured as stateless.</p>
+     *
+     * @param request    The request being processed
+     * @param controller The controller configuration of its module
+     * @param mapping    The selected mapping, or <code>null</code> if none was
+     *                   selected yet
+     * @return <code>true</code> if the request is stateless
+     * @since Struts 1.4
+     */
+    public static boolean selectStateless(HttpServletRequest request,
+        ControllerConfig controller, ActionConfig mapping) {
+        if (!controller.getStateless()
+            && ((mapping == null) || !mapping.getStateless())) {
+            return (request.getAttribute(Globals.STATELESS_KEY) != null);
+        }
+
+        request.setAttribute(Globals.STATELESS_KEY,
+            controller.getRejectSessions() ? Boolean.TRUE : Boolean.FALSE);
+
+        return true;
+    }
+
+    /**
+     * <p>Return the session of a request, creating it if necessary.  For a
+     * request processed without a session, creating one is logged, or
+     * rejected with an <code>IllegalStateException</code>, depending on the
+     * value of its {@link Globals#STATELESS_KEY} attribute.</p>
+     *
+     * @param request The request being processed
+     * @param purpose What the session is needed for, to report violations
+     * @return The session of the request
+     * @throws IllegalStateException if a stateless request may not create a
+     *                               session
+     * @since Struts 1.4
+     */
+    public static HttpSession getSession(HttpServletRequest request,
+        String purpose) {
+        HttpSession session = request.getSession(false);
+
+        if (session != null) {
+            return session;
+        }
+
+        Object stateless = request.getAttribute(Globals.STATELESS_KEY);
+
+        if (stateless != null) {
+            String msg =
+                "Stateless request for '" + request.getRequestURI()
+                + "' creates a session to store " + purpose;
+
+            if (Boolean.TRUE.equals(stateless)) {
+                throw new IllegalStateException(msg);
+            }
+
+            log.warn(msg);
+        }
+
+        return request.getSession();
+    }
+
     /**
      * <p>Populate the properties of the specified JavaBean from the specified
      * HTTP request, based on matching each parameter name against the
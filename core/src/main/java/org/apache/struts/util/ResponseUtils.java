@@ -23,11 +23,15 @@ package org.apache.struts.util;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-
 import java.net.URLEncoder;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * General purpose utility methods related to generating a servlet response in
  * the Struts controller framework.
@@ -46,28 +50,60 @@ public class ResponseUtils {
             "org.apache.struts.util.LocalStrings");
 
     /**
-     * Java 1.4 encode method to use instead of deprecated 1.3 version.
+     * Commons logging instance.
+     */
+    private static final Log log = LogFactory.getLog(ResponseUtils.class);
+
+    /**
+     * The UTF-8 character set.  URLs are encoded in UTF-8 by
+     * <code>appendUTF8()</code> rather than through this
+     * <code>Charset</code>.
      */
-    private static Method encode = null;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
 
     /**
-     * Commons logging instance.
+     * Stands in the charset cache for encodings that are not supported.
      */
-    private static final Log log = LogFactory.getLog(ResponseUtils.class);
+    private static final Object UNSUPPORTED = new Object();
 
     /**
-     * Initialize the encode variable with the
-     * Java 1.4 method if available.
+     * The character sets used to encode URLs, keyed by encoding name, or
+     * <code>UNSUPPORTED</code>.  The map is never changed once published:
+     * it is replaced by a copy when an encoding is added, so that it is
+     * read without locking.
      */
+    private static volatile Map charsets = new HashMap();
+
+    /**
+     * The ASCII characters left unchanged by URL encoding, as by
+     * <code>java.net.URLEncoder</code>.
+     */
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    /**
+     * The escape sequence of each byte value.
+     */
+    private static final String[] ESCAPES = new String[256];
+
     static {
-        try {
-            // get version of encode method with two String args
-            Class[] args = new Class[] { String.class, String.class };
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+            UNRESERVED[Character.toUpperCase(c)] = true;
+        }
 
-            encode = URLEncoder.class.getMethod("encode", args);
-        } catch (NoSuchMethodException e) {
-            log.debug("Could not find Java 1.4 encode method.  Using deprecated version.",
-                e);
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+
+        UNRESERVED['.'] = true;
+        UNRESERVED['-'] = true;
+        UNRESERVED['*'] = true;
+        UNRESERVED['_'] = true;
+
+        String hex = "0123456789ABCDEF";
+
+        for (int b = 0; b < 256; b++) {
+            ESCAPES[b] = "%" + hex.charAt(b >> 4) + hex.charAt(b & 0xF);
         }
     }
 
@@ -151,33 +187,170 @@ public class ResponseUtils {
     }
 
     /**
-     * Use the new URLEncoder.encode() method from Java 1.4 if available, else
-     * use the old deprecated version.  This method uses reflection to find
-     * the appropriate method; if the reflection operations throw exceptions,
-     * this will return the url encoded with the old URLEncoder.encode()
-     * method.
+     * URLencodes a string, as <code>URLEncoder.encode()</code> does.  A
+     * string made only of characters that need no encoding is returned as
+     * is, and UTF-8 is encoded without a <code>Charset</code>.  If the
+     * character encoding is not supported, the platform default encoding is
+     * used, as by the deprecated <code>URLEncoder.encode()</code> method.
      *
      * @param enc The character encoding the urlencode is performed on.
      * @return String The encoded url.
      */
     public static String encodeURL(String url, String enc) {
+        int length = url.length();
+        int i = 0;
+
+        while ((i < length) && (url.charAt(i) < 128)
+            && UNRESERVED[url.charAt(i)]) {
+            i++;
+        }
+
+        if (i == length) {
+            return url;
+        }
+
+        if ((enc == null) || (enc.length() == 0)) {
+            enc = "UTF-8";
+        }
+
+        Object charset = getCharset(enc);
+
+        if (charset == UNSUPPORTED) {
+            return URLEncoder.encode(url);
+        }
+
+        StringBuffer result = new StringBuffer(length + 16);
+
+        result.append(url.substring(0, i));
+
+        if (charset == UTF_8) {
+            appendUTF8(result, url, i);
+        } else {
+            append(result, url, i, (Charset) charset);
+        }
+
+        return result.toString();
+    }
+
+    // ------------------------------------------------------- Private Methods
+
+    /**
+     * Return the character set of an encoding, looked up once.
+     *
+     * @param enc The name of the character encoding
+     * @return The <code>Charset</code>, or <code>UNSUPPORTED</code>
+     */
+    private static Object getCharset(String enc) {
+        if ("UTF-8".equals(enc)) {
+            return UTF_8;
+        }
+
+        Object charset = charsets.get(enc);
+
+        if (charset != null) {
+            return charset;
+        }
+
         try {
-            if ((enc == null) || (enc.length() == 0)) {
-                enc = "UTF-8";
+            charset = Charset.forName(enc);
+
+            if (UTF_8.equals(charset)) {
+                charset = UTF_8;
             }
+        } catch (IllegalArgumentException e) {
+            log.debug("Unsupported encoding " + enc
+                + ", using the platform default encoding", e);
+            charset = UNSUPPORTED;
+        }
+
+        synchronized (ResponseUtils.class) {
+            Map copy = new HashMap(charsets);
+
+            copy.put(enc, charset);
+            charsets = copy;
+        }
 
-            // encode url with new 1.4 method and UTF-8 encoding
-            if (encode != null) {
-                return (String) encode.invoke(null, new Object[] { url, enc });
+        return charset;
+    }
+
+    /**
+     * Append the URL encoding in UTF-8 of the characters of a string
+     * from the specified index.
+     */
+    private static void appendUTF8(StringBuffer result, String value, int i) {
+        int length = value.length();
+
+        for (; i < length; i++) {
+            int c = value.charAt(i);
+
+            if (c < 128) {
+                if (UNRESERVED[c]) {
+                    result.append((char) c);
+                } else if (c == ' ') {
+                    result.append('+');
+                } else {
+                    result.append(ESCAPES[c]);
+                }
+            } else if (c < 0x800) {
+                result.append(ESCAPES[0xC0 | (c >> 6)]);
+                result.append(ESCAPES[0x80 | (c & 0x3F)]);
+            } else if ((c < 0xD800) || (c > 0xDFFF)) {
+                result.append(ESCAPES[0xE0 | (c >> 12)]);
+                result.append(ESCAPES[0x80 | ((c >> 6) & 0x3F)]);
+                result.append(ESCAPES[0x80 | (c & 0x3F)]);
+            } else if ((c <= 0xDBFF) && ((i + 1) < length)
+                && (value.charAt(i + 1) >= 0xDC00)
+                && (value.charAt(i + 1) <= 0xDFFF)) {
+                int code =
+                    0x10000 + ((c - 0xD800) << 10)
+                    + (value.charAt(++i) - 0xDC00);
+
+                result.append(ESCAPES[0xF0 | (code >> 18)]);
+                result.append(ESCAPES[0x80 | ((code >> 12) & 0x3F)]);
+                result.append(ESCAPES[0x80 | ((code >> 6) & 0x3F)]);
+                result.append(ESCAPES[0x80 | (code & 0x3F)]);
+            } else {
+                // An unpaired surrogate cannot be encoded in UTF-8
+                result.append(ESCAPES['?']);
             }
-        } catch (IllegalAccessException e) {
-            log.debug("Could not find Java 1.4 encode method.  Using deprecated version.",
-                e);
-        } catch (InvocationTargetException e) {
-            log.debug("Could not find Java 1.4 encode method. Using deprecated version.",
-                e);
         }
+    }
+
+    /**
+     * Append the URL encoding in a character set of the characters of a
+     * string from the specified index.  Runs of characters to encode are
+     * encoded together, as some character sets encode them differently
+     * than one at a time.
+     */
+    private static void append(StringBuffer result, String value, int i,
+        Charset charset) {
+        int length = value.length();
+
+        while (i < length) {
+            int c = value.charAt(i);
+
+            if ((c < 128) && UNRESERVED[c]) {
+                result.append((char) c);
+                i++;
+            } else if (c == ' ') {
+                result.append('+');
+                i++;
+            } else {
+                int start = i;
+
+                do {
+                    i++;
+                } while ((i < length) && (value.charAt(i) != ' ')
+                    && ((value.charAt(i) >= 128)
+                    || !UNRESERVED[value.charAt(i)]));
 
-        return URLEncoder.encode(url);
+                ByteBuffer bytes =
+                    charset.encode(CharBuffer.wrap(value, start, i));
+
+                while (bytes.hasRemaining()) {
+                    result.append(ESCAPES[bytes.get() & 0xFF]);
+                }
+            }
+        }
     }
 }
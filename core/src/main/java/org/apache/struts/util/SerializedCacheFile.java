@@ -0,0 +1,220 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import java.net.URL;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * <p>File holding a serialized object together with the key it was stored
+ * under, typically a digest of the files the object was built from, so
+ * that a restart with unchanged files can skip processing them.  The file
+ * is written to a temporary file first and then renamed, so that readers
+ * never see a partial file.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+public class SerializedCacheFile {
+    /**
+     * <p>The cache file.</p>
+     */
+    private final File file;
+
+    /**
+     * <p>Create a cache stored in the specified file.</p>
+     *
+     * @param file The cache file
+     */
+    public SerializedCacheFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * <p>Return the cache file.</p>
+     *
+     * @return The cache file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * <p>Compute the MD5 digest of some settings, and of the locations and
+     * contents of some files.</p>
+     *
+     * @param values Settings that are part of the digest, or
+     *               <code>null</code>
+     * @param urls   The files
+     * @return The digest in hexadecimal, or <code>null</code> if a file
+     *         cannot be read
+     */
+    public static String digest(String[] values, URL[] urls) {
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                update(digest, values[i]);
+            }
+        }
+
+        byte[] buffer = new byte[8192];
+
+        for (int i = 0; i < urls.length; i++) {
+            update(digest, urls[i].toExternalForm());
+
+            InputStream in = null;
+
+            try {
+                in = urls[i].openStream();
+
+                int count;
+
+                while ((count = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, count);
+                }
+            } catch (IOException e) {
+                return null;
+            } finally {
+                if (in != null) {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        ;
+                    }
+                }
+            }
+        }
+
+        byte[] bytes = digest.digest();
+        StringBuffer key = new StringBuffer(bytes.length * 2);
+
+        for (int i = 0; i < bytes.length; i++) {
+            key.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16));
+            key.append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * <p>Return the object stored under a key.  Classes are resolved
+     * through the context class loader.</p>
+     *
+     * @param key The key the object must have been stored under
+     * @return The object, or <code>null</code> if there is no cache file or
+     *         it holds an object stored under another key
+     * @throws IOException            if the file cannot be read
+     * @throws ClassNotFoundException if a class of the object cannot be
+     *                                found
+     */
+    public Object read(String key)
+        throws IOException, ClassNotFoundException {
+        if (!file.exists()) {
+            return null;
+        }
+
+        ObjectInputStream in =
+            new ContextObjectInputStream(new BufferedInputStream(
+                    new FileInputStream(file)));
+
+        try {
+            if (!key.equals(in.readUTF())) {
+                return null;
+            }
+
+            return in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * <p>Store an object under a key, replacing the current cache
+     * file.</p>
+     *
+     * @param key   The key
+     * @param value The object, which must be serializable
+     * @throws IOException if the object cannot be written or the cache
+     *                     file cannot be replaced
+     */
+    public void write(String key, Object value)
+        throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        ObjectOutputStream out = null;
+
+        try {
+            out = new ObjectOutputStream(new BufferedOutputStream(
+                        new FileOutputStream(temp)));
+            out.writeUTF(key);
+            out.writeObject(value);
+            out.close();
+            out = null;
+
+            file.delete();
+
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot rename " + temp + " to " + file);
+            }
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    ;
+                }
+            }
+
+            temp.delete();
+        }
+    }
+
+    /**
+     * <p>Add a string to a digest, followed by a separator.</p>
+     */
+    private static void update(MessageDigest digest, String value) {
+        try {
+            digest.update(String.valueOf(value).getBytes("UTF-8"));
+        } catch (IOException e) {
+            digest.update(String.valueOf(value).getBytes());
+        }
+
+        digest.update((byte) 0);
+    }
+}
@@ -164,7 +164,8 @@ public class TokenProcessor {
      * @param request The servlet request we are processing
      */
     public synchronized void saveToken(HttpServletRequest request) {
-        HttpSession session = request.getSession();
+        HttpSession session =
+            RequestUtils.getSession(request, "a transaction token");
         String token = generateToken(request);
 
         if (token != null) {
@@ -179,7 +180,8 @@ public class TokenProcessor {
      * @param request The request we are processing
      */
     public synchronized String generateToken(HttpServletRequest request) {
-        HttpSession session = request.getSession();
+        HttpSession session =
+            RequestUtils.getSession(request, "a transaction token");
 
         return generateToken(session.getId());
     }
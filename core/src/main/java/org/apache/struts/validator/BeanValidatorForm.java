@@ -26,8 +26,13 @@ import org.apache.commons.beanutils.DynaClass;
 import org.apache.commons.beanutils.WrapDynaBean;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.commons.validator.Form;
+import org.apache.commons.validator.ValidatorResources;
+import org.apache.struts.action.ActionErrors;
 import org.apache.struts.action.ActionMapping;
+import org.apache.struts.action.ActionServlet;
 import org.apache.struts.config.FormBeanConfig;
+import org.apache.struts.util.RequestUtils;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -35,6 +40,7 @@ import java.io.Serializable;
 
 import java.lang.reflect.Array;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -54,6 +60,11 @@ import java.util.Map;
  * <code>pathValidation</code> is <code>true</code> or
  * <code>false</code>.</p>
  *
+ * <p>The simple properties validated are read in one pass before the
+ * <i>Validator</i> runs, through accessors bound once per form and bean
+ * class, and the rules validating them then read these values rather than
+ * introspecting the bean again.</p>
+ *
  * <p><b>Note</b>: WrapDynaBean is NOT serializable.  If you use this class
  * with a WrapDynaBean (as described above), you should not store your form in
  * session scope.</p>
@@ -81,6 +92,12 @@ public class BeanValidatorForm extends ValidatorForm implements DynaBean,
      */
     private String strutsConfigFormName;
 
+    /**
+     * The values of the simple properties validated, read while this form is
+     * being validated.
+     */
+    private transient Map validatedValues = null;
+
     // ------------------- Constructor ----------------------------------
 
     /**
@@ -224,6 +241,69 @@ public class BeanValidatorForm extends ValidatorForm implements DynaBean,
         return validationKey;
     }
 
+    /**
+     * <p>Validate the properties that have been set from this HTTP request,
+     * reading the simple properties validated in one pass beforehand when
+     * every field is validated.</p>
+     *
+     * @param mapping    The mapping used to select this instance
+     * @param request    The servlet request we are processing
+     * @param properties The names of the properties changed, or
+     *                   <code>null</code> to validate every field
+     * @return <code>ActionErrors</code> object that encapsulates any
+     *         validation errors
+     * @since Struts 1.4
+     */
+    public ActionErrors validate(ActionMapping mapping,
+        HttpServletRequest request, Collection properties) {
+        if (properties == null) {
+            validatedValues = readValidatedValues(mapping, request);
+        }
+
+        try {
+            return super.validate(mapping, request, properties);
+        } finally {
+            validatedValues = null;
+        }
+    }
+
+    /**
+     * <p>Read the values of the simple properties validated on the current
+     * page, or return <code>null</code> if there is no Validator form to
+     * validate this form with.</p>
+     *
+     * @param mapping The mapping used to select this instance
+     * @param request The servlet request we are processing
+     * @return The values of the properties, keyed by name
+     */
+    private Map readValidatedValues(ActionMapping mapping,
+        HttpServletRequest request) {
+        ActionServlet servlet = getServlet();
+
+        if (servlet == null) {
+            return null;
+        }
+
+        ValidatorResources resources =
+            Resources.getValidatorResources(servlet.getServletContext(),
+                request);
+
+        if (resources == null) {
+            return null;
+        }
+
+        Form form =
+            resources.getForm(RequestUtils.getUserLocale(request, null),
+                getValidationKey(mapping, request));
+
+        if (form == null) {
+            return null;
+        }
+
+        return FieldAccessors.getInstance(form, dynaBean).read(dynaBean,
+            getPage());
+    }
+
     // ------------------- DynaBean Methods ----------------------------------
 
     /**
@@ -240,6 +320,12 @@ public class BeanValidatorForm extends ValidatorForm implements DynaBean,
      * @param name Name of the property whose value is to be retrieved
      */
     public Object get(String name) {
+        Map values = validatedValues;
+
+        if ((values != null) && values.containsKey(name)) {
+            return values.get(name);
+        }
+
         return dynaBean.get(name);
     }
 
@@ -288,6 +374,7 @@ public class BeanValidatorForm extends ValidatorForm implements DynaBean,
             }
         }
 
+        forget(name);
         dynaBean.set(name, value);
     }
 
@@ -299,6 +386,7 @@ public class BeanValidatorForm extends ValidatorForm implements DynaBean,
      * @param value Value to which this property is to be set
      */
     public void set(String name, int index, Object value) {
+        forget(name);
         dynaBean.set(name, index, value);
     }
 
@@ -310,6 +398,7 @@ public class BeanValidatorForm extends ValidatorForm implements DynaBean,
      * @param value Value to which this property is to be set
      */
     public void set(String name, String key, Object value) {
+        forget(name);
         dynaBean.set(name, key, value);
     }
 
@@ -332,6 +421,18 @@ public class BeanValidatorForm extends ValidatorForm implements DynaBean,
      * @param key  Key of the value to be removed
      */
     public void remove(String name, String key) {
+        forget(name);
         dynaBean.remove(name, key);
     }
+
+    // ------------------- Private Methods ----------------------------------
+
+    /**
+     * Forget the value read for a property being changed during validation.
+     */
+    private void forget(String name) {
+        if (validatedValues != null) {
+            validatedValues.remove(name);
+        }
+    }
 }
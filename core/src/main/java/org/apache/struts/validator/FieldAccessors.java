@@ -0,0 +1,253 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.validator;
+
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MethodUtils;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.beanutils.WrapDynaBean;
+import org.apache.commons.validator.Field;
+import org.apache.commons.validator.Form;
+
+import java.beans.PropertyDescriptor;
+
+import java.lang.reflect.Method;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * <p>Binds the fields of a Validator <code>Form</code> to the properties of
+ * the beans backing a {@link BeanValidatorForm}, so that the values of all
+ * the simple properties validated can be read in one pass before the
+ * Validator runs.  The properties of a POJO JavaBean are bound to their read
+ * methods, resolved once per bean class, and those of other
+ * <code>DynaBean</code>s are read with <code>get()</code>.</p>
+ *
+ * <p>Fields that are indexed, or whose property is a nested, indexed or
+ * mapped expression, are not bound and are read by the Validator as
+ * usual.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+final class FieldAccessors {
+    /**
+     * <p>The bindings of each <code>Form</code>, keyed by bean class.
+     * <code>Form</code>s are weakly held, so that those of reloaded
+     * resources are dropped.</p>
+     */
+    private static final Map bindings = new WeakHashMap();
+
+    /**
+     * <p>The names of the properties bound.</p>
+     */
+    private final String[] names;
+
+    /**
+     * <p>The lowest page of the fields validating each property.</p>
+     */
+    private final int[] pages;
+
+    /**
+     * <p>The read method of each property, or <code>null</code> if the
+     * properties are read from a <code>DynaBean</code>.</p>
+     */
+    private final Method[] methods;
+
+    /**
+     * <p>Bind the fields of a form.</p>
+     *
+     * @param form      The Validator form
+     * @param beanClass The class of the POJO JavaBean whose properties are
+     *                  validated, or <code>null</code> for a
+     *                  <code>DynaBean</code>
+     */
+    private FieldAccessors(Form form, Class beanClass) {
+        Map descriptors = null;
+
+        if (beanClass != null) {
+            descriptors = new HashMap();
+
+            PropertyDescriptor[] all =
+                PropertyUtils.getPropertyDescriptors(beanClass);
+
+            for (int i = 0; i < all.length; i++) {
+                descriptors.put(all[i].getName(), all[i]);
+            }
+        }
+
+        Map bound = new HashMap();
+        List order = new ArrayList();
+
+        for (Iterator i = form.getFields().iterator(); i.hasNext();) {
+            Field field = (Field) i.next();
+            String property = field.getProperty();
+
+            if (field.isIndexed() || (property == null)
+                || (property.length() == 0) || !isSimple(property)) {
+                continue;
+            }
+
+            Object[] binding = (Object[]) bound.get(property);
+
+            if (binding != null) {
+                if (field.getPage() < ((Integer) binding[0]).intValue()) {
+                    binding[0] = new Integer(field.getPage());
+                }
+
+                continue;
+            }
+
+            Method method = null;
+
+            if (descriptors != null) {
+                PropertyDescriptor descriptor =
+                    (PropertyDescriptor) descriptors.get(property);
+
+                if ((descriptor == null)
+                    || (descriptor.getReadMethod() == null)) {
+                    continue;
+                }
+
+                method =
+                    MethodUtils.getAccessibleMethod(beanClass,
+                        descriptor.getReadMethod());
+
+                if (method == null) {
+                    continue;
+                }
+            }
+
+            bound.put(property,
+                new Object[] { new Integer(field.getPage()), method });
+            order.add(property);
+        }
+
+        names = (String[]) order.toArray(new String[order.size()]);
+        pages = new int[names.length];
+        methods = (beanClass == null) ? null : new Method[names.length];
+
+        for (int i = 0; i < names.length; i++) {
+            Object[] binding = (Object[]) bound.get(names[i]);
+
+            pages[i] = ((Integer) binding[0]).intValue();
+
+            if (methods != null) {
+                methods[i] = (Method) binding[1];
+            }
+        }
+    }
+
+    /**
+     * <p>Return the bindings of the fields of a form to the properties of a
+     * bean, creating them when first called for the form and the class of
+     * the bean.</p>
+     *
+     * @param form The Validator form
+     * @param bean The bean backing the <code>BeanValidatorForm</code>
+     * @return The bindings
+     */
+    static FieldAccessors getInstance(Form form, DynaBean bean) {
+        Class beanClass = null;
+
+        if (bean instanceof WrapDynaBean) {
+            beanClass = ((WrapDynaBean) bean).getInstance().getClass();
+        }
+
+        Object key = (beanClass == null) ? bean.getClass() : beanClass;
+
+        synchronized (bindings) {
+            Map accessors = (Map) bindings.get(form);
+
+            if (accessors == null) {
+                accessors = new HashMap();
+                bindings.put(form, accessors);
+            }
+
+            FieldAccessors result = (FieldAccessors) accessors.get(key);
+
+            if (result == null) {
+                result = new FieldAccessors(form, beanClass);
+                accessors.put(key, result);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * <p>Read the properties validated on a page.  Properties whose value
+     * cannot be read are left out, for the Validator to read and report as
+     * usual.</p>
+     *
+     * @param bean The bean backing the <code>BeanValidatorForm</code>
+     * @param page The page being validated
+     * @return The values of the properties, keyed by name
+     */
+    Map read(DynaBean bean, int page) {
+        Object instance = null;
+
+        if (methods != null) {
+            instance = ((WrapDynaBean) bean).getInstance();
+        }
+
+        Map values = new HashMap();
+
+        for (int i = 0; i < names.length; i++) {
+            if (pages[i] > page) {
+                continue;
+            }
+
+            try {
+                if (methods == null) {
+                    values.put(names[i], bean.get(names[i]));
+                } else {
+                    values.put(names[i], methods[i].invoke(instance, null));
+                }
+            } catch (Exception e) {
+                // Left for the Validator to read and report
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * <p>Return the number of properties bound.</p>
+     */
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * <p>Return whether a property expression is a simple property
+     * name.</p>
+     */
+    private static boolean isSimple(String property) {
+        return (property.indexOf('.') < 0) && (property.indexOf('[') < 0)
+        && (property.indexOf('(') < 0);
+    }
+}
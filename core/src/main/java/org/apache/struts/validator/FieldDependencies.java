@@ -0,0 +1,346 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.validator;
+
+import antlr.Token;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.validator.Field;
+import org.apache.commons.validator.Form;
+import org.apache.commons.validator.GenericValidator;
+import org.apache.struts.validator.validwhen.ValidWhenLexer;
+import org.apache.struts.validator.validwhen.ValidWhenParserTokenTypes;
+
+import java.io.StringReader;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * <p>The properties read by the fields of a Validator <code>Form</code>, so
+ * that only the fields affected by changes to some properties are
+ * validated.  A field reads its own property, the properties named by the
+ * <code>test</code> expression of its <code>validwhen</code> rule, and those
+ * named by the <code>field[n]</code> variables of its
+ * <code>requiredif</code> rule.  Fields whose <code>test</code> expression
+ * cannot be read are always validated.</p>
+ *
+ * <p>Properties are compared with indexes removed, so that a change to
+ * <code>list[2].name</code> affects the fields reading
+ * <code>list[].name</code>, and a change to a property affects the fields
+ * reading its nested properties, and those reading the properties it is
+ * nested in.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+final class FieldDependencies {
+    /**
+     * <p>Commons Logging instance.</p>
+     */
+    private static final Log log = LogFactory.getLog(FieldDependencies.class);
+
+    /**
+     * <p>The dependencies of each <code>Form</code>.  <code>Form</code>s are
+     * weakly held, so that those of reloaded resources are dropped.</p>
+     */
+    private static final Map dependencies = new WeakHashMap();
+
+    /**
+     * <p>The keys of the fields, in the order of the form.</p>
+     */
+    private final String[] keys;
+
+    /**
+     * <p>The keys of the fields reading each property.</p>
+     */
+    private final Map readers = new HashMap();
+
+    /**
+     * <p>The keys of the fields reading properties nested in each
+     * property.</p>
+     */
+    private final Map nestedReaders = new HashMap();
+
+    /**
+     * <p>The keys of the fields always validated.</p>
+     */
+    private final Set unconditional = new HashSet();
+
+    /**
+     * <p>Find the properties read by the fields of a form.</p>
+     *
+     * @param form The Validator form
+     */
+    private FieldDependencies(Form form) {
+        List order = new ArrayList();
+
+        for (Iterator i = form.getFields().iterator(); i.hasNext();) {
+            Field field = (Field) i.next();
+            String key = field.getKey();
+
+            if (order.contains(key)) {
+                continue;
+            }
+
+            order.add(key);
+            addReader(key, key);
+
+            if (field.isDependency("validwhen")) {
+                addValidWhenReaders(field);
+            }
+
+            if (field.isDependency("requiredif")) {
+                addRequiredIfReaders(field);
+            }
+        }
+
+        keys = (String[]) order.toArray(new String[order.size()]);
+    }
+
+    /**
+     * <p>Return the dependencies of a form, finding them when first called
+     * for the form.</p>
+     *
+     * @param form The Validator form
+     * @return The dependencies
+     */
+    static FieldDependencies getInstance(Form form) {
+        synchronized (dependencies) {
+            FieldDependencies result =
+                (FieldDependencies) dependencies.get(form);
+
+            if (result == null) {
+                result = new FieldDependencies(form);
+                dependencies.put(form, result);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * <p>Return the keys of the fields affected by changes to some
+     * properties, in the order of the form.</p>
+     *
+     * @param properties The names of the properties changed
+     * @return The keys of the fields to validate
+     */
+    List getAffectedFields(Collection properties) {
+        Set affected = new HashSet(unconditional);
+
+        for (Iterator i = properties.iterator(); i.hasNext();) {
+            String property = normalize((String) i.next());
+
+            addAll(affected, readers.get(property));
+            addAll(affected, nestedReaders.get(property));
+
+            for (Iterator j = parents(property).iterator(); j.hasNext();) {
+                addAll(affected, readers.get(j.next()));
+            }
+        }
+
+        List result = new ArrayList(affected.size());
+
+        for (int i = 0; i < keys.length; i++) {
+            if (affected.contains(keys[i])) {
+                result.add(keys[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Record the properties named by the <code>test</code> expression
+     * of a <code>validwhen</code> rule.</p>
+     */
+    private void addValidWhenReaders(Field field) {
+        String test = field.getVarValue("test");
+
+        if (GenericValidator.isBlankOrNull(test)) {
+            return;
+        }
+
+        List tokens = new ArrayList();
+
+        try {
+            ValidWhenLexer lexer = new ValidWhenLexer(new StringReader(test));
+
+            for (Token token = lexer.nextToken();
+                token.getType() != Token.EOF_TYPE;
+                token = lexer.nextToken()) {
+                tokens.add(token);
+            }
+        } catch (Exception e) {
+            log.warn("Validating field '" + field.getKey()
+                + "' on every change: " + e);
+            unconditional.add(field.getKey());
+
+            return;
+        }
+
+        // Rebuild the field references of the grammar: name, name[],
+        // name[n], name[].nested and name[n].nested
+        for (int i = 0; i < tokens.size(); i++) {
+            if (type(tokens, i) != ValidWhenParserTokenTypes.IDENTIFIER) {
+                continue;
+            }
+
+            String property = ((Token) tokens.get(i)).getText();
+
+            if (type(tokens, i + 1) == ValidWhenParserTokenTypes.LBRACKET) {
+                int close = i + 2;
+
+                if (type(tokens, close) != ValidWhenParserTokenTypes.RBRACKET) {
+                    close++;
+                }
+
+                property += "[]";
+                i = close;
+
+                if (type(tokens, i + 1) == ValidWhenParserTokenTypes.IDENTIFIER) {
+                    property += ((Token) tokens.get(++i)).getText();
+                }
+            }
+
+            addReader(property, field.getKey());
+        }
+    }
+
+    /**
+     * <p>Record the properties named by the <code>field[n]</code> variables
+     * of a <code>requiredif</code> rule, as <code>validateRequiredIf</code>
+     * reads them.</p>
+     */
+    private void addRequiredIfReaders(Field field) {
+        String key = field.getKey();
+        String property;
+
+        for (int i = 0;
+            !GenericValidator.isBlankOrNull(property =
+                    field.getVarValue("field[" + i + "]")); i++) {
+            if (field.isIndexed()
+                && "true".equalsIgnoreCase(field.getVarValue("fieldIndexed["
+                        + i + "]"))) {
+                property = key.substring(0, key.indexOf(".") + 1) + property;
+            }
+
+            addReader(property, key);
+        }
+    }
+
+    /**
+     * <p>Record that a field reads a property.</p>
+     */
+    private void addReader(String property, String key) {
+        property = normalize(property);
+        add(readers, property, key);
+
+        for (Iterator i = parents(property).iterator(); i.hasNext();) {
+            add(nestedReaders, i.next(), key);
+        }
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * <p>Return a property expression with its indexes removed.</p>
+     */
+    private static String normalize(String property) {
+        int open = property.indexOf('[');
+
+        if (open < 0) {
+            return property;
+        }
+
+        StringBuffer result = new StringBuffer(property.length());
+        int start = 0;
+
+        while (open >= 0) {
+            int close = property.indexOf(']', open);
+
+            if (close < 0) {
+                break;
+            }
+
+            result.append(property.substring(start, open + 1));
+            start = close;
+            open = property.indexOf('[', close);
+        }
+
+        result.append(property.substring(start));
+
+        return result.toString();
+    }
+
+    /**
+     * <p>Return the properties a property expression is nested in.</p>
+     */
+    private static List parents(String property) {
+        List result = new ArrayList();
+
+        for (int i = 0; i < property.length(); i++) {
+            char c = property.charAt(i);
+
+            if ((c == '.') || (c == '[') || (c == '(')) {
+                result.add(property.substring(0, i));
+            } else if ((c == ']') && (i < (property.length() - 1))) {
+                result.add(property.substring(0, i + 1));
+            }
+        }
+
+        return result;
+    }
+
+    private static int type(List tokens, int index) {
+        if (index >= tokens.size()) {
+            return Token.EOF_TYPE;
+        }
+
+        return ((Token) tokens.get(index)).getType();
+    }
+
+    private static void add(Map map, Object property, String key) {
+        Set keys = (Set) map.get(property);
+
+        if (keys == null) {
+            keys = new HashSet();
+            map.put(property, keys);
+        }
+
+        keys.add(key);
+    }
+
+    private static void addAll(Set affected, Object keys) {
+        if (keys != null) {
+            affected.addAll((Set) keys);
+        }
+    }
+}
@@ -24,10 +24,13 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.validator.Arg;
 import org.apache.commons.validator.Field;
+import org.apache.commons.validator.Form;
 import org.apache.commons.validator.Msg;
 import org.apache.commons.validator.Validator;
 import org.apache.commons.validator.ValidatorAction;
+import org.apache.commons.validator.ValidatorException;
 import org.apache.commons.validator.ValidatorResources;
+import org.apache.commons.validator.ValidatorResults;
 import org.apache.commons.validator.Var;
 import org.apache.struts.Globals;
 import org.apache.struts.action.ActionMessage;
@@ -40,6 +43,8 @@ import org.apache.struts.util.RequestUtils;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Locale;
 
 /**
@@ -518,4 +523,55 @@ public class Resources {
 
         return validator;
     }
+
+    /**
+     * Perform validation with a <code>Validator</code> initialized by
+     * <code>initValidator</code>, validating only the fields affected by
+     * changes to some properties when their names are given.  The fields
+     * affected are those validating these properties, and those whose
+     * <code>validwhen</code> or <code>requiredif</code> rules read them.
+     *
+     * @param validator   The initialized <code>Validator</code>
+     * @param properties  The names of the properties changed, or
+     *                    <code>null</code> to validate every field
+     * @param application servlet context
+     * @param request     The current request object.
+     * @return The results of the validation
+     * @throws ValidatorException if the validation cannot be performed
+     * @since Struts 1.4
+     */
+    public static ValidatorResults validate(Validator validator,
+        Collection properties, ServletContext application,
+        HttpServletRequest request)
+        throws ValidatorException {
+        if (properties == null) {
+            return validator.validate();
+        }
+
+        ValidatorResources resources =
+            Resources.getValidatorResources(application, request);
+        Locale locale =
+            (Locale) validator.getParameterValue(Validator.LOCALE_PARAM);
+        Form form = resources.getForm(locale, validator.getFormName());
+        ValidatorResults results = new ValidatorResults();
+
+        if (form == null) {
+            return results;
+        }
+
+        Iterator fields =
+            FieldDependencies.getInstance(form).getAffectedFields(properties)
+                             .iterator();
+
+        try {
+            while (fields.hasNext()) {
+                validator.setFieldName((String) fields.next());
+                results.merge(validator.validate());
+            }
+        } finally {
+            validator.setFieldName(null);
+        }
+
+        return results;
+    }
 }
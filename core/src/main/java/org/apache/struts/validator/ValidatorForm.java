@@ -34,6 +34,7 @@ import javax.servlet.http.HttpServletRequest;
 
 import java.io.Serializable;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -103,6 +104,28 @@ public class ValidatorForm extends ActionForm implements Serializable {
      */
     public ActionErrors validate(ActionMapping mapping,
         HttpServletRequest request) {
+        return validate(mapping, request, null);
+    }
+
+    /**
+     * Validate the properties that have been set from this HTTP request,
+     * limited to the fields affected by changes to some properties when their
+     * names are given, such as those of the request parameters of a partial
+     * update.  Return an <code>ActionErrors</code> object that encapsulates any
+     * validation errors that have been found.  If no errors are found, return
+     * <code>null</code> or an <code>ActionErrors</code> object with no
+     * recorded error messages.
+     *
+     * @param mapping    The mapping used to select this instance
+     * @param request    The servlet request we are processing
+     * @param properties The names of the properties changed, or
+     *                   <code>null</code> to validate every field
+     * @return <code>ActionErrors</code> object that encapsulates any
+     *         validation errors
+     * @since Struts 1.4
+     */
+    public ActionErrors validate(ActionMapping mapping,
+        HttpServletRequest request, Collection properties) {
         
         ActionErrors errors = new ActionErrors();
         String validationKey = getValidationKey(mapping, request);
@@ -124,7 +147,9 @@ public class ValidatorForm extends ActionForm implements Serializable {
                 errors, getPage());
 
         try {
-            validatorResults = validator.validate();
+            validatorResults =
+                Resources.validate(validator, properties, application,
+                    request);
         } catch (ValidatorException e) {
             log.error(e.getMessage(), e);
         }
@@ -26,12 +26,14 @@ import org.apache.commons.validator.ValidatorResources;
 import org.apache.struts.action.ActionServlet;
 import org.apache.struts.action.PlugIn;
 import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.util.SerializedCacheFile;
 import org.xml.sax.SAXException;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.UnavailableException;
 
+import java.io.File;
 import java.io.IOException;
 
 import java.net.URL;
@@ -39,11 +41,20 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.Timer;
+import java.util.TimerTask;
 
 /**
  * Loads <code>ValidatorResources</code> based on configuration in the
  * struts-config.xml file.
  *
+ * <p>When <code>cacheResources</code> is set, the processed resources are
+ * also stored in the temporary directory of the web application, and later
+ * startups load them from there as long as the validation files have the
+ * same checksum.  When <code>checkInterval</code> is set, a background
+ * thread recomputes that checksum periodically and, if the files changed,
+ * rebuilds the resources and replaces the ones in use.</p>
+ *
  * @version $Rev$ $Date: 2005-08-30 00:22:27 -0400 (Tue, 30 Aug 2005)
  *          $
  * @since Struts 1.1
@@ -104,6 +115,38 @@ public class ValidatorPlugIn implements PlugIn {
      */
     private boolean stopOnFirstError = true;
 
+    /**
+     * Whether processed resources are cached across restarts.
+     */
+    private boolean cacheResources = false;
+
+    /**
+     * Seconds between two checks of the validation files, or 0 to never
+     * check them.
+     */
+    private int checkInterval = 0;
+
+    /**
+     * The validation files, once resolved.
+     */
+    private URL[] urls = null;
+
+    /**
+     * The checksum of the validation files the current resources were built
+     * from, or <code>null</code> if unknown.
+     */
+    private String checksum = null;
+
+    /**
+     * The cache of processed resources, or <code>null</code> if disabled.
+     */
+    private SerializedCacheFile cache = null;
+
+    /**
+     * The timer checking the validation files, or <code>null</code>.
+     */
+    private Timer checker = null;
+
     /**
      * Gets a comma delimitted list of Validator resources.
      *
@@ -147,6 +190,50 @@ public class ValidatorPlugIn implements PlugIn {
         this.stopOnFirstError = stopOnFirstError;
     }
 
+    /**
+     * Gets whether processed resources are cached across restarts.
+     *
+     * @return <code>true</code> if resources are cached
+     * @since Struts 1.4
+     */
+    public boolean isCacheResources() {
+        return this.cacheResources;
+    }
+
+    /**
+     * Sets whether processed resources are stored in the temporary directory
+     * of the web application and reused by the next startup if the
+     * validation files are unchanged.
+     *
+     * @param cacheResources <code>true</code> to cache resources
+     * @since Struts 1.4
+     */
+    public void setCacheResources(boolean cacheResources) {
+        this.cacheResources = cacheResources;
+    }
+
+    /**
+     * Gets the number of seconds between two checks of the validation
+     * files.
+     *
+     * @return The interval, 0 if files are not checked
+     * @since Struts 1.4
+     */
+    public int getCheckInterval() {
+        return this.checkInterval;
+    }
+
+    /**
+     * Sets the number of seconds between two checks of the validation files
+     * in the background.  Changed files are reloaded.
+     *
+     * @param checkInterval The interval, or 0 to never check the files
+     * @since Struts 1.4
+     */
+    public void setCheckInterval(int checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
     /**
      * Initialize and load our resources.
      *
@@ -176,6 +263,10 @@ public class ValidatorPlugIn implements PlugIn {
             servletContext.setAttribute(STOP_ON_ERROR_KEY + '.'
                 + config.getPrefix(),
                 (this.stopOnFirstError ? Boolean.TRUE : Boolean.FALSE));
+
+            if ((checkInterval > 0) && (urls != null)) {
+                startChecker();
+            }
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             throw new UnavailableException(
@@ -248,17 +339,178 @@ public class ValidatorPlugIn implements PlugIn {
                 urlArray[urlIndex] = (URL) urlList.get(urlIndex);
             }
 
-            this.resources = new ValidatorResources(urlArray);
+            this.urls = urlArray;
+            this.cache = cacheResources ? createCache() : null;
+
+            if ((cache != null) || (checkInterval > 0)) {
+                this.checksum = SerializedCacheFile.digest(null, urlArray);
+            }
+
+            if ((cache != null) && (checksum != null)) {
+                this.resources = loadCachedResources();
+            }
+
+            if (this.resources == null) {
+                this.resources = new ValidatorResources(urlArray);
+
+                if ((cache != null) && (checksum != null)) {
+                    storeCachedResources(checksum, resources);
+                }
+            }
         } catch (SAXException sex) {
             log.error("Skipping all validation", sex);
             throw new ServletException(sex);
         }
     }
 
+    /**
+     * Check whether the validation files changed since the resources were
+     * built, and if so rebuild the resources and make them the ones used by
+     * the module.  If the new files cannot be loaded, the error is logged
+     * and the current resources are kept.
+     *
+     * @return <code>true</code> if the resources were rebuilt
+     * @since Struts 1.4
+     */
+    protected synchronized boolean checkResources() {
+        ActionServlet servlet = this.servlet;
+        ModuleConfig config = this.config;
+
+        if ((servlet == null) || (config == null) || (urls == null)) {
+            return false;
+        }
+
+        String current = SerializedCacheFile.digest(null, urls);
+
+        if ((current == null) || current.equals(checksum)) {
+            return false;
+        }
+
+        ValidatorResources rebuilt;
+
+        try {
+            rebuilt = new ValidatorResources(urls);
+        } catch (Exception e) {
+            log.error("Cannot reload validator resources from '" + pathnames
+                + "', keeping the current ones", e);
+            checksum = current;
+
+            return false;
+        }
+
+        if (cache != null) {
+            storeCachedResources(current, rebuilt);
+        }
+
+        checksum = current;
+        resources = rebuilt;
+        servlet.getServletContext().setAttribute(VALIDATOR_KEY
+            + config.getPrefix(), rebuilt);
+        log.info("Reloaded validator resources from '" + pathnames + "'");
+
+        return true;
+    }
+
+    /**
+     * Create the cache of processed resources, in the temporary directory
+     * of the web application.
+     *
+     * @return The cache, or <code>null</code> if there is no temporary
+     *         directory
+     */
+    private SerializedCacheFile createCache() {
+        Object tempdir =
+            servlet.getServletContext().getAttribute("javax.servlet.context.tempdir");
+
+        if (!(tempdir instanceof File)) {
+            log.warn("No temporary directory, validator resources not cached");
+
+            return null;
+        }
+
+        StringBuffer name = new StringBuffer("validator-resources");
+        String prefix = config.getPrefix();
+
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+
+            name.append(Character.isLetterOrDigit(c) ? c : '_');
+        }
+
+        name.append(".ser");
+
+        return new SerializedCacheFile(new File((File) tempdir,
+                name.toString()));
+    }
+
+    /**
+     * Return the cached resources, if they were built from files with the
+     * current checksum.
+     *
+     * @return The resources, or <code>null</code>
+     */
+    private ValidatorResources loadCachedResources() {
+        try {
+            ValidatorResources cached =
+                (ValidatorResources) cache.read(checksum);
+
+            if ((cached != null) && log.isDebugEnabled()) {
+                log.debug("Loaded validator resources from "
+                    + cache.getFile());
+            }
+
+            return cached;
+        } catch (Exception e) {
+            log.info("Ignoring cached validator resources " + cache.getFile()
+                + ": " + e);
+
+            return null;
+        }
+    }
+
+    /**
+     * Store processed resources in the cache.
+     *
+     * @param checksum  The checksum of the files they were built from
+     * @param resources The resources
+     */
+    private void storeCachedResources(String checksum,
+        ValidatorResources resources) {
+        try {
+            cache.write(checksum, resources);
+        } catch (IOException e) {
+            log.info("Cannot cache validator resources: " + e);
+        }
+    }
+
+    /**
+     * Start checking the validation files in the background.
+     */
+    private synchronized void startChecker() {
+        long period = checkInterval * 1000L;
+
+        checker = new Timer(true);
+        checker.schedule(new TimerTask() {
+                public void run() {
+                    checkResources();
+                }
+            }, period, period);
+    }
+
     /**
      * Destroy <code>ValidatorResources</code>.
      */
     protected void destroyResources() {
-        resources = null;
+        synchronized (this) {
+            if (checker != null) {
+                checker.cancel();
+                checker = null;
+            }
+
+            resources = null;
+            urls = null;
+            checksum = null;
+            cache = null;
+        }
     }
 }
@@ -0,0 +1,118 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import java.util.Iterator;
+
+/**
+ * Micro-benchmark of <code>ActionMessages</code> as used while rendering a
+ * page: a validation result is built once, then read repeatedly by the
+ * message tags.  It is not a unit test; run it with
+ * <code>java org.apache.struts.action.ActionMessagesBenchmark
+ * [iterations]</code> and compare the timings between versions.
+ *
+ * @version $Rev$ $Date$
+ */
+public class ActionMessagesBenchmark {
+    private static final String[] PROPERTIES =
+        new String[] {
+            "username", "password", "email", "street", "city", "zip",
+            ActionMessages.GLOBAL_MESSAGE
+        };
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args Optional number of iterations
+     */
+    public static void main(String[] args)
+        throws IOException {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+
+        // Warm up, then measure
+        run(iterations / 10);
+
+        long elapsed = run(iterations);
+
+        System.out.println("ActionMessagesBenchmark: " + iterations
+            + " iterations in " + elapsed + " ms ("
+            + ((elapsed * 1000000L) / iterations) + " ns/iteration)");
+        System.out.println("Serialized size: " + serializedSize() + " bytes");
+    }
+
+    private static long run(int iterations) {
+        long start = System.currentTimeMillis();
+        int seen = 0;
+
+        for (int n = 0; n < iterations; n++) {
+            ActionMessages errors = populate();
+
+            // As ErrorsTag and MessagesTag do for each property and overall
+            for (Iterator props = errors.properties(); props.hasNext();) {
+                for (Iterator i = errors.get((String) props.next());
+                    i.hasNext();) {
+                    i.next();
+                    seen++;
+                }
+            }
+
+            for (Iterator i = errors.get(); i.hasNext();) {
+                i.next();
+                seen++;
+            }
+
+            seen += errors.size();
+        }
+
+        if (seen == 0) {
+            throw new IllegalStateException();
+        }
+
+        return System.currentTimeMillis() - start;
+    }
+
+    private static ActionMessages populate() {
+        ActionMessages errors = new ActionErrors();
+
+        for (int i = 0; i < PROPERTIES.length; i++) {
+            errors.add(PROPERTIES[i], new ActionMessage("errors.required", "x"));
+        }
+
+        errors.add(PROPERTIES[0], new ActionMessage("errors.minlength", "x"));
+
+        return errors;
+    }
+
+    private static int serializedSize()
+        throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+
+        out.writeObject(populate());
+        out.close();
+
+        return bytes.size();
+    }
+}
@@ -24,6 +24,11 @@ import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import java.util.Iterator;
 
 /**
@@ -172,4 +177,94 @@ public class TestActionMessages extends TestCase {
             count++;
         }
     }
+
+    /**
+     * Tests that properties are returned in the order they were first
+     * added.
+     */
+    public void testPropertyOrder() {
+        ActionMessages msgs = new ActionMessages();
+
+        msgs.add("z", new ActionMessage("key1"));
+        msgs.add("a", new ActionMessage("key2"));
+        msgs.add("m", new ActionMessage("key3"));
+        msgs.add("a", new ActionMessage("key4"));
+
+        Iterator props = msgs.properties();
+
+        assertEquals("z", props.next());
+        assertEquals("a", props.next());
+        assertEquals("m", props.next());
+        assertTrue(!props.hasNext());
+
+        Iterator all = msgs.get();
+
+        assertEquals("key1", ((ActionMessage) all.next()).getKey());
+        assertEquals("key2", ((ActionMessage) all.next()).getKey());
+        assertEquals("key4", ((ActionMessage) all.next()).getKey());
+        assertEquals("key3", ((ActionMessage) all.next()).getKey());
+        assertTrue(!all.hasNext());
+
+        msgs.clear();
+        assertTrue(msgs.isEmpty());
+        assertTrue(!msgs.properties().hasNext());
+    }
+
+    /**
+     * Tests that messages and their order survive serialization.
+     */
+    public void testSerialization()
+        throws Exception {
+        ActionErrors errors = new ActionErrors();
+
+        errors.add("prop2", new ActionMessage("key1", "arg"));
+        errors.add(ActionMessages.GLOBAL_MESSAGE, new ActionMessage("key2"));
+        errors.add("prop2", new ActionMessage("key3"));
+
+        ActionMessages copy = (ActionMessages) serialize(errors);
+
+        assertTrue(copy instanceof ActionErrors);
+        assertEquals(3, copy.size());
+        assertEquals(2, copy.size("prop2"));
+
+        Iterator props = copy.properties();
+
+        assertEquals("prop2", props.next());
+        assertEquals(ActionMessages.GLOBAL_MESSAGE, props.next());
+
+        ActionMessage msg = (ActionMessage) copy.get("prop2").next();
+
+        assertEquals("key1", msg.getKey());
+        assertEquals("arg", msg.getValues()[0]);
+    }
+
+    /**
+     * Tests the shared empty instance.
+     */
+    public void testSharedEmpty()
+        throws Exception {
+        assertTrue(ActionMessages.EMPTY.isEmpty());
+        assertTrue(!ActionMessages.EMPTY.get().hasNext());
+        assertTrue(!ActionMessages.EMPTY.isAccessed());
+        assertSame(ActionMessages.EMPTY, serialize(ActionMessages.EMPTY));
+
+        try {
+            ActionMessages.EMPTY.add("prop", msg1);
+            fail("Added a message to the empty instance");
+        } catch (UnsupportedOperationException e) {
+            ; // Expected result
+        }
+    }
+
+    private Object serialize(Object object)
+        throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+
+        out.writeObject(object);
+        out.close();
+
+        return new ObjectInputStream(new ByteArrayInputStream(
+                bytes.toByteArray())).readObject();
+    }
 }
@@ -25,6 +25,8 @@ import junit.framework.ComparisonFailure;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import java.net.URLEncoder;
+
 import java.util.Map;
 
 /**
@@ -126,6 +128,59 @@ public class TestActionRedirect extends TestCase {
         assertTrue("Original had redirect to false", ar.getRedirect());
     }
 
+    /**
+     * Test that parameters keep the order they were added in.
+     */
+    public void testActionRedirectParameterOrder() {
+        ActionRedirect ar = new ActionRedirect("/path.do?a=0#top");
+
+        ar.addParameter("b", "1");
+        ar.addParameter("a", "2");
+        ar.addParameter("b", "3");
+
+        assertEquals("Incorrect path", "/path.do?a=0&b=1&a=2&b=3#top",
+            ar.getPath());
+
+        ar.setAnchor("end");
+        assertEquals("Incorrect path", "/path.do?a=0&b=1&a=2&b=3#end",
+            ar.getPath());
+    }
+
+    /**
+     * Test that values are encoded as by URLEncoder in UTF-8.
+     */
+    public void testActionRedirectEncoding()
+        throws Exception {
+        String[] values =
+            new String[] {
+                "plain", "a b&c=d", "caf\u00e9", "\u20ac100", "\ud83d\ude00",
+                "x\ud800y", "*-._~!'()"
+            };
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals("Incorrect encoding of " + values[i],
+                URLEncoder.encode(values[i], "UTF-8"),
+                ActionRedirect.encode(values[i]));
+        }
+    }
+
+    /**
+     * Test that the split path is shared with the copied forward.
+     */
+    public void testActionRedirectSharesSplitPath() {
+        ActionForward forward = new ActionForward("/path.do?");
+
+        forward.freeze();
+
+        ActionRedirect ar = new ActionRedirect(forward);
+
+        ar.addParameter("param", "value");
+
+        assertSame("Split path not shared", forward.getRedirectPath(),
+            ar.getRedirectPath());
+        assertEquals("Incorrect path", "/path.do?param=value", ar.getPath());
+    }
+
     /**
      * Assert that the given parameters contains an entry for
      * <code>paramValue</code> under the <code>paramName</code> key. <p/>
@@ -24,6 +24,8 @@ import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import org.apache.struts.Globals;
+import org.apache.commons.digester.Digester;
 import org.apache.struts.config.ActionConfig;
 import org.apache.struts.config.ExceptionConfig;
 import org.apache.struts.config.FormBeanConfig;
@@ -31,11 +33,23 @@ import org.apache.struts.config.FormPropertyConfig;
 import org.apache.struts.config.ForwardConfig;
 import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.config.ModuleConfigFactory;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpServletResponse;
+import org.apache.struts.mock.MockServletConfig;
+import org.apache.struts.mock.MockServletContext;
+import org.apache.struts.config.impl.ModuleConfigImpl;
 import org.apache.struts.util.MessageResources;
+import org.apache.struts.util.RequestUtils;
 
+import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.UnavailableException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -1023,6 +1037,258 @@ public class TestActionServlet extends TestCase {
         }
     }
 
+    // ------------------------------------------------ parseModuleConfigs()
+
+    /**
+     * Test that module configurations are parsed one after another unless
+     * configThreads is set.
+     */
+    public void testParseModuleConfigsSequentialByDefault()
+        throws Exception {
+        assertNull(parsingServlet(null).parseModuleConfigs(
+                MODULE_PREFIXES, MODULE_PATHS));
+        assertNull(parsingServlet("1").parseModuleConfigs(
+                MODULE_PREFIXES, MODULE_PATHS));
+    }
+
+    /**
+     * Test that module configurations are parsed concurrently when
+     * configThreads is set.
+     */
+    public void testParseModuleConfigsConcurrent()
+        throws Exception {
+        ModuleConfig[] parsed =
+            parsingServlet("2").parseModuleConfigs(
+                MODULE_PREFIXES, MODULE_PATHS);
+
+        assertNotNull("parsed concurrently", parsed);
+        assertEquals(MODULE_PREFIXES.size(), parsed.length);
+
+        for (int i = 0; i < parsed.length; i++) {
+            assertEquals(MODULE_PREFIXES.get(i), parsed[i].getPrefix());
+            assertNotNull("actions of " + MODULE_PREFIXES.get(i),
+                parsed[i].findActionConfig("/editRegistration"));
+        }
+
+        assertNotSame(parsed[0].findActionConfig("/editRegistration"),
+            parsed[1].findActionConfig("/editRegistration"));
+    }
+
+    /**
+     * Test that module configurations are parsed one after another when a
+     * subclass overrides how files are parsed or resolved.
+     */
+    public void testParseModuleConfigsOverridden()
+        throws Exception {
+        ActionServlet servlet =
+            new ActionServlet() {
+                public void init() {
+                }
+
+                protected void parseModuleConfigFile(Digester digester,
+                    URL url)
+                    throws UnavailableException {
+                    super.parseModuleConfigFile(digester, url);
+                }
+            };
+
+        assertNull(parsingServlet(servlet, "2").parseModuleConfigs(
+                MODULE_PREFIXES, MODULE_PATHS));
+
+        servlet =
+            new ActionServlet() {
+                public void init() {
+                }
+
+                protected List splitAndResolvePaths(String paths)
+                    throws ServletException {
+                    return super.splitAndResolvePaths(paths);
+                }
+            };
+
+        assertNull(parsingServlet(servlet, "2").parseModuleConfigs(
+                MODULE_PREFIXES, MODULE_PATHS));
+    }
+
+    // ----------------------------------------------------------- process()
+
+    /**
+     * Test that requests are dispatched to the processor returned by an
+     * overridden getRequestProcessor().
+     */
+    public void testProcessUsesGetRequestProcessor()
+        throws Exception {
+        final MockServletContext context = new MockServletContext();
+        final int[] processed = new int[1];
+        final RequestProcessor overridden =
+            new RequestProcessor() {
+                public void process(HttpServletRequest request,
+                    HttpServletResponse response) {
+                    processed[0]++;
+                }
+            };
+
+        context.setAttribute(Globals.MODULE_KEY, moduleConfig);
+
+        ActionServlet servlet =
+            new ActionServlet() {
+                public ServletContext getServletContext() {
+                    return context;
+                }
+
+                protected RequestProcessor getRequestProcessor(
+                    ModuleConfig config) {
+                    return overridden;
+                }
+            };
+
+        // A processor registered for the module is not used directly
+        servlet.replaceRequestProcessor(moduleConfig, new RequestProcessor());
+
+        MockHttpServletRequest request =
+            new MockHttpServletRequest("/context", "/index.do", null, null);
+
+        servlet.process(request, new MockHttpServletResponse());
+        assertEquals(1, processed[0]);
+    }
+
+    /**
+     * Test that the recycled forms of a request are released once it has
+     * been processed, and unbound from the request first.
+     */
+    public void testProcessRecyclesForms()
+        throws Exception {
+        List forms = new ArrayList();
+        ActionServlet servlet = recyclingServlet(forms);
+
+        MockHttpServletRequest request =
+            new MockHttpServletRequest("/context", "/index.do", null, null);
+
+        servlet.process(request, new MockHttpServletResponse());
+        assertEquals(1, forms.size());
+        assertNull("form unbound", request.getAttribute("recycled"));
+
+        servlet.process(new MockHttpServletRequest("/context", "/index.do",
+                null, null), new MockHttpServletResponse());
+        assertEquals(2, forms.size());
+        assertSame("form recycled", forms.get(0), forms.get(1));
+    }
+
+    /**
+     * Test that the forms of a Struts request included by another page are
+     * not recycled, as the including page may still render them.
+     */
+    public void testProcessIncludedKeepsForms()
+        throws Exception {
+        List forms = new ArrayList();
+        ActionServlet servlet = recyclingServlet(forms);
+
+        MockHttpServletRequest request =
+            new MockHttpServletRequest("/context", "/page.jsp", null, null);
+
+        request.setAttribute("javax.servlet.include.request_uri",
+            "/context/index.do");
+        servlet.process(request, new MockHttpServletResponse());
+        assertSame("form still bound", forms.get(0),
+            request.getAttribute("recycled"));
+
+        servlet.process(new MockHttpServletRequest("/context", "/index.do",
+                null, null), new MockHttpServletResponse());
+        assertNotSame("form not recycled", forms.get(0), forms.get(1));
+    }
+
+    /**
+     * Return a servlet whose request processor creates the recycled form
+     * bean "recycled", binds it to the request and adds it to a list.
+     */
+    private ActionServlet recyclingServlet(final List forms)
+        throws Exception {
+        final MockServletContext context = new MockServletContext();
+        final ModuleConfig formConfig = new ModuleConfigImpl("");
+        FormBeanConfig formBean = new FormBeanConfig();
+
+        formBean.setName("recycled");
+        formBean.setType("org.apache.struts.mock.MockFormBean");
+        formBean.setRecycle(true);
+        formConfig.addFormBeanConfig(formBean);
+
+        final ActionMapping mapping = new ActionMapping();
+
+        mapping.setPath("/index");
+        mapping.setName("recycled");
+        mapping.setScope("request");
+        formConfig.addActionConfig(mapping);
+        context.setAttribute(Globals.MODULE_KEY, formConfig);
+
+        final ActionServlet servlet =
+            new ActionServlet() {
+                public ServletContext getServletContext() {
+                    return context;
+                }
+
+                protected RequestProcessor getRequestProcessor(
+                    ModuleConfig moduleConfig) {
+                    final ActionServlet servlet = this;
+
+                    return new RequestProcessor() {
+                            public void process(HttpServletRequest request,
+                                HttpServletResponse response) {
+                                ActionForm form =
+                                    RequestUtils.createActionForm(request,
+                                        mapping, formConfig, servlet);
+
+                                request.setAttribute("recycled", form);
+                                forms.add(form);
+                            }
+                        };
+                }
+            };
+
+        servlet.initModuleFormBeans(formConfig);
+
+        return servlet;
+    }
+
+    private static final List MODULE_PREFIXES =
+        Arrays.asList(new String[] { "/2", "/3", "/4" });
+
+    private static final List MODULE_PATHS =
+        Arrays.asList(new String[] {
+                "/org/apache/struts/config/struts-config.xml",
+                "/org/apache/struts/config/struts-config.xml",
+                "/org/apache/struts/config/struts-config.xml"
+            });
+
+    /**
+     * Return a servlet initialized only with a configuration, optionally
+     * setting configThreads.
+     */
+    private ActionServlet parsingServlet(String threads)
+        throws Exception {
+        return parsingServlet(new ActionServlet() {
+                    public void init() {
+                    }
+                }, threads);
+    }
+
+    /**
+     * Initialize a servlet only with a configuration, optionally setting
+     * configThreads.
+     */
+    private ActionServlet parsingServlet(ActionServlet servlet, String threads)
+        throws Exception {
+        MockServletConfig config =
+            new MockServletConfig(new MockServletContext());
+
+        if (threads != null) {
+            config.addInitParameter("configThreads", threads);
+        }
+
+        servlet.init(config);
+
+        return servlet;
+    }
+
     /**
      * Used for testing custom FormBeanConfig classes.
      */
@@ -721,6 +721,49 @@ public class TestDynaActionForm extends TestDynaActionFormClass {
             (String) dynaForm.get("stringProperty"));
     }
 
+    // Test that new instances do not share mutable initial values
+    public void testInitialValuesNotShared()
+        throws Exception {
+        DynaActionForm other = (DynaActionForm) dynaClass.newInstance();
+
+        dynaForm.set("intArray", 1, new Integer(111));
+        assertEquals("other intArray[1]", new Integer(10),
+            (Integer) other.get("intArray", 1));
+        assertTrue("distinct arrays",
+            dynaForm.get("intArray") != other.get("intArray"));
+        assertEquals("stringProperty", "This is a string",
+            (String) other.get("stringProperty"));
+    }
+
+    // Test that getMap() is a live view of the property values
+    public void testMapView() {
+        Map map = dynaForm.getMap();
+
+        assertEquals("size", dynaClass.getDynaProperties().length, map.size());
+        assertEquals("get", "This is a string", map.get("stringProperty"));
+        assertTrue("containsKey", map.containsKey("intProperty"));
+        assertTrue("not containsKey", !map.containsKey("unknownProperty"));
+
+        dynaForm.set("stringProperty", "Changed");
+        assertEquals("set visible", "Changed", map.get("stringProperty"));
+
+        map.put("intProperty", new Integer(789));
+        assertEquals("put visible", new Integer(789),
+            (Integer) dynaForm.get("intProperty"));
+
+        try {
+            map.put("unknownProperty", "value");
+            fail("Put an unknown property");
+        } catch (IllegalArgumentException e) {
+            ; // Expected result
+        }
+
+        Map copy = new HashMap(map);
+
+        assertEquals("copy", map, copy);
+        assertEquals("copy keys", map.keySet(), copy.keySet());
+    }
+
     // ------------------------------------------------------ Protected Methods
 
     /**
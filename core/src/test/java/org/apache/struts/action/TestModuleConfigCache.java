@@ -0,0 +1,167 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for the cache of parsed module configurations.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestModuleConfigCache extends TestCase {
+    protected File directory;
+    protected File configFile;
+    protected List urls;
+    protected ModuleConfigCache cache;
+
+    public TestModuleConfigCache(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestModuleConfigCache.class.getName()
+            });
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestModuleConfigCache.class);
+    }
+
+    public void setUp()
+        throws Exception {
+        directory = File.createTempFile("struts-config-cache", "");
+        directory.delete();
+        directory.mkdir();
+        configFile = new File(directory, "struts-config.xml");
+        write(configFile, "<struts-config/>");
+        urls = Collections.singletonList(configFile.toURI().toURL());
+        cache = new ModuleConfigCache(directory, "validating=true");
+    }
+
+    public void tearDown() {
+        File[] files = directory.listFiles();
+
+        for (int i = 0; i < files.length; i++) {
+            files[i].delete();
+        }
+
+        directory.delete();
+        cache = null;
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    public void testComputeKey()
+        throws Exception {
+        String key = cache.computeKey("", urls);
+
+        assertNotNull(key);
+        assertEquals("stable", key, cache.computeKey("", urls));
+        assertFalse("prefix", key.equals(cache.computeKey("/2", urls)));
+        assertFalse("settings",
+            key.equals(new ModuleConfigCache(directory, "validating=false")
+                .computeKey("", urls)));
+
+        write(configFile, "<struts-config></struts-config>");
+        assertFalse("contents", key.equals(cache.computeKey("", urls)));
+
+        configFile.delete();
+        assertNull("missing file", cache.computeKey("", urls));
+    }
+
+    public void testStoreAndLoad()
+        throws Exception {
+        String key = cache.computeKey("/2", urls);
+
+        assertNull("empty cache", cache.load("/2", key));
+
+        ModuleConfig config = new ModuleConfigImpl("/2");
+
+        cache.store("/2", key, config);
+
+        ModuleConfig loaded = cache.load("/2", key);
+
+        assertNotNull("cache hit", loaded);
+        assertNotSame(config, loaded);
+        assertEquals("/2", loaded.getPrefix());
+        assertNull("other module", cache.load("/3", key));
+    }
+
+    public void testStaleEntry()
+        throws Exception {
+        String key = cache.computeKey("", urls);
+
+        cache.store("", key, new ModuleConfigImpl(""));
+        write(configFile, "<struts-config></struts-config>");
+
+        String changed = cache.computeKey("", urls);
+
+        assertNull("stale entry", cache.load("", changed));
+
+        cache.store("", changed, new ModuleConfigImpl(""));
+        assertNotNull("replaced", cache.load("", changed));
+        assertNull("previous key", cache.load("", key));
+    }
+
+    public void testCorruptEntry()
+        throws Exception {
+        String key = cache.computeKey("", urls);
+
+        cache.store("", key, new ModuleConfigImpl(""));
+
+        File[] files = directory.listFiles();
+
+        for (int i = 0; i < files.length; i++) {
+            if (files[i].getName().endsWith(".ser")) {
+                write(files[i], "garbage");
+            }
+        }
+
+        assertNull("corrupt entry ignored", cache.load("", key));
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    private void write(File file, String contents)
+        throws IOException {
+        OutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(contents.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
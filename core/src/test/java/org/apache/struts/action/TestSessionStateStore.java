@@ -0,0 +1,394 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.apache.struts.mock.MockActionServlet;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpSession;
+import org.apache.struts.mock.TestMockBase;
+
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for the session attributes held by a
+ * <code>SessionStateStore</code>.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestSessionStateStore extends TestMockBase {
+    protected MemorySessionStateStore store = null;
+    protected SessionStateCodec codec = null;
+    protected MockHttpSession containerSession = null;
+    protected Set storedNames = null;
+
+    public TestSessionStateStore(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestSessionStateStore.class.getName()
+            });
+    }
+
+    public static Test suite() {
+        return (new TestSuite(TestSessionStateStore.class));
+    }
+
+    public void setUp() {
+        super.setUp();
+        store = new MemorySessionStateStore();
+        codec = new SessionStateCodec(new MockActionServlet(context, config));
+        storedNames =
+            new HashSet(Arrays.asList(new String[] { "form", "locale", "name" }));
+        containerSession =
+            new MockHttpSession(context) {
+                    public String getId() {
+                        return "session1";
+                    }
+                };
+    }
+
+    public void tearDown() {
+        store = null;
+        codec = null;
+        containerSession = null;
+        storedNames = null;
+        super.tearDown();
+    }
+
+    // ------------------------------------------------------------- Test Cases
+
+    public void testSimpleValues()
+        throws Exception {
+        Object[] values =
+            new Object[] {
+                "value", new Integer(42), Boolean.TRUE, new Long(-1L),
+                new Double(1.5), new Character('x'), Locale.CANADA_FRENCH,
+                new String[] { "a", null, "été" }
+            };
+
+        for (int i = 0; i < (values.length - 1); i++) {
+            assertEquals(values[i], codec.decode(codec.encode(values[i])));
+        }
+
+        String[] strings =
+            (String[]) codec.decode(codec.encode(values[values.length - 1]));
+
+        assertEquals(3, strings.length);
+        assertEquals("a", strings[0]);
+        assertNull(strings[1]);
+        assertEquals("été", strings[2]);
+        assertNull(codec.decode(codec.encode(null)));
+    }
+
+    public void testMessages()
+        throws Exception {
+        ActionErrors errors = new ActionErrors();
+
+        errors.add("b", new ActionMessage("key1", new Integer(1)));
+        errors.add("a", new ActionMessage("literal", false));
+        errors.add("b", new ActionMessage("key2"));
+
+        ActionErrors decoded = (ActionErrors) codec.decode(codec.encode(errors));
+
+        assertFalse("Encoding marked the messages accessed",
+            errors.isAccessed());
+        assertFalse(decoded.isAccessed());
+        assertEquals(3, decoded.size());
+
+        Iterator properties = decoded.properties();
+
+        assertEquals("b", properties.next());
+        assertEquals("a", properties.next());
+
+        Iterator messages = decoded.get("b");
+        ActionMessage message = (ActionMessage) messages.next();
+
+        assertEquals("key1", message.getKey());
+        assertEquals(new Integer(1), message.getValues()[0]);
+        assertEquals("key2", ((ActionMessage) messages.next()).getKey());
+
+        message = (ActionMessage) decoded.get("a").next();
+        assertFalse(message.isResource());
+
+        errors.get();
+        assertTrue(((ActionMessages) codec.decode(codec.encode(errors)))
+            .isAccessed());
+    }
+
+    public void testDynaActionForm()
+        throws Exception {
+        DynaActionForm form =
+            (DynaActionForm) moduleConfig.findFormBeanConfig("dynamic")
+                                         .createActionForm((ActionServlet) null);
+
+        form.set("stringProperty", "value");
+        form.set("booleanProperty", Boolean.TRUE);
+
+        byte[] bytes = codec.encode(form);
+        DynaActionForm decoded = (DynaActionForm) codec.decode(bytes);
+
+        assertEquals("value", decoded.get("stringProperty"));
+        assertEquals(Boolean.TRUE, decoded.get("booleanProperty"));
+        assertSame(form.getDynaClass(), decoded.getDynaClass());
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(serialized);
+
+        out.writeObject(form);
+        out.close();
+        assertTrue("Encoding is not smaller than serialization",
+            bytes.length < serialized.size());
+    }
+
+    public void testSerializedValue()
+        throws Exception {
+        ActionForward forward = new ActionForward("name", "/path", true);
+        ActionForward decoded =
+            (ActionForward) codec.decode(codec.encode(forward));
+
+        assertEquals("/path", decoded.getPath());
+        assertTrue(decoded.getRedirect());
+    }
+
+    public void testOnlyChangedAttributesWritten()
+        throws Exception {
+        DynaActionForm form =
+            (DynaActionForm) moduleConfig.findFormBeanConfig("dynamic")
+                                         .createActionForm((ActionServlet) null);
+        SessionStateRequest request = newRequest();
+        HttpSession session = request.getSession();
+
+        session.setAttribute("form", form);
+        session.setAttribute("locale", Locale.FRENCH);
+        request.flush();
+
+        assertEquals(1, store.getUpdateCount());
+        assertNull("Attribute stored in the container session",
+            containerSession.getAttribute("form"));
+
+        // Reading attributes does not write them back
+        request = newRequest();
+        session = request.getSession();
+        form = (DynaActionForm) session.getAttribute("form");
+        assertEquals(Locale.FRENCH, session.getAttribute("locale"));
+        request.flush();
+        assertEquals(1, store.getUpdateCount());
+
+        // Changing one writes it back alone
+        request = newRequest();
+        session = request.getSession();
+        form = (DynaActionForm) session.getAttribute("form");
+        session.getAttribute("locale");
+        form.set("stringProperty", "changed");
+        request.flush();
+        assertEquals(2, store.getUpdateCount());
+
+        Map attributes = store.load("session1");
+
+        assertEquals(2, attributes.size());
+
+        request = newRequest();
+        session = request.getSession();
+        form = (DynaActionForm) session.getAttribute("form");
+        assertEquals("changed", form.get("stringProperty"));
+
+        session.removeAttribute("locale");
+        request.flush();
+        assertEquals(1, store.load("session1").size());
+    }
+
+    public void testNoSession() {
+        SessionStateRequest request =
+            new SessionStateRequest(new MockHttpServletRequest(), store, codec,
+                storedNames);
+
+        assertNull(request.getSession(false));
+        request.flush();
+        assertEquals(0, store.getUpdateCount());
+    }
+
+    public void testContainerAttributes() {
+        containerSession.setAttribute("external", "value");
+
+        SessionStateRequest request = newRequest();
+        HttpSession session = request.getSession();
+        Object notSerializable = new Object();
+
+        assertEquals("value", session.getAttribute("external"));
+        session.setAttribute("other", notSerializable);
+        session.setAttribute("name", "value");
+        assertSame(notSerializable, containerSession.getAttribute("other"));
+        assertNull(containerSession.getAttribute("name"));
+
+        List names = Collections.list(session.getAttributeNames());
+
+        assertTrue(names.contains("external"));
+        assertTrue(names.contains("other"));
+        assertTrue(names.contains("name"));
+        assertEquals(3, names.size());
+
+        session.removeAttribute("external");
+        assertNull(containerSession.getAttribute("external"));
+        request.flush();
+
+        Map attributes = store.load("session1");
+
+        assertEquals(1, attributes.size());
+        assertTrue(attributes.containsKey("name"));
+    }
+
+    public void testNotSerializableStoredName() {
+        SessionStateRequest request = newRequest();
+        HttpSession session = request.getSession();
+        Object notSerializable = new Object();
+
+        session.setAttribute("form", "stored");
+        session.setAttribute("form", notSerializable);
+        assertSame(notSerializable, session.getAttribute("form"));
+        assertSame(notSerializable, containerSession.getAttribute("form"));
+
+        session.setAttribute("form", "stored");
+        assertNull(containerSession.getAttribute("form"));
+        request.flush();
+
+        request = newRequest();
+        assertEquals("stored", request.getSession().getAttribute("form"));
+    }
+
+    public void testExpiredSession() {
+        SessionStateRequest request = newRequest();
+
+        request.getSession().setAttribute("name", "value");
+        request.flush();
+        assertEquals(1, store.getSessionCount());
+
+        // Expire the container session
+        Iterator names =
+            Collections.list(containerSession.getAttributeNames()).iterator();
+
+        while (names.hasNext()) {
+            String name = (String) names.next();
+            Object value = containerSession.getAttribute(name);
+
+            containerSession.removeAttribute(name);
+
+            if (value instanceof HttpSessionBindingListener) {
+                ((HttpSessionBindingListener) value).valueUnbound(new HttpSessionBindingEvent(
+                        containerSession, name));
+            }
+        }
+
+        assertEquals(0, store.getSessionCount());
+    }
+
+    public void testConcurrentAccess()
+        throws Exception {
+        final int count = 8;
+
+        for (int i = 0; i < count; i++) {
+            storedNames.add("thread" + i);
+        }
+
+        SessionStateRequest request = newRequest();
+
+        request.getSession().setAttribute("name", "value");
+        request.flush();
+
+        request = newRequest();
+
+        final HttpSession session = request.getSession();
+        final String[] failures = new String[count];
+        Thread[] threads = new Thread[count];
+
+        for (int i = 0; i < count; i++) {
+            final String name = "thread" + i;
+            final int index = i;
+
+            threads[i] =
+                new Thread() {
+                        public void run() {
+                            try {
+                                for (int j = 0; j < 500; j++) {
+                                    Integer value = new Integer(j);
+
+                                    session.setAttribute(name, value);
+
+                                    if (!value.equals(session.getAttribute(
+                                                    name))
+                                        || !"value".equals(
+                                                session.getAttribute("name"))) {
+                                        failures[index] = "lost " + j;
+                                    }
+
+                                    Collections.list(session
+                                        .getAttributeNames());
+                                }
+                            } catch (RuntimeException e) {
+                                failures[index] = e.toString();
+                            }
+                        }
+                    };
+        }
+
+        for (int i = 0; i < count; i++) {
+            threads[i].start();
+        }
+
+        for (int i = 0; i < count; i++) {
+            threads[i].join();
+            assertNull("thread" + i, failures[i]);
+        }
+
+        request.flush();
+
+        HttpSession reloaded = newRequest().getSession();
+
+        for (int i = 0; i < count; i++) {
+            assertEquals("thread" + i, new Integer(499),
+                reloaded.getAttribute("thread" + i));
+        }
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    private SessionStateRequest newRequest() {
+        return new SessionStateRequest(new MockHttpServletRequest(
+                containerSession), store, codec, storedNames);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.config;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.struts.config.impl.ModuleConfigImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for the <code>ConfigLookupTable</code> class and its use by
+ * frozen configurations.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestConfigLookupTable extends TestCase {
+    /**
+     * Construct a new instance of this test case.
+     *
+     * @param name Name of the test case
+     */
+    public TestConfigLookupTable(String name) {
+        super(name);
+    }
+
+    /**
+     * Return the tests included in this test suite.
+     */
+    public static Test suite() {
+        return (new TestSuite(TestConfigLookupTable.class));
+    }
+
+    // ------------------------------------------------ Individual Test Methods
+
+    /**
+     * Test lookups of present, absent and null keys.
+     */
+    public void testGet() {
+        Map map = new HashMap();
+
+        for (int i = 0; i < 100; i++) {
+            map.put("/path" + i, new Integer(i));
+        }
+
+        map.put(null, "null");
+
+        ConfigLookupTable table = new ConfigLookupTable(map);
+
+        assertEquals("size", 101, table.size());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("/path" + i, new Integer(i),
+                table.get(new String("/path" + i)));
+        }
+
+        assertNull("absent key", table.get("/missing"));
+        assertEquals("null key", "null", table.get(null));
+        assertNull("empty table",
+            new ConfigLookupTable(new HashMap()).get("/path1"));
+    }
+
+    /**
+     * Test the copy of the values.
+     */
+    public void testToArray() {
+        Map map = new HashMap();
+
+        map.put("a", "1");
+        map.put("b", "2");
+
+        String[] values =
+            (String[]) new ConfigLookupTable(map).toArray(new String[0]);
+
+        assertEquals("length", 2, values.length);
+        assertTrue("values", ("1".equals(values[0]) && "2".equals(values[1]))
+            || ("2".equals(values[0]) && "1".equals(values[1])));
+    }
+
+    /**
+     * Test that a frozen module finds its configurations.
+     */
+    public void testFrozenModuleConfig() {
+        ModuleConfig config = new ModuleConfigImpl("");
+        ActionConfig action = new ActionConfig();
+
+        action.setPath("/logon");
+
+        ForwardConfig local = new ForwardConfig();
+
+        local.setName("success");
+        local.setPath("/welcome.jsp");
+        action.addForwardConfig(local);
+        config.addActionConfig(action);
+
+        ForwardConfig global = new ForwardConfig();
+
+        global.setName("home");
+        global.setPath("/home.jsp");
+        config.addForwardConfig(global);
+
+        FormBeanConfig form = new FormBeanConfig();
+
+        form.setName("logonForm");
+        form.setType("org.apache.struts.action.DynaActionForm");
+        config.addFormBeanConfig(form);
+
+        config.freeze();
+
+        assertSame("action", action, config.findActionConfig("/logon"));
+        assertNull("missing action", config.findActionConfig("/logoff"));
+        assertSame("local forward", local,
+            config.findActionConfig("/logon").findForwardConfig("success"));
+        assertSame("global forward", global, config.findForwardConfig("home"));
+        assertSame("form bean", form, config.findFormBeanConfig("logonForm"));
+        assertEquals("forwards", 1, config.findForwardConfigs().length);
+
+        try {
+            config.addForwardConfig(new ForwardConfig());
+            fail("Frozen configuration modified");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
@@ -24,6 +24,9 @@ import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.DynaActionForm;
+
 import java.lang.reflect.InvocationTargetException;
 
 /**
@@ -324,6 +327,40 @@ public class TestFormBeanConfig extends TestCase {
             count);
     }
 
+    /**
+     * Test that a released instance is reinitialized and handed out again.
+     */
+    public void testRecycle()
+        throws Exception {
+        baseForm.setRecycle(true);
+
+        DynaActionForm form = (DynaActionForm) baseForm.acquireActionForm(null);
+
+        form.set("id", "42");
+        baseForm.releaseActionForm(form);
+
+        DynaActionForm recycled =
+            (DynaActionForm) baseForm.acquireActionForm(null);
+
+        assertSame("Released instance was not recycled", form, recycled);
+        assertEquals("Recycled instance was not reinitialized", "",
+            recycled.get("id"));
+    }
+
+    /**
+     * Test that instances of a form bean that is not recycled are not
+     * kept.
+     */
+    public void testNoRecycle()
+        throws Exception {
+        ActionForm form = baseForm.acquireActionForm(null);
+
+        baseForm.releaseActionForm(form);
+
+        assertNotSame("Instance was recycled", form,
+            baseForm.acquireActionForm(null));
+    }
+
     /**
      * Used to detect that FormBeanConfig is making the right calls.
      */
@@ -0,0 +1,162 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.config;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.struts.config.impl.ModuleConfigImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+
+/**
+ * Unit tests for the <code>ModuleConfigCompiler</code> class.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestModuleConfigCompiler extends TestCase {
+    /**
+     * Construct a new instance of this test case.
+     *
+     * @param name Name of the test case
+     */
+    public TestModuleConfigCompiler(String name) {
+        super(name);
+    }
+
+    /**
+     * Return the tests included in this test suite.
+     */
+    public static Test suite() {
+        return (new TestSuite(TestModuleConfigCompiler.class));
+    }
+
+    // ------------------------------------------------ Individual Test Methods
+
+    /**
+     * Test that a compiled configuration is read back with its inheritance
+     * resolved.
+     */
+    public void testCompileAndRead()
+        throws Exception {
+        URL url =
+            this.getClass().getResource("/org/apache/struts/config/struts-config-extends.xml");
+        ModuleConfigCompiler compiler = new ModuleConfigCompiler();
+
+        compiler.setValidating(true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ModuleConfigCompiler.write(compiler.compile("", new URL[] { url }), out);
+
+        ModuleConfig config =
+            ModuleConfigCompiler.read(new ByteArrayInputStream(
+                    out.toByteArray()));
+
+        FormBeanConfig userForm = config.findFormBeanConfig("userForm");
+
+        assertNotNull("userForm found", userForm);
+        assertTrue("userForm extension processed",
+            userForm.isExtensionProcessed());
+        assertEquals("userForm type inherited",
+            "org.apache.struts.action.DynaActionForm", userForm.getType());
+        assertNotNull("id property inherited",
+            userForm.findFormPropertyConfig("id"));
+
+        ForwardConfig start = config.findForwardConfig("start");
+
+        assertEquals("start path inherited", "/home.jsp", start.getPath());
+
+        ActionConfig user = config.findActionConfig("/user");
+
+        assertEquals("/user type inherited",
+            "org.apache.struts.mock.MockAction", user.getType());
+        assertEquals("/user scope inherited", "request", user.getScope());
+        assertNotNull("/user forward inherited",
+            user.findForwardConfig("success"));
+        assertSame("module config of /user", config, user.getModuleConfig());
+    }
+
+    /**
+     * Test that data in another format is rejected.
+     */
+    public void testReadInvalid() {
+        try {
+            ModuleConfigCompiler.read(new ByteArrayInputStream(new byte[16]));
+            fail("Invalid data accepted");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test that a serialized configuration without the compiled format
+     * marker is rejected.
+     */
+    public void testReadWrongMagic()
+        throws Exception {
+        try {
+            ModuleConfigCompiler.read(serialized(0x12345678, 1));
+            fail("Wrong magic accepted");
+        } catch (IOException e) {
+            assertEquals("Not a compiled module configuration",
+                e.getMessage());
+        }
+    }
+
+    /**
+     * Test that a configuration compiled in another format version is
+     * rejected.
+     */
+    public void testReadWrongVersion()
+        throws Exception {
+        try {
+            ModuleConfigCompiler.read(serialized(0x53434647, 99));
+            fail("Wrong version accepted");
+        } catch (IOException e) {
+            assertTrue("version reported: " + e.getMessage(),
+                e.getMessage().indexOf(" 99 ") >= 0);
+        }
+    }
+
+    /**
+     * Return a valid object stream holding a module configuration after
+     * the specified header, as written by
+     * <code>ModuleConfigCompiler.write()</code>.
+     */
+    private ByteArrayInputStream serialized(int magic, int version)
+        throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+
+        oos.writeInt(magic);
+        oos.writeInt(version);
+        oos.writeObject(new ModuleConfigImpl(""));
+        oos.close();
+
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+}
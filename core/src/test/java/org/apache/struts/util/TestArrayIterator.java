@@ -0,0 +1,125 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Unit tests for <code>org.apache.struts.util.ArrayIterator</code>.</p>
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestArrayIterator extends TestCase {
+    public TestArrayIterator(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestArrayIterator.class.getName()
+            });
+    }
+
+    public static Test suite() {
+        return (new TestSuite(TestArrayIterator.class));
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    public void testObjectArray() {
+        String[] array = new String[] { "a", "b", "c" };
+
+        assertEquals(3, drain(new ArrayIterator(array)).size());
+        assertSame(array[0], new ArrayIterator(array).next());
+    }
+
+    public void testPrimitiveArray() {
+        List values = drain(new ArrayIterator(new int[] { 1, 2, 3 }));
+
+        assertEquals(3, values.size());
+        assertEquals(new Integer(1), values.get(0));
+        assertEquals(new Integer(3), values.get(2));
+
+        values = drain(new ArrayIterator(new boolean[] { true }));
+        assertEquals(Boolean.TRUE, values.get(0));
+    }
+
+    public void testOffset() {
+        List values = drain(new ArrayIterator(new long[] { 1, 2, 3 }, 1));
+
+        assertEquals(2, values.size());
+        assertEquals(new Long(2), values.get(0));
+
+        assertFalse(new ArrayIterator(new String[] { "a" }, 5).hasNext());
+        assertEquals(2,
+            drain(new ArrayIterator(new String[] { "a", "b" }, -1)).size());
+    }
+
+    public void testExhausted() {
+        Iterator iterator = new ArrayIterator(new String[0]);
+
+        assertFalse(iterator.hasNext());
+
+        try {
+            iterator.next();
+            fail("next() past the end");
+        } catch (NoSuchElementException e) {
+            ;
+        }
+    }
+
+    public void testRemove() {
+        try {
+            new ArrayIterator(new String[] { "a" }).remove();
+            fail("remove() supported");
+        } catch (UnsupportedOperationException e) {
+            ;
+        }
+    }
+
+    public void testNotAnArray() {
+        try {
+            new ArrayIterator("a");
+            fail("Accepted a non-array");
+        } catch (IllegalArgumentException e) {
+            ;
+        }
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    private List drain(Iterator iterator) {
+        List result = new ArrayList();
+
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+
+        return result;
+    }
+}
@@ -26,15 +26,19 @@ import junit.framework.TestSuite;
 import org.apache.struts.Globals;
 import org.apache.struts.action.ActionForm;
 import org.apache.struts.action.ActionMapping;
+import org.apache.struts.action.ChangeTrackingForm;
 import org.apache.struts.action.DynaActionForm;
 import org.apache.struts.action.RequestProcessor;
+import org.apache.struts.config.ControllerConfig;
 import org.apache.struts.config.ForwardConfig;
 import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.mock.MockFormBean;
+import org.apache.struts.mock.MockHttpServletRequest;
 import org.apache.struts.mock.MockPrincipal;
 import org.apache.struts.mock.TestMockBase;
 
 import java.net.MalformedURLException;
+import java.util.Locale;
 
 /**
  * <p>Unit tests for <code>org.apache.struts.util.RequestUtils</code>.</p>
@@ -661,4 +665,105 @@ public class TestRequestUtils extends TestMockBase {
         assertNotNull("serverURL is present", url);
         assertEquals("serverURL value", "http://localhost:8080", url);
     }
+
+    // ----------------------------------------------------- stateless requests
+    // Locale read from the request parameter, without a session
+    public void testStatelessLocale() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        ControllerConfig controller = new ControllerConfig();
+
+        controller.setStateless(true);
+        controller.setLocaleParam("lang");
+        request.setLocale(Locale.GERMAN);
+        request.addParameter("lang", "fr-CA");
+
+        assertTrue("Request is stateless",
+            RequestUtils.selectStateless(request, controller, null));
+        assertEquals("Locale from parameter", Locale.CANADA_FRENCH,
+            RequestUtils.getStatelessLocale(request, controller));
+
+        controller.setLocaleParam(null);
+        assertEquals("Locale from header", Locale.GERMAN,
+            RequestUtils.getStatelessLocale(request, controller));
+        assertNull("No session created", request.getSession(false));
+
+        request.setAttribute(Globals.LOCALE_KEY, Locale.ITALIAN);
+        assertEquals("User locale from request scope", Locale.ITALIAN,
+            RequestUtils.getUserLocale(request, null));
+    }
+
+    // Session creation rejected for a stateless request
+    public void testStatelessGetSession() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        ControllerConfig controller = new ControllerConfig();
+        ActionMapping mapping = new ActionMapping();
+
+        request.setPathElements("/myapp", "/foo.do", null, null);
+        assertFalse("Request is not stateless",
+            RequestUtils.selectStateless(request, controller, mapping));
+
+        mapping.setStateless(true);
+        controller.setRejectSessions(true);
+        assertTrue("Mapping is stateless",
+            RequestUtils.selectStateless(request, controller, mapping));
+
+        try {
+            RequestUtils.getSession(request, "a test");
+            fail("Session created");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertNull("No session created", request.getSession(false));
+    }
+
+    // Form beans already in the session are only stored again when changed
+    public void testActionFormStoreNeeded() {
+        ActionForm plain = new MockFormBean();
+
+        assertTrue("Plain form bean stored",
+            RequestUtils.isActionFormStoreNeeded(plain, plain));
+        assertFalse("Plain form bean not stored again",
+            RequestUtils.isActionFormChanged(plain));
+
+        TrackedFormBean tracked = new TrackedFormBean();
+
+        assertTrue("New form bean stored",
+            RequestUtils.isActionFormStoreNeeded(null, tracked));
+        assertFalse("Changes forgotten", tracked.isChanged());
+        assertFalse("Unchanged form bean not stored",
+            RequestUtils.isActionFormStoreNeeded(tracked, tracked));
+        assertFalse("Unchanged form bean not stored again",
+            RequestUtils.isActionFormChanged(tracked));
+
+        tracked.setValue("changed");
+        assertTrue("Changed form bean stored again",
+            RequestUtils.isActionFormChanged(tracked));
+        assertFalse("Changes forgotten", tracked.isChanged());
+    }
+
+    // ---------------------------------------------------------- Inner Classes
+
+    public static class TrackedFormBean extends ActionForm
+        implements ChangeTrackingForm {
+        private String value = null;
+        private boolean changed = true;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+            changed = true;
+        }
+
+        public boolean isChanged() {
+            return changed;
+        }
+
+        public void clearChanged() {
+            changed = false;
+        }
+    }
 }
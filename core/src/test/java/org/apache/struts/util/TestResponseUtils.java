@@ -0,0 +1,140 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.net.URLEncoder;
+
+/**
+ * <p>Unit tests for <code>org.apache.struts.util.ResponseUtils</code>.</p>
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestResponseUtils extends TestCase {
+    /**
+     * Values covering safe, reserved, non-ASCII and surrogate characters.
+     */
+    private static final String[] VALUES =
+        new String[] {
+            "", "safe-value_1.*", "a b", "a+b&c=d/e?f#g%h", "caf\u00e9",
+            "\u65e5\u672c\u8a9e \u30c6\u30b9\u30c8", "\ud834\udd1e",
+            "x\ud834y", "\u00a9 \u20ac"
+        };
+
+    public TestResponseUtils(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestResponseUtils.class.getName()
+            });
+    }
+
+    public static Test suite() {
+        return (new TestSuite(TestResponseUtils.class));
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    public void testEncodeURLUTF8()
+        throws Exception {
+        for (int i = 0; i < VALUES.length; i++) {
+            assertEquals(VALUES[i], URLEncoder.encode(VALUES[i], "UTF-8"),
+                ResponseUtils.encodeURL(VALUES[i]));
+            assertEquals(VALUES[i], URLEncoder.encode(VALUES[i], "UTF-8"),
+                ResponseUtils.encodeURL(VALUES[i], "utf-8"));
+        }
+    }
+
+    public void testEncodeURLCharsets()
+        throws Exception {
+        String[] charsets = new String[] { "ISO-8859-1", "Shift_JIS", "UTF-16" };
+
+        for (int i = 0; i < VALUES.length; i++) {
+            for (int j = 0; j < charsets.length; j++) {
+                assertEquals(VALUES[i] + " in " + charsets[j],
+                    URLEncoder.encode(VALUES[i], charsets[j]),
+                    ResponseUtils.encodeURL(VALUES[i], charsets[j]));
+            }
+        }
+    }
+
+    public void testEncodeURLUnsupported() {
+        for (int i = 0; i < VALUES.length; i++) {
+            assertEquals(VALUES[i], URLEncoder.encode(VALUES[i]),
+                ResponseUtils.encodeURL(VALUES[i], "no-such-encoding"));
+        }
+    }
+
+    public void testEncodeURLConcurrent()
+        throws Exception {
+        final String[] charsets =
+            new String[] { "UTF-8", "ISO-8859-15", "EUC-JP", "UTF-16BE" };
+        final String[] failures = new String[charsets.length];
+        Thread[] threads = new Thread[charsets.length];
+
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+
+            threads[i] =
+                new Thread() {
+                        public void run() {
+                            try {
+                                for (int j = 0; j < VALUES.length; j++) {
+                                    String expected =
+                                        URLEncoder.encode(VALUES[j],
+                                            charsets[index]);
+
+                                    if (!expected.equals(
+                                                ResponseUtils.encodeURL(
+                                                    VALUES[j],
+                                                    charsets[index]))) {
+                                        failures[index] = VALUES[j];
+                                    }
+                                }
+                            } catch (Exception e) {
+                                failures[index] = e.toString();
+                            }
+                        }
+                    };
+        }
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].start();
+        }
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            assertNull(charsets[i], failures[i]);
+        }
+    }
+
+    public void testEncodeURLSafeNotCopied() {
+        String value = "safe-value_1.*";
+
+        assertSame(value, ResponseUtils.encodeURL(value));
+        assertSame(value, ResponseUtils.encodeURL(value, "ISO-8859-1"));
+    }
+}
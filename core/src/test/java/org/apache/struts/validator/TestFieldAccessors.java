@@ -0,0 +1,136 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.validator;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.commons.beanutils.LazyDynaBean;
+import org.apache.commons.beanutils.WrapDynaBean;
+import org.apache.commons.validator.Field;
+import org.apache.commons.validator.Form;
+
+import java.util.Map;
+
+/**
+ * Unit tests for the binding of Validator fields to bean properties.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestFieldAccessors extends TestCase {
+    protected Form form;
+
+    public TestFieldAccessors(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestFieldAccessors.class.getName()
+            });
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestFieldAccessors.class);
+    }
+
+    public void setUp() {
+        form = new Form();
+        form.setName("pojoForm");
+        addField("stringValue1", 0, false);
+        addField("intValue1", 0, false);
+        addField("intValue2", 2, false);
+        addField("stringValue2", 1, false);
+        addField("stringValue2", 3, false);
+        addField("beans", 0, true);
+        addField("map.key", 0, false);
+        addField("mapped(key)", 0, false);
+        addField("noSuchProperty", 0, false);
+    }
+
+    public void tearDown() {
+        form = null;
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    public void testPojoBean() {
+        PojoBean bean = new PojoBean("ABC", null);
+
+        bean.setIntValue1(42);
+
+        WrapDynaBean dynaBean = new WrapDynaBean(bean);
+        FieldAccessors accessors = FieldAccessors.getInstance(form, dynaBean);
+
+        assertEquals(4, accessors.size());
+        assertSame(accessors,
+            FieldAccessors.getInstance(form,
+                new WrapDynaBean(new PojoBean())));
+
+        Map values = accessors.read(dynaBean, 0);
+
+        assertEquals(2, values.size());
+        assertEquals("ABC", values.get("stringValue1"));
+        assertEquals(new Integer(42), values.get("intValue1"));
+
+        values = accessors.read(dynaBean, 1);
+        assertEquals(3, values.size());
+        assertTrue(values.containsKey("stringValue2"));
+        assertNull(values.get("stringValue2"));
+
+        assertEquals(4, accessors.read(dynaBean, 2).size());
+    }
+
+    public void testDynaBean() {
+        LazyDynaBean dynaBean = new LazyDynaBean();
+
+        dynaBean.set("stringValue1", "ABC");
+
+        FieldAccessors accessors = FieldAccessors.getInstance(form, dynaBean);
+
+        assertEquals(5, accessors.size());
+
+        Map values = accessors.read(dynaBean, 0);
+
+        assertEquals("ABC", values.get("stringValue1"));
+        assertTrue(values.containsKey("noSuchProperty"));
+        assertNull(values.get("noSuchProperty"));
+        assertNotSame(accessors,
+            FieldAccessors.getInstance(form,
+                new WrapDynaBean(new PojoBean())));
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    private void addField(String property, int page, boolean indexed) {
+        Field field = new Field();
+
+        field.setProperty(property);
+        field.setPage(page);
+
+        if (indexed) {
+            field.setIndexedListProperty(property);
+        }
+
+        form.addField(field);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.validator;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.commons.validator.Field;
+import org.apache.commons.validator.Form;
+import org.apache.commons.validator.Var;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the fields affected by changes to form properties.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestFieldDependencies extends TestCase {
+    protected FieldDependencies dependencies;
+
+    public TestFieldDependencies(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestFieldDependencies.class.getName()
+            });
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestFieldDependencies.class);
+    }
+
+    public void setUp() {
+        Form form = new Form();
+
+        form.setName("contactForm");
+        addField(form, null, "name", "required");
+        addField(form, null, "contactByEmail", null);
+        addField(form, null, "contactByPhone", null);
+
+        Field field = addField(form, null, "email", "validwhen");
+
+        field.addVar(new Var("test",
+                "((contactByEmail == null) or (*this* != null))", null));
+
+        field = addField(form, null, "phone", "requiredif");
+        field.addVar(new Var("field[0]", "contactByPhone", null));
+        field.addVar(new Var("fieldTest[0]", "NOTNULL", null));
+
+        field = addField(form, "items", "quantity", "validwhen");
+        field.addVar(new Var("test",
+                "((items[].product == null) or (*this* != null))", null));
+
+        field = addField(form, "items", "price", "requiredif");
+        field.addVar(new Var("field[0]", "quantity", null));
+        field.addVar(new Var("fieldTest[0]", "NOTNULL", null));
+        field.addVar(new Var("fieldIndexed[0]", "true", null));
+
+        addField(form, null, "address.city", "required");
+
+        dependencies = FieldDependencies.getInstance(form);
+        assertSame(dependencies, FieldDependencies.getInstance(form));
+    }
+
+    public void tearDown() {
+        dependencies = null;
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    public void testOwnProperty() {
+        assertAffected(new String[] { "name" }, new String[] { "name" });
+        assertAffected(new String[] { "name", "unknown" },
+            new String[] { "name" });
+        assertAffected(new String[0], new String[0]);
+    }
+
+    public void testValidWhen() {
+        assertAffected(new String[] { "contactByEmail" },
+            new String[] { "contactByEmail", "email" });
+        assertAffected(new String[] { "items[3].product" },
+            new String[] { "items[].quantity" });
+    }
+
+    public void testRequiredIf() {
+        assertAffected(new String[] { "contactByPhone" },
+            new String[] { "contactByPhone", "phone" });
+        assertAffected(new String[] { "items[0].quantity" },
+            new String[] { "items[].quantity", "items[].price" });
+    }
+
+    public void testNestedProperties() {
+        assertAffected(new String[] { "address" },
+            new String[] { "address.city" });
+        assertAffected(new String[] { "items" },
+            new String[] { "items[].quantity", "items[].price" });
+        assertAffected(new String[] { "address.city.code" },
+            new String[] { "address.city" });
+    }
+
+    public void testUnreadableTest() {
+        Form form = new Form();
+
+        form.setName("brokenForm");
+        addField(form, null, "name", null);
+
+        Field field = addField(form, null, "other", "validwhen");
+
+        field.addVar(new Var("test", "((name == 'unterminated) ", null));
+
+        assertEquals(Arrays.asList(new String[] { "name", "other" }),
+            FieldDependencies.getInstance(form).getAffectedFields(
+                Arrays.asList(new String[] { "name" })));
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    private Field addField(Form form, String indexedListProperty,
+        String property, String depends) {
+        Field field = new Field();
+
+        field.setProperty(property);
+        field.setIndexedListProperty(indexedListProperty);
+
+        if (depends != null) {
+            field.setDepends(depends);
+        }
+
+        form.addField(field);
+
+        return field;
+    }
+
+    private void assertAffected(String[] properties, String[] expected) {
+        List affected =
+            dependencies.getAffectedFields(Arrays.asList(properties));
+
+        assertEquals(Arrays.asList(properties).toString(),
+            Arrays.asList(expected), affected);
+    }
+}
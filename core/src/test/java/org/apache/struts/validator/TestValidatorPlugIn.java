@@ -0,0 +1,224 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.validator;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.commons.validator.ValidatorResources;
+import org.apache.struts.action.ActionServlet;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.apache.struts.mock.MockServletContext;
+import org.apache.struts.util.SerializedCacheFile;
+
+import javax.servlet.ServletContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.net.URL;
+
+import java.util.Locale;
+
+/**
+ * Unit tests for the caching and reloading of validator resources.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestValidatorPlugIn extends TestCase {
+    private static final String PATH = "/WEB-INF/validation.xml";
+    protected File directory;
+    protected File validationFile;
+    protected File cacheFile;
+    protected MockServletContext context;
+    protected ActionServlet servlet;
+    protected ValidatorPlugIn plugIn;
+
+    public TestValidatorPlugIn(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestValidatorPlugIn.class.getName()
+            });
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestValidatorPlugIn.class);
+    }
+
+    public void setUp()
+        throws Exception {
+        directory = File.createTempFile("validator-cache", "");
+        directory.delete();
+        directory.mkdir();
+        validationFile = new File(directory, "validation.xml");
+        write(validationFile, validation("first"));
+        cacheFile = new File(directory, "validator-resources.ser");
+
+        context =
+            new MockServletContext() {
+                    public URL getResource(String path) {
+                        try {
+                            return PATH.equals(path)
+                            ? validationFile.toURI().toURL() : null;
+                        } catch (IOException e) {
+                            return null;
+                        }
+                    }
+                };
+        context.setAttribute("javax.servlet.context.tempdir", directory);
+
+        servlet =
+            new ActionServlet() {
+                    public ServletContext getServletContext() {
+                        return context;
+                    }
+                };
+
+        plugIn = new ValidatorPlugIn();
+        plugIn.setPathnames(PATH);
+        plugIn.setCacheResources(true);
+    }
+
+    public void tearDown() {
+        plugIn.destroy();
+
+        File[] files = directory.listFiles();
+
+        for (int i = 0; i < files.length; i++) {
+            files[i].delete();
+        }
+
+        directory.delete();
+        plugIn = null;
+        servlet = null;
+        context = null;
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    public void testCacheHit()
+        throws Exception {
+        new SerializedCacheFile(cacheFile).write(checksum(),
+            new ValidatorResources(new ByteArrayInputStream(
+                    validation("cached").getBytes("UTF-8"))));
+
+        plugIn.init(servlet, new ModuleConfigImpl(""));
+
+        assertNotNull("cached resources used", getForm("cached"));
+        assertNull(getForm("first"));
+    }
+
+    public void testStaleCache()
+        throws Exception {
+        new SerializedCacheFile(cacheFile).write("stale",
+            new ValidatorResources(new ByteArrayInputStream(
+                    validation("cached").getBytes("UTF-8"))));
+
+        plugIn.init(servlet, new ModuleConfigImpl(""));
+
+        assertNull("stale cache ignored", getForm("cached"));
+        assertNotNull(getForm("first"));
+
+        ValidatorResources stored =
+            (ValidatorResources) new SerializedCacheFile(cacheFile).read(
+                checksum());
+
+        assertNotNull("cache replaced", stored);
+        assertNotNull(stored.getForm(Locale.getDefault(), "first"));
+    }
+
+    public void testReload()
+        throws Exception {
+        plugIn.setCheckInterval(3600);
+        plugIn.init(servlet, new ModuleConfigImpl(""));
+
+        assertFalse("unchanged", plugIn.checkResources());
+        assertNotNull(getForm("first"));
+
+        write(validationFile, validation("second"));
+
+        assertTrue("changed", plugIn.checkResources());
+        assertNull(getForm("first"));
+        assertNotNull("reloaded", getForm("second"));
+        assertFalse("reloaded once", plugIn.checkResources());
+
+        ValidatorResources stored =
+            (ValidatorResources) new SerializedCacheFile(cacheFile).read(
+                checksum());
+
+        assertNotNull("cache updated", stored);
+        assertNotNull(stored.getForm(Locale.getDefault(), "second"));
+    }
+
+    public void testReloadKeepsResourcesOnError()
+        throws Exception {
+        plugIn.setCheckInterval(3600);
+        plugIn.init(servlet, new ModuleConfigImpl(""));
+
+        write(validationFile, "<form-validation>");
+
+        assertFalse("unreadable", plugIn.checkResources());
+        assertNotNull("current resources kept", getForm("first"));
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    private Object getForm(String name) {
+        ValidatorResources resources =
+            (ValidatorResources) context.getAttribute(
+                ValidatorPlugIn.VALIDATOR_KEY);
+
+        return resources.getForm(Locale.getDefault(), name);
+    }
+
+    private String checksum()
+        throws IOException {
+        return SerializedCacheFile.digest(null,
+            new URL[] { validationFile.toURI().toURL() });
+    }
+
+    private static String validation(String formName) {
+        return "<!DOCTYPE form-validation PUBLIC"
+        + " \"-//Apache Software Foundation//DTD Commons Validator Rules"
+        + " Configuration 1.3.0//EN\""
+        + " \"http://jakarta.apache.org/commons/dtds/validator_1_3_0.dtd\">"
+        + "<form-validation><formset><form name=\"" + formName + "\">"
+        + "<field property=\"name\"/></form></formset></form-validation>";
+    }
+
+    private void write(File file, String contents)
+        throws IOException {
+        OutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(contents.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
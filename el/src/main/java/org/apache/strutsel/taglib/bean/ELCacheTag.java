@@ -0,0 +1,208 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.strutsel.taglib.bean;
+
+import org.apache.struts.taglib.bean.CacheTag;
+import org.apache.strutsel.taglib.utils.EvalHelper;
+
+import javax.servlet.jsp.JspException;
+
+/**
+ * Cache the rendered output of the body of this tag. <p> This class is a
+ * subclass of the class <code>org.apache.struts.taglib.bean.CacheTag</code>
+ * which provides most of the described functionality.  This subclass allows
+ * all attribute values to be specified as expressions utilizing the
+ * JavaServer Pages Standard Library expression language.
+ *
+ * @version $Rev$
+ * @since Struts 1.4
+ */
+public class ELCacheTag extends CacheTag {
+    /**
+     * Instance variable mapped to "bundle" tag attribute. (Mapping set in
+     * associated BeanInfo class.)
+     */
+    private String bundleExpr;
+
+    /**
+     * Instance variable mapped to "key" tag attribute. (Mapping set in
+     * associated BeanInfo class.)
+     */
+    private String keyExpr;
+
+    /**
+     * Instance variable mapped to "locale" tag attribute. (Mapping set in
+     * associated BeanInfo class.)
+     */
+    private String localeExpr;
+
+    /**
+     * Instance variable mapped to "scope" tag attribute. (Mapping set in
+     * associated BeanInfo class.)
+     */
+    private String scopeExpr;
+
+    /**
+     * Instance variable mapped to "ttl" tag attribute. (Mapping set in
+     * associated BeanInfo class.)
+     */
+    private String ttlExpr;
+
+    /**
+     * Getter method for "bundle" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public String getBundleExpr() {
+        return (bundleExpr);
+    }
+
+    /**
+     * Getter method for "key" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public String getKeyExpr() {
+        return (keyExpr);
+    }
+
+    /**
+     * Getter method for "locale" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public String getLocaleExpr() {
+        return (localeExpr);
+    }
+
+    /**
+     * Getter method for "scope" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public String getScopeExpr() {
+        return (scopeExpr);
+    }
+
+    /**
+     * Getter method for "ttl" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public String getTtlExpr() {
+        return (ttlExpr);
+    }
+
+    /**
+     * Setter method for "bundle" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public void setBundleExpr(String bundleExpr) {
+        this.bundleExpr = bundleExpr;
+    }
+
+    /**
+     * Setter method for "key" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public void setKeyExpr(String keyExpr) {
+        this.keyExpr = keyExpr;
+    }
+
+    /**
+     * Setter method for "locale" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public void setLocaleExpr(String localeExpr) {
+        this.localeExpr = localeExpr;
+    }
+
+    /**
+     * Setter method for "scope" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public void setScopeExpr(String scopeExpr) {
+        this.scopeExpr = scopeExpr;
+    }
+
+    /**
+     * Setter method for "ttl" tag attribute. (Mapping set in associated
+     * BeanInfo class.)
+     */
+    public void setTtlExpr(String ttlExpr) {
+        this.ttlExpr = ttlExpr;
+    }
+
+    /**
+     * Resets attribute values for tag reuse.
+     */
+    public void release() {
+        super.release();
+        setBundleExpr(null);
+        setKeyExpr(null);
+        setLocaleExpr(null);
+        setScopeExpr(null);
+        setTtlExpr(null);
+    }
+
+    /**
+     * Process the start tag.
+     *
+     * @throws JspException if a JSP exception has occurred
+     */
+    public int doStartTag() throws JspException {
+        evaluateExpressions();
+
+        return (super.doStartTag());
+    }
+
+    /**
+     * Processes all attribute values which use the JSTL expression evaluation
+     * engine to determine their values.
+     *
+     * @throws JspException if a JSP exception has occurred
+     */
+    private void evaluateExpressions()
+        throws JspException {
+        String string = null;
+        Integer integer = null;
+
+        if ((string =
+                EvalHelper.evalString("bundle", getBundleExpr(), this, pageContext)) != null) {
+            setBundle(string);
+        }
+
+        if ((string =
+                EvalHelper.evalString("key", getKeyExpr(), this, pageContext)) != null) {
+            setKey(string);
+        }
+
+        if ((string =
+                EvalHelper.evalString("locale", getLocaleExpr(), this, pageContext)) != null) {
+            setLocale(string);
+        }
+
+        if ((string =
+                EvalHelper.evalString("scope", getScopeExpr(), this, pageContext)) != null) {
+            setScope(string);
+        }
+
+        if ((integer =
+                EvalHelper.evalInteger("ttl", getTtlExpr(), this, pageContext)) != null) {
+            setTtl(integer.intValue());
+        }
+    }
+}
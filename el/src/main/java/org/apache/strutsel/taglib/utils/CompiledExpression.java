@@ -0,0 +1,224 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.strutsel.taglib.utils;
+
+import org.apache.taglibs.standard.lang.jstl.Coercions;
+import org.apache.taglibs.standard.lang.jstl.Constants;
+import org.apache.taglibs.standard.lang.jstl.ELEvaluator;
+import org.apache.taglibs.standard.lang.jstl.ELException;
+import org.apache.taglibs.standard.lang.jstl.Expression;
+import org.apache.taglibs.standard.lang.jstl.ExpressionString;
+import org.apache.taglibs.standard.lang.jstl.JSTLVariableResolver;
+import org.apache.taglibs.standard.lang.jstl.Logger;
+import org.apache.taglibs.standard.lang.jstl.VariableResolver;
+
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.PageContext;
+
+import java.text.MessageFormat;
+
+/**
+ * <p>An attribute expression that has been parsed once by the JSTL EL
+ * parser and can be evaluated repeatedly against different page contexts.
+ * Instances are immutable apart from a small memo of coerced literal values
+ * and are safe to share between threads.</p>
+ *
+ * @version $Rev$
+ * @see ExpressionCache
+ * @since Struts 1.4
+ */
+public final class CompiledExpression {
+    /**
+     * The evaluator used to parse expression strings.  Parsing is the only
+     * operation delegated to it; evaluation runs against the parsed form.
+     */
+    private static final ELEvaluator PARSER =
+        new ELEvaluator(new JSTLVariableResolver(), true);
+
+    /**
+     * The variable resolver shared by every evaluation, as the JSTL
+     * <code>Evaluator</code> does.
+     */
+    private static final VariableResolver RESOLVER =
+        new JSTLVariableResolver();
+
+    /**
+     * The logger handed to the EL engine for coercion warnings.
+     */
+    private static final Logger LOGGER = new Logger(System.out);
+
+    // ----------------------------------------------------- Instance Variables
+
+    /**
+     * The name of the attribute this expression was declared on.
+     */
+    private final String attrName;
+
+    /**
+     * The original expression text.
+     */
+    private final String expressionText;
+
+    /**
+     * The parsed form: a literal <code>String</code>, an
+     * <code>Expression</code> or an <code>ExpressionString</code>.
+     */
+    private final Object parsed;
+
+    /**
+     * Memoized coercions of a literal value, one slot per commonly requested
+     * type.  Only used when <code>parsed</code> is a <code>String</code>.
+     */
+    private volatile Object literalAsObject;
+    private volatile Object literalAsInteger;
+    private volatile Object literalAsBoolean;
+
+    // ----------------------------------------------------------- Constructors
+
+    /**
+     * <p>Parse <code>expressionText</code> for the named attribute.</p>
+     *
+     * @param attrName       The attribute the expression belongs to
+     * @param expressionText The raw attribute value
+     * @throws JspException if the expression cannot be parsed
+     */
+    CompiledExpression(String attrName, String expressionText)
+        throws JspException {
+        this.attrName = attrName;
+        this.expressionText = expressionText;
+
+        try {
+            this.parsed = PARSER.parseExpressionString(expressionText);
+        } catch (ELException e) {
+            throw toJspException(e);
+        }
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * <p>Return the original expression text.</p>
+     */
+    public String getExpressionText() {
+        return (expressionText);
+    }
+
+    /**
+     * <p>Return <code>true</code> if the expression contains no
+     * <code>${...}</code> segments and always evaluates to the same
+     * value.</p>
+     */
+    public boolean isLiteral() {
+        return (parsed instanceof String);
+    }
+
+    /**
+     * <p>Evaluate this expression in the given page context and coerce the
+     * result to <code>expectedType</code>, with the same semantics as
+     * <code>ExpressionEvaluatorManager.evaluate</code>.</p>
+     *
+     * @param expectedType The type the result should be coerced to
+     * @param pageContext  The page context variables are resolved against
+     * @return The coerced result
+     * @throws JspException if evaluation or coercion fails
+     */
+    public Object evaluate(Class expectedType, PageContext pageContext)
+        throws JspException {
+        try {
+            if (parsed instanceof String) {
+                return (evaluateLiteral(expectedType));
+            }
+
+            Object value;
+
+            if (parsed instanceof Expression) {
+                value =
+                    ((Expression) parsed).evaluate(pageContext, RESOLVER,
+                        null, null, LOGGER);
+            } else {
+                value =
+                    ((ExpressionString) parsed).evaluate(pageContext,
+                        RESOLVER, null, null, LOGGER);
+            }
+
+            return (Coercions.coerce(value, expectedType, LOGGER));
+        } catch (ELException e) {
+            throw toJspException(e);
+        }
+    }
+
+    // ------------------------------------------------------ Private Methods
+
+    /**
+     * <p>Coerce the literal value, reusing the result for the types the EL
+     * tags ask for most often.  Strings need no coercion at all.</p>
+     */
+    private Object evaluateLiteral(Class expectedType)
+        throws ELException {
+        if (expectedType == String.class) {
+            return (parsed);
+        }
+
+        Object result;
+
+        if (expectedType == Object.class) {
+            result = literalAsObject;
+
+            if (result == null) {
+                result = Coercions.coerce(parsed, expectedType, LOGGER);
+                literalAsObject = result;
+            }
+        } else if (expectedType == Integer.class) {
+            result = literalAsInteger;
+
+            if (result == null) {
+                result = Coercions.coerce(parsed, expectedType, LOGGER);
+                literalAsInteger = result;
+            }
+        } else if (expectedType == Boolean.class) {
+            result = literalAsBoolean;
+
+            if (result == null) {
+                result = Coercions.coerce(parsed, expectedType, LOGGER);
+                literalAsBoolean = result;
+            }
+        } else {
+            result = Coercions.coerce(parsed, expectedType, LOGGER);
+        }
+
+        return (result);
+    }
+
+    /**
+     * <p>Wrap an EL failure exactly as the JSTL <code>Evaluator</code>
+     * does, so error pages see the same message.</p>
+     */
+    private JspException toJspException(ELException e) {
+        String message =
+            MessageFormat.format(Constants.ATTRIBUTE_EVALUATION_EXCEPTION,
+                new Object[] {
+                    "" + attrName, "" + expressionText, e.getMessage(),
+                    e.getRootCause()
+                });
+
+        return (new JspException(message, e.getRootCause()));
+    }
+}
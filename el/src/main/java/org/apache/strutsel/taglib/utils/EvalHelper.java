@@ -20,8 +20,6 @@
  */
 package org.apache.strutsel.taglib.utils;
 
-import org.apache.taglibs.standard.lang.support.ExpressionEvaluatorManager;
-
 import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.PageContext;
 import javax.servlet.jsp.tagext.Tag;
@@ -31,7 +29,8 @@ import javax.servlet.jsp.tagext.Tag;
  * Tag class.  It is used to process the original attribute value through the
  * JSTL EL engine to produce an evaluated value.  It provides functions to
  * evaluate the expression assuming it is an Object, String, Integer, or
- * Boolean result.
+ * Boolean result.  Expressions are parsed once and reused through the
+ * shared {@link ExpressionCache}.
  */
 public final class EvalHelper {
     private EvalHelper() {
@@ -49,8 +48,8 @@ public final class EvalHelper {
 
         if (attrValue != null) {
             result =
-                ExpressionEvaluatorManager.evaluate(attrName, attrValue,
-                    Object.class, tagObject, pageContext);
+                evaluate(attrName, attrValue, Object.class, tagObject,
+                    pageContext);
         }
 
         return (result);
@@ -68,8 +67,8 @@ public final class EvalHelper {
 
         if (attrValue != null) {
             result =
-                ExpressionEvaluatorManager.evaluate(attrName, attrValue,
-                    String.class, tagObject, pageContext);
+                evaluate(attrName, attrValue, String.class, tagObject,
+                    pageContext);
         }
 
         return ((String) result);
@@ -87,8 +86,8 @@ public final class EvalHelper {
 
         if (attrValue != null) {
             result =
-                ExpressionEvaluatorManager.evaluate(attrName, attrValue,
-                    Integer.class, tagObject, pageContext);
+                evaluate(attrName, attrValue, Integer.class, tagObject,
+                    pageContext);
         }
 
         return ((Integer) result);
@@ -106,10 +105,23 @@ public final class EvalHelper {
 
         if (attrValue != null) {
             result =
-                ExpressionEvaluatorManager.evaluate(attrName, attrValue,
-                    Boolean.class, tagObject, pageContext);
+                evaluate(attrName, attrValue, Boolean.class, tagObject,
+                    pageContext);
         }
 
         return ((Boolean) result);
     }
+
+    /**
+     * Evaluates a non-null attribute value through its cached compiled
+     * form.
+     */
+    private static Object evaluate(String attrName, String attrValue,
+        Class expectedType, Tag tagObject, PageContext pageContext)
+        throws JspException {
+        Class tagClass = (tagObject == null) ? null : tagObject.getClass();
+
+        return ExpressionCache.getExpression(tagClass, attrName, attrValue)
+                              .evaluate(expectedType, pageContext);
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.strutsel.taglib.utils;
+
+import javax.servlet.jsp.JspException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Process-wide cache of {@link CompiledExpression}s shared by every EL
+ * tag.  Entries are keyed by (tag class, attribute name, expression string),
+ * so each attribute expression written in a JSP is parsed once no matter
+ * how many times the page is rendered.  The cache is bounded and evicts the
+ * least recently used entry once {@link #MAX_ENTRIES} is reached.</p>
+ *
+ * @version $Rev$
+ * @since Struts 1.4
+ */
+public final class ExpressionCache {
+    /**
+     * The maximum number of compiled expressions retained.
+     */
+    public static final int MAX_ENTRIES = 4096;
+
+    /**
+     * The compiled expressions, in access order.  All access is
+     * synchronized on the map itself.
+     */
+    private static final Map cache =
+        new LinkedHashMap(256, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+
+    private ExpressionCache() {
+    }
+
+    /**
+     * <p>Return the compiled form of <code>attrValue</code> as declared on
+     * attribute <code>attrName</code> of tags of type <code>tagClass</code>,
+     * parsing it on first use.</p>
+     *
+     * @param tagClass  The class of the tag declaring the attribute
+     * @param attrName  The attribute name
+     * @param attrValue The raw (unevaluated) attribute value
+     * @return The compiled expression
+     * @throws JspException if the expression cannot be parsed
+     */
+    public static CompiledExpression getExpression(Class tagClass,
+        String attrName, String attrValue)
+        throws JspException {
+        Key key = new Key(tagClass, attrName, attrValue);
+        CompiledExpression expression;
+
+        synchronized (cache) {
+            expression = (CompiledExpression) cache.get(key);
+        }
+
+        if (expression == null) {
+            // Parse outside the lock; a concurrent duplicate parse is
+            // harmless because both results are equivalent.
+            expression = new CompiledExpression(attrName, attrValue);
+
+            synchronized (cache) {
+                cache.put(key, expression);
+            }
+        }
+
+        return (expression);
+    }
+
+    /**
+     * <p>Return the number of compiled expressions currently cached.</p>
+     */
+    public static int size() {
+        synchronized (cache) {
+            return (cache.size());
+        }
+    }
+
+    /**
+     * <p>Discard every cached expression.</p>
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Composite cache key with a precomputed hash code.
+     */
+    private static final class Key {
+        private final Class tagClass;
+        private final String attrName;
+        private final String attrValue;
+        private final int hash;
+
+        Key(Class tagClass, String attrName, String attrValue) {
+            this.tagClass = tagClass;
+            this.attrName = attrName;
+            this.attrValue = attrValue;
+
+            int h = (tagClass == null) ? 0 : tagClass.hashCode();
+
+            h = (31 * h) + ((attrName == null) ? 0 : attrName.hashCode());
+            h = (31 * h) + attrValue.hashCode();
+            this.hash = h;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return (hash == other.hash) && (tagClass == other.tagClass)
+            && ((attrName == null) ? (other.attrName == null)
+                                   : attrName.equals(other.attrName))
+            && attrValue.equals(other.attrValue);
+        }
+    }
+}
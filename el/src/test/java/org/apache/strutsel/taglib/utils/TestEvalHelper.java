@@ -0,0 +1,169 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.strutsel.taglib.utils;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.struts.mock.MockPageContext;
+import org.apache.taglibs.standard.lang.support.ExpressionEvaluatorManager;
+
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.tagext.Tag;
+import javax.servlet.jsp.tagext.TagSupport;
+
+/**
+ * Unit tests for the evaluation of EL attributes through the
+ * <code>ExpressionCache</code>.
+ *
+ * @version $Rev$
+ */
+public class TestEvalHelper extends TestCase {
+    protected MockPageContext pageContext;
+    protected Tag tag;
+
+    public TestEvalHelper(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestEvalHelper.class.getName()
+            });
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestEvalHelper.class);
+    }
+
+    public void setUp() {
+        ExpressionCache.clear();
+        pageContext = new MockPageContext();
+        pageContext.setAttribute("name", "value");
+        pageContext.setAttribute("count", new Integer(2));
+        tag = new TagSupport();
+    }
+
+    public void tearDown() {
+        ExpressionCache.clear();
+        pageContext = null;
+        tag = null;
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    public void testLiterals()
+        throws Exception {
+        assertEquals("text",
+            EvalHelper.evalString("attr", "text", tag, pageContext));
+        assertEquals(new Integer(42),
+            EvalHelper.evalInteger("attr", "42", tag, pageContext));
+        assertEquals(Boolean.TRUE,
+            EvalHelper.evalBoolean("attr", "true", tag, pageContext));
+        assertEquals(Boolean.TRUE,
+            EvalHelper.evalBoolean("attr", "true", tag, pageContext));
+        assertNull(EvalHelper.evalString("attr", null, tag, pageContext));
+        assertTrue(ExpressionCache.getExpression(TagSupport.class, "attr",
+                "text").isLiteral());
+    }
+
+    public void testExpressions()
+        throws Exception {
+        assertEquals("value",
+            EvalHelper.evalString("attr", "${name}", tag, pageContext));
+        assertEquals("[value]",
+            EvalHelper.evalString("attr", "[${name}]", tag, pageContext));
+        assertEquals(new Integer(3),
+            EvalHelper.evalInteger("attr", "${count + 1}", tag, pageContext));
+        assertEquals(Boolean.TRUE,
+            EvalHelper.evalBoolean("attr", "${count > 1}", tag, pageContext));
+
+        pageContext.setAttribute("count", new Integer(0));
+        assertEquals("Expression evaluated again", Boolean.FALSE,
+            EvalHelper.evalBoolean("attr", "${count > 1}", tag, pageContext));
+    }
+
+    public void testSameAsEvaluatorManager()
+        throws Exception {
+        String[] expressions =
+            new String[] {
+                "text", "${name}", "${count * 2}", "a${name}b", "${empty name}"
+            };
+        Class[] types =
+            new Class[] { Object.class, String.class, Integer.class };
+
+        for (int i = 0; i < expressions.length; i++) {
+            for (int j = 0; j < types.length; j++) {
+                if ((types[j] == Integer.class)
+                    && (expressions[i].indexOf('*') < 0)) {
+                    continue;
+                }
+
+                assertEquals(expressions[i],
+                    ExpressionEvaluatorManager.evaluate("attr",
+                        expressions[i], types[j], tag, pageContext),
+                    ExpressionCache.getExpression(TagSupport.class, "attr",
+                        expressions[i]).evaluate(types[j], pageContext));
+            }
+        }
+    }
+
+    public void testCache()
+        throws Exception {
+        EvalHelper.evalString("attr", "${name}", tag, pageContext);
+        EvalHelper.evalString("attr", "${name}", tag, pageContext);
+        assertEquals(1, ExpressionCache.size());
+
+        EvalHelper.evalString("other", "${name}", tag, pageContext);
+        assertEquals(2, ExpressionCache.size());
+
+        assertSame(ExpressionCache.getExpression(TagSupport.class, "attr",
+                "${name}"),
+            ExpressionCache.getExpression(TagSupport.class, "attr", "${name}"));
+        assertEquals(2, ExpressionCache.size());
+
+        ExpressionCache.clear();
+        assertEquals(0, ExpressionCache.size());
+    }
+
+    public void testInvalidExpression() {
+        String expected = null;
+
+        try {
+            ExpressionEvaluatorManager.evaluate("attr", "${name", String.class,
+                tag, pageContext);
+        } catch (JspException e) {
+            expected = e.getMessage();
+        }
+
+        assertNotNull(expected);
+
+        try {
+            EvalHelper.evalString("attr", "${name", tag, pageContext);
+            fail("Invalid expression accepted");
+        } catch (JspException e) {
+            assertEquals(expected, e.getMessage());
+        }
+
+        assertEquals(0, ExpressionCache.size());
+    }
+}
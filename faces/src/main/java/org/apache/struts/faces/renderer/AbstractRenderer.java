@@ -364,7 +364,8 @@ public abstract class AbstractRenderer extends Renderer {
      *  submitted value is to be stored
      * @param writer <code>ResponseWriter</code> to which the element
      *  start should be rendered
-     * @param names List of attribute names to be passed through
+     * @param names List of attribute names to be passed through; should be
+     *  a static array, since the lookup plan is cached per array
      *
      * @exception IOException if an input/output error occurs
      */
@@ -376,20 +377,20 @@ public abstract class AbstractRenderer extends Renderer {
         if (names == null) {
             return;
         }
-        Map attributes = component.getAttributes();
+        AttributePlan plan =
+            AttributePlan.getInstance(component.getClass(), names);
         boolean flag;
         Object value;
         for (int i = 0; i < names.length; i++) {
-            value = attributes.get(names[i]);
+            value = plan.getValue(component, i);
             if (value != null) {
-                if (value instanceof String) {
-                    flag = Boolean.valueOf((String) value).booleanValue();
+                if (value instanceof Boolean) {
+                    flag = ((Boolean) value).booleanValue();
                 } else {
                     flag = Boolean.valueOf(value.toString()).booleanValue();
                 }
                 if (flag) {
                     writer.writeAttribute(names[i], names[i], names[i]);
-                    flag = false;
                 }
             }
         }
@@ -409,7 +410,8 @@ public abstract class AbstractRenderer extends Renderer {
      *  submitted value is to be stored
      * @param writer <code>ResponseWriter</code> to which the element
      *  start should be rendered
-     * @param names List of attribute names to be passed through
+     * @param names List of attribute names to be passed through; should be
+     *  a static array, since the lookup plan is cached per array
      *
      * @exception IOException if an input/output error occurs
      */
@@ -421,10 +423,11 @@ public abstract class AbstractRenderer extends Renderer {
         if (names == null) {
             return;
         }
-        Map attributes = component.getAttributes();
+        AttributePlan plan =
+            AttributePlan.getInstance(component.getClass(), names);
         Object value;
         for (int i = 0; i < names.length; i++) {
-            value = attributes.get(names[i]);
+            value = plan.getValue(component, i);
             if (value != null) {
                 if (value instanceof String) {
                     writer.writeAttribute(names[i], value, names[i]);
@@ -0,0 +1,211 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.faces.renderer;
+
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.faces.FacesException;
+import javax.faces.component.UIComponent;
+
+
+/**
+ * <p>Precomputed plan for reading a fixed list of attributes from
+ * components of one class.  Attributes backed by a component property are
+ * read through the property's getter, resolved once per component class;
+ * the rest fall back to <code>getAttributes().get()</code>.  This spares
+ * the attributes map from introspecting every freshly created component
+ * instance on each request just to probe the same static attribute
+ * names.</p>
+ *
+ * <p>Plans are immutable and shared, keyed by component class and by the
+ * identity of the (static) name array they were built for.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+
+final class AttributePlan {
+
+
+    // -------------------------------------------------------- Static Variables
+
+
+    private static final Object NO_ARGS[] = new Object[0];
+
+
+    /**
+     * <p>The maximum number of plans retained, guarding against callers
+     * that pass a freshly allocated name array on every call.</p>
+     */
+    private static final int MAX_PLANS = 256;
+
+
+    /**
+     * <p>The plans built so far, keyed by {@link Key}.</p>
+     */
+    private static final Map plans = new HashMap();
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * <p>The attribute names covered by this plan.</p>
+     */
+    private final String names[];
+
+
+    /**
+     * <p>The property getter for each name, or <code>null</code> if the
+     * attribute is not backed by a property.</p>
+     */
+    private final Method readers[];
+
+
+    // ------------------------------------------------------------ Constructors
+
+
+    private AttributePlan(Class componentClass, String names[]) {
+
+        this.names = names;
+        this.readers = new Method[names.length];
+
+        Map getters = new HashMap();
+        try {
+            PropertyDescriptor descriptors[] =
+                Introspector.getBeanInfo(componentClass)
+                .getPropertyDescriptors();
+            for (int i = 0; i < descriptors.length; i++) {
+                if (descriptors[i].getReadMethod() != null) {
+                    getters.put(descriptors[i].getName(),
+                                descriptors[i].getReadMethod());
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new FacesException(e);
+        }
+        for (int i = 0; i < names.length; i++) {
+            readers[i] = (Method) getters.get(names[i]);
+        }
+
+    }
+
+
+    // ---------------------------------------------------------- Static Methods
+
+
+    /**
+     * <p>Return the plan for reading <code>names</code> from components of
+     * the specified class, building it on first use.</p>
+     *
+     * @param componentClass Concrete class of the component
+     * @param names Static array of attribute names
+     */
+    static AttributePlan getInstance(Class componentClass, String names[]) {
+
+        Key key = new Key(componentClass, names);
+        AttributePlan plan;
+        synchronized (plans) {
+            plan = (AttributePlan) plans.get(key);
+        }
+        if (plan == null) {
+            // Build outside the lock; a duplicate build is harmless
+            plan = new AttributePlan(componentClass, names);
+            synchronized (plans) {
+                if (plans.size() < MAX_PLANS) {
+                    plans.put(key, plan);
+                }
+            }
+        }
+        return (plan);
+
+    }
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    /**
+     * <p>Return the value of the attribute at the specified index on the
+     * specified component, or <code>null</code> if it has none.</p>
+     *
+     * @param component Component to read from
+     * @param index Zero-relative attribute index
+     */
+    Object getValue(UIComponent component, int index) {
+
+        Method reader = readers[index];
+        if (reader == null) {
+            return (component.getAttributes().get(names[index]));
+        }
+        try {
+            return (reader.invoke(component, NO_ARGS));
+        } catch (InvocationTargetException e) {
+            throw new FacesException(e.getTargetException());
+        } catch (Exception e) {
+            throw new FacesException(e);
+        }
+
+    }
+
+
+    // ----------------------------------------------------------- Inner Classes
+
+
+    /**
+     * <p>Plan cache key: component class plus name array identity.</p>
+     */
+    private static final class Key {
+
+        private final Class componentClass;
+        private final String names[];
+
+        Key(Class componentClass, String names[]) {
+            this.componentClass = componentClass;
+            this.names = names;
+        }
+
+        public int hashCode() {
+            return ((31 * componentClass.hashCode())
+                    + System.identityHashCode(names));
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return (false);
+            }
+            Key other = (Key) obj;
+            return ((componentClass == other.componentClass)
+                    && (names == other.names));
+        }
+
+    }
+
+
+}
@@ -61,6 +61,13 @@ public class CommandLinkRenderer extends AbstractRenderer {
         "org_apache_struts_faces_renderer_CommandLinkRenderer";
 
 
+    /**
+     * <p>The constant part of the script that records the submitting
+     * link, following the form reference.</p>
+     */
+    private static final String TOKEN_REF = "['" + TOKEN + "'].value='";
+
+
     /**
      * <p>The <code>Log</code> instance for this class.</p>
      */
@@ -233,8 +240,9 @@ public class CommandLinkRenderer extends AbstractRenderer {
         String formClientId = form.getClientId(context);
 
         // Render the attributes of this hyperlink
+        String clientId = component.getClientId(context);
         if (component.getId() != null) {
-            writer.writeAttribute("id", component.getClientId(context), "id");
+            writer.writeAttribute("id", clientId, "id");
         }
         writer.writeAttribute("href", "#", null);
         String styleClass = (String)
@@ -245,13 +253,11 @@ public class CommandLinkRenderer extends AbstractRenderer {
         renderPassThrough(context, component, writer, passThrough);
 
         // Render the JavaScript content of the "onclick" element
-        StringBuffer sb = new StringBuffer();
-        sb.append("document.forms['");
-        sb.append(formClientId);
-        sb.append("']['");
-        sb.append(TOKEN);
-        sb.append("'].value='");
-        sb.append(component.getClientId(context));
+        String formRef = "document.forms['" + formClientId + "']";
+        StringBuffer sb = new StringBuffer(256);
+        sb.append(formRef);
+        sb.append(TOKEN_REF);
+        sb.append(clientId);
         sb.append("';");
         Iterator kids = component.getChildren().iterator();
         while (kids.hasNext()) {
@@ -259,17 +265,15 @@ public class CommandLinkRenderer extends AbstractRenderer {
             if (!(kid instanceof UIParameter)) {
                 continue;
             }
-            sb.append("document.forms['");
-            sb.append(formClientId);
-            sb.append("']['");
+            sb.append(formRef);
+            sb.append("['");
             sb.append((String) kid.getAttributes().get("name"));
             sb.append("'].value='");
             sb.append((String) kid.getAttributes().get("value"));
             sb.append("';");
         }
-        sb.append("document.forms['");
-        sb.append(formClientId);
-        sb.append("'].submit(); return false;");
+        sb.append(formRef);
+        sb.append(".submit(); return false;");
         writer.writeAttribute("onclick", sb.toString(), null);
 
         // Render the component value as the hyperlink text
@@ -24,8 +24,11 @@ package org.apache.struts.faces.renderer;
 
 import java.beans.Beans;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import javax.faces.application.FacesMessage;
 import javax.faces.component.UIComponent;
@@ -66,6 +69,18 @@ public class ErrorsRenderer extends AbstractRenderer {
       MessageResources.getMessageResources
         ("org.apache.struts.faces.renderer.Dummy");
 
+
+    // ------------------------------------------------------ Instance Variables
+
+
+    /**
+     * <p>The resolved header, footer, prefix and suffix markup, keyed by
+     * <code>MessageResources</code> and then by <code>Locale</code>.  All
+     * access is synchronized on the map itself.</p>
+     */
+    private final Map decorations = new WeakHashMap();
+
+
     // ---------------------------------------------------------- Public Methods
 
 
@@ -99,10 +114,7 @@ public class ErrorsRenderer extends AbstractRenderer {
             resources = dummy;
         }
         Locale locale = context.getViewRoot().getLocale();
-        boolean headerPresent = resources.isPresent(locale, "errors.header");
-        boolean footerPresent = resources.isPresent(locale, "errors.footer");
-        boolean prefixPresent = resources.isPresent(locale, "errors.prefix");
-        boolean suffixPresent = resources.isPresent(locale, "errors.suffix");
+        Decorations markup = decorations(resources, locale);
 
         // Set up to render the error messages appropriately
         boolean headerDone = false;
@@ -125,18 +137,17 @@ public class ErrorsRenderer extends AbstractRenderer {
                 log.trace("Processing FacesMessage: " + message.getSummary());
             }
             if (!headerDone) {
-                if (headerPresent) {
-                    writer.write
-                        (resources.getMessage(locale, "errors.header"));
+                if (markup.header != null) {
+                    writer.write(markup.header);
                 }
                 headerDone = true;
             }
-            if (prefixPresent) {
-                writer.write(resources.getMessage(locale, "errors.prefix"));
+            if (markup.prefix != null) {
+                writer.write(markup.prefix);
             }
             writer.write(message.getSummary());
-            if (suffixPresent) {
-                writer.write(resources.getMessage(locale, "errors.suffix"));
+            if (markup.suffix != null) {
+                writer.write(markup.suffix);
             }
         }
 
@@ -163,28 +174,25 @@ public class ErrorsRenderer extends AbstractRenderer {
                 }
                 if (!headerDone) {
                     writer = context.getResponseWriter();
-                    if (headerPresent) {
-                        writer.write
-                            (resources.getMessage(locale, "errors.header"));
+                    if (markup.header != null) {
+                        writer.write(markup.header);
                     }
                     headerDone = true;
                 }
-                if (prefixPresent) {
-                    writer.write
-                        (resources.getMessage(locale, "errors.prefix"));
+                if (markup.prefix != null) {
+                    writer.write(markup.prefix);
                 }
                 writer.write(resources.getMessage(locale, report.getKey(),
                                                   report.getValues()));
-                if (suffixPresent) {
-                    writer.write
-                        (resources.getMessage(locale, "errors.suffix"));
+                if (markup.suffix != null) {
+                    writer.write(markup.suffix);
                 }
             }
         }
 
         // Append the list footer if needed
-        if (headerDone && footerPresent) {
-            writer.write(resources.getMessage(locale, "errors.footer"));
+        if (headerDone && (markup.footer != null)) {
+            writer.write(markup.footer);
         }
         if (id != null) {
             writer.endElement("span");
@@ -222,4 +230,63 @@ public class ErrorsRenderer extends AbstractRenderer {
     }
 
 
+    /**
+     * <p>Return the header, footer, prefix and suffix markup defined by
+     * the specified bundle for the specified locale, resolving it on first
+     * use.  Keys that are not present resolve to <code>null</code>.</p>
+     *
+     * @param resources MessageResources defining the markup
+     * @param locale Locale for which to resolve the markup
+     */
+    protected Decorations decorations(MessageResources resources,
+                                      Locale locale) {
+
+        synchronized (decorations) {
+            Map byLocale = (Map) decorations.get(resources);
+            if (byLocale == null) {
+                byLocale = new HashMap();
+                decorations.put(resources, byLocale);
+            }
+            Decorations markup = (Decorations) byLocale.get(locale);
+            if (markup == null) {
+                markup = new Decorations(resources, locale);
+                byLocale.put(locale, markup);
+            }
+            return (markup);
+        }
+
+    }
+
+
+    // ----------------------------------------------------------- Inner Classes
+
+
+    /**
+     * <p>The static markup surrounding a rendered list of messages.</p>
+     */
+    protected static final class Decorations {
+
+        final String header;
+        final String footer;
+        final String prefix;
+        final String suffix;
+
+        Decorations(MessageResources resources, Locale locale) {
+            header = lookup(resources, locale, "errors.header");
+            footer = lookup(resources, locale, "errors.footer");
+            prefix = lookup(resources, locale, "errors.prefix");
+            suffix = lookup(resources, locale, "errors.suffix");
+        }
+
+        private static String lookup(MessageResources resources,
+                                     Locale locale, String key) {
+            if (resources.isPresent(locale, key)) {
+                return (resources.getMessage(locale, key));
+            }
+            return (null);
+        }
+
+    }
+
+
 }
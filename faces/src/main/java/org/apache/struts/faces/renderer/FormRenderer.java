@@ -209,8 +209,8 @@ public class FormRenderer extends AbstractRenderer {
         // Render the hidden variable our decode() method uses to detect submits
         writer.startElement("input", component);
         writer.writeAttribute("type", "hidden", null);
-        writer.writeAttribute("name", component.getClientId(context), null);
-        writer.writeAttribute("value", component.getClientId(context), null);
+        writer.writeAttribute("name", clientId, null);
+        writer.writeAttribute("value", clientId, null);
         writer.endElement("input");
         writer.write("\n");
 
@@ -246,7 +246,7 @@ public class FormRenderer extends AbstractRenderer {
         StringBuffer sb = new StringBuffer("document.forms[\"");
         sb.append(clientId);
         sb.append("\"].elements[\"");
-        sb.append(component.getClientId(context));
+        sb.append(clientId);
         sb.append(NamingContainer.SEPARATOR_CHAR);
         sb.append(focus);
         sb.append("\"]");
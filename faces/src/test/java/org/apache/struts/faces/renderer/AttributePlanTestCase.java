@@ -0,0 +1,128 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.faces.renderer;
+
+
+import javax.faces.component.html.HtmlInputText;
+import javax.faces.component.html.HtmlOutputText;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+
+/**
+ * <p>Unit tests for <code>AttributePlan</code>.</p>
+ */
+
+public class AttributePlanTestCase extends TestCase {
+
+
+    // -------------------------------------------------------- Static Variables
+
+
+    private static final String NAMES[] =
+    { "style", "disabled", "custom", "missing" };
+
+
+    // ------------------------------------------------------------ Constructors
+
+
+    /**
+     * <p>Construct a new instance of this test case.</p>
+     *
+     * @param name Name of the test case
+     */
+    public AttributePlanTestCase(String name) {
+
+        super(name);
+
+    }
+
+
+    // ---------------------------------------------------- Overall Test Methods
+
+
+    /**
+     * <p>Return the tests included in this test suite.</p>
+     */
+    public static Test suite() {
+
+        return new TestSuite(AttributePlanTestCase.class);
+
+    }
+
+
+    // -------------------------------------------------- Individal Test Methods
+
+
+    /**
+     * <p>Test that plans are shared per component class and name array.</p>
+     */
+    public void testGetInstance() throws Exception {
+
+        AttributePlan plan =
+            AttributePlan.getInstance(HtmlInputText.class, NAMES);
+        assertSame(plan,
+                   AttributePlan.getInstance(HtmlInputText.class, NAMES));
+        assertNotSame(plan,
+                      AttributePlan.getInstance(HtmlOutputText.class, NAMES));
+        assertNotSame(plan,
+                      AttributePlan.getInstance(HtmlInputText.class,
+                                                (String[]) NAMES.clone()));
+
+    }
+
+
+    /**
+     * <p>Test reading property backed and generic attributes.</p>
+     */
+    public void testGetValue() throws Exception {
+
+        HtmlInputText component = new HtmlInputText();
+        AttributePlan plan =
+            AttributePlan.getInstance(HtmlInputText.class, NAMES);
+
+        assertNull(plan.getValue(component, 0));
+        assertEquals(Boolean.FALSE, plan.getValue(component, 1));
+        assertNull(plan.getValue(component, 2));
+        assertNull(plan.getValue(component, 3));
+
+        component.setStyle("color: red");
+        component.setDisabled(true);
+        component.getAttributes().put("custom", "value");
+
+        assertEquals("color: red", plan.getValue(component, 0));
+        assertEquals(Boolean.TRUE, plan.getValue(component, 1));
+        assertEquals("value", plan.getValue(component, 2));
+        assertNull(plan.getValue(component, 3));
+
+        // Same values as through the attributes map
+        for (int i = 0; i < NAMES.length; i++) {
+            assertEquals(NAMES[i], component.getAttributes().get(NAMES[i]),
+                         plan.getValue(component, i));
+        }
+
+    }
+
+
+}
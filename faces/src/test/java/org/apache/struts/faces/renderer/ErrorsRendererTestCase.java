@@ -0,0 +1,152 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.faces.renderer;
+
+
+import java.util.Locale;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.struts.util.MessageResources;
+
+
+/**
+ * <p>Unit tests for the markup resolved by <code>ErrorsRenderer</code>.</p>
+ */
+
+public class ErrorsRendererTestCase extends TestCase {
+
+
+    // ------------------------------------------------------ Instance Variables
+
+
+    /**
+     * <p>The renderer to be tested.</p>
+     */
+    protected ErrorsRenderer renderer = null;
+
+
+    /**
+     * <p>The <code>MessageResources</code> instance defining the markup.</p>
+     */
+    protected MessageResources resources = null;
+
+
+    // ------------------------------------------------------------ Constructors
+
+
+    /**
+     * <p>Construct a new instance of this test case.</p>
+     *
+     * @param name Name of the test case
+     */
+    public ErrorsRendererTestCase(String name) {
+
+        super(name);
+
+    }
+
+
+    // ---------------------------------------------------- Overall Test Methods
+
+
+    /**
+     * <p>Set up instance variables required by this test case.</p>
+     */
+    public void setUp() throws Exception {
+
+        renderer = new ErrorsRenderer();
+        resources =
+            MessageResources.getMessageResources
+            ("org.apache.struts.faces.renderer.Bundle");
+
+    }
+
+
+    /**
+     * <p>Return the tests included in this test suite.</p>
+     */
+    public static Test suite() {
+
+        return new TestSuite(ErrorsRendererTestCase.class);
+
+    }
+
+
+    /**
+     * <p>Tear down instance variables required by this test case.</p>
+     */
+    public void tearDown() throws Exception {
+
+        renderer = null;
+        resources = null;
+
+    }
+
+
+    // -------------------------------------------------- Individal Test Methods
+
+
+    /**
+     * <p>Test the markup resolved for each locale.</p>
+     */
+    public void testDecorations() throws Exception {
+
+        ErrorsRenderer.Decorations markup =
+            renderer.decorations(resources, Locale.ENGLISH);
+        assertEquals("<ul>", markup.header);
+        assertNull(markup.footer);
+        assertEquals("<li>", markup.prefix);
+        assertNull(markup.suffix);
+
+        markup = renderer.decorations(resources, Locale.FRENCH);
+        assertEquals("<ol>", markup.header);
+        assertEquals("</ol>", markup.footer);
+        assertEquals("<li>", markup.prefix);
+        assertNull(markup.suffix);
+
+    }
+
+
+    /**
+     * <p>Test that the markup is resolved once per bundle and locale.</p>
+     */
+    public void testDecorationsCached() throws Exception {
+
+        ErrorsRenderer.Decorations markup =
+            renderer.decorations(resources, Locale.ENGLISH);
+        assertSame(markup, renderer.decorations(resources, Locale.ENGLISH));
+        assertNotSame(markup, renderer.decorations(resources, Locale.FRENCH));
+
+        MessageResources other =
+            MessageResources.getMessageResources
+            ("org.apache.struts.faces.util.Bundle");
+        markup = renderer.decorations(other, Locale.ENGLISH);
+        assertNull(markup.header);
+        assertNull(markup.prefix);
+
+    }
+
+
+}
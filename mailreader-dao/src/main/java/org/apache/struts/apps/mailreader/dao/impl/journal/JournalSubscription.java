@@ -0,0 +1,94 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.apps.mailreader.dao.impl.journal;
+
+
+import org.apache.struts.apps.mailreader.dao.impl.AbstractSubscription;
+
+
+/**
+ * <p>Concrete implementation of {@link AbstractSubscription} whose changes
+ * are recorded in the journal of its {@link JournalUserDatabase}.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+
+public class JournalSubscription extends AbstractSubscription {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    public JournalSubscription(JournalUser user, String host) {
+
+        super(user, host);
+
+    }
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    public void setAutoConnect(boolean autoConnect) {
+
+        super.setAutoConnect(autoConnect);
+        changed();
+
+    }
+
+
+    public void setPassword(String password) {
+
+        super.setPassword(password);
+        changed();
+
+    }
+
+
+    public void setType(String type) {
+
+        super.setType(type);
+        changed();
+
+    }
+
+
+    public void setUsername(String username) {
+
+        super.setUsername(username);
+        changed();
+
+    }
+
+
+    // -------------------------------------------------------- Private Methods
+
+
+    private void changed() {
+
+        JournalUser user = (JournalUser) getUser();
+        ((JournalUserDatabase) user.getDatabase()).subscriptionChanged(this);
+
+    }
+
+
+}
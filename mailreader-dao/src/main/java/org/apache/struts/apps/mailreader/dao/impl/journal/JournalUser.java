@@ -0,0 +1,185 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.apps.mailreader.dao.impl.journal;
+
+
+import java.util.HashMap;
+
+import org.apache.struts.apps.mailreader.dao.Subscription;
+import org.apache.struts.apps.mailreader.dao.impl.AbstractUser;
+
+
+/**
+ * <p>Concrete implementation of {@link AbstractUser} whose changes are
+ * recorded in the journal of its {@link JournalUserDatabase}.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+
+public class JournalUser extends AbstractUser {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    public JournalUser(JournalUserDatabase database, String username) {
+
+        super(database, username);
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The {@link Subscription}s of this user, keyed by host.
+     */
+    private HashMap subscriptions = new HashMap();
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    public void setFromAddress(String fromAddress) {
+
+        super.setFromAddress(fromAddress);
+        getJournalDatabase().userChanged(this);
+
+    }
+
+
+    public void setFullName(String fullName) {
+
+        super.setFullName(fullName);
+        getJournalDatabase().userChanged(this);
+
+    }
+
+
+    public void setPassword(String password) {
+
+        super.setPassword(password);
+        getJournalDatabase().userChanged(this);
+
+    }
+
+
+    public void setReplyToAddress(String replyToAddress) {
+
+        super.setReplyToAddress(replyToAddress);
+        getJournalDatabase().userChanged(this);
+
+    }
+
+
+    public Subscription[] getSubscriptions() {
+
+        synchronized (subscriptions) {
+            Subscription results[] = new Subscription[subscriptions.size()];
+            return ((Subscription[]) subscriptions.values().toArray(results));
+        }
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    public Subscription createSubscription(String host) {
+
+        JournalSubscription subscription = new JournalSubscription(this, host);
+        JournalUserDatabase database = getJournalDatabase();
+        // Record the change in the order it is made
+        synchronized (database.getChangeLock()) {
+            synchronized (subscriptions) {
+                if (subscriptions.get(host) != null) {
+                    throw new IllegalArgumentException("Duplicate host '" + host
+                                                       + "' for user '" +
+                                                       getUsername() + "'");
+                }
+                subscriptions.put(host, subscription);
+            }
+            database.subscriptionChanged(subscription);
+        }
+        return (subscription);
+
+    }
+
+
+    public Subscription findSubscription(String host) {
+
+        synchronized (subscriptions) {
+            return ((Subscription) subscriptions.get(host));
+        }
+
+    }
+
+
+    public void removeSubscription(Subscription subscription) {
+
+        if (!(this == subscription.getUser())) {
+            throw new IllegalArgumentException
+                ("Subscription not associated with this user");
+        }
+        JournalUserDatabase database = getJournalDatabase();
+        // Record the change in the order it is made
+        synchronized (database.getChangeLock()) {
+            synchronized (subscriptions) {
+                if (subscriptions.get(subscription.getHost()) != subscription) {
+                    return;
+                }
+                subscriptions.remove(subscription.getHost());
+            }
+            database.subscriptionRemoved(this, subscription.getHost());
+        }
+
+    }
+
+
+    // -------------------------------------------------------- Package Methods
+
+
+    /**
+     * Return <code>true</code> if the specified subscription is the current
+     * one of this user for its host.
+     */
+    boolean isCurrent(Subscription subscription) {
+
+        synchronized (subscriptions) {
+            return (subscriptions.get(subscription.getHost()) == subscription);
+        }
+
+    }
+
+
+    // -------------------------------------------------------- Private Methods
+
+
+    private JournalUserDatabase getJournalDatabase() {
+
+        return ((JournalUserDatabase) getDatabase());
+
+    }
+
+
+}
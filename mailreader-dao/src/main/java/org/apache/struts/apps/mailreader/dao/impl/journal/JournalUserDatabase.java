@@ -0,0 +1,909 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.apps.mailreader.dao.impl.journal;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.struts.apps.mailreader.dao.Subscription;
+import org.apache.struts.apps.mailreader.dao.User;
+import org.apache.struts.apps.mailreader.dao.UserDatabase;
+
+
+/**
+ * <p>Concrete implementation of {@link UserDatabase} for an in-memory
+ * database persisted as a snapshot file plus an append-only journal, meant
+ * for databases too large to be rewritten on every change.</p>
+ *
+ * <p>Users are held in an index split into independently locked segments.
+ * Every change is recorded as the new state of the user or subscription
+ * concerned; records are queued in memory and appended to the journal by
+ * a background thread every <code>flushInterval</code> milliseconds, or
+ * sooner when many are pending.  Changes made since the last flush are
+ * lost if the process dies; call {@link #save()} to flush synchronously.
+ * Once the journal holds <code>compactThreshold</code> records, the
+ * background thread writes a new snapshot of the whole database and drops
+ * the journal files it replaces.  {@link #open()} reads the snapshot, then
+ * replays the journal files written after it.</p>
+ *
+ * <p>The snapshot is stored under <code>pathname</code>, and the journal
+ * files under <code>pathname.journal.N</code>, where N increases at each
+ * compaction.  Both use a compact binary format.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+
+public class JournalUserDatabase implements UserDatabase {
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * Identifies a snapshot file.
+     */
+    private static final int MAGIC = 0x4D524442;
+
+
+    /**
+     * Version of the snapshot and journal format.
+     */
+    private static final int VERSION = 1;
+
+
+    /**
+     * Number of pending records that triggers an early flush.
+     */
+    private static final int BATCH_SIZE = 1024;
+
+
+    // Record types
+    private static final byte USER = 'U';
+    private static final byte USER_REMOVED = 'R';
+    private static final byte SUBSCRIPTION = 'S';
+    private static final byte SUBSCRIPTION_REMOVED = 'D';
+    private static final byte END = 'E';
+
+
+    /**
+     * Logging output for this user database instance.
+     */
+    private Log log = LogFactory.getLog(this.getClass());
+
+
+    /**
+     * The {@link User}s associated with this UserDatabase, keyed by username.
+     */
+    private UserIndex users = new UserIndex();
+
+
+    /**
+     * Records not written to the journal yet.  Also guards the ordering of
+     * changes with their records.
+     */
+    private List pending = new ArrayList();
+
+
+    /**
+     * Guards the journal and the snapshot files.
+     */
+    private final Object journalLock = new Object();
+
+
+    /**
+     * The current journal file, or <code>null</code> when closed.
+     * Guarded by <code>journalLock</code>.
+     */
+    private FileOutputStream journalFile = null;
+
+
+    /**
+     * Output to the current journal file.
+     * Guarded by <code>journalLock</code>.
+     */
+    private DataOutputStream journal = null;
+
+
+    /**
+     * Generation of the current journal file.
+     * Guarded by <code>journalLock</code>.
+     */
+    private long generation = 0;
+
+
+    /**
+     * Records written to the journal since the last snapshot.
+     * Guarded by <code>journalLock</code>.
+     */
+    private long journalRecords = 0;
+
+
+    /**
+     * Whether changes are being recorded; false before open() and while
+     * replaying.
+     */
+    private volatile boolean journaling = false;
+
+
+    /**
+     * The background thread writing the journal.
+     */
+    private Thread writer = null;
+
+
+    /**
+     * Whether the writer should keep running.  Guarded by
+     * <code>pending</code>.
+     */
+    private boolean running = false;
+
+
+    private volatile boolean open = false;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * Absolute pathname to the snapshot file.  Journal files are stored
+     * next to it.
+     */
+    private String pathname = null;
+
+    public String getPathname() {
+        return (this.pathname);
+    }
+
+    public void setPathname(String pathname) {
+        this.pathname = pathname;
+    }
+
+
+    /**
+     * Milliseconds between two writes of pending records to the journal.
+     */
+    private long flushInterval = 1000;
+
+    public long getFlushInterval() {
+        return (this.flushInterval);
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+
+    /**
+     * Number of journal records after which a new snapshot is written.
+     */
+    private long compactThreshold = 100000;
+
+    public long getCompactThreshold() {
+        return (this.compactThreshold);
+    }
+
+    public void setCompactThreshold(long compactThreshold) {
+        this.compactThreshold = compactThreshold;
+    }
+
+
+    /**
+     * Whether to force journal writes to disk before considering them done.
+     */
+    private boolean sync = false;
+
+    public boolean isSync() {
+        return (this.sync);
+    }
+
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    // See interface for Javadoc
+    public void close() throws Exception {
+
+        if (!open) {
+            return;
+        }
+
+        // Stop recording changes first, so that every change recorded is
+        // either in the journal or in the final snapshot
+        synchronized (pending) {
+            journaling = false;
+            running = false;
+            pending.notifyAll();
+        }
+        writer.join();
+        writer = null;
+
+        synchronized (journalLock) {
+            flush();
+            closeJournal();
+            generation++;
+            journalRecords = 0;
+            writeSnapshot();
+            deleteJournals();
+        }
+
+        users.clear();
+        this.open = false;
+
+    }
+
+
+    // See interface for Javadoc
+    public User createUser(String username) {
+
+        if (log.isTraceEnabled()) {
+            log.trace("Creating user '" + username + "'");
+        }
+        JournalUser user = new JournalUser(this, username);
+        synchronized (pending) {
+            if (users.putIfAbsent(user) != null) {
+                throw new IllegalArgumentException("Duplicate user '" +
+                                                   username + "'");
+            }
+            if (journaling) {
+                enqueue(userRecord(user));
+            }
+        }
+        return (user);
+
+    }
+
+
+    // See interface for Javadoc
+    public User findUser(String username)  {
+
+        return (users.get(username));
+
+    }
+
+
+    // See interface for Javadoc
+    public User[] findUsers() {
+
+        return (users.values());
+
+    }
+
+
+    // See interface for Javadoc
+    public void open() throws Exception {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Loading database from '" + pathname + "'");
+        }
+
+        synchronized (journalLock) {
+            File snapshot = new File(pathname);
+            long first = 0;
+            if (snapshot.exists()) {
+                first = readSnapshot(snapshot);
+            }
+
+            long[] generations = findJournals();
+            long replayed = 0;
+            long next = first;
+            for (int i = 0; i < generations.length; i++) {
+                File file = journalFileFor(generations[i]);
+                if (generations[i] < first) {
+                    file.delete();
+                    continue;
+                }
+                replayed += replay(file);
+                next = generations[i] + 1;
+            }
+
+            generation = next;
+            journalRecords = replayed;
+            openJournal();
+        }
+
+        journaling = true;
+        synchronized (pending) {
+            running = true;
+        }
+        writer = new Thread(new JournalWriter(), "UserDatabase journal writer");
+        writer.setDaemon(true);
+        writer.start();
+        this.open = true;
+
+    }
+
+
+    // See interface for Javadoc
+    public void removeUser(User user) {
+
+        if (!(this == user.getDatabase())) {
+            throw new IllegalArgumentException
+                ("User not associated with this database");
+        }
+        if (log.isTraceEnabled()) {
+            log.trace("Removing user '" + user.getUsername() + "'");
+        }
+        synchronized (pending) {
+            if (users.remove(user) && journaling) {
+                enqueue(new Record(USER_REMOVED, user.getUsername(),
+                                   new String[0], false));
+            }
+        }
+
+    }
+
+
+    // See interface for Javadoc
+    public void save() throws Exception {
+
+        if (!open) {
+            return;
+        }
+        synchronized (journalLock) {
+            flush();
+        }
+
+    }
+
+
+    public boolean isOpen() {
+        return this.open;
+    }
+
+
+    // -------------------------------------------------------- Package Methods
+
+
+    /**
+     * Return the monitor that orders changes with their records.  A change
+     * made and recorded while holding it reaches the journal in the order
+     * it was made.  It must be taken before the lock of a user's
+     * subscriptions.
+     */
+    Object getChangeLock() {
+
+        return (pending);
+
+    }
+
+
+    /**
+     * Record the new state of the specified user.
+     */
+    void userChanged(JournalUser user) {
+
+        if (!journaling) {
+            return;
+        }
+        synchronized (pending) {
+            if (users.get(user.getUsername()) == user) {
+                enqueue(userRecord(user));
+            }
+        }
+
+    }
+
+
+    /**
+     * Record the new state of the specified subscription.
+     */
+    void subscriptionChanged(JournalSubscription subscription) {
+
+        if (!journaling) {
+            return;
+        }
+        JournalUser user = (JournalUser) subscription.getUser();
+        synchronized (pending) {
+            if ((users.get(user.getUsername()) == user)
+                && user.isCurrent(subscription)) {
+                enqueue(subscriptionRecord(subscription));
+            }
+        }
+
+    }
+
+
+    /**
+     * Record the removal of the subscription of the specified user to the
+     * specified host.
+     */
+    void subscriptionRemoved(JournalUser user, String host) {
+
+        if (!journaling) {
+            return;
+        }
+        synchronized (pending) {
+            if (users.get(user.getUsername()) == user) {
+                enqueue(new Record(SUBSCRIPTION_REMOVED, user.getUsername(),
+                                   new String[] { host }, false));
+            }
+        }
+
+    }
+
+
+    // -------------------------------------------------------- Private Methods
+
+
+    /**
+     * Queue a record, unless changes are no longer recorded.  Called with
+     * <code>pending</code> locked.
+     */
+    private void enqueue(Record record) {
+
+        if (!journaling) {
+            return;
+        }
+        pending.add(record);
+        if (pending.size() == BATCH_SIZE) {
+            pending.notifyAll();
+        }
+
+    }
+
+
+    private Record userRecord(User user) {
+
+        return (new Record(USER, user.getUsername(), new String[] {
+            user.getFromAddress(), user.getFullName(),
+            user.getPassword(), user.getReplyToAddress() }, false));
+
+    }
+
+
+    private Record subscriptionRecord(Subscription subscription) {
+
+        return (new Record(SUBSCRIPTION,
+                           subscription.getUser().getUsername(),
+                           new String[] { subscription.getHost(),
+                                          subscription.getPassword(),
+                                          subscription.getType(),
+                                          subscription.getUsername() },
+                           subscription.getAutoConnect()));
+
+    }
+
+
+    /**
+     * Write the pending records to the journal.  Called with
+     * <code>journalLock</code> held.
+     */
+    private void flush() throws IOException {
+
+        List batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList(pending);
+            pending.clear();
+        }
+
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                ((Record) batch.get(i)).write(journal);
+            }
+            journal.flush();
+            if (sync) {
+                journalFile.getFD().sync();
+            }
+        } catch (IOException e) {
+            // Keep the records for the next attempt; replaying a record
+            // twice is harmless
+            synchronized (pending) {
+                pending.addAll(0, batch);
+            }
+            throw e;
+        }
+        journalRecords += batch.size();
+
+    }
+
+
+    /**
+     * Write a new snapshot and drop the journal files it replaces.  Called
+     * with <code>journalLock</code> held.
+     */
+    private void compact() throws IOException {
+
+        flush();
+
+        // Changes queued from now on go to the new journal, which the new
+        // snapshot is completed by
+        closeJournal();
+        generation++;
+        openJournal();
+        journalRecords = 0;
+
+        writeSnapshot();
+        deleteJournals();
+
+    }
+
+
+    /**
+     * Delete the journal files replaced by the snapshot.  Called with
+     * <code>journalLock</code> held.
+     */
+    private void deleteJournals() {
+
+        long[] generations = findJournals();
+        for (int i = 0; i < generations.length; i++) {
+            if (generations[i] < generation) {
+                journalFileFor(generations[i]).delete();
+            }
+        }
+
+    }
+
+
+    private void openJournal() throws IOException {
+
+        journalFile = new FileOutputStream(journalFileFor(generation), true);
+        journal = new DataOutputStream(new BufferedOutputStream(journalFile));
+
+    }
+
+
+    private void closeJournal() throws IOException {
+
+        if (journal != null) {
+            journal.close();
+            journal = null;
+            journalFile = null;
+        }
+
+    }
+
+
+    private File journalFileFor(long generation) {
+
+        return (new File(pathname + ".journal." + generation));
+
+    }
+
+
+    /**
+     * Return the generations of the existing journal files, in ascending
+     * order.
+     */
+    private long[] findJournals() {
+
+        File snapshot = new File(pathname).getAbsoluteFile();
+        String prefix = snapshot.getName() + ".journal.";
+        String names[] = snapshot.getParentFile().list();
+        List found = new ArrayList();
+        for (int i = 0; (names != null) && (i < names.length); i++) {
+            if (!names[i].startsWith(prefix)) {
+                continue;
+            }
+            try {
+                found.add(new Long(names[i].substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                // Not one of ours
+            }
+        }
+
+        long generations[] = new long[found.size()];
+        for (int i = 0; i < generations.length; i++) {
+            generations[i] = ((Long) found.get(i)).longValue();
+        }
+        Arrays.sort(generations);
+        return (generations);
+
+    }
+
+
+    /**
+     * Read the snapshot file.
+     *
+     * @return The generation of the first journal file to replay after it
+     */
+    private long readSnapshot(File file) throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream
+            (new FileInputStream(file), 65536));
+        try {
+            if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+                throw new IOException
+                    ("'" + pathname + "' is not a user database snapshot");
+            }
+            long first = in.readLong();
+            while (true) {
+                Record record = Record.read(in);
+                if (record == null) {
+                    break;
+                }
+                apply(record);
+            }
+            return (first);
+        } finally {
+            in.close();
+        }
+
+    }
+
+
+    /**
+     * Apply the records of a journal file.  A record truncated by a crash
+     * ends the file.
+     *
+     * @return The number of records applied
+     */
+    private long replay(File file) throws IOException {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Replaying journal '" + file + "'");
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream
+            (new FileInputStream(file), 65536));
+        long count = 0;
+        try {
+            while (true) {
+                Record record = Record.read(in);
+                if (record == null) {
+                    break;
+                }
+                apply(record);
+                count++;
+            }
+        } catch (EOFException e) {
+            if (count > 0 || file.length() > 0) {
+                log.warn("Journal '" + file + "' ends with an incomplete"
+                         + " record, ignored");
+            }
+        } finally {
+            in.close();
+        }
+        return (count);
+
+    }
+
+
+    /**
+     * Apply a record read from the snapshot or the journal.  Called while
+     * not journaling.
+     */
+    private void apply(Record record) {
+
+        User user = users.get(record.username);
+        switch (record.type) {
+        case USER:
+            if (user == null) {
+                user = createUser(record.username);
+            }
+            user.setFromAddress(record.values[0]);
+            user.setFullName(record.values[1]);
+            user.setPassword(record.values[2]);
+            user.setReplyToAddress(record.values[3]);
+            break;
+        case USER_REMOVED:
+            if (user != null) {
+                removeUser(user);
+            }
+            break;
+        case SUBSCRIPTION:
+            if (user == null) {
+                break;
+            }
+            Subscription subscription =
+                user.findSubscription(record.values[0]);
+            if (subscription == null) {
+                subscription = user.createSubscription(record.values[0]);
+            }
+            subscription.setPassword(record.values[1]);
+            subscription.setType(record.values[2]);
+            subscription.setUsername(record.values[3]);
+            subscription.setAutoConnect(record.flag);
+            break;
+        case SUBSCRIPTION_REMOVED:
+            if (user == null) {
+                break;
+            }
+            Subscription removed = user.findSubscription(record.values[0]);
+            if (removed != null) {
+                user.removeSubscription(removed);
+            }
+            break;
+        default:
+            throw new IllegalStateException
+                ("Unknown record type " + record.type);
+        }
+
+    }
+
+
+    /**
+     * Write the whole database to a new snapshot file, then put it in place
+     * of the current one.  Called with <code>journalLock</code> held.
+     */
+    private void writeSnapshot() throws IOException {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Saving database snapshot to '" + pathname + "'");
+        }
+        File fileNew = new File(pathname + ".new");
+        FileOutputStream fos = new FileOutputStream(fileNew);
+        DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(fos, 65536));
+
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            User snapshot[] = users.values();
+            for (int i = 0; i < snapshot.length; i++) {
+                userRecord(snapshot[i]).write(out);
+                Subscription subscriptions[] =
+                    snapshot[i].getSubscriptions();
+                for (int j = 0; j < subscriptions.length; j++) {
+                    subscriptionRecord(subscriptions[j]).write(out);
+                }
+            }
+            out.writeByte(END);
+            out.flush();
+            fos.getFD().sync();
+            out.close();
+            out = null;
+        } finally {
+            if (out != null) {
+                out.close();
+                fileNew.delete();
+            }
+        }
+
+        // Perform the required renames to permanently save this file
+        File fileOrig = new File(pathname);
+        File fileOld = new File(pathname + ".old");
+        if (fileOrig.exists()) {
+            fileOld.delete();
+            if (!fileOrig.renameTo(fileOld)) {
+                throw new IOException
+                    ("Renaming '" + pathname + "' to '" + fileOld + "'");
+            }
+        }
+        if (!fileNew.renameTo(fileOrig)) {
+            if (fileOld.exists()) {
+                fileOld.renameTo(fileOrig);
+            }
+            throw new IOException
+                ("Renaming '" + fileNew + "' to '" + pathname + "'");
+        }
+        fileOld.delete();
+
+    }
+
+
+    // ---------------------------------------------------------- Inner Classes
+
+
+    /**
+     * Writes pending records to the journal, and compacts it when needed.
+     */
+    private class JournalWriter implements Runnable {
+
+        public void run() {
+
+            while (true) {
+                synchronized (pending) {
+                    if (running && (pending.size() < BATCH_SIZE)) {
+                        try {
+                            pending.wait(flushInterval);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    if (!running) {
+                        return;
+                    }
+                }
+
+                try {
+                    synchronized (journalLock) {
+                        flush();
+                        if (journalRecords >= compactThreshold) {
+                            compact();
+                        }
+                    }
+                } catch (IOException e) {
+                    log.error("Writing journal of '" + pathname + "':", e);
+                }
+            }
+
+        }
+
+    }
+
+
+    /**
+     * The new state of a user or subscription, or its removal.
+     */
+    private static final class Record {
+
+        final byte type;
+        final String username;
+        final String values[];
+        final boolean flag;
+
+        Record(byte type, String username, String values[], boolean flag) {
+            this.type = type;
+            this.username = username;
+            this.values = values;
+            this.flag = flag;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(type);
+            out.writeUTF(username);
+            out.writeByte(values.length);
+            for (int i = 0; i < values.length; i++) {
+                out.writeBoolean(values[i] != null);
+                if (values[i] != null) {
+                    out.writeUTF(values[i]);
+                }
+            }
+            out.writeBoolean(flag);
+        }
+
+        /**
+         * Read a record.
+         *
+         * @return The record, or <code>null</code> at the end of a snapshot
+         *  or journal file
+         */
+        static Record read(DataInputStream in) throws IOException {
+            int type = in.read();
+            if ((type < 0) || (type == END)) {
+                return (null);
+            }
+            String username = in.readUTF();
+            String values[] = new String[in.readUnsignedByte()];
+            for (int i = 0; i < values.length; i++) {
+                if (in.readBoolean()) {
+                    values[i] = in.readUTF();
+                }
+            }
+            return (new Record((byte) type, username, values,
+                               in.readBoolean()));
+        }
+
+    }
+
+
+}
@@ -0,0 +1,167 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.apps.mailreader.dao.impl.journal;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.struts.apps.mailreader.dao.User;
+
+
+/**
+ * <p>In-memory index of users keyed by username, split into independently
+ * locked segments so that lookups of different users do not contend on a
+ * single monitor.</p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+
+final class UserIndex {
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * Number of segments, a power of two.
+     */
+    private static final int SEGMENTS = 32;
+
+
+    /**
+     * The segments, each guarded by its own monitor.
+     */
+    private final HashMap segments[] = new HashMap[SEGMENTS];
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    UserIndex() {
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new HashMap();
+        }
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Return the user with the specified username, or <code>null</code>.
+     */
+    User get(String username) {
+
+        HashMap segment = segmentFor(username);
+        synchronized (segment) {
+            return ((User) segment.get(username));
+        }
+
+    }
+
+
+    /**
+     * Add the specified user unless one with the same username exists.
+     *
+     * @return The existing user, or <code>null</code> if the user was added
+     */
+    User putIfAbsent(User user) {
+
+        HashMap segment = segmentFor(user.getUsername());
+        synchronized (segment) {
+            User existing = (User) segment.get(user.getUsername());
+            if (existing == null) {
+                segment.put(user.getUsername(), user);
+            }
+            return (existing);
+        }
+
+    }
+
+
+    /**
+     * Remove the specified user, if it is the one indexed.
+     *
+     * @return <code>true</code> if the user was removed
+     */
+    boolean remove(User user) {
+
+        HashMap segment = segmentFor(user.getUsername());
+        synchronized (segment) {
+            if (segment.get(user.getUsername()) != user) {
+                return (false);
+            }
+            segment.remove(user.getUsername());
+            return (true);
+        }
+
+    }
+
+
+    /**
+     * Return the indexed users.  Each segment is copied atomically, not the
+     * index as a whole.
+     */
+    User[] values() {
+
+        List results = new ArrayList();
+        for (int i = 0; i < SEGMENTS; i++) {
+            synchronized (segments[i]) {
+                results.addAll(segments[i].values());
+            }
+        }
+        return ((User[]) results.toArray(new User[results.size()]));
+
+    }
+
+
+    /**
+     * Remove all users.
+     */
+    void clear() {
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            synchronized (segments[i]) {
+                segments[i].clear();
+            }
+        }
+
+    }
+
+
+    // -------------------------------------------------------- Private Methods
+
+
+    private HashMap segmentFor(String username) {
+
+        int h = username.hashCode();
+        h ^= (h >>> 16);
+        return (segments[h & (SEGMENTS - 1)]);
+
+    }
+
+
+}
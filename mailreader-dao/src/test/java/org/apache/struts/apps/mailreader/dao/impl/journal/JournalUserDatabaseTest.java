@@ -0,0 +1,241 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.apps.mailreader.dao.impl.journal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.struts.apps.mailreader.dao.BaseTestUserDatabase;
+import org.apache.struts.apps.mailreader.dao.Subscription;
+import org.apache.struts.apps.mailreader.dao.User;
+import org.apache.struts.apps.mailreader.dao.UserDatabase;
+
+
+
+public class JournalUserDatabaseTest extends BaseTestUserDatabase {
+
+    protected String defaultPathName = "test-journal-database.db";
+
+    protected String copyPathName = "test-journal-copy.db";
+
+    protected UserDatabase getNewUserDatabase() {
+        deleteFiles();
+        JournalUserDatabase journalUserDatabase = newDatabase();
+        try {
+            journalUserDatabase.open();
+        } catch (Exception e) {
+            throw new IllegalStateException(e.toString());
+        }
+        return journalUserDatabase;
+    }
+    protected User getNewUser(UserDatabase db, String userName){
+        return db.createUser(userName);
+    }
+    protected Subscription getNewSubscription(User user, String host) {
+        return user.createSubscription(host);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        deleteFiles();
+    }
+
+    public void testReopenFromSnapshot() throws Exception {
+        User user = userDatabase.findUser("user3");
+        user.setReplyToAddress("replyTo3");
+        user.removeSubscription(user.findSubscription("host4"));
+        userDatabase.removeUser(userDatabase.findUser("user4"));
+        userDatabase.close();
+
+        assertFalse("No journal left", journalFile(0).exists() || journalFile(1).exists());
+
+        userDatabase.open();
+        assertEquals("Users count", 9, userDatabase.findUsers().length);
+        assertNull("Removed user", userDatabase.findUser("user4"));
+        User reopened = userDatabase.findUser("user3");
+        assertEquals("replyToAddress", "replyTo3", reopened.getReplyToAddress());
+        assertEquals("fullName", "fullName3", reopened.getFullName());
+        assertEquals("Subscriptions count", 19, reopened.getSubscriptions().length);
+        assertNull("Removed subscription", reopened.findSubscription("host4"));
+        assertEquals("Subscription type", "type5",
+                     reopened.findSubscription("host5").getType());
+    }
+
+    public void testRecoverFromJournal() throws Exception {
+        User user = userDatabase.createUser("journaled");
+        user.setFullName("Journaled User");
+        user.createSubscription("mail.example.com").setType("pop3");
+        userDatabase.save();
+
+        // Read a copy of the files taken while the database is open, as
+        // after a crash
+        JournalUserDatabase recovered = copyDatabase();
+        recovered.open();
+        try {
+            assertEquals("Users count", 11, recovered.findUsers().length);
+            User found = recovered.findUser("journaled");
+            assertEquals("fullName", "Journaled User", found.getFullName());
+            assertEquals("Subscription type", "pop3",
+                         found.findSubscription("mail.example.com").getType());
+        } finally {
+            recovered.close();
+        }
+    }
+
+    public void testCompaction() throws Exception {
+        userDatabase.close();
+        JournalUserDatabase database = newDatabase();
+        database.setCompactThreshold(10);
+        database.setFlushInterval(10);
+        database.open();
+        userDatabase = database;
+
+        for (int i = 0; i < 50; i++) {
+            database.findUser("user1").setFullName("name" + i);
+        }
+        database.save();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journalFile(1).exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse("Journal compacted", journalFile(1).exists());
+
+        JournalUserDatabase recovered = copyDatabase();
+        recovered.open();
+        try {
+            assertEquals("fullName", "name49",
+                         recovered.findUser("user1").getFullName());
+        } finally {
+            recovered.close();
+        }
+    }
+
+    public void testConcurrentRemoveAndCreate() throws Exception {
+        final User user = userDatabase.findUser("user1");
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 500; j++) {
+                        Subscription subscription = user.findSubscription("host1");
+                        try {
+                            if (subscription == null) {
+                                user.createSubscription("host1");
+                            } else {
+                                user.removeSubscription(subscription);
+                            }
+                        } catch (IllegalArgumentException e) {
+                            // Created by another thread meanwhile
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+        }
+        boolean exists = user.findSubscription("host1") != null;
+        userDatabase.save();
+
+        JournalUserDatabase recovered = copyDatabase();
+        recovered.open();
+        try {
+            assertEquals("Subscription recovered", exists,
+                         recovered.findUser("user1").findSubscription("host1") != null);
+        } finally {
+            recovered.close();
+        }
+    }
+
+    public void testChangeAfterClose() throws Exception {
+        User user = userDatabase.findUser("user1");
+        user.setFullName("before close");
+        userDatabase.close();
+        user.setFullName("after close");
+
+        userDatabase.open();
+        assertEquals("fullName", "before close",
+                     userDatabase.findUser("user1").getFullName());
+    }
+
+    private JournalUserDatabase newDatabase() {
+        JournalUserDatabase database = new JournalUserDatabase();
+        database.setPathname(defaultPathName);
+        return database;
+    }
+
+    /**
+     * Copy the files of the database, and return a database reading the
+     * copy.
+     */
+    private JournalUserDatabase copyDatabase() throws IOException {
+        File dir = new File(defaultPathName).getAbsoluteFile().getParentFile();
+        String names[] = dir.list();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].startsWith(defaultPathName)) {
+                copy(new File(dir, names[i]), new File(dir, copyPathName
+                     + names[i].substring(defaultPathName.length())));
+            }
+        }
+        JournalUserDatabase database = new JournalUserDatabase();
+        database.setPathname(copyPathName);
+        return database;
+    }
+
+    private void copy(File from, File to) throws IOException {
+        InputStream in = new FileInputStream(from);
+        try {
+            OutputStream out = new FileOutputStream(to);
+            try {
+                byte buffer[] = new byte[8192];
+                int count;
+                while ((count = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, count);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private File journalFile(long generation) {
+        return new File(defaultPathName + ".journal." + generation);
+    }
+
+    private void deleteFiles() {
+        File dir = new File(defaultPathName).getAbsoluteFile().getParentFile();
+        String names[] = dir.list();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].startsWith(defaultPathName)
+                || names[i].startsWith(copyPathName)) {
+                new File(dir, names[i]).delete();
+            }
+        }
+    }
+}
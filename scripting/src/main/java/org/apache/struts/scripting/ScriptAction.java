@@ -23,12 +23,17 @@ package org.apache.struts.scripting;
 // util imports:
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.Timer;
+import java.util.TimerTask;
 
 // io imports:
 import java.io.File;
@@ -47,6 +52,7 @@ import org.apache.struts.action.ActionForm;
 import org.apache.struts.action.ActionForward;
 import org.apache.struts.action.ActionMapping;
 import org.apache.struts.action.ActionMessages;
+import org.apache.struts.action.ActionServlet;
 
 // misc imports:
 import javax.servlet.ServletContext;
@@ -109,6 +115,19 @@ import org.apache.bsf.util.IOUtils;
  *    comma-delimited list of file extensions that will be used to identify the
  *    engine to use to execute the script.</li>
  *  </ul>
+ *  The same file may also define:
+ *  <ul>
+ *    <li> <code>struts-scripting.reload.interval</code> - The number of
+ *    seconds between two checks of the script files for changes (default 5).
+ *    Modified scripts are reloaded in the background. Set to 0 to never
+ *    reload scripts.</li>
+ *    <li> <code>struts-scripting.compile</code> - Whether to run scripts
+ *    through a JSR-223 engine that compiles them once, when the Java runtime
+ *    provides one for the script extension (default false). JSR-223 engines
+ *    may not behave like the BSF engine of the same language, so scripts
+ *    should be checked before enabling this. Extensions mapped to an engine
+ *    in this file always use that BSF engine.</li>
+ *  </ul>
  *  This code was originally based off code from JPublish, but has since been
  *  almost completely rewritten.
  */
@@ -126,12 +145,31 @@ public class ScriptAction extends Action {
     /**  The base property for classes that put new variables in the context. */
     protected static final String FILTERS_BASE = "struts-scripting.filters.";
 
+    /**  The property for the interval between script modification checks. */
+    protected static final String RELOAD_INTERVAL_PROP =
+            "struts-scripting.reload.interval";
+
+    /**  The property enabling JSR-223 compiling engines. */
+    protected static final String COMPILE_PROP = "struts-scripting.compile";
+
     /**  A list of initialized filters. */
     private static BSFManagerFilter[] filters = null;
 
+    /**  Milliseconds between two script modification checks, 0 for none. */
+    private static long reloadInterval = 5000;
+
+    /**  Whether JSR-223 compiling engines may be used. */
+    private static boolean compile = false;
+
+    /**  The extensions mapped to BSF engines in the properties file. */
+    private static Set bsfExtensions = new HashSet();
+
     /**  Holds the "compiled" scripts and their information. */
     private Map scripts = new Hashtable();
 
+    /**  Checks the scripts for changes, or null if not started. */
+    private Timer checker = null;
+
     static {
         Properties props = new Properties();
         try {
@@ -173,8 +211,19 @@ public class ScriptAction extends Action {
                              + cls + " ext:" + ext);
                 }
                 BSFManager.registerScriptingEngine(type, cls, exts);
+                for (int x = 0; x < exts.length; x++) {
+                    bsfExtensions.add(exts[x].trim());
+                }
             }
         }
+        try {
+            reloadInterval = 1000 * Long.parseLong(
+                    props.getProperty(RELOAD_INTERVAL_PROP, "5").trim());
+        } catch (NumberFormatException ex) {
+            LOG.warn("Invalid " + RELOAD_INTERVAL_PROP + ", using default");
+        }
+        compile = "true".equalsIgnoreCase(
+                props.getProperty(COMPILE_PROP, "false").trim());
         filters = loadFilters(props);
     }
 
@@ -195,7 +244,7 @@ public class ScriptAction extends Action {
             HttpServletResponse response)
              throws Exception {
 
-        BSFManager bsfManager = new BSFManager();
+        ScriptManager bsfManager = new ScriptManager();
 
         String scriptName = null;
         try {
@@ -217,6 +266,9 @@ public class ScriptAction extends Action {
         ServletContext application = getServlet().getServletContext();
 
         Script script = loadScript(scriptName, application);
+        if (script.runner == null) {
+            throw new Exception("Unable to load script: " + scriptName);
+        }
 
         bsfManager.declareBean("request", request,
                 HttpServletRequest.class);
@@ -242,8 +294,7 @@ public class ScriptAction extends Action {
             filters[x].apply(bsfManager);
         }
 
-        bsfManager.exec(script.lang, script.file.getCanonicalPath(), 0, 0,
-                script.string);
+        script.runner.run(bsfManager);
 
         ActionForward af = struts.getForward();
         return af;
@@ -298,8 +349,8 @@ public class ScriptAction extends Action {
 
 
     /**
-     *  Loads the script from cache if possible. Reloads if the script has been
-     *  recently modified.
+     *  Loads the script from cache if possible. Scripts are checked for
+     *  changes in the background, and reloaded when modified.
      *
      *@param  name     The name of the script
      *@param  context  The servlet context
@@ -310,6 +361,7 @@ public class ScriptAction extends Action {
         Script script = (Script) scripts.get(name);
         if (script == null) {
             script = new Script();
+            script.name = name;
             script.file = new File(context.getRealPath(name));
             try {
                 script.lang =
@@ -317,40 +369,126 @@ public class ScriptAction extends Action {
             } catch (BSFException ex) {
                 LOG.warn(ex, ex);
             }
-        }
-
-        boolean reloadScript = false;
-        long scriptLastModified = script.file.lastModified();
-        if (scriptLastModified > script.timeLastLoaded) {
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Loading updated or new script: "
-                        + script.file.getName());
+                LOG.debug("Loading new script: " + script.file.getName());
+            }
+            readScript(script);
+            if (script.runner != null) {
+                scripts.put(name, script);
+                startChecker();
             }
-            reloadScript = true;
         }
 
-        if (reloadScript || script.string == null) {
-            synchronized (this) {
-                script.timeLastLoaded = System.currentTimeMillis();
-                FileReader reader = null;
+        return script;
+    }
+
+
+    /**
+     *  Reads the script file, and prepares the script to run.
+     *
+     *@param  script  The script, with its file and language set
+     */
+    protected void readScript(Script script) {
+        script.timeLastLoaded = System.currentTimeMillis();
+        script.lastModified = script.file.lastModified();
+        FileReader reader = null;
+        try {
+            reader = new FileReader(script.file);
+            script.string = IOUtils.getStringFromReader(reader);
+        } catch (IOException ex) {
+            LOG.error("Unable to load script: " + script.file, ex);
+            return;
+        } finally {
+            if (reader != null) {
                 try {
-                    reader = new FileReader(script.file);
-                    script.string = IOUtils.getStringFromReader(reader);
+                    reader.close();
                 } catch (IOException ex) {
-                    LOG.error("Unable to load script: " + script.file, ex);
-                } finally {
-                    if (reader != null) {
-                        try {
-                            reader.close();
-                        } catch (IOException ex) {
-                            LOG.debug(ex, ex);
-                        }
-                    }
+                    LOG.debug(ex, ex);
                 }
             }
         }
 
-        return script;
+        String path = script.file.getPath();
+        try {
+            path = script.file.getCanonicalPath();
+        } catch (IOException ex) {
+            LOG.debug(ex, ex);
+        }
+
+        String fileName = script.file.getName();
+        String ext = fileName.substring(fileName.lastIndexOf('.') + 1);
+        if (compile && !bsfExtensions.contains(ext)) {
+            script.runner = ScriptRunner.forCompilable(ext, path,
+                    script.string);
+        }
+        if (script.runner == null) {
+            script.runner = ScriptRunner.forBSF(script.lang, path,
+                    script.string);
+        }
+    }
+
+
+    /**
+     *  Reloads the scripts whose file changed since they were loaded. The
+     *  reloaded script replaces the old one, which requests in progress keep
+     *  using.
+     */
+    protected void checkScripts() {
+        List current = new ArrayList(scripts.values());
+        for (Iterator i = current.iterator(); i.hasNext();) {
+            Script script = (Script) i.next();
+            if (script.file.lastModified() == script.lastModified) {
+                continue;
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Loading updated script: " + script.file.getName());
+            }
+            Script updated = new Script();
+            updated.name = script.name;
+            updated.file = script.file;
+            updated.lang = script.lang;
+            readScript(updated);
+            if (updated.runner != null) {
+                scripts.put(updated.name, updated);
+            }
+        }
+    }
+
+
+    /**  Starts checking the scripts for changes, if enabled. */
+    private synchronized void startChecker() {
+        if (checker != null || reloadInterval <= 0) {
+            return;
+        }
+        checker = new Timer(true);
+        checker.schedule(new TimerTask() {
+            public void run() {
+                try {
+                    checkScripts();
+                } catch (RuntimeException ex) {
+                    LOG.error("Unable to check scripts for changes", ex);
+                }
+            }
+        }, reloadInterval, reloadInterval);
+    }
+
+
+    /**
+     *  Sets the servlet. Stops checking scripts for changes when the action
+     *  is released.
+     *
+     *@param  servlet  The servlet, or null
+     */
+    public void setServlet(ActionServlet servlet) {
+        super.setServlet(servlet);
+        if (servlet == null) {
+            synchronized (this) {
+                if (checker != null) {
+                    checker.cancel();
+                    checker = null;
+                }
+            }
+        }
     }
 
 
@@ -492,6 +630,9 @@ public class ScriptAction extends Action {
     /**  Represents a saved script. */
     class Script {
 
+        /**  The script name. */
+        public String name;
+
         /**  The script file. */
         public File file;
 
@@ -503,5 +644,11 @@ public class ScriptAction extends Action {
 
         /**  The contents of the script file. */
         public String string = null;
+
+        /**  The modification time of the file when it was read. */
+        public long lastModified = 0;
+
+        /**  Runs the script, or null if it could not be read. */
+        public ScriptRunner runner = null;
     }
 }
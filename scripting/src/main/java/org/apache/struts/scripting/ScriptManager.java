@@ -0,0 +1,85 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.scripting;
+
+// util imports:
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.Vector;
+
+// misc imports:
+import org.apache.bsf.BSFManager;
+
+
+/**
+ *  The BSF manager holding the variables of one script execution. It exposes
+ *  the declared and registered variables so that they can be handed to
+ *  engines other than BSF ones.
+ */
+public class ScriptManager extends BSFManager {
+
+    /**  The registered variables, by name. */
+    private final Map registeredBeans = new Hashtable();
+
+
+    /**
+     *  Registers a variable scripts look up through the manager.
+     *
+     *@param  beanName  The variable name
+     *@param  bean      The variable value
+     */
+    public void registerBean(String beanName, Object bean) {
+        super.registerBean(beanName, bean);
+        registeredBeans.put(beanName, bean);
+    }
+
+
+    /**
+     *  Unregisters a variable.
+     *
+     *@param  beanName  The variable name
+     */
+    public void unregisterBean(String beanName) {
+        super.unregisterBean(beanName);
+        registeredBeans.remove(beanName);
+    }
+
+
+    /**
+     *  Gets the variables registered so far, including the declared ones,
+     *  which BSF registers as well.
+     *
+     *@return    The variable values, by name
+     */
+    public Map getRegisteredBeans() {
+        return registeredBeans;
+    }
+
+
+    /**
+     *  Gets the variables declared so far.
+     *
+     *@return    A list of <code>BSFDeclaredBean</code>
+     */
+    public Vector getDeclaredBeans() {
+        return declaredBeans;
+    }
+}
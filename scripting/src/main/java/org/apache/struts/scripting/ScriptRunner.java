@@ -0,0 +1,432 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.scripting;
+
+// util imports:
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Vector;
+
+// reflection imports:
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+// logging imports:
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+// misc imports:
+import org.apache.bsf.BSFDeclaredBean;
+
+
+/**
+ *  Runs one version of a script. Where the Java runtime provides a JSR-223
+ *  engine for the script extension that can compile scripts (Java 6 and
+ *  later), the script is compiled once per engine instance and the compiled
+ *  form is reused by later requests. Otherwise the script source is executed
+ *  through BSF, which parses it on each execution. <br />
+ *  <br />
+ *  Either way, the variables are declared or registered in a {@link
+ *  ScriptManager}, so that existing {@link BSFManagerFilter}s keep working.
+ *  JSR-223 scripts see both kinds as global variables. The JSR-223 API is
+ *  used through reflection, as this module is built for Java 1.4.
+ */
+public abstract class ScriptRunner {
+
+    /**  The logging instance. */
+    protected static final Log LOG = LogFactory.getLog(ScriptRunner.class);
+
+    /**  The shared JSR-223 engine manager, or null if not created yet. */
+    private static Object engineManager = null;
+
+    /**  Set once JSR-223 turned out to be unavailable. */
+    private static boolean jsr223Missing = false;
+
+
+    /**
+     *  Executes the script.
+     *
+     *@param  manager        The manager holding the declared variables
+     *@exception  Exception  If the script fails
+     */
+    public abstract void run(ScriptManager manager) throws Exception;
+
+
+    /**
+     *  Creates a runner executing a script through BSF.
+     *
+     *@param  lang    The BSF language name
+     *@param  name    The script name, used in error messages
+     *@param  source  The script source
+     *@return         The runner
+     */
+    public static ScriptRunner forBSF(String lang, String name,
+            String source) {
+        return new BSFRunner(lang, name, source);
+    }
+
+
+    /**
+     *  Creates a runner executing a script compiled by a JSR-223 engine.
+     *
+     *@param  extension  The script file extension, used to find the engine
+     *@param  name       The script name, used in error messages
+     *@param  source     The script source
+     *@return            The runner, or null if there is no JSR-223 engine
+     *      able to compile scripts with this extension
+     */
+    public static ScriptRunner forCompilable(String extension, String name,
+            String source) {
+        Object engine = null;
+        try {
+            synchronized (ScriptRunner.class) {
+                if (jsr223Missing) {
+                    return null;
+                }
+                if (engineManager == null) {
+                    engineManager = Jsr223.newEngineManager(
+                            ScriptRunner.class.getClassLoader());
+                }
+                engine = Jsr223.getEngineByExtension(engineManager,
+                        extension);
+            }
+        } catch (ClassNotFoundException ex) {
+            LOG.debug("JSR-223 is not available, using BSF engines");
+            synchronized (ScriptRunner.class) {
+                jsr223Missing = true;
+            }
+            return null;
+        } catch (Exception ex) {
+            LOG.warn("Unable to look up JSR-223 engine for " + name, ex);
+            return null;
+        }
+
+        if (engine == null || !Jsr223.isCompilable(engine)) {
+            return null;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Using compiling JSR-223 engine for " + name);
+        }
+        return new CompilableRunner(engine, name, source);
+    }
+
+
+    /**  Executes the script source through BSF. */
+    static class BSFRunner extends ScriptRunner {
+
+        /**  The BSF language name. */
+        private final String lang;
+
+        /**  The script name. */
+        private final String name;
+
+        /**  The script source. */
+        private final String source;
+
+
+        /**
+         *  Constructor.
+         *
+         *@param  lang    The BSF language name
+         *@param  name    The script name
+         *@param  source  The script source
+         */
+        BSFRunner(String lang, String name, String source) {
+            this.lang = lang;
+            this.name = name;
+            this.source = source;
+        }
+
+
+        /**
+         *  Executes the script.
+         *
+         *@param  manager        The manager holding the declared variables
+         *@exception  Exception  If the script fails
+         */
+        public void run(ScriptManager manager) throws Exception {
+            manager.exec(lang, name, 0, 0, source);
+        }
+    }
+
+
+    /**
+     *  Executes a script compiled by a JSR-223 engine. Engines are not
+     *  assumed to be thread-safe: each compiled script is bound to one engine
+     *  instance, and idle instances are kept for later requests.
+     */
+    static class CompilableRunner extends ScriptRunner {
+
+        /**  The maximum number of idle compiled scripts kept. */
+        private static final int MAX_IDLE = 8;
+
+        /**  The engine factory. */
+        private final Object factory;
+
+        /**  The script name. */
+        private final String name;
+
+        /**  The script source. */
+        private final String source;
+
+        /**  Idle engines and their compiled script, as Object[2]. */
+        private final LinkedList idle = new LinkedList();
+
+        /**  ScriptEngine.createBindings(), resolved on first use. */
+        private volatile Method createBindings = null;
+
+        /**  CompiledScript.eval(Bindings), resolved on first use. */
+        private volatile Method eval = null;
+
+
+        /**
+         *  Constructor.
+         *
+         *@param  engine         A first engine instance
+         *@param  name           The script name
+         *@param  source         The script source
+         */
+        CompilableRunner(Object engine, String name, String source) {
+            this.factory = Jsr223.getFactory(engine);
+            this.name = name;
+            this.source = source;
+        }
+
+
+        /**
+         *  Executes the script.
+         *
+         *@param  manager        The manager holding the declared variables
+         *@exception  Exception  If the script fails
+         */
+        public void run(ScriptManager manager) throws Exception {
+            Object[] compiled = null;
+            synchronized (idle) {
+                if (!idle.isEmpty()) {
+                    compiled = (Object[]) idle.removeFirst();
+                }
+            }
+            if (compiled == null) {
+                Object engine = Jsr223.getScriptEngine(factory);
+                compiled = new Object[]{engine,
+                        Jsr223.compile(engine, source)};
+                if (eval == null) {
+                    createBindings = Jsr223.findPublicMethod(
+                            engine.getClass(), "createBindings", new Class[0]);
+                    eval = Jsr223.findPublicMethod(compiled[1].getClass(),
+                            "eval", new Class[]{Class.forName(
+                            "javax.script.Bindings", false,
+                            engine.getClass().getClassLoader())});
+                }
+            }
+
+            Map bindings = (Map) Jsr223.invoke(createBindings, compiled[0],
+                    Jsr223.NO_ARGS);
+            bindings.put("javax.script.filename", name);
+            bindings.putAll(manager.getRegisteredBeans());
+            bindings.put("bsf", manager);
+            Vector beans = manager.getDeclaredBeans();
+            for (Iterator i = beans.iterator(); i.hasNext();) {
+                BSFDeclaredBean bean = (BSFDeclaredBean) i.next();
+                bindings.put(bean.name, bean.bean);
+            }
+
+            Jsr223.invoke(eval, compiled[1], new Object[]{bindings});
+
+            synchronized (idle) {
+                if (idle.size() < MAX_IDLE) {
+                    idle.addFirst(compiled);
+                }
+            }
+        }
+    }
+
+
+    /**  Reflective access to the JSR-223 API. */
+    static class Jsr223 {
+
+        /**  No arguments. */
+        static final Object[] NO_ARGS = new Object[0];
+
+
+        /**
+         *  Creates a new engine manager.
+         *
+         *@param  loader                      The class loader to find
+         *      engines with
+         *@return                             The engine manager
+         *@exception  ClassNotFoundException  If JSR-223 is not available
+         *@exception  Exception               If the manager can't be created
+         */
+        static Object newEngineManager(ClassLoader loader) throws Exception {
+            Class cls = Class.forName("javax.script.ScriptEngineManager");
+            return cls.getConstructor(new Class[]{ClassLoader.class})
+                    .newInstance(new Object[]{loader});
+        }
+
+
+        /**
+         *  Gets a new engine for an extension.
+         *
+         *@param  manager        The engine manager
+         *@param  extension      The file extension
+         *@return                The engine, or null if none
+         *@exception  Exception  If the lookup fails
+         */
+        static Object getEngineByExtension(Object manager, String extension)
+                 throws Exception {
+            return invoke(manager, "getEngineByExtension",
+                    new Class[]{String.class}, new Object[]{extension});
+        }
+
+
+        /**
+         *  Checks whether an engine can compile scripts.
+         *
+         *@param  engine  The engine
+         *@return         True if the engine implements Compilable
+         */
+        static boolean isCompilable(Object engine) {
+            try {
+                return Class.forName("javax.script.Compilable", false,
+                        engine.getClass().getClassLoader()).isInstance(engine);
+            } catch (ClassNotFoundException ex) {
+                return false;
+            }
+        }
+
+
+        /**
+         *  Gets the factory of an engine.
+         *
+         *@param  engine  The engine
+         *@return         Its factory
+         */
+        static Object getFactory(Object engine) {
+            try {
+                return invoke(engine, "getFactory", new Class[0], NO_ARGS);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex.toString());
+            }
+        }
+
+
+        /**
+         *  Creates a new engine instance.
+         *
+         *@param  factory        The engine factory
+         *@return                The engine
+         *@exception  Exception  If the engine can't be created
+         */
+        static Object getScriptEngine(Object factory) throws Exception {
+            return invoke(factory, "getScriptEngine", new Class[0], NO_ARGS);
+        }
+
+
+        /**
+         *  Compiles a script.
+         *
+         *@param  engine         The engine, implementing Compilable
+         *@param  source         The script source
+         *@return                The compiled script
+         *@exception  Exception  If the script can't be compiled
+         */
+        static Object compile(Object engine, String source) throws Exception {
+            return invoke(engine, "compile", new Class[]{String.class},
+                    new Object[]{source});
+        }
+
+
+        /**
+         *  Invokes a public method declared by a JSR-223 interface or class,
+         *  unwrapping the exception it throws.
+         *
+         *@param  target         The target object
+         *@param  name           The method name
+         *@param  types          The parameter types
+         *@param  args           The arguments
+         *@return                The result
+         *@exception  Exception  If the method fails
+         */
+        private static Object invoke(Object target, String name,
+                Class[] types, Object[] args) throws Exception {
+            return invoke(findPublicMethod(target.getClass(), name, types),
+                    target, args);
+        }
+
+
+        /**
+         *  Invokes a method, unwrapping the exception it throws.
+         *
+         *@param  method         The method
+         *@param  target         The target object
+         *@param  args           The arguments
+         *@return                The result
+         *@exception  Exception  If the method fails
+         */
+        static Object invoke(Method method, Object target, Object[] args)
+                 throws Exception {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                Throwable cause = ex.getTargetException();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+
+
+        /**
+         *  Finds a method through a public class or interface, since engine
+         *  implementation classes need not be public.
+         *
+         *@param  cls                    The class to search
+         *@param  name                   The method name
+         *@param  types                  The parameter types
+         *@return                        The method
+         *@exception  NoSuchMethodException  If no public declaration exists
+         */
+        static Method findPublicMethod(Class cls, String name,
+                Class[] types) throws NoSuchMethodException {
+            for (Class c = cls; c != null; c = c.getSuperclass()) {
+                if (java.lang.reflect.Modifier.isPublic(c.getModifiers())) {
+                    try {
+                        return c.getMethod(name, types);
+                    } catch (NoSuchMethodException ex) {
+                        // try the interfaces
+                    }
+                }
+                Class[] interfaces = c.getInterfaces();
+                for (int i = 0; i < interfaces.length; i++) {
+                    try {
+                        return findPublicMethod(interfaces[i], name, types);
+                    } catch (NoSuchMethodException ex) {
+                        // try the next one
+                    }
+                }
+            }
+            throw new NoSuchMethodException(cls.getName() + "." + name);
+        }
+    }
+}
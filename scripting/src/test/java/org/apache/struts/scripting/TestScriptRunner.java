@@ -0,0 +1,172 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.scripting;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.bsf.BSFDeclaredBean;
+import org.apache.bsf.BSFException;
+import org.apache.bsf.BSFManager;
+import org.apache.bsf.util.BSFEngineImpl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Unit tests for the variables seen by scripts run through BSF and through
+ * JSR-223 engines.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestScriptRunner extends TestCase {
+    protected ScriptManager manager;
+    protected List result;
+
+    public TestScriptRunner(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestScriptRunner.class.getName()
+            });
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestScriptRunner.class);
+    }
+
+    public void setUp() throws Exception {
+        BSFManager.registerScriptingEngine("stub", StubEngine.class.getName(),
+            new String[] { "stub" });
+
+        result = new ArrayList();
+        manager = new ScriptManager();
+        manager.declareBean("result", result, List.class);
+        manager.declareBean("declared", "declared value", String.class);
+        manager.registerBean("registered", "registered value");
+    }
+
+    public void tearDown() {
+        manager = null;
+        result = null;
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    public void testRegisteredBeans() {
+        assertEquals("registered value",
+            manager.getRegisteredBeans().get("registered"));
+        manager.unregisterBean("registered");
+        assertNull(manager.lookupBean("registered"));
+        assertFalse(manager.getRegisteredBeans().containsKey("registered"));
+        assertSame(result, manager.getRegisteredBeans().get("result"));
+    }
+
+    public void testBSF() throws Exception {
+        ScriptRunner.forBSF("stub", "test.stub", "declared registered")
+                    .run(manager);
+
+        assertEquals(2, result.size());
+        assertEquals("declared value", result.get(0));
+        assertEquals("registered value", result.get(1));
+    }
+
+    public void testCompilable() throws Exception {
+        ScriptRunner runner =
+            ScriptRunner.forCompilable("js", "test.js",
+                "result.add(declared); result.add(registered);"
+                + " result.add(bsf.lookupBean('registered'));");
+
+        if (runner == null) {
+            // No compiling JavaScript engine in this Java runtime
+            return;
+        }
+
+        runner.run(manager);
+        runner.run(manager);
+
+        assertEquals(6, result.size());
+        assertEquals("declared value", result.get(0));
+        assertEquals("registered value", result.get(1));
+        assertEquals("registered value", result.get(2));
+        assertEquals(result.subList(0, 3), result.subList(3, 6));
+    }
+
+    public void testNotCompilable() {
+        assertNull(ScriptRunner.forCompilable("stub", "test.stub", ""));
+    }
+
+    // ---------------------------------------------------------- Inner Classes
+
+    /**
+     * BSF engine adding to the declared <code>result</code> list the value
+     * of each variable named by the script, declared ones first.
+     */
+    public static class StubEngine extends BSFEngineImpl {
+        public Object eval(String source, int lineNo, int columnNo,
+            Object script) throws BSFException {
+            List list = (List) find("result");
+
+            for (Iterator i = split(script); i.hasNext();) {
+                String name = (String) i.next();
+                Object value = find(name);
+
+                list.add((value == null) ? mgr.lookupBean(name) : value);
+            }
+
+            return null;
+        }
+
+        public Object call(Object object, String name, Object[] args) {
+            return null;
+        }
+
+        private Object find(String name) {
+            for (Iterator i = declaredBeans.iterator(); i.hasNext();) {
+                BSFDeclaredBean bean = (BSFDeclaredBean) i.next();
+
+                if (bean.name.equals(name)) {
+                    return bean.bean;
+                }
+            }
+
+            return null;
+        }
+
+        private static Iterator split(Object script) {
+            List names = new ArrayList();
+            String text = script.toString().trim();
+
+            for (int i = text.indexOf(' '); i >= 0; i = text.indexOf(' ')) {
+                names.add(text.substring(0, i));
+                text = text.substring(i + 1).trim();
+            }
+
+            names.add(text);
+
+            return names.iterator();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.taglib;
+
+import org.apache.struts.config.ModuleConfig;
+
+import javax.servlet.ServletContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Per web application cache of the request independent part of the URLs
+ * that {@link TagUtils} generates for actions and global forwards: context
+ * path, module prefix, servlet mapping and forward pattern.  Only query
+ * parameters, anchors and session encoding remain to be applied per
+ * request.</p>
+ *
+ * <p>Reads never lock.  Tables are copied on write, which is cheap because
+ * a table only changes the first time a given action or forward is
+ * rendered.  A module whose <code>ModuleConfig</code> instance or context
+ * path changes starts over with empty tables.</p>
+ *
+ * @version $Rev$
+ * @since Struts 1.4
+ */
+final class StaticURLCache {
+    /**
+     * The application scope attribute under which the cache is stored.
+     */
+    static final String CACHE_KEY = "org.apache.struts.taglib.STATIC_URLS";
+
+    /**
+     * Table of URLs computed by <code>computeURL</code> for forwards.
+     */
+    static final int FORWARD = 0;
+
+    /**
+     * Table of URLs computed by <code>getActionMappingURL</code>.
+     */
+    static final int MAPPING = 1;
+
+    /**
+     * Table of context relative URLs computed by
+     * <code>getActionMappingURL</code>.
+     */
+    static final int CONTEXT_RELATIVE_MAPPING = 2;
+
+    /**
+     * The maximum number of URLs kept per table, guarding against callers
+     * that generate unbounded numbers of distinct action names.
+     */
+    static final int MAX_ENTRIES = 1024;
+
+    /**
+     * The per module tables, keyed by module prefix.  Copied on write.
+     */
+    private volatile Map modules = new HashMap();
+
+    /**
+     * <p>Return the cache for the given web application, creating it on
+     * first use.</p>
+     */
+    static StaticURLCache getInstance(ServletContext context) {
+        StaticURLCache cache = (StaticURLCache) context.getAttribute(CACHE_KEY);
+
+        if (cache == null) {
+            synchronized (StaticURLCache.class) {
+                cache = (StaticURLCache) context.getAttribute(CACHE_KEY);
+
+                if (cache == null) {
+                    cache = new StaticURLCache();
+                    context.setAttribute(CACHE_KEY, cache);
+                }
+            }
+        }
+
+        return cache;
+    }
+
+    /**
+     * <p>Return the cached URL for <code>name</code> in the given table, or
+     * <code>null</code> if it has not been computed yet.</p>
+     */
+    String get(ModuleConfig config, String contextPath, int table, String name) {
+        Module module = (Module) modules.get(config.getPrefix());
+
+        if ((module == null) || !module.matches(config, contextPath)) {
+            return null;
+        }
+
+        return (String) module.tables[table].get(name);
+    }
+
+    /**
+     * <p>Remember the URL computed for <code>name</code> in the given
+     * table.</p>
+     */
+    synchronized void put(ModuleConfig config, String contextPath, int table,
+        String name, String url) {
+        Module module = (Module) modules.get(config.getPrefix());
+
+        if ((module == null) || !module.matches(config, contextPath)) {
+            module = new Module(config, contextPath, null);
+        }
+
+        if (module.tables[table].size() >= MAX_ENTRIES) {
+            return;
+        }
+
+        Map[] tables = (Map[]) module.tables.clone();
+
+        tables[table] = new HashMap(tables[table]);
+        tables[table].put(name, url);
+
+        Map copy = new HashMap(modules);
+
+        copy.put(config.getPrefix(), new Module(config, contextPath, tables));
+        modules = copy;
+    }
+
+    /**
+     * The tables belonging to one module.  Immutable once published; an
+     * update replaces the whole instance.
+     */
+    private static final class Module {
+        final ModuleConfig config;
+        final String contextPath;
+        final Map[] tables;
+
+        Module(ModuleConfig config, String contextPath, Map[] tables) {
+            this.config = config;
+            this.contextPath = contextPath;
+
+            if (tables == null) {
+                tables = new Map[3];
+
+                for (int i = 0; i < tables.length; i++) {
+                    tables[i] = new HashMap();
+                }
+            }
+
+            this.tables = tables;
+        }
+
+        boolean matches(ModuleConfig config, String contextPath) {
+            return (this.config == config)
+            && this.contextPath.equals(contextPath);
+        }
+    }
+}
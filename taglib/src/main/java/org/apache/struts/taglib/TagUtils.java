@@ -408,39 +408,12 @@ public class TagUtils {
             (HttpServletRequest) pageContext.getRequest();
 
         if (forward != null) {
-            ForwardConfig forwardConfig =
-                moduleConfig.findForwardConfig(forward);
-
-            if (forwardConfig == null) {
-                throw new MalformedURLException(messages.getMessage(
-                        "computeURL.forward", forward));
-            }
-
-            // **** removed - see bug 37817 ****
-            //  if (forwardConfig.getRedirect()) {
-            //      redirect = true;
-            //  }
-
-            if (forwardConfig.getPath().startsWith("/")) {
-                url.append(request.getContextPath());
-                url.append(RequestUtils.forwardURL(request, forwardConfig,
-                        moduleConfig));
-            } else {
-                url.append(forwardConfig.getPath());
-            }
+            url.append(computeForwardURL(pageContext, moduleConfig, forward));
         } else if (href != null) {
             url.append(href);
         } else if (action != null) {
-            ActionServlet servlet = (ActionServlet) pageContext.getServletContext().getAttribute(Globals.ACTION_SERVLET_KEY);
-            String actionIdPath = RequestUtils.actionIdURL(action, moduleConfig, servlet);
-            if (actionIdPath != null) {
-                action = actionIdPath;
-                url.append(request.getContextPath());
-                url.append(actionIdPath);
-            } else {
-                url.append(instance.getActionMappingURL(action, module,
-                        pageContext, false));
-            }
+            url.append(computeActionURL(pageContext, moduleConfig, module,
+                    action));
         } else /* if (page != null) */
          {
             url.append(request.getContextPath());
@@ -567,6 +540,87 @@ public class TagUtils {
         return (url.toString());
     }
 
+    /**
+     * Return the URL, without parameters, anchor or session identifier, of
+     * the named global forward.  The result does not depend on the request,
+     * so it is computed once per module and forward.
+     *
+     * @param pageContext  PageContext for the tag making this call
+     * @param moduleConfig The module the forward belongs to
+     * @param forward      Logical forward name
+     * @return The forward URL
+     * @throws MalformedURLException if the forward does not exist
+     * @since Struts 1.4
+     */
+    protected String computeForwardURL(PageContext pageContext,
+        ModuleConfig moduleConfig, String forward)
+        throws MalformedURLException {
+        HttpServletRequest request =
+            (HttpServletRequest) pageContext.getRequest();
+        String contextPath = request.getContextPath();
+        StaticURLCache cache =
+            StaticURLCache.getInstance(pageContext.getServletContext());
+        String url =
+            cache.get(moduleConfig, contextPath, StaticURLCache.FORWARD,
+                forward);
+
+        if (url != null) {
+            return url;
+        }
+
+        ForwardConfig forwardConfig = moduleConfig.findForwardConfig(forward);
+
+        if (forwardConfig == null) {
+            throw new MalformedURLException(messages.getMessage(
+                    "computeURL.forward", forward));
+        }
+
+        // **** removed - see bug 37817 ****
+        //  if (forwardConfig.getRedirect()) {
+        //      redirect = true;
+        //  }
+
+        if (forwardConfig.getPath().startsWith("/")) {
+            url = contextPath
+                + RequestUtils.forwardURL(request, forwardConfig, moduleConfig);
+        } else {
+            url = forwardConfig.getPath();
+        }
+
+        cache.put(moduleConfig, contextPath, StaticURLCache.FORWARD, forward,
+            url);
+
+        return url;
+    }
+
+    /**
+     * Return the URL, without dynamic parameters, anchor or session
+     * identifier, of the given action.  Action mapping URLs are cached by
+     * <code>getActionMappingURL</code>.
+     *
+     * @param pageContext  PageContext for the tag making this call
+     * @param moduleConfig The module the action belongs to
+     * @param module       The module prefix passed by the tag (if any)
+     * @param action       Logical action name or action id
+     * @return The action URL
+     * @since Struts 1.4
+     */
+    protected String computeActionURL(PageContext pageContext,
+        ModuleConfig moduleConfig, String module, String action) {
+        HttpServletRequest request =
+            (HttpServletRequest) pageContext.getRequest();
+        ActionServlet servlet =
+            (ActionServlet) pageContext.getServletContext().getAttribute(Globals.ACTION_SERVLET_KEY);
+        String actionIdPath =
+            RequestUtils.actionIdURL(action, moduleConfig, servlet);
+
+        if (actionIdPath != null) {
+            return request.getContextPath() + actionIdPath;
+        }
+
+        return instance.getActionMappingURL(action, module, pageContext, false);
+    }
+
     /**
      * URLencodes a string assuming the character encoding is UTF-8.
      *
@@ -656,6 +710,43 @@ public class TagUtils {
         HttpServletRequest request =
             (HttpServletRequest) pageContext.getRequest();
 
+        String contextPath = request.getContextPath();
+        ModuleConfig moduleConfig = getModuleConfig(module, pageContext);
+
+        if (moduleConfig == null) {
+            return computeActionMappingURL(action, moduleConfig, pageContext,
+                contextRelative);
+        }
+
+        // The result only depends on static configuration, so reuse it
+        StaticURLCache cache =
+            StaticURLCache.getInstance(pageContext.getServletContext());
+        int table =
+            contextRelative ? StaticURLCache.CONTEXT_RELATIVE_MAPPING
+                            : StaticURLCache.MAPPING;
+        String url = cache.get(moduleConfig, contextPath, table, action);
+
+        if (url == null) {
+            url = computeActionMappingURL(action, moduleConfig, pageContext,
+                    contextRelative);
+            cache.put(moduleConfig, contextPath, table, action, url);
+        }
+
+        return url;
+    }
+
+    /**
+     * Compute the server-relative URL of an action, as returned by
+     * <code>getActionMappingURL</code>, without consulting the cache.
+     *
+     * @since Struts 1.4
+     */
+    protected String computeActionMappingURL(String action,
+        ModuleConfig moduleConfig, PageContext pageContext,
+        boolean contextRelative) {
+        HttpServletRequest request =
+            (HttpServletRequest) pageContext.getRequest();
+
         String contextPath = request.getContextPath();
         StringBuffer value = new StringBuffer();
 
@@ -666,8 +757,6 @@ public class TagUtils {
             value.append(contextPath);
         }
 
-        ModuleConfig moduleConfig = getModuleConfig(module, pageContext);
-
         if ((moduleConfig != null) && (!contextRelative)) {
             value.append(moduleConfig.getPrefix());
         }
@@ -717,7 +806,9 @@ public class TagUtils {
 
     /**
      * Retrieves the value from request scope and if it isn't already an
-     * <code>ActionMessages</code>, some classes are converted to one.
+     * <code>ActionMessages</code>, some classes are converted to one.  If
+     * there is no value, the shared <code>ActionMessages.EMPTY</code> is
+     * returned.
      *
      * @param pageContext The PageContext for the current page
      * @param paramName   Key for parameter value
@@ -726,11 +817,13 @@ public class TagUtils {
      */
     public ActionMessages getActionMessages(PageContext pageContext,
         String paramName) throws JspException {
-        ActionMessages am = new ActionMessages();
+        ActionMessages am = ActionMessages.EMPTY;
 
         Object value = pageContext.findAttribute(paramName);
 
         if (value != null) {
+            am = new ActionMessages();
+
             try {
                 if (value instanceof String) {
                     am.add(ActionMessages.GLOBAL_MESSAGE,
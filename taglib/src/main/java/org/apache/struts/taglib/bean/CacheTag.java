@@ -0,0 +1,271 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.taglib.bean;
+
+import org.apache.struts.Globals;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.taglib.TagUtils;
+import org.apache.struts.util.MessageResources;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.PageContext;
+import javax.servlet.jsp.tagext.BodyTagSupport;
+
+/**
+ * Render the body of this tag once and serve the rendered output from a
+ * {@link FragmentCache} on subsequent requests, until it expires, is
+ * evicted, or the module configuration or message resources are reloaded.
+ *
+ * @version $Rev$
+ * @since Struts 1.4
+ */
+public class CacheTag extends BodyTagSupport {
+    /**
+     * The message resources for this package.
+     */
+    protected static MessageResources messages =
+        MessageResources.getMessageResources(
+            "org.apache.struts.taglib.bean.LocalStrings");
+
+    /**
+     * The fully computed cache key for the current invocation.
+     */
+    protected String cacheKey = null;
+
+    /**
+     * The module configuration the current invocation renders against.
+     */
+    protected ModuleConfig moduleConfig = null;
+
+    /**
+     * The message resources the current invocation renders against.
+     */
+    protected Object resources = null;
+
+    // ------------------------------------------------------------- Properties
+
+    /**
+     * The servlet context attribute key for our resources.
+     */
+    protected String bundle = null;
+
+    /**
+     * The caller supplied key identifying the fragment.
+     */
+    protected String key = null;
+
+    /**
+     * The session attribute key for the Locale.
+     */
+    protected String localeKey = Globals.LOCALE_KEY;
+
+    /**
+     * The cache scope: "application", "session" or "locale".
+     */
+    protected String scope = "application";
+
+    /**
+     * The number of seconds a rendered fragment stays valid, or zero for no
+     * expiry.
+     */
+    protected int ttl = 0;
+
+    public String getBundle() {
+        return (this.bundle);
+    }
+
+    public void setBundle(String bundle) {
+        this.bundle = bundle;
+    }
+
+    public String getKey() {
+        return (this.key);
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getLocale() {
+        return (this.localeKey);
+    }
+
+    public void setLocale(String localeKey) {
+        this.localeKey = localeKey;
+    }
+
+    public String getScope() {
+        return (this.scope);
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public int getTtl() {
+        return (this.ttl);
+    }
+
+    public void setTtl(int ttl) {
+        this.ttl = ttl;
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * Write the cached fragment and skip the body if one is available,
+     * otherwise buffer the body so it can be stored.
+     *
+     * @throws JspException if a JSP exception has occurred
+     */
+    public int doStartTag() throws JspException {
+        TagUtils tagUtils = TagUtils.getInstance();
+
+        // A reused handler may still hold the previous invocation's body
+        bodyContent = null;
+        moduleConfig = tagUtils.getModuleConfig(pageContext);
+        resources = lookupResources();
+        cacheKey = computeCacheKey();
+
+        String content = getCache().get(cacheKey, moduleConfig, resources);
+
+        if (content != null) {
+            tagUtils.write(pageContext, content);
+            cacheKey = null;
+
+            return (SKIP_BODY);
+        }
+
+        return (EVAL_BODY_BUFFERED);
+    }
+
+    /**
+     * Store and write the freshly rendered body, unless the fragment was
+     * served from the cache.
+     *
+     * @throws JspException if a JSP exception has occurred
+     */
+    public int doEndTag() throws JspException {
+        if (cacheKey != null) {
+            String content =
+                (bodyContent == null) ? "" : bodyContent.getString();
+
+            getCache().put(cacheKey, content, ttl, moduleConfig, resources);
+            TagUtils.getInstance().write(pageContext, content);
+        }
+
+        cacheKey = null;
+        moduleConfig = null;
+        resources = null;
+
+        return (EVAL_PAGE);
+    }
+
+    /**
+     * Release all allocated resources.
+     */
+    public void release() {
+        super.release();
+        bundle = null;
+        cacheKey = null;
+        key = null;
+        localeKey = Globals.LOCALE_KEY;
+        moduleConfig = null;
+        resources = null;
+        scope = "application";
+        ttl = 0;
+    }
+
+    // ------------------------------------------------------ Protected Methods
+
+    /**
+     * Return the fragment cache for this web application.
+     */
+    protected FragmentCache getCache() {
+        return FragmentCache.getInstance(pageContext.getServletContext());
+    }
+
+    /**
+     * Build the full cache key from the module prefix, the caller supplied
+     * key and the scope qualifier.
+     *
+     * @throws JspException if the key is missing or the scope is invalid
+     */
+    protected String computeCacheKey()
+        throws JspException {
+        if (key == null) {
+            JspException e = new JspException(messages.getMessage("cache.key"));
+
+            TagUtils.getInstance().saveException(pageContext, e);
+            throw e;
+        }
+
+        StringBuffer sb = new StringBuffer(moduleConfig.getPrefix());
+
+        sb.append('|');
+        sb.append(key);
+
+        if ((scope == null) || "application".equalsIgnoreCase(scope)) {
+            return sb.toString();
+        }
+
+        if ("session".equalsIgnoreCase(scope)) {
+            HttpServletRequest request =
+                (HttpServletRequest) pageContext.getRequest();
+
+            sb.append("|s:");
+            sb.append(request.getSession().getId());
+        } else if ("locale".equalsIgnoreCase(scope)) {
+            sb.append("|l:");
+            sb.append(TagUtils.getInstance().getUserLocale(pageContext,
+                    localeKey));
+        } else {
+            JspException e =
+                new JspException(messages.getMessage("cache.scope", scope));
+
+            TagUtils.getInstance().saveException(pageContext, e);
+            throw e;
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Return the module's message resources for our bundle, or
+     * <code>null</code> if there are none.  Unlike
+     * <code>TagUtils.retrieveMessageResources</code> a missing bundle is not
+     * an error; it only means there is nothing to watch for reloads.
+     */
+    protected Object lookupResources() {
+        String name = (bundle == null) ? Globals.MESSAGES_KEY : bundle;
+        Object found =
+            pageContext.getAttribute(name + moduleConfig.getPrefix(),
+                PageContext.APPLICATION_SCOPE);
+
+        if (found == null) {
+            found = pageContext.getAttribute(name,
+                    PageContext.APPLICATION_SCOPE);
+        }
+
+        return found;
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.taglib.bean;
+
+import javax.servlet.ServletContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Bounded, least-recently-used store of rendered JSP fragments used by
+ * {@link CacheTag}.  Each entry remembers the <code>ModuleConfig</code> and
+ * <code>MessageResources</code> instances it was rendered against; when a
+ * lookup presents different instances (because the module configuration or
+ * its resources were reloaded) the entry is discarded instead of being
+ * served.</p>
+ *
+ * <p>One instance is shared per web application, stored as an application
+ * scope attribute under {@link #CACHE_KEY}.  Applications that need a
+ * different bound may register their own instance under that key before
+ * the first page is rendered.</p>
+ *
+ * @version $Rev$
+ * @since Struts 1.4
+ */
+public class FragmentCache {
+    /**
+     * The application scope attribute under which the shared cache is
+     * stored.
+     */
+    public static final String CACHE_KEY =
+        "org.apache.struts.taglib.bean.FRAGMENT_CACHE";
+
+    /**
+     * The number of fragments retained by the default instance.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+
+    // ----------------------------------------------------- Instance Variables
+
+    /**
+     * The maximum number of entries retained.
+     */
+    private final int maxEntries;
+
+    /**
+     * The cached entries in access order.  All access to this map and to the
+     * counters below is synchronized on <code>this</code>.
+     */
+    private final Map entries;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    // ----------------------------------------------------------- Constructors
+
+    /**
+     * <p>Create a cache holding at most <code>maxEntries</code>
+     * fragments.</p>
+     *
+     * @param maxEntries The maximum number of fragments retained
+     */
+    public FragmentCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+
+        this.maxEntries = maxEntries;
+        this.entries =
+            new LinkedHashMap(16, 0.75f, true) {
+                    protected boolean removeEldestEntry(Map.Entry eldest) {
+                        if (size() > FragmentCache.this.maxEntries) {
+                            evictions++;
+
+                            return true;
+                        }
+
+                        return false;
+                    }
+                };
+    }
+
+    /**
+     * <p>Return the cache shared by the given web application, creating it
+     * on first use.</p>
+     *
+     * @param context The servlet context of the web application
+     * @return The shared fragment cache
+     */
+    public static FragmentCache getInstance(ServletContext context) {
+        FragmentCache cache = (FragmentCache) context.getAttribute(CACHE_KEY);
+
+        if (cache == null) {
+            synchronized (FragmentCache.class) {
+                cache = (FragmentCache) context.getAttribute(CACHE_KEY);
+
+                if (cache == null) {
+                    cache = new FragmentCache(DEFAULT_MAX_ENTRIES);
+                    context.setAttribute(CACHE_KEY, cache);
+                }
+            }
+        }
+
+        return cache;
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * <p>Return the fragment cached under <code>key</code>, or
+     * <code>null</code> if there is none, it has expired, or it was
+     * rendered against a different configuration or message resources
+     * instance.</p>
+     *
+     * @param key       The cache key
+     * @param config    The current module configuration
+     * @param resources The current message resources (may be null)
+     * @return The cached content, or <code>null</code>
+     */
+    public synchronized String get(String key, Object config, Object resources) {
+        Entry entry = (Entry) entries.get(key);
+
+        if (entry == null) {
+            misses++;
+
+            return null;
+        }
+
+        if ((entry.config != config) || (entry.resources != resources)) {
+            entries.remove(key);
+            invalidations++;
+            misses++;
+
+            return null;
+        }
+
+        if ((entry.expires > 0)
+            && (entry.expires <= currentTimeMillis())) {
+            entries.remove(key);
+            misses++;
+
+            return null;
+        }
+
+        hits++;
+
+        return entry.content;
+    }
+
+    /**
+     * <p>Store a rendered fragment.</p>
+     *
+     * @param key        The cache key
+     * @param content    The rendered content
+     * @param ttlSeconds Seconds until the entry expires; zero or less means
+     *                   it stays until evicted or invalidated
+     * @param config     The module configuration it was rendered against
+     * @param resources  The message resources it was rendered against (may
+     *                   be null)
+     */
+    public synchronized void put(String key, String content, int ttlSeconds,
+        Object config, Object resources) {
+        long expires = 0;
+
+        if (ttlSeconds > 0) {
+            expires = currentTimeMillis() + (ttlSeconds * 1000L);
+        }
+
+        entries.put(key, new Entry(content, expires, config, resources));
+    }
+
+    /**
+     * <p>Return the current time in milliseconds, against which entries
+     * expire.  Subclasses may substitute their own clock.</p>
+     *
+     * @return The current time in milliseconds
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * <p>Remove the fragment cached under <code>key</code>, if any.</p>
+     *
+     * @param key The cache key
+     */
+    public synchronized void remove(String key) {
+        if (entries.remove(key) != null) {
+            invalidations++;
+        }
+    }
+
+    /**
+     * <p>Remove every cached fragment.</p>
+     */
+    public synchronized void clear() {
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * <p>Return the number of fragments currently cached.</p>
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * <p>Return the maximum number of fragments retained.</p>
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * <p>Return the number of lookups that found a usable fragment.</p>
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * <p>Return the number of lookups that did not find a usable
+     * fragment.</p>
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * <p>Return the number of fragments dropped to respect the size
+     * bound.</p>
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * <p>Return the number of fragments dropped because they were removed
+     * explicitly or their configuration or resources were reloaded.</p>
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized String toString() {
+        return "FragmentCache[size=" + entries.size() + ", maxEntries="
+        + maxEntries + ", hits=" + hits + ", misses=" + misses
+        + ", evictions=" + evictions + ", invalidations=" + invalidations
+        + "]";
+    }
+
+    /**
+     * A cached fragment and the state it was rendered against.
+     */
+    private static final class Entry {
+        final String content;
+        final long expires;
+        final Object config;
+        final Object resources;
+
+        Entry(String content, long expires, Object config, Object resources) {
+            this.content = content;
+            this.expires = expires;
+            this.config = config;
+            this.resources = resources;
+        }
+    }
+}
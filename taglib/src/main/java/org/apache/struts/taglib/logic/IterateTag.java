@@ -21,27 +21,29 @@
 package org.apache.struts.taglib.logic;
 
 import org.apache.struts.taglib.TagUtils;
+import org.apache.struts.util.ArrayIterator;
+import org.apache.struts.util.IterationSource;
 import org.apache.struts.util.IteratorAdapter;
 import org.apache.struts.util.MessageResources;
 
 import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.tagext.BodyTagSupport;
 
-import java.lang.reflect.Array;
-
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Custom tag that iterates the elements of a collection, which can be either
  * an attribute or the property of an attribute.  The collection can be any of
- * the following:  an array of objects, an Enumeration, an Iterator, a
- * Collection (which includes Lists, Sets and Vectors), or a Map (which
- * includes Hashtables) whose elements will be iterated over.
+ * the following:  an array of objects or primitives, an Enumeration, an
+ * Iterator, a Collection (which includes Lists, Sets and Vectors), a Map
+ * (which includes Hashtables) whose elements will be iterated over, or an
+ * {@link IterationSource}.  Arrays, Lists and IterationSources are
+ * positioned at the starting offset directly, without copying the
+ * collection or reading the skipped elements.
  *
  * @version $Rev$ $Date: 2004-11-03 14:20:47 -0500 (Wed, 03 Nov 2004)
  *          $
@@ -247,40 +249,6 @@ public class IterateTag extends BodyTagSupport {
             throw e;
         }
 
-        // Construct an iterator for this collection
-        if (collection.getClass().isArray()) {
-            try {
-                // If we're lucky, it is an array of objects
-                // that we can iterate over with no copying
-                iterator = Arrays.asList((Object[]) collection).iterator();
-            } catch (ClassCastException e) {
-                // Rats -- it is an array of primitives
-                int length = Array.getLength(collection);
-                ArrayList c = new ArrayList(length);
-
-                for (int i = 0; i < length; i++) {
-                    c.add(Array.get(collection, i));
-                }
-
-                iterator = c.iterator();
-            }
-        } else if (collection instanceof Collection) {
-            iterator = ((Collection) collection).iterator();
-        } else if (collection instanceof Iterator) {
-            iterator = (Iterator) collection;
-        } else if (collection instanceof Map) {
-            iterator = ((Map) collection).entrySet().iterator();
-        } else if (collection instanceof Enumeration) {
-            iterator = new IteratorAdapter((Enumeration) collection);
-        } else {
-            JspException e =
-                new JspException(messages.getMessage("iterate.iterator", name, 
-                		property, collection.getClass().getName()));
-
-            TagUtils.getInstance().saveException(pageContext, e);
-            throw e;
-        }
-
         // Calculate the starting offset
         if (offset == null) {
             offsetValue = 0;
@@ -329,10 +297,48 @@ public class IterateTag extends BodyTagSupport {
 
         lengthCount = 0;
 
+        // Construct an iterator for this collection, positioned at the
+        // starting offset wherever the collection allows it
+        boolean positioned = true;
+
+        if (collection.getClass().isArray()) {
+            // Read the array in place, even if it holds primitives
+            iterator = new ArrayIterator(collection, offsetValue);
+        } else if (collection instanceof List) {
+            List list = (List) collection;
+
+            iterator = list.listIterator(Math.min(offsetValue, list.size()));
+        } else if (collection instanceof IterationSource) {
+            iterator =
+                ((IterationSource) collection).iterator(offsetValue,
+                    lengthValue);
+        } else {
+            positioned = false;
+
+            if (collection instanceof Collection) {
+                iterator = ((Collection) collection).iterator();
+            } else if (collection instanceof Iterator) {
+                iterator = (Iterator) collection;
+            } else if (collection instanceof Map) {
+                iterator = ((Map) collection).entrySet().iterator();
+            } else if (collection instanceof Enumeration) {
+                iterator = new IteratorAdapter((Enumeration) collection);
+            } else {
+                JspException e =
+                    new JspException(messages.getMessage("iterate.iterator",
+                            name, property, collection.getClass().getName()));
+
+                TagUtils.getInstance().saveException(pageContext, e);
+                throw e;
+            }
+        }
+
         // Skip the leading elements up to the starting offset
-        for (int i = 0; i < offsetValue; i++) {
-            if (iterator.hasNext()) {
-                iterator.next();
+        if (!positioned) {
+            for (int i = 0; i < offsetValue; i++) {
+                if (iterator.hasNext()) {
+                    iterator.next();
+                }
             }
         }
 
@@ -29,6 +29,7 @@ import org.apache.struts.Globals;
 import org.apache.struts.action.ActionMessage;
 import org.apache.struts.action.ActionMessages;
 import org.apache.struts.config.ActionConfig;
+import org.apache.struts.config.ForwardConfig;
 import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.config.impl.ModuleConfigImpl;
 import org.apache.struts.mock.MockFormBean;
@@ -2164,6 +2165,93 @@ public class TestTagUtils extends TagTestBase {
         }
     }
 
+    // ------------------------------------------------------- Static URL cache
+    public void testComputeURLForwardCached()
+        throws Exception {
+        request.setPathElements("/myapp", "/action.do", null, null);
+
+        assertEquals("/myapp/bar.jsp",
+            tagutils.computeURL(pageContext, "foo", null, null, null, null,
+                null, null, false));
+        assertNotNull("cache in application scope",
+            servletContext.getAttribute(StaticURLCache.CACHE_KEY));
+
+        // The cached URL does not see changes made to the same config
+        moduleConfig.findForwardConfig("foo").setPath("/changed.jsp");
+        assertEquals("/myapp/bar.jsp",
+            tagutils.computeURL(pageContext, "foo", null, null, null, null,
+                null, null, false));
+
+        // A new context path starts over
+        request.setPathElements("/other", "/action.do", null, null);
+        assertEquals("/other/changed.jsp",
+            tagutils.computeURL(pageContext, "foo", null, null, null, null,
+                null, null, false));
+
+        // So does a new ModuleConfig instance
+        ModuleConfig replacement = new ModuleConfigImpl("");
+
+        replacement.addForwardConfig(new ForwardConfig("foo", "/new.jsp",
+                false));
+        servletContext.setAttribute(Globals.MODULE_KEY, replacement);
+        request.setAttribute(Globals.MODULE_KEY, replacement);
+        assertEquals("/other/new.jsp",
+            tagutils.computeURL(pageContext, "foo", null, null, null, null,
+                null, null, false));
+    }
+
+    public void testComputeURLCachedWithParameters()
+        throws Exception {
+        request.setPathElements("/myapp", "/action.do", null, null);
+
+        Map params = new HashMap();
+
+        params.put("a", "1");
+        assertEquals("/myapp/bar.jsp?a=1#top",
+            tagutils.computeURL(pageContext, "foo", null, null, null, null,
+                params, "top", false));
+
+        params.put("a", "2");
+        assertEquals("/myapp/bar.jsp?a=2",
+            tagutils.computeURL(pageContext, "foo", null, null, null, null,
+                params, null, false));
+    }
+
+    public void testGetActionMappingURLCached() {
+        servletContext.setAttribute(Globals.SERVLET_KEY, "*.do");
+        request.setPathElements("/myapp", "/baz.do", null, null);
+
+        assertEquals("/myapp/2/foo.do",
+            tagutils.getActionMappingURL("/foo", "/2", pageContext, false));
+        assertEquals("/myapp/foo.do",
+            tagutils.getActionMappingURL("/foo", "/2", pageContext, true));
+
+        // Cached per module and action, whatever the servlet mapping now is
+        servletContext.setAttribute(Globals.SERVLET_KEY, "/do/*");
+        assertEquals("/myapp/2/foo.do",
+            tagutils.getActionMappingURL("/foo", "/2", pageContext, false));
+        assertEquals("/myapp/do/foo",
+            tagutils.getActionMappingURL("/foo", pageContext));
+    }
+
+    public void testComputeURLActionThroughMappingCache()
+        throws Exception {
+        servletContext.setAttribute(Globals.SERVLET_KEY, "*.do");
+        request.setPathElements("/myapp", "/baz.do", null, null);
+
+        ActionConfig actionConfig = new ActionConfig();
+
+        actionConfig.setPath("/foo");
+        moduleConfig.addActionConfig(actionConfig);
+
+        String url =
+            tagutils.computeURL(pageContext, null, null, null, "/foo", null,
+                null, null, false);
+
+        assertEquals("/myapp/foo.do", url);
+        assertEquals(url, tagutils.getActionMappingURL("/foo", pageContext));
+    }
+
     public void testWritePreviousBody() {
         MockPageContext pg = new MockPageContext(false, true);
 
@@ -0,0 +1,128 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.taglib.bean;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpServletResponse;
+import org.apache.struts.mock.MockHttpSession;
+import org.apache.struts.mock.MockPageContext;
+import org.apache.struts.taglib.TagTestBase;
+
+import javax.servlet.jsp.tagext.BodyTag;
+import javax.servlet.jsp.tagext.Tag;
+
+/**
+ * Unit tests for the scopes of the CacheTag.
+ */
+public class TestCacheTag extends TagTestBase {
+    /**
+     * Defines the testcase name for JUnit.
+     *
+     * @param theName the testcase's name.
+     */
+    public TestCacheTag(String theName) {
+        super(theName);
+    }
+
+    /**
+     * @return a test suite (<code>TestSuite</code>) that includes all methods
+     *         starting with "test"
+     */
+    public static Test suite() {
+        return new TestSuite(TestCacheTag.class);
+    }
+
+    /**
+     * Set up a request without a session.
+     */
+    public void setUp() {
+        super.setUp();
+        request = new MockHttpServletRequest();
+        pageContext =
+            new MockPageContext(servletConfig, request,
+                new MockHttpServletResponse());
+    }
+
+    /**
+     * Test that application scope fragments are shared, and that looking
+     * them up does not create a session.
+     */
+    public void testApplicationScope() throws Exception {
+        assertEquals("miss", BodyTag.EVAL_BODY_BUFFERED, render("k", null));
+        assertEquals("hit", Tag.SKIP_BODY, render("k", "application"));
+        assertNull("session created", request.getSession(false));
+    }
+
+    /**
+     * Test that session scope fragments are kept per session.
+     */
+    public void testSessionScope() throws Exception {
+        useSession("s1");
+        assertEquals("miss", BodyTag.EVAL_BODY_BUFFERED, render("k", "session"));
+        assertEquals("hit", Tag.SKIP_BODY, render("k", "session"));
+
+        useSession("s2");
+        assertEquals("other session", BodyTag.EVAL_BODY_BUFFERED,
+            render("k", "session"));
+
+        // Distinct from the application scope fragment
+        assertEquals("application", BodyTag.EVAL_BODY_BUFFERED,
+            render("k", "application"));
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Render a cache tag and return the result of its doStartTag().
+     */
+    private int render(String key, String scope) throws Exception {
+        CacheTag tag = new CacheTag();
+
+        tag.setPageContext(pageContext);
+        tag.setKey(key);
+
+        if (scope != null) {
+            tag.setScope(scope);
+        }
+
+        int result = tag.doStartTag();
+
+        tag.doEndTag();
+        tag.release();
+
+        return result;
+    }
+
+    private void useSession(final String id) {
+        request =
+            new MockHttpServletRequest(new MockHttpSession() {
+                    public String getId() {
+                        return id;
+                    }
+                });
+        pageContext =
+            new MockPageContext(servletConfig, request,
+                new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.taglib.bean;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import org.apache.struts.mock.MockServletContext;
+
+/**
+ * Unit tests for the FragmentCache.
+ */
+public class TestFragmentCache extends TestCase {
+
+    private Object config;
+    private Object resources;
+    private FragmentCache cache;
+    private long now;
+
+    /**
+     * Defines the testcase name for JUnit.
+     *
+     * @param theName the testcase's name.
+     */
+    public TestFragmentCache(String theName) {
+        super(theName);
+    }
+
+    /**
+     * @return a test suite (<code>TestSuite</code>) that includes all methods
+     *         starting with "test"
+     */
+    public static Test suite() {
+        return new TestSuite(TestFragmentCache.class);
+    }
+
+    /**
+     * Set up a small cache.
+     */
+    public void setUp() {
+        config    = new Object();
+        resources = new Object();
+        now       = 1000000L;
+        cache     = new FragmentCache(2) {
+                protected long currentTimeMillis() {
+                    return now;
+                }
+            };
+    }
+
+    /**
+     * Test a miss followed by a hit.
+     */
+    public void testHitAndMiss() {
+        assertNull("empty cache", cache.get("a", config, resources));
+        cache.put("a", "<p>a</p>", 0, config, resources);
+        assertEquals("cached", "<p>a</p>", cache.get("a", config, resources));
+        assertEquals("hits", 1, cache.getHits());
+        assertEquals("misses", 1, cache.getMisses());
+    }
+
+    /**
+     * Test that the least recently used entry is evicted first.
+     */
+    public void testLruEviction() {
+        cache.put("a", "A", 0, config, resources);
+        cache.put("b", "B", 0, config, resources);
+        cache.get("a", config, resources);
+        cache.put("c", "C", 0, config, resources);
+
+        assertEquals("bounded", 2, cache.size());
+        assertEquals("a kept", "A", cache.get("a", config, resources));
+        assertNull("b evicted", cache.get("b", config, resources));
+        assertEquals("c kept", "C", cache.get("c", config, resources));
+        assertEquals("evictions", 1, cache.getEvictions());
+    }
+
+    /**
+     * Test that a reloaded configuration or bundle invalidates entries.
+     */
+    public void testReloadInvalidates() {
+        cache.put("a", "A", 0, config, resources);
+        cache.put("b", "B", 0, config, resources);
+
+        assertNull("new config", cache.get("a", new Object(), resources));
+        assertNull("new resources", cache.get("b", config, new Object()));
+        assertEquals("dropped", 0, cache.size());
+        assertEquals("invalidations", 2, cache.getInvalidations());
+    }
+
+    /**
+     * Test that entries are served until their lifetime has passed, and
+     * not after.
+     */
+    public void testExpiry() {
+        cache.put("a", "A", -1, config, resources);
+        cache.put("b", "B", 2, config, resources);
+        assertEquals("no ttl", "A", cache.get("a", config, resources));
+        assertEquals("live", "B", cache.get("b", config, resources));
+
+        now += 1999;
+        assertEquals("still live", "B", cache.get("b", config, resources));
+
+        now += 1;
+        assertNull("expired", cache.get("b", config, resources));
+        assertEquals("expired entry dropped", 1, cache.size());
+        assertEquals("misses", 1, cache.getMisses());
+
+        now += 3600 * 1000L;
+        assertEquals("never expires", "A", cache.get("a", config, resources));
+    }
+
+    /**
+     * Test that the shared instance is created once per context.
+     */
+    public void testSharedInstance() {
+        MockServletContext context = new MockServletContext();
+        FragmentCache shared = FragmentCache.getInstance(context);
+
+        assertSame("same instance", shared, FragmentCache.getInstance(context));
+        assertSame("stored", shared,
+            context.getAttribute(FragmentCache.CACHE_KEY));
+    }
+}
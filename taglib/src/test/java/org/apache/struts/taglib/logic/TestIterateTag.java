@@ -0,0 +1,201 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.taglib.logic;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpServletResponse;
+import org.apache.struts.mock.MockPageContext;
+import org.apache.struts.mock.MockServletConfig;
+import org.apache.struts.util.IterationSource;
+
+import javax.servlet.jsp.tagext.BodyTag;
+import javax.servlet.jsp.tagext.Tag;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Unit tests for the IterateTag.
+ */
+public class TestIterateTag extends TestCase {
+    private MockPageContext pageContext;
+    private IterateTag tag;
+
+    /**
+     * Defines the testcase name for JUnit.
+     *
+     * @param theName the testcase's name.
+     */
+    public TestIterateTag(String theName) {
+        super(theName);
+    }
+
+    /**
+     * Start the tests.
+     *
+     * @param theArgs the arguments. Not used
+     */
+    public static void main(String[] theArgs) {
+        junit.awtui.TestRunner.main(new String[] {
+                TestIterateTag.class.getName()
+            });
+    }
+
+    /**
+     * @return a test suite (<code>TestSuite</code>) that includes all methods
+     *         starting with "test"
+     */
+    public static Test suite() {
+        return new TestSuite(TestIterateTag.class);
+    }
+
+    /**
+     * Set up mock objects.
+     */
+    public void setUp() {
+        pageContext =
+            new MockPageContext(new MockServletConfig(),
+                new MockHttpServletRequest(), new MockHttpServletResponse());
+        tag = new IterateTag();
+        tag.setPageContext(pageContext);
+        tag.setId("element");
+        tag.setIndexId("index");
+    }
+
+    /**
+     * Test an array of objects, with an offset and a length.
+     */
+    public void testObjectArray() throws Exception {
+        tag.setOffset("1");
+        tag.setLength("2");
+        assertIteration(new String[] { "a", "b", "c", "d" },
+            new Object[] { "b", "c" }, 1);
+    }
+
+    /**
+     * Test an array of primitives, which is read without being copied.
+     */
+    public void testPrimitiveArray() throws Exception {
+        tag.setOffset("2");
+        assertIteration(new int[] { 1, 2, 3, 4 },
+            new Object[] { new Integer(3), new Integer(4) }, 2);
+    }
+
+    /**
+     * Test that a List is positioned at the offset without reading the
+     * skipped elements.
+     */
+    public void testList() throws Exception {
+        final List read = new ArrayList();
+        final List values = Arrays.asList(new String[] { "a", "b", "c" });
+        List list =
+            new AbstractList() {
+                public Object get(int index) {
+                    read.add(new Integer(index));
+
+                    return values.get(index);
+                }
+
+                public int size() {
+                    return values.size();
+                }
+            };
+
+        tag.setOffset("2");
+        assertIteration(list, new Object[] { "c" }, 2);
+        assertEquals("Skipped elements read",
+            Arrays.asList(new Object[] { new Integer(2) }), read);
+    }
+
+    /**
+     * Test an offset past the end of a List.
+     */
+    public void testListOffsetPastEnd() throws Exception {
+        tag.setOffset("5");
+        tag.setCollection(Arrays.asList(new String[] { "a" }));
+        assertEquals(Tag.SKIP_BODY, tag.doStartTag());
+        tag.doEndTag();
+    }
+
+    /**
+     * Test that an IterationSource receives the offset and length.
+     */
+    public void testIterationSource() throws Exception {
+        final int[] window = new int[2];
+        IterationSource source =
+            new IterationSource() {
+                public Iterator iterator(int offset, int length) {
+                    window[0] = offset;
+                    window[1] = length;
+
+                    return Arrays.asList(new String[] { "x", "y" }).iterator();
+                }
+            };
+
+        tag.setOffset("10");
+        tag.setLength("2");
+        assertIteration(source, new Object[] { "x", "y" }, 10);
+        assertEquals(10, window[0]);
+        assertEquals(2, window[1]);
+    }
+
+    /**
+     * Test that other collections still have their leading elements
+     * skipped.
+     */
+    public void testCollection() throws Exception {
+        tag.setOffset("1");
+        assertIteration(new HashSet(Arrays.asList(new String[] { "a" })),
+            new Object[0], 1);
+
+        tag.setOffset("1");
+        assertIteration(Arrays.asList(new String[] { "a", "b" }).iterator(),
+            new Object[] { "b" }, 1);
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    private void assertIteration(Object collection, Object[] expected,
+        int firstIndex) throws Exception {
+        tag.setCollection(collection);
+
+        List elements = new ArrayList();
+        int result = tag.doStartTag();
+
+        while (result == BodyTag.EVAL_BODY_TAG) {
+            elements.add(pageContext.getAttribute("element"));
+            assertEquals(new Integer(firstIndex + elements.size() - 1),
+                pageContext.getAttribute("index"));
+            result = tag.doAfterBody();
+        }
+
+        tag.doEndTag();
+        assertEquals(Arrays.asList(expected), elements);
+    }
+}
@@ -71,6 +71,20 @@ public class ComponentDefinition implements Serializable {
      */
     protected String controllerType = null;
 
+    /**
+     * May the controller run concurrently with the controllers of the other
+     * tiles of a layout ? See {@link ControllerExecutor}.
+     * @since Struts 1.4
+     */
+    protected boolean concurrent = false;
+
+    /**
+     * Was the concurrent flag set on this definition, rather than left to be
+     * inherited ?
+     * @since Struts 1.4
+     */
+    protected boolean concurrentSet = false;
+
     /**
      * Controller name type.
      */
@@ -113,6 +127,8 @@ public class ComponentDefinition implements Serializable {
         this.controllerInstance = definition.getControllerInstance();
         this.controller = definition.getController();
         this.controllerType = definition.getControllerType();
+        this.concurrent = definition.isConcurrent();
+        this.concurrentSet = definition.isConcurrentSet();
     }
 
     /**
@@ -353,6 +369,8 @@ public class ComponentDefinition implements Serializable {
             + controller
             + ", controllerType="
             + controllerType
+            + ", concurrent="
+            + concurrent
             + ", controllerInstance="
             + controllerInstance
             + ", attributes="
@@ -360,6 +378,40 @@ public class ComponentDefinition implements Serializable {
             + "}\n";
     }
 
+    /**
+     * Get the concurrent flag.
+     * @return <code>true</code> if the controller may run concurrently with
+     * the controllers of the other tiles of a layout.
+     * @since Struts 1.4
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Set the concurrent flag.
+     * A concurrent controller is started before the layout using this tile is
+     * rendered, on another thread, with a copy of the request. It may read
+     * the request and fill its tile context, but can't write to the response,
+     * and must not modify session attributes. A definition that doesn't set
+     * the flag inherits it from the definition it extends.
+     * @param concurrent <code>true</code> to run the controller concurrently.
+     * @since Struts 1.4
+     */
+    public void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+        this.concurrentSet = true;
+    }
+
+    /**
+     * Get whether the concurrent flag was set on this definition.
+     * @return <code>false</code> if the flag is left to be inherited.
+     * @since Struts 1.4
+     */
+    public boolean isConcurrentSet() {
+        return concurrentSet;
+    }
+
     /**
      * Get associated controller type.
      * Type denote a fully qualified classname.
@@ -0,0 +1,489 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.tiles;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Runs the controllers of independent tiles ahead of time, concurrently.
+ * <p>
+ * When a layout is about to be rendered, the controllers of the tiles it
+ * receives as attributes and whose definition is marked
+ * <code>concurrent="true"</code> are submitted to a bounded pool of worker
+ * threads. When the layout later inserts such a tile, the insert waits for
+ * the controller that was started for it instead of calling it. Page latency
+ * then depends on the slowest of these controllers rather than on their sum.
+ * Tiles themselves are still included one after the other, in order, on the
+ * request thread.
+ * </p>
+ * <p>
+ * A concurrent controller runs outside of the request thread, on a copy of
+ * the request taken when it is started. It may read the request, and fill
+ * its tile context, but can't include or forward, or write to the response.
+ * Request attributes it sets are not seen by the page, and it must not
+ * modify session attributes. For that reason, controllers given as an URL
+ * are never run concurrently. The controller only sees the attributes of its
+ * definition: if the inserting tag puts attributes, the controller started
+ * ahead is discarded and the controller is run on the request thread as
+ * usual.
+ * </p>
+ * <p>
+ * Whoever starts the first controllers of a request must call
+ * {@link #release} once the page is rendered, so that no controller runs
+ * after the request is complete.
+ * </p>
+ * <p>
+ * One executor is shared by the web application, stored under
+ * {@link #EXECUTOR_KEY}. It is created by the {@link TilesPlugin} when its
+ * <code>controllerThreads</code> property is set.
+ * </p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+public class ControllerExecutor {
+
+    /**
+     * The application scope attribute under which the executor is stored.
+     */
+    public static final String EXECUTOR_KEY =
+        "org.apache.struts.tiles.CONTROLLER_EXECUTOR";
+
+    /**
+     * The request scope attribute holding the controllers started for the
+     * current request, keyed by definition.
+     */
+    public static final String PREFETCHED_KEY =
+        "org.apache.struts.tiles.PREFETCHED_CONTROLLERS";
+
+    /**
+     * Tasks waiting for a worker. All access is synchronized on the list.
+     */
+    private final LinkedList queue = new LinkedList();
+
+    /**
+     * Maximum number of waiting tasks.
+     */
+    private final int maxQueued;
+
+    /**
+     * The worker threads.
+     */
+    private final Thread workers[];
+
+    /**
+     * Set once the executor is shut down.
+     */
+    private volatile boolean shutdown = false;
+
+    /**
+     * Constructor.
+     * @param threads Number of worker threads.
+     * @param maxQueued Maximum number of tasks waiting for a worker. Further
+     * tasks are refused, and run by the caller.
+     * @param name Prefix of worker thread names.
+     */
+    public ControllerExecutor(int threads, int maxQueued, String name) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+
+        this.maxQueued = maxQueued;
+        workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(new Worker(), name + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Get the executor of the web application.
+     * @param servletContext Current servlet context.
+     * @return The executor, or <code>null</code> if concurrent controllers
+     * are not enabled.
+     */
+    public static ControllerExecutor getInstance(ServletContext servletContext) {
+        return (ControllerExecutor) servletContext.getAttribute(EXECUTOR_KEY);
+    }
+
+    /**
+     * Start the controllers of the concurrent definitions found in the
+     * attributes of a tile context, if concurrent controllers are enabled.
+     * Called before the page using these attributes is rendered.
+     * @param tileContext Context of the page about to be rendered.
+     * @param request Current request.
+     * @param response Current response.
+     * @param servletContext Current servlet context.
+     * @return <code>true</code> if these are the first controllers started
+     * for the request, in which case the caller must {@link #release} the
+     * request once the page is rendered.
+     */
+    public static boolean prefetch(
+        ComponentContext tileContext,
+        HttpServletRequest request,
+        HttpServletResponse response,
+        ServletContext servletContext) {
+
+        ControllerExecutor executor = getInstance(servletContext);
+        if ((executor == null) || (tileContext == null)) {
+            return false;
+        }
+
+        boolean first = false;
+
+        Iterator names = tileContext.getAttributeNames();
+        while (names.hasNext()) {
+            ComponentDefinition definition =
+                toDefinition(
+                    tileContext.getAttribute((String) names.next()),
+                    request,
+                    servletContext);
+
+            if ((definition == null) || !definition.isConcurrent()) {
+                continue;
+            }
+
+            if ((definition.getRole() != null)
+                && !request.isUserInRole(definition.getRole())) {
+                continue;
+            }
+
+            Map started = (Map) request.getAttribute(PREFETCHED_KEY);
+            if (started == null) {
+                started = new HashMap();
+                request.setAttribute(PREFETCHED_KEY, started);
+                first = true;
+
+            } else if (started.containsKey(definition)) {
+                continue;
+            }
+
+            Controller controller;
+            try {
+                controller = definition.getOrCreateController();
+
+            } catch (InstantiationException e) {
+                // Reported when the tile is inserted
+                continue;
+            }
+
+            if ((controller == null) || (controller instanceof UrlController)) {
+                continue;
+            }
+
+            HttpServletRequest copy = new ControllerRequest(request);
+            copy.removeAttribute(PREFETCHED_KEY);
+
+            Task task =
+                new Task(
+                    controller,
+                    new ComponentContext(definition.getAttributes()),
+                    copy,
+                    new ControllerResponse(response),
+                    servletContext);
+
+            if (executor.submit(task)) {
+                started.put(definition, task);
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * Cancel the controllers started during the current request and not
+     * taken by an insert, and wait for those already running.
+     * Called once the page that started the first controllers is rendered.
+     * @param request Current request.
+     */
+    public static void release(ServletRequest request) {
+        Map started = (Map) request.getAttribute(PREFETCHED_KEY);
+        if (started == null) {
+            return;
+        }
+
+        request.removeAttribute(PREFETCHED_KEY);
+
+        Iterator tasks = started.values().iterator();
+        while (tasks.hasNext()) {
+            ((Task) tasks.next()).cancel();
+        }
+    }
+
+    /**
+     * Get, and forget, the controller started for a definition during the
+     * current request.
+     * @param definition The definition about to be inserted.
+     * @param request Current request.
+     * @return The task, or <code>null</code> if none was started.
+     */
+    public static Task takePrefetched(
+        ComponentDefinition definition,
+        ServletRequest request) {
+
+        if ((definition == null) || !definition.isConcurrent()) {
+            return null;
+        }
+
+        Map started = (Map) request.getAttribute(PREFETCHED_KEY);
+        if (started == null) {
+            return null;
+        }
+
+        return (Task) started.remove(definition);
+    }
+
+    /**
+     * Resolve the value of a tile attribute to a definition, if it is one.
+     */
+    private static ComponentDefinition toDefinition(
+        Object value,
+        ServletRequest request,
+        ServletContext servletContext) {
+
+        if (value instanceof ComponentDefinition) {
+            return (ComponentDefinition) value;
+        }
+
+        if (value instanceof DefinitionAttribute) {
+            return (ComponentDefinition) ((DefinitionAttribute) value).getValue();
+        }
+
+        if (!(value instanceof DefinitionNameAttribute)
+            && !(value instanceof UntypedAttribute)) {
+            return null;
+        }
+
+        Object name = ((AttributeDefinition) value).getValue();
+        if (!(name instanceof String)) {
+            return null;
+        }
+
+        try {
+            return TilesUtil.getDefinition((String) name, request, servletContext);
+
+        } catch (Exception e) {
+            // Not a definition, or no factory
+            return null;
+        }
+    }
+
+    /**
+     * Queue a task for execution.
+     * @param task The task.
+     * @return <code>false</code> if the task was refused because the queue
+     * is full or the executor is shut down.
+     */
+    public boolean submit(Task task) {
+        synchronized (queue) {
+            if (shutdown || (queue.size() >= maxQueued)) {
+                return false;
+            }
+
+            queue.addLast(task);
+            queue.notify();
+        }
+
+        return true;
+    }
+
+    /**
+     * Stop the worker threads. Waiting tasks are run by the threads that
+     * wait for them.
+     */
+    public void shutdown() {
+        synchronized (queue) {
+            shutdown = true;
+            queue.notifyAll();
+        }
+    }
+
+    /**
+     * Worker thread body.
+     */
+    private class Worker implements Runnable {
+        public void run() {
+            while (true) {
+                Task task;
+                synchronized (queue) {
+                    while (queue.isEmpty() && !shutdown) {
+                        try {
+                            queue.wait();
+
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+
+                    if (shutdown) {
+                        return;
+                    }
+
+                    task = (Task) queue.removeFirst();
+                }
+
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * A controller started ahead of the insertion of its tile.
+     */
+    public static class Task {
+
+        private final Controller controller;
+        private final ComponentContext tileContext;
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final ServletContext servletContext;
+
+        /**
+         * <code>false</code> until the controller ran.
+         * Guarded by <code>this</code>.
+         */
+        private boolean done = false;
+
+        /**
+         * <code>true</code> once a thread started running the controller.
+         * Guarded by <code>this</code>.
+         */
+        private boolean started = false;
+
+        /**
+         * Exception or error thrown by the controller, if any.
+         * Guarded by <code>this</code>.
+         */
+        private Throwable failure = null;
+
+        Task(
+            Controller controller,
+            ComponentContext tileContext,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            ServletContext servletContext) {
+
+            this.controller = controller;
+            this.tileContext = tileContext;
+            this.request = request;
+            this.response = response;
+            this.servletContext = servletContext;
+        }
+
+        /**
+         * Get the tile context the controller filled.
+         * Only valid once {@link #await} returned.
+         * @return The tile context.
+         */
+        public ComponentContext getContext() {
+            return tileContext;
+        }
+
+        /**
+         * Wait until the controller ran. If no worker picked it up yet, run
+         * it in the calling thread.
+         * @throws Exception The exception thrown by the controller.
+         */
+        public void await() throws Exception {
+            run();
+
+            synchronized (this) {
+                while (!done) {
+                    wait();
+                }
+            }
+
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw (Exception) failure;
+            }
+        }
+
+        /**
+         * Prevent the controller from running if no thread started it yet,
+         * otherwise wait until it ran. Its result is discarded.
+         */
+        public void cancel() {
+            synchronized (this) {
+                if (!started) {
+                    started = true;
+                    done = true;
+                    notifyAll();
+                    return;
+                }
+
+                boolean interrupted = false;
+                while (!done) {
+                    try {
+                        wait();
+
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Run the controller, unless another thread already did.
+         */
+        void run() {
+            synchronized (this) {
+                if (started) {
+                    return;
+                }
+                started = true;
+            }
+
+            Throwable thrown = null;
+            try {
+                controller.execute(tileContext, request, response, servletContext);
+
+            } catch (Throwable t) {
+                thrown = t;
+
+            } finally {
+                synchronized (this) {
+                    failure = thrown;
+                    done = true;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+}
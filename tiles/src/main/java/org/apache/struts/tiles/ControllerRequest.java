@@ -0,0 +1,415 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.tiles;
+
+import java.io.BufferedReader;
+import java.security.Principal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpSession;
+
+/**
+ * Copy of a request, handed to a controller run by the
+ * {@link ControllerExecutor}.
+ * <p>
+ * Container requests are not thread-safe, and are recycled once the response
+ * is complete. The state a controller may read is therefore copied on the
+ * request thread, when the controller is started, and the copy is used by a
+ * single worker thread. Attributes are copied shallowly: the copy has its
+ * own attribute map, and attributes set by the controller are not seen by
+ * the request. The session is the one the request had when the copy was
+ * made; a controller can't create one.
+ * </p>
+ * <p>
+ * The body of the request can't be read, and the request can't be
+ * dispatched. Roles are still checked by the container.
+ * </p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+class ControllerRequest extends HttpServletRequestWrapper {
+
+    /**
+     * Format of HTTP date headers.
+     */
+    private static final String DATE_FORMAT = "EEE, dd MMM yyyy HH:mm:ss zzz";
+
+    private final Map attributes = new HashMap();
+    private final Map parameters = new HashMap();
+    private final Map headers = new HashMap();
+    private final List locales = new ArrayList();
+    private final HttpSession session;
+    private final Cookie[] cookies;
+    private final String authType;
+    private final String method;
+    private final String pathInfo;
+    private final String pathTranslated;
+    private final String contextPath;
+    private final String queryString;
+    private final String remoteUser;
+    private final Principal userPrincipal;
+    private final String requestedSessionId;
+    private final boolean requestedSessionIdValid;
+    private final boolean requestedSessionIdFromCookie;
+    private final boolean requestedSessionIdFromURL;
+    private final String requestURI;
+    private final String requestURL;
+    private final String servletPath;
+    private final int contentLength;
+    private final String contentType;
+    private final String protocol;
+    private final String scheme;
+    private final String serverName;
+    private final int serverPort;
+    private final String remoteAddr;
+    private final String remoteHost;
+    private final boolean secure;
+    private String characterEncoding;
+
+    /**
+     * Copy a request. Must be called on the thread processing the request.
+     * @param request The request to copy.
+     */
+    ControllerRequest(HttpServletRequest request) {
+        super(request);
+
+        Enumeration names = request.getAttributeNames();
+        while (names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            attributes.put(name, request.getAttribute(name));
+        }
+
+        Iterator entries = request.getParameterMap().entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry entry = (Map.Entry) entries.next();
+            Object value = entry.getValue();
+            if (value instanceof String[]) {
+                value = ((String[]) value).clone();
+            }
+            parameters.put(entry.getKey(), value);
+        }
+
+        names = request.getHeaderNames();
+        while ((names != null) && names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            headers.put(name.toLowerCase(), Collections.list(request.getHeaders(name)));
+        }
+
+        Enumeration requestLocales = request.getLocales();
+        while (requestLocales.hasMoreElements()) {
+            locales.add(requestLocales.nextElement());
+        }
+
+        Cookie[] requestCookies = request.getCookies();
+        cookies = (requestCookies == null) ? null : (Cookie[]) requestCookies.clone();
+
+        session = request.getSession(false);
+        authType = request.getAuthType();
+        method = request.getMethod();
+        pathInfo = request.getPathInfo();
+        pathTranslated = request.getPathTranslated();
+        contextPath = request.getContextPath();
+        queryString = request.getQueryString();
+        remoteUser = request.getRemoteUser();
+        userPrincipal = request.getUserPrincipal();
+        requestedSessionId = request.getRequestedSessionId();
+        requestedSessionIdValid = request.isRequestedSessionIdValid();
+        requestedSessionIdFromCookie = request.isRequestedSessionIdFromCookie();
+        requestedSessionIdFromURL = request.isRequestedSessionIdFromURL();
+        requestURI = request.getRequestURI();
+        requestURL = request.getRequestURL().toString();
+        servletPath = request.getServletPath();
+        characterEncoding = request.getCharacterEncoding();
+        contentLength = request.getContentLength();
+        contentType = request.getContentType();
+        protocol = request.getProtocol();
+        scheme = request.getScheme();
+        serverName = request.getServerName();
+        serverPort = request.getServerPort();
+        remoteAddr = request.getRemoteAddr();
+        remoteHost = request.getRemoteHost();
+        secure = request.isSecure();
+    }
+
+    // ------------------------------------------------- ServletRequest Methods
+
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public Enumeration getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    public void setCharacterEncoding(String characterEncoding) {
+        this.characterEncoding = characterEncoding;
+    }
+
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public ServletInputStream getInputStream() {
+        throw new IllegalStateException(
+            "A concurrent controller can't read the request body");
+    }
+
+    public BufferedReader getReader() {
+        throw new IllegalStateException(
+            "A concurrent controller can't read the request body");
+    }
+
+    public String getParameter(String name) {
+        Object value = parameters.get(name);
+        if (value instanceof String[]) {
+            String[] values = (String[]) value;
+            return (values.length == 0) ? null : values[0];
+        }
+
+        return (String) value;
+    }
+
+    public Enumeration getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    public String[] getParameterValues(String name) {
+        Object value = parameters.get(name);
+        if ((value == null) || (value instanceof String[])) {
+            return (String[]) value;
+        }
+
+        return new String[] { (String) value };
+    }
+
+    public Map getParameterMap() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public String getScheme() {
+        return scheme;
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    public String getRemoteHost() {
+        return remoteHost;
+    }
+
+    public Locale getLocale() {
+        return locales.isEmpty() ? Locale.getDefault() : (Locale) locales.get(0);
+    }
+
+    public Enumeration getLocales() {
+        return Collections.enumeration(locales);
+    }
+
+    public boolean isSecure() {
+        return secure;
+    }
+
+    public RequestDispatcher getRequestDispatcher(String path) {
+        throw new IllegalStateException(
+            "A concurrent controller can't include or forward");
+    }
+
+    // --------------------------------------------- HttpServletRequest Methods
+
+    public String getAuthType() {
+        return authType;
+    }
+
+    public Cookie[] getCookies() {
+        return cookies;
+    }
+
+    public long getDateHeader(String name) {
+        String value = getHeader(name);
+        if (value == null) {
+            return -1;
+        }
+
+        SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return format.parse(value).getTime();
+
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(
+                "Header '" + name + "' is not a date: " + value);
+        }
+    }
+
+    public String getHeader(String name) {
+        List values = (List) headers.get(name.toLowerCase());
+        if ((values == null) || values.isEmpty()) {
+            return null;
+        }
+
+        return (String) values.get(0);
+    }
+
+    public Enumeration getHeaders(String name) {
+        List values = (List) headers.get(name.toLowerCase());
+        if (values == null) {
+            values = Collections.EMPTY_LIST;
+        }
+
+        return Collections.enumeration(values);
+    }
+
+    public Enumeration getHeaderNames() {
+        return Collections.enumeration(headers.keySet());
+    }
+
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return (value == null) ? -1 : Integer.parseInt(value);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPathInfo() {
+        return pathInfo;
+    }
+
+    public String getPathTranslated() {
+        return pathTranslated;
+    }
+
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    public String getQueryString() {
+        return queryString;
+    }
+
+    public String getRemoteUser() {
+        return remoteUser;
+    }
+
+    public Principal getUserPrincipal() {
+        return userPrincipal;
+    }
+
+    public String getRequestedSessionId() {
+        return requestedSessionId;
+    }
+
+    public String getRequestURI() {
+        return requestURI;
+    }
+
+    public StringBuffer getRequestURL() {
+        return new StringBuffer(requestURL);
+    }
+
+    public String getServletPath() {
+        return servletPath;
+    }
+
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    public HttpSession getSession(boolean create) {
+        if ((session == null) && create) {
+            throw new IllegalStateException(
+                "A concurrent controller can't create a session");
+        }
+
+        return session;
+    }
+
+    public boolean isRequestedSessionIdValid() {
+        return requestedSessionIdValid;
+    }
+
+    public boolean isRequestedSessionIdFromCookie() {
+        return requestedSessionIdFromCookie;
+    }
+
+    public boolean isRequestedSessionIdFromURL() {
+        return requestedSessionIdFromURL;
+    }
+
+    /**
+     * @deprecated Use isRequestedSessionIdFromURL() instead.
+     */
+    public boolean isRequestedSessionIdFromUrl() {
+        return requestedSessionIdFromURL;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.tiles;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response handed to a controller run by the {@link ControllerExecutor}.
+ * <p>
+ * The response belongs to the request thread, which renders the page while
+ * the controller runs. A concurrent controller may encode URLs, but any
+ * attempt to write to the response, or to change its status or headers,
+ * throws an <code>IllegalStateException</code>.
+ * </p>
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+class ControllerResponse extends HttpServletResponseWrapper {
+
+    /**
+     * Constructor.
+     * @param response The response of the request.
+     */
+    ControllerResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    /**
+     * Refuse a change of the response.
+     */
+    private static IllegalStateException refused() {
+        return new IllegalStateException(
+            "A concurrent controller can't modify the response");
+    }
+
+    // ------------------------------------------------ ServletResponse Methods
+
+    public ServletOutputStream getOutputStream() {
+        throw refused();
+    }
+
+    public PrintWriter getWriter() {
+        throw refused();
+    }
+
+    public void setContentLength(int length) {
+        throw refused();
+    }
+
+    public void setContentType(String type) {
+        throw refused();
+    }
+
+    public void setBufferSize(int size) {
+        throw refused();
+    }
+
+    public void flushBuffer() {
+        throw refused();
+    }
+
+    public void resetBuffer() {
+        throw refused();
+    }
+
+    public void reset() {
+        throw refused();
+    }
+
+    public void setLocale(Locale locale) {
+        throw refused();
+    }
+
+    // -------------------------------------------- HttpServletResponse Methods
+
+    public void addCookie(Cookie cookie) {
+        throw refused();
+    }
+
+    public void sendError(int status, String message) {
+        throw refused();
+    }
+
+    public void sendError(int status) {
+        throw refused();
+    }
+
+    public void sendRedirect(String location) {
+        throw refused();
+    }
+
+    public void setDateHeader(String name, long date) {
+        throw refused();
+    }
+
+    public void addDateHeader(String name, long date) {
+        throw refused();
+    }
+
+    public void setHeader(String name, String value) {
+        throw refused();
+    }
+
+    public void addHeader(String name, String value) {
+        throw refused();
+    }
+
+    public void setIntHeader(String name, int value) {
+        throw refused();
+    }
+
+    public void addIntHeader(String name, int value) {
+        throw refused();
+    }
+
+    public void setStatus(int status) {
+        throw refused();
+    }
+
+    /**
+     * @deprecated As of version 2.1 of the Servlet API.
+     */
+    public void setStatus(int status, String message) {
+        throw refused();
+    }
+
+}
@@ -58,6 +58,13 @@ public class DefinitionsFactoryConfig implements Serializable {
      */
     protected String definitionConfigFiles = null;
 
+    /**
+     * Comma separated list of locales whose definitions are loaded at
+     * initialization rather than on first request.
+     * @since Struts 1.4
+     */
+    protected String preloadLocales = null;
+
     /**
      * Specifies whether the factory is "module-aware".
      */
@@ -98,6 +105,13 @@ public class DefinitionsFactoryConfig implements Serializable {
     public static final String DEFINITIONS_CONFIG_PARAMETER_NAME =
         "definitions-config";
 
+    /**
+     * Alternate name for preloaded locales properties in configuration file.
+     * @since Struts 1.4
+     */
+    public static final String PRELOAD_LOCALES_PARAMETER_NAME =
+        "definitions-preload-locales";
+
     /**
      * Alternate name for definition debug details properties in configuration file.
      * @deprecated This will be removed in a release after Struts 1.2.
@@ -192,6 +206,25 @@ public class DefinitionsFactoryConfig implements Serializable {
         definitionConfigFiles = aDefinitionConfigFiles;
     }
 
+    /**
+     * Get the locales whose definitions are loaded at initialization.
+     * @return Comma separated list of locales, or <code>null</code>.
+     * @since Struts 1.4
+     */
+    public String getPreloadLocales() {
+        return preloadLocales;
+    }
+
+    /**
+     * Set the locales whose definitions are loaded at initialization.
+     * @param preloadLocales Comma separated list of locales, ex :
+     * <code>en,en_US,fr</code>.
+     * @since Struts 1.4
+     */
+    public void setPreloadLocales(String preloadLocales) {
+        this.preloadLocales = preloadLocales;
+    }
+
     /**
      * Set value of an additional attribute.
      * @param name Name of the attribute.
@@ -292,6 +325,9 @@ public class DefinitionsFactoryConfig implements Serializable {
 
             } else if (TILES_DETAILS_PARAMETER_NAME.equals(entry.getKey())) {
                 toAdd.put("debugLevel", entry.getValue());
+
+            } else if (PRELOAD_LOCALES_PARAMETER_NAME.equals(entry.getKey())) {
+                toAdd.put("preloadLocales", entry.getValue());
             }
         }
 
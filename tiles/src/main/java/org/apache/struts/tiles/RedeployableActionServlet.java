@@ -22,7 +22,6 @@ package org.apache.struts.tiles;
 
 import javax.servlet.ServletException;
 
-import org.apache.struts.Globals;
 import org.apache.struts.action.ActionServlet;
 import org.apache.struts.action.RequestProcessor;
 import org.apache.struts.config.ModuleConfig;
@@ -55,9 +54,14 @@ import org.apache.struts.tiles.TilesRequestProcessor;
  * @since 1.2.1
  */
 public class RedeployableActionServlet extends ActionServlet {
-    private TilesRequestProcessor tileProcessor;
+    private volatile TilesRequestProcessor tileProcessor;
 
-    protected synchronized RequestProcessor
+    /**
+     * Serializes the replacement of the request processor.
+     */
+    private final Object reloadLock = new Object();
+
+    protected RequestProcessor
             getRequestProcessor(ModuleConfig config) throws ServletException {
 
         if (tileProcessor != null) {
@@ -65,25 +69,30 @@ public class RedeployableActionServlet extends ActionServlet {
             return processor;
         }
 
-        // reset the request processor
-        String requestProcessorKey = Globals.REQUEST_PROCESSOR_KEY +
-                config.getPrefix();
-        getServletContext().removeAttribute(requestProcessorKey);
+        synchronized (reloadLock) {
+            if (tileProcessor != null) {
+                return super.getRequestProcessor(config);
+            }
 
-        // create a new request processor instance
-        TilesRequestProcessor processor = (TilesRequestProcessor) super.getRequestProcessor(config);
+            // create a new request processor instance
+            TilesRequestProcessor processor =
+                (TilesRequestProcessor) createRequestProcessor(config);
 
-        tileProcessor = processor;
+            try {
+                // reload Tiles defs
+                DefinitionsFactory factory = processor.getDefinitionsFactory();
+                factory.init(factory.getConfig(), getServletContext());
+                // System.out.println("reloaded tiles-definitions");
+            } catch (DefinitionsFactoryException e) {
+                e.printStackTrace();
+            }
 
-        try {
-            // reload Tiles defs
-            DefinitionsFactory factory = processor.getDefinitionsFactory();
-            factory.init(factory.getConfig(), getServletContext());
-            // System.out.println("reloaded tiles-definitions");
-        } catch (DefinitionsFactoryException e) {
-            e.printStackTrace();
-        }
+            // replace the request processor
+            replaceRequestProcessor(config, processor);
+
+            tileProcessor = processor;
 
-        return processor;
+            return processor;
+        }
     }
 }
@@ -36,6 +36,9 @@ import org.apache.struts.chain.ComposableRequestProcessor;
 import org.apache.struts.config.ControllerConfig;
 import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.config.PlugInConfig;
+import org.apache.struts.tiles.definition.ComponentDefinitionsFactoryWrapper;
+import org.apache.struts.tiles.definition.DefinitionsReloader;
+import org.apache.struts.tiles.xmlDefinition.I18nFactorySet;
 import org.apache.struts.util.RequestUtils;
 
 /**
@@ -90,6 +93,81 @@ public class TilesPlugin implements PlugIn {
      */
     protected PlugInConfig currentPlugInConfigObject=null;
 
+    /**
+     * Seconds between two checks of the definition files for changes, or
+     * zero to never reload them. This property can be set by user in the
+     * plugin declaration.
+     * @since Struts 1.4
+     */
+    protected int reloadInterval = 0;
+
+    /**
+     * Background reloader of the definitions, if reloading is enabled.
+     * @since Struts 1.4
+     */
+    protected DefinitionsReloader reloader = null;
+
+    /**
+     * Number of threads running the controllers of concurrent definitions,
+     * or zero to run all controllers on the request thread. This property
+     * can be set by user in the plugin declaration.
+     * @since Struts 1.4
+     */
+    protected int controllerThreads = 0;
+
+    /**
+     * Executor of concurrent controllers, if created by this plugin.
+     * @since Struts 1.4
+     */
+    protected ControllerExecutor controllerExecutor = null;
+
+    /**
+     * Servlet context the executor of concurrent controllers is stored in.
+     */
+    private ServletContext executorContext = null;
+
+    /**
+     * Get the number of threads running concurrent controllers.
+     * @return The number of threads, or zero if disabled.
+     * @since Struts 1.4
+     */
+    public int getControllerThreads() {
+        return controllerThreads;
+    }
+
+    /**
+     * Set the number of threads running the controllers of definitions
+     * marked <code>concurrent="true"</code>. These controllers are started
+     * as soon as the layout inserting them is about to be rendered.
+     * The executor is shared by all modules, and created by the first
+     * plugin setting this property.
+     * @param controllerThreads The number of threads, or zero to disable.
+     * @since Struts 1.4
+     */
+    public void setControllerThreads(int controllerThreads) {
+        this.controllerThreads = controllerThreads;
+    }
+
+    /**
+     * Get the number of seconds between two checks of the definition files.
+     * @return The interval, or zero if definitions are never reloaded.
+     * @since Struts 1.4
+     */
+    public int getReloadInterval() {
+        return reloadInterval;
+    }
+
+    /**
+     * Set the number of seconds between two checks of the definition files.
+     * When a file changes, the definitions are reloaded in the background
+     * and replace the current ones once ready.
+     * @param reloadInterval The interval, or zero to never reload.
+     * @since Struts 1.4
+     */
+    public void setReloadInterval(int reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+
     /**
      * Get the module aware flag.
      * @return <code>true</code>: user wants a single factory instance,
@@ -133,12 +211,87 @@ public class TilesPlugin implements PlugIn {
         // the name under which the factory is stored.
         factoryConfig.setFactoryName(moduleConfig.getPrefix());
 
+        // Only keep track of the parsed files if they are to be reloaded
+        if (reloadInterval > 0) {
+            factoryConfig.setAttribute(
+                I18nFactorySet.RELOAD_PARAMETER_NAME,
+                Boolean.TRUE.toString());
+        }
+
         // Set RequestProcessor class
         this.initRequestProcessorClass(moduleConfig);
 
         this.initTilesUtil();
 
         this.initDefinitionsFactory(servlet.getServletContext(), moduleConfig, factoryConfig);
+
+        this.initReloader(servlet.getServletContext(), moduleConfig);
+
+        this.initControllerExecutor(servlet.getServletContext());
+    }
+
+    /**
+     * Create the executor of concurrent controllers if a number of threads
+     * is set and no other module created it already.
+     * @param servletContext
+     */
+    private void initControllerExecutor(ServletContext servletContext) {
+        if (controllerThreads <= 0) {
+            return;
+        }
+
+        synchronized (servletContext) {
+            if (ControllerExecutor.getInstance(servletContext) != null) {
+                return;
+            }
+
+            controllerExecutor =
+                new ControllerExecutor(
+                    controllerThreads,
+                    controllerThreads * 16,
+                    "Tiles controller");
+            executorContext = servletContext;
+            servletContext.setAttribute(
+                ControllerExecutor.EXECUTOR_KEY,
+                controllerExecutor);
+        }
+
+        log.info(
+            "Tiles concurrent controllers enabled with "
+                + controllerThreads
+                + " threads.");
+    }
+
+    /**
+     * Start the background reloader of the definitions if a reload interval
+     * is set and the factory supports it.
+     * @param servletContext
+     * @param moduleConfig
+     */
+    private void initReloader(
+        ServletContext servletContext,
+        ModuleConfig moduleConfig) {
+
+        if (reloadInterval <= 0) {
+            return;
+        }
+
+        if (!(definitionFactory instanceof ComponentDefinitionsFactoryWrapper)) {
+            log.warn(
+                "Tiles definitions of module '"
+                    + moduleConfig.getPrefix()
+                    + "' can't be reloaded: unsupported factory class '"
+                    + definitionFactory.getClass().getName()
+                    + "'.");
+            return;
+        }
+
+        reloader =
+            new DefinitionsReloader(
+                (ComponentDefinitionsFactoryWrapper) definitionFactory,
+                servletContext,
+                reloadInterval * 1000L);
+        reloader.start("Tiles definitions reloader " + moduleConfig.getPrefix());
     }
 
     /**
@@ -247,6 +400,16 @@ public class TilesPlugin implements PlugIn {
      * End plugin.
      */
     public void destroy() {
+        if (reloader != null) {
+            reloader.stop();
+            reloader = null;
+        }
+        if (controllerExecutor != null) {
+            executorContext.removeAttribute(ControllerExecutor.EXECUTOR_KEY);
+            controllerExecutor.shutdown();
+            controllerExecutor = null;
+            executorContext = null;
+        }
         definitionFactory.destroy();
         definitionFactory = null;
     }
@@ -259,16 +259,32 @@ public class TilesRequestProcessor extends RequestProcessor {
             }
         }
 
+        // Start the concurrent controllers of the tiles this page inserts.
+        boolean prefetching =
+            ControllerExecutor.prefetch(
+                tileContext,
+                request,
+                response,
+                getServletContext());
+
         // If request comes from a previous Tile, do an include.
         // This allows to insert an action in a Tile.
         if (log.isDebugEnabled()) {
             log.debug("uri=" + uri + " doInclude=" + doInclude);
         }
 
-        if (doInclude) {
-            doInclude(uri, request, response);
-        } else {
-            doForward(uri, request, response); // original behavior
+        try {
+            if (doInclude) {
+                doInclude(uri, request, response);
+            } else {
+                doForward(uri, request, response); // original behavior
+            }
+
+        } finally {
+            // Don't leave controllers running once the page is rendered
+            if (prefetching) {
+                ControllerExecutor.release(request);
+            }
         }
 
         return true;
@@ -33,6 +33,7 @@ import org.apache.struts.tiles.DefinitionsFactory;
 import org.apache.struts.tiles.DefinitionsFactoryConfig;
 import org.apache.struts.tiles.DefinitionsFactoryException;
 import org.apache.struts.tiles.NoSuchDefinitionException;
+import org.apache.struts.tiles.xmlDefinition.I18nFactorySet;
 import org.apache.struts.util.RequestUtils;
 
 /**
@@ -44,8 +45,10 @@ public class ComponentDefinitionsFactoryWrapper implements DefinitionsFactory {
 
     /**
      * The underlying factory.
+     * Replaced as a whole on reload, so requests never see a factory that is
+     * being built.
      */
-    private ComponentDefinitionsFactory factory = null;
+    private volatile ComponentDefinitionsFactory factory = null;
 
     /**
      * Factory configuration,
@@ -130,6 +133,46 @@ public class ComponentDefinitionsFactoryWrapper implements DefinitionsFactory {
         factory = newFactory;
     }
 
+    /**
+     * Check if the definition files read by the underlying factory have
+     * changed since they were read.
+     * Only factories of class {@link I18nFactorySet} can tell; any other
+     * factory is reported as unmodified.
+     * @param servletContext Our servlet context.
+     * @return <code>true</code> if the factory should be reloaded.
+     * @since Struts 1.4
+     */
+    public boolean isModified(ServletContext servletContext) {
+        ComponentDefinitionsFactory current = factory;
+        if (current instanceof I18nFactorySet) {
+            return ((I18nFactorySet) current).isModified(servletContext);
+        }
+
+        return false;
+    }
+
+    /**
+     * Reload the underlying factory from its definition files.
+     * The new factory is built completely before it replaces the current
+     * one. An {@link I18nFactorySet} only parses again the files that
+     * changed; any other factory is recreated from scratch.
+     * @param servletContext Our servlet context.
+     * @throws DefinitionsFactoryException If the new factory can't be built.
+     * The current factory is kept in that case.
+     * @since Struts 1.4
+     */
+    public void reload(ServletContext servletContext)
+        throws DefinitionsFactoryException {
+
+        ComponentDefinitionsFactory current = factory;
+        if (current instanceof I18nFactorySet) {
+            factory = ((I18nFactorySet) current).reload(servletContext,
+                    createConfigMap(config));
+        } else {
+            setConfig(config, servletContext);
+        }
+    }
+
     /**
      * Get underlying factory configuration.
      * @return DefinitionsFactoryConfig.
@@ -210,6 +253,12 @@ public class ComponentDefinitionsFactoryWrapper implements DefinitionsFactory {
             DefinitionsFactoryConfig.PARSER_VALIDATE_PARAMETER_NAME,
             (config.getParserValidate() ? Boolean.TRUE.toString() : Boolean.FALSE.toString()));
 
+        if (config.getPreloadLocales() != null) {
+            map.put(
+                DefinitionsFactoryConfig.PRELOAD_LOCALES_PARAMETER_NAME,
+                config.getPreloadLocales());
+        }
+
         if (!"org.apache.struts.tiles.xmlDefinition.I18nFactorySet"
             .equals(config.getFactoryClassname())) {
 
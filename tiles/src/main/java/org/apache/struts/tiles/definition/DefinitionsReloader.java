@@ -0,0 +1,172 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.tiles.definition;
+
+import javax.servlet.ServletContext;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Background reloading of Tiles definitions.
+ * A daemon thread polls the definition files of a factory at a fixed
+ * interval. When one of them is modified, created or deleted, a new
+ * factory is built on this thread, reparsing only the modified files, and
+ * then replaces the current one in a single assignment. Requests keep using
+ * the current factory meanwhile and never wait for a reload.
+ *
+ * @version $Rev$ $Date$
+ * @since Struts 1.4
+ */
+public class DefinitionsReloader implements Runnable {
+
+    /**
+     * Commons Logging instance.
+     */
+    protected static Log log = LogFactory.getLog(DefinitionsReloader.class);
+
+    /**
+     * The factory to keep up to date.
+     */
+    private final ComponentDefinitionsFactoryWrapper factory;
+
+    /**
+     * Our servlet context.
+     */
+    private final ServletContext servletContext;
+
+    /**
+     * Milliseconds between two checks.
+     */
+    private final long interval;
+
+    /**
+     * The polling thread, or <code>null</code> when stopped.
+     */
+    private volatile Thread thread = null;
+
+    /**
+     * Constructor.
+     * @param factory The factory to keep up to date.
+     * @param servletContext Our servlet context.
+     * @param interval Milliseconds between two checks.
+     */
+    public DefinitionsReloader(
+        ComponentDefinitionsFactoryWrapper factory,
+        ServletContext servletContext,
+        long interval) {
+
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+
+        this.factory = factory;
+        this.servletContext = servletContext;
+        this.interval = interval;
+    }
+
+    /**
+     * Start polling.
+     * @param name Name of the polling thread.
+     */
+    public synchronized void start(String name) {
+        if (thread != null) {
+            return;
+        }
+
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop polling. A reload in progress is completed first, unless this
+     * is called from the polling thread itself.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+            thread = null;
+        }
+
+        if (current == null) {
+            return;
+        }
+
+        current.interrupt();
+        if (current == Thread.currentThread()) {
+            return;
+        }
+
+        try {
+            current.join();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Poll until stopped.
+     */
+    public void run() {
+        Thread current = Thread.currentThread();
+        while (thread == current) {
+            try {
+                Thread.sleep(interval);
+
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            if (thread != current) {
+                break;
+            }
+
+            checkNow();
+        }
+    }
+
+    /**
+     * Check the definition files once, and reload the factory if one of them
+     * changed. Errors are logged, and the current factory is kept.
+     * @return <code>true</code> if the factory was reloaded.
+     */
+    public boolean checkNow() {
+        try {
+            if (!factory.isModified(servletContext)) {
+                return false;
+            }
+
+            factory.reload(servletContext);
+            log.info("Tiles definitions reloaded for factory '"
+                + factory.getConfig().getFactoryName() + "'.");
+            return true;
+
+        } catch (Exception e) {
+            log.error("Can't reload Tiles definitions, keeping current ones.", e);
+            return false;
+        }
+    }
+
+}
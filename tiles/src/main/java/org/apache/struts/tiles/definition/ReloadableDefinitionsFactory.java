@@ -50,8 +50,10 @@ public class ReloadableDefinitionsFactory implements ComponentDefinitionsFactory
 
     /**
      * The real factory instance.
+     * Replaced as a whole by {@link #reload}, which builds the new instance
+     * before publishing it.
      */
-    protected ComponentDefinitionsFactory factory = null;
+    protected volatile ComponentDefinitionsFactory factory = null;
 
     /**
      * Initialization parameters.
@@ -40,6 +40,7 @@ import org.apache.struts.tiles.AttributeDefinition;
 import org.apache.struts.tiles.ComponentContext;
 import org.apache.struts.tiles.ComponentDefinition;
 import org.apache.struts.tiles.Controller;
+import org.apache.struts.tiles.ControllerExecutor;
 import org.apache.struts.tiles.DefinitionAttribute;
 import org.apache.struts.tiles.DefinitionNameAttribute;
 import org.apache.struts.tiles.DefinitionsFactoryException;
@@ -628,11 +629,22 @@ public class InsertTag
             }
 
             // Can check if page is set
-            return new InsertHandler(
-                definition.getAttributes(),
-                page,
-                role,
-                controller);
+            InsertHandler handler =
+                new InsertHandler(
+                    definition.getAttributes(),
+                    page,
+                    role,
+                    controller);
+
+            // Use the controller started ahead for this tile, if any
+            if (controllerName == null) {
+                handler.prefetched =
+                    ControllerExecutor.takePrefetched(
+                        definition,
+                        pageContext.getRequest());
+            }
+
+            return handler;
 
         } catch (InstantiationException ex) {
             throw new JspException(ex);
@@ -798,6 +810,20 @@ public class InsertTag
         protected String role;
         protected Controller controller;
 
+        /**
+         * Controller already started for this tile by the enclosing layout,
+         * or <code>null</code>.
+         * @since Struts 1.4
+         */
+        protected ControllerExecutor.Task prefetched;
+
+        /**
+         * Were attributes put by nested tags ? The prefetched controller
+         * didn't see them, so it is run again on the request thread.
+         * @since Struts 1.4
+         */
+        protected boolean hasPutAttributes = false;
+
         /**
          * Constructor.
          * Create insert handler using Component definition.
@@ -848,6 +874,7 @@ public class InsertTag
          */
         public void putAttribute(String name, Object value) {
             subCompContext.putAttribute(name, value);
+            hasPutAttributes = true;
         }
 
         /**
@@ -867,6 +894,25 @@ public class InsertTag
                     log.debug("insert page='" + page + "'.");
                 }
 
+                // Wait for the controller started ahead, if any, and use
+                // the context it filled. If attributes were put, the
+                // controller must see them: discard it and run it again.
+                if ((prefetched != null) && hasPutAttributes) {
+                    prefetched.cancel();
+                    prefetched = null;
+                }
+
+                if (prefetched != null) {
+                    try {
+                        prefetched.await();
+
+                    } catch (Exception e) {
+                        throw new ServletException(e);
+                    }
+
+                    subCompContext = prefetched.getContext();
+                }
+
                 // set new context for included component.
                 pageContext.setAttribute(
                     ComponentConstants.COMPONENT_CONTEXT,
@@ -874,7 +920,7 @@ public class InsertTag
                     PageContext.REQUEST_SCOPE);
 
                 // Call controller if any
-                if (controller != null) {
+                if ((controller != null) && (prefetched == null)) {
                     try {
                         controller.execute(
                             subCompContext,
@@ -888,12 +934,30 @@ public class InsertTag
 
                 }
 
-                // include requested component.
-                if (flush) {
-                    pageContext.getOut().flush();
-                }
+                // Start the concurrent controllers of the tiles this
+                // component will insert.
+                boolean prefetching =
+                    ControllerExecutor.prefetch(
+                        subCompContext,
+                        (HttpServletRequest) pageContext.getRequest(),
+                        (HttpServletResponse) pageContext.getResponse(),
+                        pageContext.getServletContext());
+
+                try {
+                    // include requested component.
+                    if (flush) {
+                        pageContext.getOut().flush();
+                    }
 
-                doInclude(page, flush);
+                    doInclude(page, flush);
+
+                } finally {
+                    // Don't leave controllers running once the page is
+                    // rendered
+                    if (prefetching) {
+                        ControllerExecutor.release(pageContext.getRequest());
+                    }
+                }
 
             } catch (IOException e) {
                 String msg =
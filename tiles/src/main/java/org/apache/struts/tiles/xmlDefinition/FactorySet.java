@@ -43,8 +43,15 @@ import org.apache.struts.tiles.NoSuchDefinitionException;
 public abstract class FactorySet implements ComponentDefinitionsFactory
 {
 
-    /** Loaded factories */
-  protected Map factories=null;
+    /**
+     * Loaded factories.
+     * Never modified in place: a new map is published each time a factory is
+     * added, so lookups need no locking.
+     */
+  protected volatile Map factories=null;
+
+    /** Lock serializing factory creation. */
+  private final Object creationLock = new Object();
 
   /**
    * Extract key that will be used to get the sub factory.
@@ -83,19 +90,35 @@ public abstract class FactorySet implements ComponentDefinitionsFactory
       // synchronize creation to avoid double creation by separate threads.
       // Also, check if factory hasn't been created while waiting for synchronized
       // section.
-    synchronized(factories)
+    synchronized(creationLock)
       {
       factory = factories.get( key );
       if( factory == null )
         {
         factory = createFactory( key, request, servletContext);
-        factories.put( key, factory );
+        Map copy = new HashMap( factories );
+        copy.put( key, factory );
+        factories = copy;
         } // end if
       } // end synchronized
     } // end if
   return (DefinitionsFactory)factory;
   }
 
+  /**
+   * Create, if not already loaded, the factory for specified key.
+   * Used at initialization to move the cost of parsing definition files
+   * out of the first requests using that key.
+   * @param key Key of factory to load.
+   * @param servletContext Current servlet context.
+   * @throws DefinitionsFactoryException If an error occur while creating factory.
+   */
+  public void preloadFactory(Object key, ServletContext servletContext)
+    throws DefinitionsFactoryException
+  {
+  getFactory( key, null, servletContext );
+  }
+
   /**
    * Get a definition by its name.
    *
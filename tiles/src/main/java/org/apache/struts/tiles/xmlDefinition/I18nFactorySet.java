@@ -21,10 +21,15 @@
 
 package org.apache.struts.tiles.xmlDefinition;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -81,6 +86,22 @@ public class I18nFactorySet extends FactorySet {
     public static final String PARSER_VALIDATE_PARAMETER_NAME =
         "definitions-parser-validate";
 
+    /**
+     * Config file parameter name.
+     * Comma separated list of locales (ex : <code>en,en_US,fr</code>) whose
+     * factories are built at initialization instead of on first request.
+     */
+    public static final String PRELOAD_LOCALES_PARAMETER_NAME =
+        "definitions-preload-locales";
+
+    /**
+     * Config file parameter name.
+     * When <code>true</code>, parsed files are kept with their modification
+     * time so that {@link #isModified} can poll them and {@link #reload}
+     * only parses again the files that changed.
+     */
+    public static final String RELOAD_PARAMETER_NAME = "definitions-reload";
+
     /**
      * Possible definition filenames.
      */
@@ -126,9 +147,31 @@ public class I18nFactorySet extends FactorySet {
 
     /**
      * Collection of already loaded definitions set, referenced by their suffix.
+     * Only accessed while creating a factory, which {@link FactorySet}
+     * serializes.
      */
     private Map loaded = null;
 
+    /**
+     * Do we keep parsed files to detect and reload changes ?
+     */
+    protected boolean isReloadable = false;
+
+    /**
+     * Files parsed so far, keyed by file name, with the modification time
+     * they were parsed at. Definitions are copied out of this cache rather
+     * than reparsed, and the cache is handed over on {@link #reload} so that
+     * only files that changed since are parsed again.
+     * Only filled if reloading is enabled.
+     */
+    protected Map parsedFiles = Collections.synchronizedMap(new HashMap());
+
+    /**
+     * Keys of the factories to build at initialization because a previous
+     * instance had them loaded. Set by {@link #reload}.
+     */
+    private Collection reloadKeys = null;
+
     /**
      * Parameterless Constructor.
      * Method {@link #initFactory} must be called prior to any use of created factory.
@@ -169,6 +212,11 @@ public class I18nFactorySet extends FactorySet {
             isValidatingParser = Boolean.valueOf(value).booleanValue();
         }
 
+        value = (String) properties.get(RELOAD_PARAMETER_NAME);
+        if (value != null) {
+            isReloadable = Boolean.valueOf(value).booleanValue();
+        }
+
         value = (String) properties.get(PARSER_DETAILS_PARAMETER_NAME);
         if (value != null) {
             try {
@@ -214,6 +262,139 @@ public class I18nFactorySet extends FactorySet {
             }
         }
 
+        // Build factories for the locales we were asked to preload
+        value = (String) properties.get(PRELOAD_LOCALES_PARAMETER_NAME);
+        if ((value != null) && (filenames != null)) {
+            preloadLocales(servletContext, value);
+        }
+
+        // Rebuild the factories the instance we replace had loaded
+        if ((reloadKeys != null) && (filenames != null)) {
+            Iterator keys = reloadKeys.iterator();
+            while (keys.hasNext()) {
+                preloadFactory(keys.next(), servletContext);
+            }
+        }
+        reloadKeys = null;
+
+    }
+
+    /**
+     * Build the factories for a list of locales, so that no definition file
+     * has to be parsed while serving a request for one of them.
+     * @param servletContext Current servlet context.
+     * @param locales Comma separated list of locales, ex : <code>en,en_US,fr</code>.
+     * @throws DefinitionsFactoryException If an error occur while creating a factory.
+     */
+    protected void preloadLocales(ServletContext servletContext, String locales)
+        throws DefinitionsFactoryException {
+
+        StringTokenizer tokenizer = new StringTokenizer(locales, ",");
+        while (tokenizer.hasMoreTokens()) {
+            String token = tokenizer.nextToken().trim();
+            if (token.length() == 0) {
+                continue;
+            }
+
+            Locale locale = toLocale(token);
+            preloadFactory(locale, servletContext);
+            if (log.isDebugEnabled()) {
+                log.debug("Factory preloaded for locale '" + locale + "'.");
+            }
+        }
+    }
+
+    /**
+     * Create a new factory set equivalent to this one, with definitions
+     * read again from the definition files.
+     * Only files modified since they were last parsed are parsed again; the
+     * others are copied from this instance. The factories loaded in this
+     * instance are built before the new instance is returned, so that it
+     * can replace this one without stalling requests.
+     * @param servletContext Current servlet context.
+     * @param properties Map of name/property used to initialize the new factory set.
+     * @return The new factory set.
+     * @throws DefinitionsFactoryException If an error occur while creating the factory set.
+     * @since Struts 1.4
+     */
+    public I18nFactorySet reload(ServletContext servletContext, Map properties)
+        throws DefinitionsFactoryException {
+
+        I18nFactorySet newInstance;
+        try {
+            newInstance = (I18nFactorySet) getClass().newInstance();
+
+        } catch (Exception ex) {
+            throw new DefinitionsFactoryException(
+                "Can't create new instance of '" + getClass().getName() + "'.",
+                ex);
+        }
+
+        newInstance.parsedFiles.putAll(parsedFiles);
+        newInstance.reloadKeys = new ArrayList(factories.keySet());
+        newInstance.initFactory(servletContext, properties);
+        return newInstance;
+    }
+
+    /**
+     * Check if any definition file read by this factory set has been
+     * modified, created or deleted since it was read.
+     * Files whose modification time can't be determined are never reported,
+     * and nothing is ever reported if reloading is not enabled.
+     * @param servletContext Current servlet context.
+     * @return <code>true</code> if a reload is needed.
+     * @since Struts 1.4
+     */
+    public boolean isModified(ServletContext servletContext) {
+
+        if (!isReloadable) {
+            return false;
+        }
+
+        List entries;
+        synchronized (parsedFiles) {
+            entries = new ArrayList(parsedFiles.entrySet());
+        }
+
+        Iterator i = entries.iterator();
+        while (i.hasNext()) {
+            Map.Entry entry = (Map.Entry) i.next();
+            ParsedFile parsed = (ParsedFile) entry.getValue();
+            String filename = (String) entry.getKey();
+            if (getLastModified(servletContext, filename) != parsed.lastModified) {
+                if (log.isDebugEnabled()) {
+                    log.debug("File '" + filename + "' has been modified.");
+                }
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Convert a locale code of the form <code>language[_country[_variant]]</code>
+     * into a Locale.
+     * @param code The locale code.
+     * @return The corresponding Locale.
+     */
+    private Locale toLocale(String code) {
+        String language = code;
+        String country = "";
+        String variant = "";
+
+        int index = code.indexOf('_');
+        if (index >= 0) {
+            language = code.substring(0, index);
+            country = code.substring(index + 1);
+            index = country.indexOf('_');
+            if (index >= 0) {
+                variant = country.substring(index + 1);
+                country = country.substring(0, index);
+            }
+        }
+
+        return new Locale(language, country, variant);
     }
 
     /**
@@ -457,6 +638,8 @@ public class I18nFactorySet extends FactorySet {
      * This method is used to load several description files in one instances list.
      * If filename exists and definition set is <code>null</code>, create a new set. Otherwise, return
      * passed definition set (can be <code>null</code>).
+     * If reloading is enabled, a file already parsed and not modified since
+     * is not parsed again: its definitions are copied from the previous parse.
      * @param servletContext Current servlet context. Used to open file.
      * @param filename Name of file to parse.
      * @param xmlDefinitions Definitions set to which definitions will be added. If null, a definitions
@@ -470,6 +653,69 @@ public class I18nFactorySet extends FactorySet {
         XmlDefinitionsSet xmlDefinitions)
         throws DefinitionsFactoryException {
 
+        // Reloading disabled: parse the file, keeping nothing
+        if (!isReloadable) {
+            XmlDefinitionsSet parsed = parseFile(servletContext, filename);
+            if (parsed == null) {
+                return xmlDefinitions;
+            }
+
+            if (xmlDefinitions == null) {
+                return parsed;
+            }
+
+            Iterator i = parsed.getDefinitions().values().iterator();
+            while (i.hasNext()) {
+                xmlDefinitions.putDefinition((XmlDefinition) i.next());
+            }
+            return xmlDefinitions;
+        }
+
+        long lastModified = getLastModified(servletContext, filename);
+        ParsedFile parsed = (ParsedFile) parsedFiles.get(filename);
+        if ((parsed == null) || (parsed.lastModified != lastModified)) {
+            parsed =
+                new ParsedFile(lastModified, parseFile(servletContext, filename));
+
+            // Modification time unknown: we couldn't tell when to parse again
+            if (lastModified != 0) {
+                parsedFiles.put(filename, parsed);
+            }
+        }
+
+        // No file, nothing to add
+        if (parsed.definitions == null) {
+            return xmlDefinitions;
+        }
+
+        // Check if definition set already exist.
+        if (xmlDefinitions == null) {
+            xmlDefinitions = new XmlDefinitionsSet();
+        }
+
+        // Copy definitions, as resolving inheritance modifies them
+        Iterator i = parsed.definitions.getDefinitions().values().iterator();
+        while (i.hasNext()) {
+            xmlDefinitions.putDefinition(new XmlDefinition((XmlDefinition) i.next()));
+        }
+
+        return xmlDefinitions;
+    }
+
+    /**
+     * Parse specified xml file into a new definitions set.
+     * @param servletContext Current servlet context. Used to open file.
+     * @param filename Name of file to parse.
+     * @return XmlDefinitionsSet The definitions set, or <code>null</code> if
+     * there is no such file.
+     * @throws DefinitionsFactoryException On errors parsing file.
+     */
+    private XmlDefinitionsSet parseFile(
+        ServletContext servletContext,
+        String filename)
+        throws DefinitionsFactoryException {
+
+        XmlDefinitionsSet xmlDefinitions = null;
         try {
             InputStream input = servletContext.getResourceAsStream(filename);
             // Try to load using real path.
@@ -506,11 +752,7 @@ public class I18nFactorySet extends FactorySet {
                 xmlParser.setValidating(isValidatingParser);
             }
 
-            // Check if definition set already exist.
-            if (xmlDefinitions == null) {
-                xmlDefinitions = new XmlDefinitionsSet();
-            }
-
+            xmlDefinitions = new XmlDefinitionsSet();
             xmlParser.parse(input, xmlDefinitions);
 
         } catch (SAXException ex) {
@@ -531,6 +773,50 @@ public class I18nFactorySet extends FactorySet {
         return xmlDefinitions;
     }
 
+    /**
+     * Get the modification time of a definition file, looking for it the same
+     * way {@link #parseXmlFile} does.
+     * @param servletContext Current servlet context.
+     * @param filename Name of the file.
+     * @return The modification time, <code>-1</code> if there is no such file,
+     * or <code>0</code> if it can't be determined.
+     */
+    private long getLastModified(ServletContext servletContext, String filename) {
+
+        try {
+            URL url = null;
+            try {
+                url = servletContext.getResource(filename);
+            } catch (MalformedURLException e) {
+                // Not a context resource path, try the other locations
+            }
+
+            if (url == null) {
+                try {
+                    File file = new File(servletContext.getRealPath(filename));
+                    if (file.exists()) {
+                        return file.lastModified();
+                    }
+                } catch (Exception e) {
+                    // No real path, try the class loader
+                }
+                url = getClass().getResource(filename);
+            }
+
+            if (url == null) {
+                return -1;
+            }
+
+            if ("file".equals(url.getProtocol())) {
+                return new File(url.getFile()).lastModified();
+            }
+            return url.openConnection().getLastModified();
+
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
     /**
      * Concat postfix to the name. Take care of existing filename extension.
      * Transform the given name "name.ext" to have "name" + "postfix" + "ext".
@@ -573,4 +859,21 @@ public class I18nFactorySet extends FactorySet {
         return buff.toString();
     }
 
+    /**
+     * A parsed definition file.
+     */
+    private static final class ParsedFile {
+
+        /** Modification time of the file when it was parsed. */
+        final long lastModified;
+
+        /** Definitions read, or <code>null</code> if there was no file. */
+        final XmlDefinitionsSet definitions;
+
+        ParsedFile(long lastModified, XmlDefinitionsSet definitions) {
+            this.lastModified = lastModified;
+            this.definitions = definitions;
+        }
+    }
+
 }
@@ -55,6 +55,20 @@ public class XmlDefinition extends ComponentDefinition
    super();
    //if(debug)
      //System.out.println( "create definition" );
+   }
+
+     /**
+      * Copy Constructor.
+      * Create an unresolved copy of a definition, as read from its file.
+      * Do a shallow copy : attributes are shared between copies, but not the
+      * Map containing attributes.
+      * @param definition Definition to copy.
+      * @since Struts 1.4
+      */
+   public XmlDefinition( XmlDefinition definition )
+   {
+   super( (ComponentDefinition)definition );
+   inherit = definition.getExtends();
    }
 
   /**
@@ -159,6 +173,8 @@ public class XmlDefinition extends ComponentDefinition
       setController( parent.getController());
       setControllerType( parent.getControllerType());
       }
+    if( !isConcurrentSet() && parent.isConcurrentSet() )
+      setConcurrent( parent.isConcurrent() );
     }
 
   /**
@@ -188,6 +204,10 @@ public class XmlDefinition extends ComponentDefinition
       controller = child.getController();
       controllerType =  child.getControllerType();
       }
+    if( child.isConcurrentSet() )
+      {
+      setConcurrent( child.isConcurrent() );
+      }
       // put all child attributes in parent.
     attributes.putAll( child.getAttributes());
     }
@@ -0,0 +1,104 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.tiles;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpSession;
+
+import org.apache.struts.mock.MockHttpServletRequest;
+
+/**
+ * <p>Mock request answering everything a {@link ControllerRequest} copies.</p>
+ *
+ * @version $Rev$ $Date$
+ */
+public class CopyableMockRequest extends MockHttpServletRequest {
+
+    public CopyableMockRequest(HttpSession session) {
+        super("/context", "/test.do", null, null, session);
+    }
+
+    public String getAuthType() {
+        return null;
+    }
+
+    public Cookie[] getCookies() {
+        return null;
+    }
+
+    public Enumeration getHeaderNames() {
+        return Collections.enumeration(Collections.EMPTY_LIST);
+    }
+
+    public String getPathTranslated() {
+        return null;
+    }
+
+    public String getRequestedSessionId() {
+        return null;
+    }
+
+    public StringBuffer getRequestURL() {
+        return new StringBuffer("http://localhost/test.do");
+    }
+
+    public boolean isRequestedSessionIdFromCookie() {
+        return false;
+    }
+
+    public boolean isRequestedSessionIdFromURL() {
+        return false;
+    }
+
+    public boolean isRequestedSessionIdValid() {
+        return false;
+    }
+
+    public String getCharacterEncoding() {
+        return null;
+    }
+
+    public int getContentLength() {
+        return -1;
+    }
+
+    public Enumeration getLocales() {
+        return Collections.enumeration(Collections.singletonList(Locale.US));
+    }
+
+    public String getProtocol() {
+        return "HTTP/1.1";
+    }
+
+    public String getRemoteAddr() {
+        return "127.0.0.1";
+    }
+
+    public String getRemoteHost() {
+        return "localhost";
+    }
+
+}
@@ -34,6 +34,13 @@ import org.apache.struts.tiles.xmlDefinition.I18nFactorySet;
 
 public class CustomI18nFactorySet extends I18nFactorySet {
 
+    /**
+     * Parameterless Constructor, used when reloading.
+     */
+    public CustomI18nFactorySet() {
+        super();
+    }
+
     /**
      * Constructor.
      * Init the factory by reading appropriate configuration file.
@@ -54,6 +61,20 @@ public class CustomI18nFactorySet extends I18nFactorySet {
         return super.createFactory(key, request, servletContext);
     }
 
+    /**
+     * Is a factory already loaded for the specified key ?
+     */
+    public boolean isFactoryLoaded(Object key) {
+        return factories.containsKey(key);
+    }
+
+    /**
+     * Number of parsed files kept for reloading.
+     */
+    public int getParsedFileCount() {
+        return parsedFiles.size();
+    }
+
 
 
 }
@@ -366,6 +366,324 @@ public class TestTilesPlugin extends TestMockBase {
 
   }
 
+  /**
+   * Test that I18nFactorySet builds the factories of preloaded locales
+   * at initialization.
+   */
+  public void testI18FactorySetPreload() {
+
+     Map properties = new HashMap();
+     properties.put(I18nFactorySet.DEFINITIONS_CONFIG_PARAMETER_NAME,
+                    "config/I18nFactorySet-B.xml");
+     properties.put(I18nFactorySet.PRELOAD_LOCALES_PARAMETER_NAME,
+                    "en_US, en_GB_XX");
+
+     try {
+         CustomI18nFactorySet i18nFactorySet = new CustomI18nFactorySet(context, properties);
+
+         assertTrue("en_US preloaded",
+                    i18nFactorySet.isFactoryLoaded(new Locale("en", "US")));
+         assertTrue("en_GB_XX preloaded",
+                    i18nFactorySet.isFactoryLoaded(new Locale("en", "GB", "XX")));
+         assertFalse("fr not preloaded",
+                     i18nFactorySet.isFactoryLoaded(new Locale("fr", "")));
+
+     } catch(Exception ex) {
+         fail(ex.toString());
+     }
+  }
+
+  /**
+   * Test that I18nFactorySet detects modified files and reloads into a new
+   * instance with the same factories loaded.
+   */
+  public void testI18FactorySetReload() throws Exception {
+
+     Map properties = new HashMap();
+     properties.put(I18nFactorySet.DEFINITIONS_CONFIG_PARAMETER_NAME,
+                    "config/I18nFactorySet-B.xml");
+     properties.put(I18nFactorySet.RELOAD_PARAMETER_NAME, "true");
+
+     CustomI18nFactorySet i18nFactorySet = new CustomI18nFactorySet(context, properties);
+     Locale locale = new Locale("en", "US");
+     i18nFactorySet.preloadFactory(locale, context);
+     assertFalse("not modified", i18nFactorySet.isModified(context));
+
+     java.io.File file = new java.io.File(
+         CustomI18nFactorySet.class.getResource("config/I18nFactorySet-B.xml").getFile());
+     long lastModified = file.lastModified();
+     try {
+         assertTrue("touched", file.setLastModified(lastModified + 10000));
+         assertTrue("modified", i18nFactorySet.isModified(context));
+
+         CustomI18nFactorySet reloaded = (CustomI18nFactorySet)
+             i18nFactorySet.reload(context, properties);
+         assertNotSame("new instance", i18nFactorySet, reloaded);
+         assertFalse("reloaded not modified", reloaded.isModified(context));
+         assertTrue("en_US factory rebuilt", reloaded.isFactoryLoaded(locale));
+
+         ComponentDefinition definition =
+             reloaded.createFactory(locale, request, context)
+                 .getDefinition("B_en_US", request, context);
+         assertNotNull("definition after reload", definition);
+         assertEquals("definition name", "B_en_US", definition.getName());
+
+     } finally {
+         file.setLastModified(lastModified);
+     }
+  }
+
+  /**
+   * Test that I18nFactorySet neither keeps parsed files nor polls them
+   * when reloading is not enabled.
+   */
+  public void testI18FactorySetNoReload() throws Exception {
+
+     Map properties = new HashMap();
+     properties.put(I18nFactorySet.DEFINITIONS_CONFIG_PARAMETER_NAME,
+                    "config/I18nFactorySet-B.xml");
+
+     CustomI18nFactorySet i18nFactorySet = new CustomI18nFactorySet(context, properties);
+     Locale locale = new Locale("en", "US");
+     i18nFactorySet.preloadFactory(locale, context);
+     assertEquals("no parsed files kept", 0, i18nFactorySet.getParsedFileCount());
+
+     java.io.File file = new java.io.File(
+         CustomI18nFactorySet.class.getResource("config/I18nFactorySet-B.xml").getFile());
+     long lastModified = file.lastModified();
+     try {
+         assertTrue("touched", file.setLastModified(lastModified + 10000));
+         assertFalse("never modified", i18nFactorySet.isModified(context));
+
+         ComponentDefinition definition =
+             i18nFactorySet.createFactory(locale, request, context)
+                 .getDefinition("B_en_US", request, context);
+         assertNotNull("definition", definition);
+
+     } finally {
+         file.setLastModified(lastModified);
+     }
+  }
+
+  /**
+   * Test that the controller of a concurrent definition is started ahead,
+   * and that its tile context is handed to the insert.
+   */
+  public void testControllerPrefetch() throws Exception {
+
+     ControllerExecutor executor = new ControllerExecutor(1, 4, "test");
+     context.setAttribute(ControllerExecutor.EXECUTOR_KEY, executor);
+     request = new CopyableMockRequest(session);
+     request.setAttribute("shared", "value");
+
+     try {
+         ComponentDefinition definition = new ComponentDefinition();
+         definition.setName("body");
+         definition.setPath("/body.jsp");
+         definition.setConcurrent(true);
+         definition.setControllerInstance(new ControllerSupport() {
+             public void execute(ComponentContext tileContext,
+                 javax.servlet.http.HttpServletRequest request,
+                 javax.servlet.http.HttpServletResponse response,
+                 javax.servlet.ServletContext servletContext) {
+                 tileContext.putAttribute("filled", Thread.currentThread().getName());
+                 tileContext.putAttribute("shared", request.getAttribute("shared"));
+                 request.setAttribute("private", "value");
+                 try {
+                     response.setStatus(500);
+                 } catch (IllegalStateException e) {
+                     tileContext.putAttribute("refused", e);
+                 }
+             }
+         });
+
+         Map attributes = new HashMap();
+         attributes.put("body", definition);
+         assertTrue("first controllers started",
+                    ControllerExecutor.prefetch(new ComponentContext(attributes),
+                                                request, response, context));
+         assertFalse("not first",
+                     ControllerExecutor.prefetch(new ComponentContext(attributes),
+                                                 request, response, context));
+
+         ControllerExecutor.Task task =
+             ControllerExecutor.takePrefetched(definition, request);
+         assertNotNull("controller started", task);
+         assertNull("taken once",
+                    ControllerExecutor.takePrefetched(definition, request));
+
+         task.await();
+         assertNotNull("context filled", task.getContext().getAttribute("filled"));
+         assertEquals("request attribute copied", "value",
+                      task.getContext().getAttribute("shared"));
+         assertNull("request attribute set on the copy",
+                    request.getAttribute("private"));
+         assertNotNull("response refused",
+                       task.getContext().getAttribute("refused"));
+
+         ControllerExecutor.release(request);
+         assertNull("released",
+                    request.getAttribute(ControllerExecutor.PREFETCHED_KEY));
+
+     } finally {
+         context.removeAttribute(ControllerExecutor.EXECUTOR_KEY);
+         executor.shutdown();
+     }
+  }
+
+  /**
+   * Test that the controllers not inserted are cancelled once the request
+   * is released.
+   */
+  public void testControllerRelease() throws Exception {
+
+     ControllerExecutor executor = new ControllerExecutor(1, 4, "test");
+     context.setAttribute(ControllerExecutor.EXECUTOR_KEY, executor);
+     request = new CopyableMockRequest(session);
+
+     final Object lock = new Object();
+     final boolean blocked[] = { true };
+     final boolean ran[] = { false };
+
+     try {
+         // Keep the only worker busy
+         ControllerExecutor.Task blocker =
+             new ControllerExecutor.Task(new ControllerSupport() {
+                 public void execute(ComponentContext tileContext,
+                     javax.servlet.http.HttpServletRequest request,
+                     javax.servlet.http.HttpServletResponse response,
+                     javax.servlet.ServletContext servletContext)
+                     throws Exception {
+                     synchronized (lock) {
+                         while (blocked[0]) {
+                             lock.wait();
+                         }
+                     }
+                 }
+             }, new ComponentContext(), request, response, context);
+         assertTrue("blocker queued", executor.submit(blocker));
+
+         ComponentDefinition definition = new ComponentDefinition();
+         definition.setName("body");
+         definition.setPath("/body.jsp");
+         definition.setConcurrent(true);
+         definition.setControllerInstance(new ControllerSupport() {
+             public void execute(ComponentContext tileContext,
+                 javax.servlet.http.HttpServletRequest request,
+                 javax.servlet.http.HttpServletResponse response,
+                 javax.servlet.ServletContext servletContext) {
+                 ran[0] = true;
+             }
+         });
+
+         Map attributes = new HashMap();
+         attributes.put("body", definition);
+         assertTrue("controller started",
+                    ControllerExecutor.prefetch(new ComponentContext(attributes),
+                                                request, response, context));
+
+         ControllerExecutor.release(request);
+         assertNull("released",
+                    ControllerExecutor.takePrefetched(definition, request));
+
+         synchronized (lock) {
+             blocked[0] = false;
+             lock.notifyAll();
+         }
+         blocker.await();
+
+         // Queued after the cancelled controller
+         ControllerExecutor.Task marker =
+             new ControllerExecutor.Task(new ControllerSupport() {
+                 public void execute(ComponentContext tileContext,
+                     javax.servlet.http.HttpServletRequest request,
+                     javax.servlet.http.HttpServletResponse response,
+                     javax.servlet.ServletContext servletContext) {
+                 }
+             }, new ComponentContext(), request, response, context);
+         assertTrue("marker queued", executor.submit(marker));
+         marker.await();
+
+         assertFalse("cancelled controller never ran", ran[0]);
+
+     } finally {
+         synchronized (lock) {
+             blocked[0] = false;
+             lock.notifyAll();
+         }
+         context.removeAttribute(ControllerExecutor.EXECUTOR_KEY);
+         executor.shutdown();
+     }
+  }
+
+  /**
+   * Test that a definition inherits the concurrent flag of its parent.
+   */
+  public void testConcurrentInherited() throws Exception {
+
+     org.apache.struts.tiles.xmlDefinition.XmlDefinitionsSet set =
+         new org.apache.struts.tiles.xmlDefinition.XmlDefinitionsSet();
+
+     org.apache.struts.tiles.xmlDefinition.XmlDefinition parent =
+         new org.apache.struts.tiles.xmlDefinition.XmlDefinition();
+     parent.setName("parent");
+     parent.setPath("/parent.jsp");
+     parent.setConcurrent(true);
+     set.putDefinition(parent);
+
+     org.apache.struts.tiles.xmlDefinition.XmlDefinition child =
+         new org.apache.struts.tiles.xmlDefinition.XmlDefinition();
+     child.setName("child");
+     child.setExtends("parent");
+     set.putDefinition(child);
+
+     set.resolveInheritances();
+     assertTrue("concurrent inherited", child.isConcurrent());
+  }
+
+  /**
+   * Test that a definition setting concurrent="false" does not inherit the
+   * flag of a concurrent parent, and that overloading keeps it.
+   */
+  public void testConcurrentTurnedOff() throws Exception {
+
+     org.apache.struts.tiles.xmlDefinition.XmlDefinitionsSet set =
+         new org.apache.struts.tiles.xmlDefinition.XmlDefinitionsSet();
+
+     org.apache.struts.tiles.xmlDefinition.XmlDefinition parent =
+         new org.apache.struts.tiles.xmlDefinition.XmlDefinition();
+     parent.setName("parent");
+     parent.setPath("/parent.jsp");
+     parent.setConcurrent(true);
+     set.putDefinition(parent);
+
+     org.apache.struts.tiles.xmlDefinition.XmlDefinition child =
+         new org.apache.struts.tiles.xmlDefinition.XmlDefinition();
+     child.setName("child");
+     child.setExtends("parent");
+     child.setConcurrent(false);
+     set.putDefinition(child);
+
+     set.resolveInheritances();
+     assertFalse("concurrent turned off", child.isConcurrent());
+     assertFalse("copy keeps the flag",
+         new ComponentDefinition(child).isConcurrent());
+
+     org.apache.struts.tiles.xmlDefinition.XmlDefinition overloading =
+         new org.apache.struts.tiles.xmlDefinition.XmlDefinition();
+     overloading.setName("parent");
+     overloading.setConcurrent(false);
+     parent.overload(overloading);
+     assertFalse("concurrent overloaded", parent.isConcurrent());
+
+     org.apache.struts.tiles.xmlDefinition.XmlDefinition unset =
+         new org.apache.struts.tiles.xmlDefinition.XmlDefinition();
+     unset.setName("child");
+     child.overload(unset);
+     assertFalse("unset flag not overloaded", child.isConcurrent());
+     assertTrue(child.isConcurrentSet());
+  }
+
   /**
    * String representation of a Locale. A bug in the
    * Locale.toString() method results in Locales with